@@ -0,0 +1,141 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Generates the synthetic workbooks used by the benchmarks.
+ * <p>
+ * Every row consists of {@link #COLUMNS} cells: a numeric value, a string value, a date,
+ * a formatted decimal, a formula over the numeric columns of the same row and a running
+ * total formula which references the previous row. This mix covers the cell types which
+ * are commonly found in real-world spreadsheets without relying on test-data files.
+ */
+public final class BenchmarkWorkbooks {
+    /** number of cells per generated row */
+    public static final int COLUMNS = 6;
+
+    /** number of distinct string values - the remaining strings are shared */
+    private static final int DISTINCT_STRINGS = 1000;
+
+    private BenchmarkWorkbooks() {}
+
+    /**
+     * Fills the given (empty) workbook with one sheet of generated data
+     *
+     * @param wb the workbook to fill, which can be of any flavour
+     * @param rows the number of rows to create
+     * @return the same workbook for chaining
+     */
+    public static <T extends Workbook> T fill(T wb, int rows) {
+        CellStyle dateStyle = wb.createCellStyle();
+        dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+        CellStyle decimalStyle = wb.createCellStyle();
+        decimalStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("#,##0.00"));
+
+        Sheet sheet = wb.createSheet("data");
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            String excelRow = Integer.toString(r + 1);
+
+            row.createCell(0).setCellValue(r);
+            row.createCell(1).setCellValue("value " + (r % DISTINCT_STRINGS));
+
+            Cell date = row.createCell(2);
+            date.setCellValue(40000 + (r % 3650));
+            date.setCellStyle(dateStyle);
+
+            Cell decimal = row.createCell(3);
+            decimal.setCellValue(r * 1.37);
+            decimal.setCellStyle(decimalStyle);
+
+            row.createCell(4).setCellFormula("A" + excelRow + "*D" + excelRow + "+C" + excelRow);
+            row.createCell(5).setCellFormula(r == 0 ? "E1" : "F" + r + "+E" + excelRow);
+        }
+        return wb;
+    }
+
+    /**
+     * @return a fully populated in-memory XSSF workbook
+     */
+    public static XSSFWorkbook createXSSF(int rows) {
+        return fill(new XSSFWorkbook(), rows);
+    }
+
+    /**
+     * @return a fully populated in-memory HSSF workbook
+     */
+    public static HSSFWorkbook createHSSF(int rows) {
+        return fill(new HSSFWorkbook(), rows);
+    }
+
+    /**
+     * @return a populated streaming workbook, which can only be written once
+     */
+    public static SXSSFWorkbook createSXSSF(int rows) {
+        return fill(new SXSSFWorkbook(SXSSFWorkbook.DEFAULT_WINDOW_SIZE), rows);
+    }
+
+    /**
+     * @return the serialized bytes of the given workbook - the workbook is closed afterwards
+     */
+    public static byte[] toBytes(Workbook wb) throws IOException {
+        try (Workbook w = wb;
+             UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            w.write(bos);
+            return bos.toByteArray();
+        }
+    }
+
+    /**
+     * Writes the given workbook to a temporary file, which is deleted on exit
+     *
+     * @return the temporary file - the workbook is closed afterwards
+     */
+    public static File toTempFile(Workbook wb, String suffix) throws IOException {
+        File file = TempFile.createTempFile("poi-benchmark", suffix);
+        file.deleteOnExit();
+        try (Workbook w = wb; OutputStream os = new FileOutputStream(file)) {
+            w.write(os);
+        }
+        return file;
+    }
+
+    /**
+     * @return the A1 reference of the last running-total formula, i.e. the cell which depends
+     *      on all other formulas of the sheet
+     */
+    public static String lastTotalCell(int rows) {
+        return new CellReference(rows - 1, COLUMNS - 1).formatAsString();
+    }
+}
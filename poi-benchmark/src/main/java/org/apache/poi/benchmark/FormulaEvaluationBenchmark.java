@@ -0,0 +1,83 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full recalculation of all formula cells, i.e. the path through
+ * {@code WorkbookEvaluator} with an initially empty evaluation cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FormulaEvaluationBenchmark {
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private XSSFWorkbook xssf;
+    private HSSFWorkbook hssf;
+    private FormulaEvaluator xssfEvaluator;
+    private FormulaEvaluator hssfEvaluator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        xssf = BenchmarkWorkbooks.createXSSF(rows);
+        hssf = BenchmarkWorkbooks.createHSSF(rows);
+        xssfEvaluator = xssf.getCreationHelper().createFormulaEvaluator();
+        hssfEvaluator = hssf.getCreationHelper().createFormulaEvaluator();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        xssf.close();
+        hssf.close();
+    }
+
+    @Benchmark
+    public void recalculateXSSF() {
+        xssfEvaluator.clearAllCachedResultValues();
+        xssfEvaluator.evaluateAll();
+    }
+
+    @Benchmark
+    public void recalculateHSSF() {
+        hssfEvaluator.clearAllCachedResultValues();
+        hssfEvaluator.evaluateAll();
+    }
+}
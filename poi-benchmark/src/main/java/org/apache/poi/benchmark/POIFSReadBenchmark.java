@@ -0,0 +1,93 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.Entry;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures opening an OLE2 file system and reading all of its documents,
+ * from an {@link InputStream} as well as from a {@link File}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class POIFSReadBenchmark {
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private byte[] bytes;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        bytes = BenchmarkWorkbooks.toBytes(BenchmarkWorkbooks.createHSSF(rows));
+        file = BenchmarkWorkbooks.toTempFile(BenchmarkWorkbooks.createHSSF(rows), ".xls");
+    }
+
+    @Benchmark
+    public long readFromStream() throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(bytes))) {
+            return readAll(fs.getRoot());
+        }
+    }
+
+    @Benchmark
+    public long readFromFile() throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            return readAll(fs.getRoot());
+        }
+    }
+
+    private static long readAll(DirectoryNode dir) throws IOException {
+        long size = 0;
+        for (Entry entry : dir) {
+            if (entry instanceof DirectoryNode) {
+                size += readAll((DirectoryNode)entry);
+            } else if (entry.isDocumentEntry()) {
+                try (InputStream is = dir.createDocumentInputStream(entry)) {
+                    size += IOUtils.copy(is, NullOutputStream.INSTANCE);
+                }
+            }
+        }
+        return size;
+    }
+}
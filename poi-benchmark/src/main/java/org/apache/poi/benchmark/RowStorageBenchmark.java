@@ -0,0 +1,148 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.util.SortedIntMap;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the row and cell storage of 1M cells (50,000 rows with 20 cells each) in a
+ * {@code TreeMap<Integer,V>}, as it was used by XSSFSheet/XSSFRow before, and in a
+ * {@link SortedIntMap}, and measures building and iterating such an XSSF sheet.
+ * <p>
+ * Run with {@code -Pjmh.include=RowStorageBenchmark -Pjmh.args="-prof gc"} to also get the
+ * allocated bytes per operation, which shows the size of the structures built by the fill benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class RowStorageBenchmark {
+    private static final int ROWS = 50_000;
+    private static final int COLUMNS = 20;
+
+    private TreeMap<Integer, TreeMap<Integer, Object>> treeMap;
+    private SortedIntMap<SortedIntMap<Object>> sortedIntMap;
+    private XSSFWorkbook workbook;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        treeMap = fillTreeMap();
+        sortedIntMap = fillSortedIntMap();
+        workbook = new XSSFWorkbook();
+        fillSheet(workbook.createSheet());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public TreeMap<Integer, TreeMap<Integer, Object>> fillTreeMap() {
+        TreeMap<Integer, TreeMap<Integer, Object>> rows = new TreeMap<>();
+        for (int r = 0; r < ROWS; r++) {
+            TreeMap<Integer, Object> cells = new TreeMap<>();
+            for (int c = 0; c < COLUMNS; c++) {
+                cells.put(c, Boolean.TRUE);
+            }
+            rows.put(r, cells);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public SortedIntMap<SortedIntMap<Object>> fillSortedIntMap() {
+        SortedIntMap<SortedIntMap<Object>> rows = new SortedIntMap<>();
+        for (int r = 0; r < ROWS; r++) {
+            SortedIntMap<Object> cells = new SortedIntMap<>();
+            for (int c = 0; c < COLUMNS; c++) {
+                cells.put(c, Boolean.TRUE);
+            }
+            rows.put(r, cells);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public void iterateTreeMap(Blackhole bh) {
+        for (TreeMap<Integer, Object> cells : treeMap.values()) {
+            for (Object cell : cells.values()) {
+                bh.consume(cell);
+            }
+        }
+    }
+
+    @Benchmark
+    public void iterateSortedIntMap(Blackhole bh) {
+        for (SortedIntMap<Object> cells : sortedIntMap) {
+            for (Object cell : cells) {
+                bh.consume(cell);
+            }
+        }
+    }
+
+    @Benchmark
+    public XSSFSheet fillSheet() throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            return fillSheet(wb.createSheet());
+        }
+    }
+
+    @Benchmark
+    public void iterateSheet(Blackhole bh) {
+        for (Row row : workbook.getSheetAt(0)) {
+            for (Cell cell : row) {
+                bh.consume(cell);
+            }
+        }
+    }
+
+    private static XSSFSheet fillSheet(XSSFSheet sheet) {
+        for (int r = 0; r < ROWS; r++) {
+            XSSFRow row = sheet.createRow(r);
+            for (int c = 0; c < COLUMNS; c++) {
+                row.createCell(c).setCellValue(c);
+            }
+        }
+        return sheet;
+    }
+}
@@ -0,0 +1,105 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing a streaming SXSSF workbook with several large sheets,
+ * with the sheets compressed sequentially or concurrently and with
+ * different codecs for the temp files.
+ * <p>
+ * The sheets are flushed to their temp files once, so only the assembling
+ * and compressing of the archive is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SXSSFParallelWriteBenchmark {
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"8"})
+    public int sheets;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    @Param({"none", "deflate", "lz4"})
+    public String codec;
+
+    private SXSSFWorkbook wb;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wb = new SXSSFWorkbook(SXSSFWorkbook.DEFAULT_WINDOW_SIZE);
+        switch (codec) {
+            case "deflate":
+                wb.setTempFileCodec(SheetDataCodec.deflate());
+                break;
+            case "lz4":
+                wb.setTempFileCodec(SheetDataCodec.lz4());
+                break;
+            default:
+                wb.setTempFileCodec(SheetDataCodec.NONE);
+                break;
+        }
+        for (int s = 0; s < sheets; s++) {
+            Sheet sheet = wb.createSheet("sheet" + s);
+            for (int r = 0; r < rows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue(r);
+                row.createCell(1).setCellValue("value " + (r % 1000));
+                row.createCell(2).setCellValue(r * 1.37);
+            }
+        }
+        wb.setWriteParallelism(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        wb.write(NullOutputStream.INSTANCE);
+    }
+}
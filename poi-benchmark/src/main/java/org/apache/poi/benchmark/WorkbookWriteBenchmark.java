@@ -0,0 +1,87 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures serialisation of XSSF and HSSF workbooks as well as populating and writing
+ * a streaming SXSSF workbook.
+ * <p>
+ * The output is discarded, so only the cost of marshalling and compressing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkbookWriteBenchmark {
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private XSSFWorkbook xssf;
+    private HSSFWorkbook hssf;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        xssf = BenchmarkWorkbooks.createXSSF(rows);
+        hssf = BenchmarkWorkbooks.createHSSF(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        xssf.close();
+        hssf.close();
+    }
+
+    @Benchmark
+    public void writeXSSF() throws IOException {
+        xssf.write(NullOutputStream.INSTANCE);
+    }
+
+    @Benchmark
+    public void writeHSSF() throws IOException {
+        hssf.write(NullOutputStream.INSTANCE);
+    }
+
+    @Benchmark
+    public void createAndWriteSXSSF() throws IOException {
+        try (SXSSFWorkbook wb = BenchmarkWorkbooks.createSXSSF(rows)) {
+            wb.write(NullOutputStream.INSTANCE);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures opening/parsing of XSSF workbooks and iterating over all of their cells
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XSSFReadBenchmark {
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private byte[] bytes;
+    private File file;
+    private XSSFWorkbook opened;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        bytes = BenchmarkWorkbooks.toBytes(BenchmarkWorkbooks.createXSSF(rows));
+        file = BenchmarkWorkbooks.toTempFile(BenchmarkWorkbooks.createXSSF(rows), ".xlsx");
+        opened = new XSSFWorkbook(new ByteArrayInputStream(bytes));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        opened.close();
+    }
+
+    @Benchmark
+    public XSSFWorkbook openFromStream() throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            return wb;
+        }
+    }
+
+    @Benchmark
+    public XSSFWorkbook openFromFile() throws IOException, InvalidFormatException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+             XSSFWorkbook wb = new XSSFWorkbook(pkg)) {
+            return wb;
+        }
+    }
+
+    @Benchmark
+    public void iterateCells(Blackhole bh) {
+        for (Row row : opened.getSheetAt(0)) {
+            for (Cell cell : row) {
+                switch (cell.getCellType()) {
+                    case NUMERIC:
+                        bh.consume(cell.getNumericCellValue());
+                        break;
+                    case STRING:
+                        bh.consume(cell.getStringCellValue());
+                        break;
+                    case FORMULA:
+                        bh.consume(cell.getCellFormula());
+                        break;
+                    default:
+                        bh.consume(cell);
+                        break;
+                }
+            }
+        }
+    }
+}
@@ -48,6 +48,8 @@ public abstract class POIXMLDocument extends POIXMLDocumentPart implements Close
     // Embedded OPC documents relation name
     public static final String PACK_OBJECT_REL_TYPE="http://schemas.openxmlformats.org/officeDocument/2006/relationships/package";
 
+    private static boolean lazyLoadRelations = false;
+
     /** The OPC Package */
     private OPCPackage pkg;
 
@@ -56,6 +58,31 @@ public abstract class POIXMLDocument extends POIXMLDocumentPart implements Close
      */
     private POIXMLProperties properties;
 
+    /**
+     * Enables or disables the lazy loading of relations for documents which are read afterwards.
+     * <p>
+     * When enabled, parts of relation types which aren't needed to open the document, e.g. drawings,
+     * charts or pivot caches of a workbook, are only created and parsed when they are first accessed
+     * via {@link RelationPart#getDocumentPart()}. This reduces the time and memory needed to open
+     * documents, if only e.g. cell values or body text are read.
+     * Parts, which were never accessed, are left unchanged when the document is written.
+     *
+     * @param lazyLoad true, to load relations on demand, defaults to false
+     * @see POIXMLFactory#isLazyRelation(String)
+     * @since POI 5.3.1
+     */
+    public static void setLazyLoadRelations(boolean lazyLoad) {
+        lazyLoadRelations = lazyLoad;
+    }
+
+    /**
+     * @return true, if relations are loaded on demand
+     * @since POI 5.3.1
+     */
+    public static boolean isLazyLoadRelations() {
+        return lazyLoadRelations;
+    }
+
     protected POIXMLDocument(OPCPackage pkg) {
         super(pkg);
         init(pkg);
@@ -160,14 +187,17 @@ public abstract class POIXMLDocument extends POIXMLDocumentPart implements Close
     public abstract List<PackagePart> getAllEmbeddedParts() throws OpenXML4JException;
 
     protected final void load(POIXMLFactory factory) throws IOException {
-        Map<PackagePart, POIXMLDocumentPart> context = new HashMap<>();
+        Map<PackagePart, POIXMLDocumentPart> context = lazyLoadRelations ? new LazyReadContext() : new HashMap<>();
         try {
             read(factory, context);
         } catch (OpenXML4JException e){
             throw new POIXMLException(e);
         }
         onDocumentRead();
-        context.clear();
+        if (!lazyLoadRelations) {
+            // lazy relations keep the context to resolve parts which are related from several parents
+            context.clear();
+        }
     }
 
     /**
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -89,13 +90,19 @@ public class POIXMLDocumentPart {
      */
     public static class RelationPart {
         private final PackageRelationship relationship;
-        private final POIXMLDocumentPart documentPart;
+        private POIXMLDocumentPart documentPart;
+        private LazyRelation lazyRelation;
 
         RelationPart(PackageRelationship relationship, POIXMLDocumentPart documentPart) {
             this.relationship = relationship;
             this.documentPart = documentPart;
         }
 
+        RelationPart(PackageRelationship relationship, LazyRelation lazyRelation) {
+            this.relationship = relationship;
+            this.lazyRelation = lazyRelation;
+        }
+
         /**
          * @return the cached relationship, which uniquely identifies this child document part within the parent
          */
@@ -109,8 +116,69 @@ public class POIXMLDocumentPart {
          */
         @SuppressWarnings("unchecked")
         public <T extends POIXMLDocumentPart> T getDocumentPart() {
+            if (lazyRelation != null) {
+                documentPart = lazyRelation.load();
+                lazyRelation = null;
+            }
             return (T) documentPart;
         }
+
+        /**
+         * @return false, if the child document part is loaded lazily and hasn't been accessed yet
+         * @see POIXMLDocument#setLazyLoadRelations(boolean)
+         * @since POI 5.3.1
+         */
+        public boolean isLoaded() {
+            return lazyRelation == null;
+        }
+
+        /**
+         * @return false, if the relation is not loaded yet and points to a different package part
+         */
+        boolean isTarget(PackagePart part) {
+            return lazyRelation == null || lazyRelation.target == part;
+        }
+    }
+
+    /**
+     * The context of a document, which is read with lazily loaded relations.
+     * The created document parts are kept, so that a part, which is related from several parents,
+     * is only created once.
+     */
+    static final class LazyReadContext extends HashMap<PackagePart, POIXMLDocumentPart> {
+        private static final long serialVersionUID = 1L;
+
+        private final Map<PackagePart, Integer> pendingCounters = new HashMap<>();
+    }
+
+    /**
+     * A not yet created child part, which is created and read on first access
+     */
+    private static final class LazyRelation {
+        private final POIXMLDocumentPart parent;
+        private final PackagePart target;
+        private final POIXMLFactory factory;
+        private final LazyReadContext context;
+
+        LazyRelation(POIXMLDocumentPart parent, PackagePart target, POIXMLFactory factory, LazyReadContext context) {
+            this.parent = parent;
+            this.target = target;
+            this.factory = factory;
+            this.context = context;
+        }
+
+        POIXMLDocumentPart load() {
+            POIXMLDocumentPart childPart = context.get(target);
+            if (childPart == null) {
+                childPart = parent.createChildPart(factory, target, context);
+                try {
+                    childPart.read(factory, context);
+                } catch (OpenXML4JException e) {
+                    throw new POIXMLException(e);
+                }
+            }
+            return childPart;
+        }
     }
 
     /**
@@ -292,7 +360,7 @@ public class POIXMLDocumentPart {
      */
     public final String getRelationId(POIXMLDocumentPart part) {
         for (RelationPart rp : relations.values()) {
-            if (rp.getDocumentPart() == part) {
+            if (rp.isTarget(part.getPackagePart()) && rp.getDocumentPart() == part) {
                 return rp.getRelationship().getId();
             }
         }
@@ -473,6 +541,10 @@ public class POIXMLDocumentPart {
         commit();
         alreadySaved.add(this.getPackagePart());
         for (RelationPart rp : relations.values()) {
+            if (!rp.isLoaded()) {
+                // the part hasn't been accessed, so its package part is unchanged
+                continue;
+            }
             POIXMLDocumentPart p = rp.getDocumentPart();
             if (!alreadySaved.contains(p.getPackagePart())) {
                 p.onSave(alreadySaved);
@@ -667,16 +739,15 @@ public class POIXMLDocumentPart {
                     }
 
                     POIXMLDocumentPart childPart = context.get(p);
+                    if (childPart == null && context instanceof LazyReadContext
+                            && POIXMLDocument.isLazyLoadRelations() && factory.isLazyRelation(rel.getRelationshipType())) {
+                        // count the incoming relation now, the part will get it when it's created
+                        ((LazyReadContext) context).pendingCounters.merge(p, 1, Integer::sum);
+                        relations.put(rel.getId(), new RelationPart(rel, new LazyRelation(this, p, factory, (LazyReadContext) context)));
+                        continue;
+                    }
                     if (childPart == null) {
-                        childPart = factory.createDocumentPart(this, p);
-                        //here we are checking if part if embedded and excel then set it to chart class
-                        //so that at the time to writing we can also write updated embedded part
-                        if (this instanceof XDDFChart && childPart instanceof XSSFWorkbook) {
-                            ((XDDFChart) this).setWorkbook((XSSFWorkbook) childPart);
-                        }
-                        childPart.parent = this;
-                        // already add child to context, so other children can reference it
-                        context.put(p, childPart);
+                        childPart = createChildPart(factory, p, context);
                         readLater.add(childPart);
                     }
 
@@ -690,6 +761,26 @@ public class POIXMLDocumentPart {
         }
     }
 
+    private POIXMLDocumentPart createChildPart(POIXMLFactory factory, PackagePart p, Map<PackagePart, POIXMLDocumentPart> context) {
+        POIXMLDocumentPart childPart = factory.createDocumentPart(this, p);
+        //here we are checking if part if embedded and excel then set it to chart class
+        //so that at the time to writing we can also write updated embedded part
+        if (this instanceof XDDFChart && childPart instanceof XSSFWorkbook) {
+            ((XDDFChart) this).setWorkbook((XSSFWorkbook) childPart);
+        }
+        childPart.parent = this;
+        if (context instanceof LazyReadContext) {
+            // take over the relations of parents, which haven't accessed the part yet
+            Integer pending = ((LazyReadContext) context).pendingCounters.remove(p);
+            if (pending != null) {
+                childPart.relationCounter += pending;
+            }
+        }
+        // already add child to context, so other children can reference it
+        context.put(p, childPart);
+        return childPart;
+    }
+
     /**
      * Get the PackagePart that is the target of a relationship from this Part.
      *
@@ -79,6 +79,20 @@ public abstract class POIXMLFactory {
      */
     protected abstract POIXMLRelation getDescriptor(String relationshipType);
 
+    /**
+     * Returns whether parts of the given relationship type may be created when they are first accessed,
+     * if {@link POIXMLDocument#setLazyLoadRelations(boolean) lazy loading} is enabled.
+     * Only types, which aren't required while the parent document is read, should be loaded lazily.
+     *
+     * @param relationshipType the relationship type
+     * @return true, if the parts can be loaded on demand - defaults to false
+     *
+     * @since POI 5.3.1
+     */
+    protected boolean isLazyRelation(String relationshipType) {
+        return false;
+    }
+
     /**
      * Create a new POIXMLDocumentPart using the supplied descriptor. This method is used when adding new parts
      * to a document, for example, when adding a sheet to a workbook, slide to a presentation, etc.
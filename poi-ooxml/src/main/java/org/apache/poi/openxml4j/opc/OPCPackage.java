@@ -30,6 +30,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -55,11 +56,15 @@ import org.apache.poi.openxml4j.opc.internal.PackagePropertiesPart;
 import org.apache.poi.openxml4j.opc.internal.PartMarshaller;
 import org.apache.poi.openxml4j.opc.internal.PartUnmarshaller;
 import org.apache.poi.openxml4j.opc.internal.ZipContentTypeManager;
+import org.apache.poi.openxml4j.opc.internal.ZipHelper;
 import org.apache.poi.openxml4j.opc.internal.marshallers.DefaultMarshaller;
 import org.apache.poi.openxml4j.opc.internal.marshallers.ZipPackagePropertiesMarshaller;
 import org.apache.poi.openxml4j.opc.internal.unmarshallers.PackagePropertiesUnmarshaller;
 import org.apache.poi.openxml4j.opc.internal.unmarshallers.UnmarshallContext;
+import org.apache.poi.openxml4j.util.MappedByteChannel;
 import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.NotImplemented;
 import org.apache.poi.util.StringUtil;
@@ -219,6 +224,34 @@ public abstract class OPCPackage implements RelationshipSource, Closeable {
        }
    }
 
+   /**
+    * Open a package with read-only permission from a seekable channel, e.g. a
+    * {@link java.nio.channels.FileChannel} or a {@link MappedByteChannel}.
+    * Only the central directory of the zip archive is read when the package is opened, the parts
+    * are read and inflated when they are accessed, so reading a single part of a large package
+    * only touches the bytes of that part. Opposed to {@link #open(InputStream)}, the parts aren't
+    * buffered in memory or temp files.
+    * <p>
+    * The channel is read until the package is closed, which also closes the channel.
+    *
+    * @param channel the channel of the package
+    * @return A Package object
+    * @throws InvalidFormatException if the channel can't be read or a parsing error occurs.
+    * @since POI 5.3.1
+    */
+   public static OPCPackage open(SeekableByteChannel channel) throws InvalidFormatException {
+       if (channel == null) {
+           throw new IllegalArgumentException("'channel' must be given");
+       }
+       final ZipSecureFile zipFile;
+       try {
+           zipFile = ZipHelper.openZipFile(channel, String.valueOf(channel));
+       } catch (IOException e) {
+           throw new InvalidFormatException("Can't open the specified channel", e);
+       }
+       return open(new ZipFileZipEntrySource(zipFile));
+   }
+
     /**
      * Open a package.
      *
@@ -62,6 +62,7 @@ public final class ZipPackage extends OPCPackage {
     private static final String SETTINGS_XML = "settings.xml";
     private static boolean useTempFilePackageParts = false;
     private static boolean encryptTempFilePackageParts = false;
+    private static boolean copyUnchangedParts = true;
 
     private static final Logger LOG = LogManager.getLogger(ZipPackage.class);
 
@@ -85,6 +86,25 @@ public final class ZipPackage extends OPCPackage {
         encryptTempFilePackageParts = encryptTempFiles;
     }
 
+    /**
+     * When a package that was opened from a file is saved, parts that were not modified
+     * are copied with their compressed data instead of being inflated and compressed again.
+     *
+     * @param copyUnchanged whether to copy the compressed data of unchanged parts, defaults to true
+     * @since POI 5.3.1
+     */
+    public static void setCopyUnchangedParts(boolean copyUnchanged) {
+        copyUnchangedParts = copyUnchanged;
+    }
+
+    /**
+     * @return whether the compressed data of unchanged parts is copied on save
+     * @since POI 5.3.1
+     */
+    public static boolean copyUnchangedParts() {
+        return copyUnchangedParts;
+    }
+
     /**
      * @return whether package part data is stored in temp files to save memory
      */
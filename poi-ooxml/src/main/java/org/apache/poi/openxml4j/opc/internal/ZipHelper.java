@@ -17,12 +17,15 @@
 
 package org.apache.poi.openxml4j.opc.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
@@ -36,6 +39,7 @@ import org.apache.poi.openxml4j.opc.ZipPackage;
 import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
 import org.apache.poi.openxml4j.util.ZipSecureFile;
 import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.Reproducibility;
 
@@ -223,6 +227,40 @@ public final class ZipHelper {
         return new ZipSecureFile(file);
     }
 
+    /**
+     * Opens the zip archive of the channel as a secure zip file. The channel is closed,
+     * when the zip file is closed or if it can't be opened.
+     *
+     * @param channel the channel of the zip archive
+     * @param channelDescription the description of the archive used in error messages
+     * @return The zip archive freshly open.
+     * @throws IOException if the zip archive cannot be read
+     * @throws NotOfficeXmlFileException if the channel does not start with zip header signature
+     * @since POI 5.3.1
+     */
+    public static ZipSecureFile openZipFile(SeekableByteChannel channel, String channelDescription)
+            throws IOException, NotOfficeXmlFileException {
+        boolean success = false;
+        try {
+            // Peek at the first few bytes to sanity check
+            ByteBuffer header = ByteBuffer.allocate(8);
+            channel.position(0);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // read until the header is complete or the end of the channel is reached
+            }
+            verifyZipHeader(new ByteArrayInputStream(header.array(), 0, header.position()));
+            channel.position(0);
+
+            ZipSecureFile zipFile = new ZipSecureFile(channel, channelDescription);
+            success = true;
+            return zipFile;
+        } finally {
+            if (!success) {
+                IOUtils.closeQuietly(channel);
+            }
+        }
+    }
+
     /**
      * Retrieve and open as a secure zip file with the specified path.
      *
@@ -22,9 +22,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
@@ -37,8 +40,12 @@ import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
 import org.apache.poi.openxml4j.opc.PackagingURIHelper;
 import org.apache.poi.openxml4j.opc.StreamHelper;
 import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.openxml4j.opc.ZipPackage;
+import org.apache.poi.openxml4j.opc.ZipPackagePart;
+import org.apache.poi.openxml4j.opc.internal.MemoryPackagePart;
 import org.apache.poi.openxml4j.opc.internal.PartMarshaller;
 import org.apache.poi.openxml4j.opc.internal.ZipHelper;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.ooxml.util.DocumentHelper;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.xssf.usermodel.XSSFRelation;
@@ -85,14 +92,16 @@ public final class ZipPartMarshaller implements PartMarshaller {
         try {
             ZipHelper.adjustEntryTime(partEntry);
 
-            // Create next zip entry
-            zos.putArchiveEntry(partEntry);
+            if (!copyUnchangedEntry(part, partEntry, zos)) {
+                // Create next zip entry
+                zos.putArchiveEntry(partEntry);
 
-            // Saving data in the ZIP file
-            try (final InputStream ins = part.getInputStream()) {
-                IOUtils.copy(ins, zos);
-            } finally {
-                zos.closeArchiveEntry();
+                // Saving data in the ZIP file
+                try (final InputStream ins = part.getInputStream()) {
+                    IOUtils.copy(ins, zos);
+                } finally {
+                    zos.closeArchiveEntry();
+                }
             }
         } catch (IOException ioe) {
             LOG.atError().withThrowable(ioe).log("Cannot write: {}: in ZIP", part.getPartName());
@@ -111,6 +120,79 @@ public final class ZipPartMarshaller implements PartMarshaller {
         return true;
     }
 
+    /**
+     * Copy the compressed data of the part directly from the source archive, if the part
+     * was not modified since the package was opened from a zip file. This avoids inflating
+     * and deflating the content of e.g. images and embedded objects again.
+     * Memory parts are only copied if their content still matches the source entry.
+     *
+     * @param part The part to save
+     * @param partEntry The entry to write, the name and time are already set
+     * @param zos The zip stream to write to
+     * @return true if the entry was copied, false if it needs to be compressed
+     */
+    private static boolean copyUnchangedEntry(PackagePart part, ZipArchiveEntry partEntry, ZipArchiveOutputStream zos)
+            throws IOException {
+        if (!ZipPackage.copyUnchangedParts() || !(part.getPackage() instanceof ZipPackage)) {
+            return false;
+        }
+        final ZipEntrySource source = ((ZipPackage) part.getPackage()).getZipArchive();
+        // check the raw data support first, the comparison of memory parts is wasted otherwise
+        if (source == null || source.isClosed() || !source.supportsRawInputStream()) {
+            return false;
+        }
+
+        final ZipArchiveEntry sourceEntry;
+        if (part instanceof ZipPackagePart) {
+            sourceEntry = ((ZipPackagePart) part).getZipArchive();
+        } else if (part instanceof MemoryPackagePart) {
+            sourceEntry = source.getEntry(partEntry.getName());
+        } else {
+            return false;
+        }
+
+        if (sourceEntry == null
+                || (sourceEntry.getMethod() != ZipArchiveEntry.STORED && sourceEntry.getMethod() != ZipArchiveEntry.DEFLATED)
+                || sourceEntry.getGeneralPurposeBit().usesEncryption()
+                || sourceEntry.getCrc() == -1 || sourceEntry.getSize() == -1 || sourceEntry.getCompressedSize() == -1
+                || (part instanceof MemoryPackagePart && !hasSameContent(part, source, sourceEntry))) {
+            return false;
+        }
+
+        try (InputStream raw = source.getRawInputStream(sourceEntry)) {
+            if (raw == null) {
+                return false;
+            }
+            partEntry.setMethod(sourceEntry.getMethod());
+            partEntry.setCrc(sourceEntry.getCrc());
+            partEntry.setSize(sourceEntry.getSize());
+            partEntry.setCompressedSize(sourceEntry.getCompressedSize());
+            zos.addRawArchiveEntry(partEntry, raw);
+        }
+        return true;
+    }
+
+    private static boolean hasSameContent(PackagePart part, ZipEntrySource source, ZipArchiveEntry sourceEntry)
+            throws IOException {
+        if (part.getSize() != sourceEntry.getSize()) {
+            return false;
+        }
+
+        // check the checksum first, the memory data is cheap to read compared to inflating the source
+        final CRC32 crc = new CRC32();
+        try (InputStream ins = new CheckedInputStream(part.getInputStream(), crc)) {
+            IOUtils.copy(ins, NullOutputStream.INSTANCE);
+        }
+        if (crc.getValue() != sourceEntry.getCrc()) {
+            return false;
+        }
+
+        try (InputStream ins = part.getInputStream();
+             InputStream sourceIns = source.getInputStream(sourceEntry)) {
+            return org.apache.commons.io.IOUtils.contentEquals(ins, sourceIns);
+        }
+    }
+
     /**
      * Save relationships into the part.
      *
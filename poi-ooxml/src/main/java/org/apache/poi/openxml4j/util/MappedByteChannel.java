@@ -0,0 +1,124 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import org.apache.poi.poifs.nio.MappedFile;
+
+/**
+ * A read-only {@link SeekableByteChannel} over a memory-mapped file.
+ * <p>
+ * This is meant for opening large packages via {@link org.apache.poi.openxml4j.opc.OPCPackage#open(SeekableByteChannel)},
+ * where the central directory and the requested parts are read from the mapped file without system calls,
+ * and only the touched pages are loaded by the operating system.
+ * The file is mapped on creation and unmapped on {@link #close()}.
+ *
+ * @since POI 5.3.1
+ */
+public final class MappedByteChannel implements SeekableByteChannel {
+    private final MappedFile file;
+    private long position;
+    private boolean open = true;
+
+    private MappedByteChannel(MappedFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Maps the file into memory - the file handle isn't kept open
+     *
+     * @param file the file to map
+     * @return the channel, which needs to be closed to unmap the file
+     * @throws IOException if the file can't be mapped
+     */
+    public static MappedByteChannel map(File file) throws IOException {
+        return new MappedByteChannel(MappedFile.map(file));
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= file.size()) {
+            return -1;
+        }
+        int done = file.read(dst, position);
+        position += done;
+        return done;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized MappedByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return file.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Unmaps the file - the buffers must not be accessed afterwards
+     */
+    @Override
+    public synchronized void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        file.close();
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -50,6 +50,30 @@ public interface ZipEntrySource extends Closeable {
      *  data that makes up the entry
      */
     InputStream getInputStream(ZipArchiveEntry entry) throws IOException;
+
+    /**
+     * Returns an InputStream of the still compressed data
+     *  that makes up the entry, if the source supports it
+     *
+     * @param entry the entry, as returned by this source
+     * @return the raw data or {@code null} if it is not available
+     *
+     * @since POI 5.3.1
+     */
+    default InputStream getRawInputStream(ZipArchiveEntry entry) throws IOException {
+        return null;
+    }
+
+    /**
+     * Indicates whether {@link #getRawInputStream(ZipArchiveEntry)} provides the compressed data
+     *
+     * @return true if the compressed data of the entries is available
+     *
+     * @since POI 5.3.1
+     */
+    default boolean supportsRawInputStream() {
+        return false;
+    }
     
     /**
      * Indicates we are done with reading, and 
@@ -64,6 +64,19 @@ public class ZipFileZipEntrySource implements ZipEntrySource {
         return zipArchive.getInputStream(entry);
     }
 
+    @Override
+    public InputStream getRawInputStream(ZipArchiveEntry entry) throws IOException {
+        if (zipArchive == null)
+            throw new IllegalStateException("Zip File is closed");
+
+        return zipArchive.getRawInputStream(entry);
+    }
+
+    @Override
+    public boolean supportsRawInputStream() {
+        return true;
+    }
+
     @Override
     public ZipArchiveEntry getEntry(final String path) {
         String normalizedPath = path.replace('\\', '/');
@@ -19,6 +19,8 @@ package org.apache.poi.openxml4j.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Locale;
@@ -223,6 +225,24 @@ public class ZipSecureFile extends ZipFile {
         validateEntryNames();
     }
 
+    /**
+     * Reads the central directory of a zip archive from a channel. The entries are read on demand,
+     * so the channel must be kept open until this zip file is closed, which closes the channel as well.
+     *
+     * @param channel the channel of the zip archive, e.g. a {@link java.nio.channels.FileChannel}
+     *  or a {@link MappedByteChannel}
+     * @param channelDescription the description of the archive used in error messages
+     * @throws IOException if an error occurs while reading the central directory
+     * @since POI 5.3.1
+     */
+    // ZipFile.builder() can't create subclasses, so the zip bomb checks need the deprecated constructor
+    @SuppressWarnings("deprecation")
+    public ZipSecureFile(SeekableByteChannel channel, String channelDescription) throws IOException {
+        super(channel, channelDescription, StandardCharsets.UTF_8.name(), true);
+        this.fileName = channelDescription;
+        validateEntryNames();
+    }
+
     /**
      * Returns an input stream for reading the contents of the specified
      * zip file entry.
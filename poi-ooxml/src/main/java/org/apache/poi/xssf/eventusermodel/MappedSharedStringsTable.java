@@ -0,0 +1,237 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.poifs.nio.MappedFile;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.SAXException;
+
+/**
+ * A read-only shared strings table, which doesn't keep the strings on the heap.
+ * <p>
+ * While parsing, the strings are spilled as UTF-8 into a temporary data file, and their
+ * offsets into a temporary index file. Both files are memory-mapped afterwards, so
+ * lookups only decode the requested string. A small LRU cache keeps the most recently
+ * decoded strings, which covers the typical access pattern of repeated values in a sheet.
+ * <p>
+ * This is meant for workbooks with millions of unique strings, where
+ * {@link ReadOnlySharedStringsTable} would dominate the heap.
+ * The temporary files are created via {@link TempFile} and removed on {@link #close()},
+ * so instances of this class must be closed after use.
+ *
+ * @since POI 5.3.1
+ */
+public class MappedSharedStringsTable extends ReadOnlySharedStringsTable implements Closeable {
+    private static final Logger LOG = LogManager.getLogger(MappedSharedStringsTable.class);
+
+    /** default number of decoded strings kept in the LRU cache */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    /** size of an index entry, i.e. the long offset of a string in the data file */
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private final Map<Integer,String> cache;
+
+    private File dataFile;
+    private File indexFile;
+    private DataOutputStream dataOut;
+    private DataOutputStream indexOut;
+    private long dataSize;
+    private int size;
+
+    private MappedFile data;
+    private MappedFile index;
+
+    /**
+     * Reads the shared strings table of the given part with the {@link #DEFAULT_CACHE_SIZE default cache size}
+     * and with phonetic runs
+     */
+    public MappedSharedStringsTable(PackagePart part) throws IOException, SAXException {
+        this(part, true, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Reads the shared strings table of the given part
+     *
+     * @param part the package part of the shared strings table
+     * @param includePhoneticRuns whether or not to concatenate phoneticRuns onto the shared string
+     * @param cacheSize the number of decoded strings kept in memory
+     */
+    public MappedSharedStringsTable(PackagePart part, boolean includePhoneticRuns, int cacheSize)
+            throws IOException, SAXException {
+        this(includePhoneticRuns, cacheSize);
+        try (InputStream stream = part.getInputStream()) {
+            init(stream);
+        }
+    }
+
+    /**
+     * Reads the shared strings table from the given stream
+     *
+     * @param stream the XML stream of the shared strings table, which is not closed
+     * @param includePhoneticRuns whether or not to concatenate phoneticRuns onto the shared string
+     * @param cacheSize the number of decoded strings kept in memory
+     */
+    public MappedSharedStringsTable(InputStream stream, boolean includePhoneticRuns, int cacheSize)
+            throws IOException, SAXException {
+        this(includePhoneticRuns, cacheSize);
+        init(stream);
+    }
+
+    private MappedSharedStringsTable(boolean includePhoneticRuns, int cacheSize) {
+        super(includePhoneticRuns);
+        final int maxEntries = Math.max(cacheSize, 0);
+        cache = new LruMap(Math.min(maxEntries, 1024), maxEntries);
+    }
+
+    private void init(InputStream stream) throws IOException, SAXException {
+        dataFile = TempFile.createTempFile("poi-sst-data", ".tmp");
+        indexFile = TempFile.createTempFile("poi-sst-index", ".tmp");
+        boolean success = false;
+        try {
+            dataOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile)));
+            indexOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+            try {
+                readFrom(stream);
+                // the end offset of the last string
+                indexOut.writeLong(dataSize);
+            } finally {
+                dataOut.close();
+                indexOut.close();
+                dataOut = null;
+                indexOut = null;
+            }
+            data = MappedFile.map(dataFile);
+            index = MappedFile.map(indexFile);
+            success = true;
+        } finally {
+            if (!success) {
+                close();
+            }
+        }
+    }
+
+    @Override
+    protected void addString(String string) {
+        try {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            indexOut.writeLong(dataSize);
+            dataOut.write(bytes);
+            dataSize += bytes.length;
+            size++;
+        } catch (IOException e) {
+            throw new POIXMLException("Failed to spill shared string to temp file", e);
+        }
+    }
+
+    /**
+     * @return the number of strings stored in the table
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized RichTextString getItemAt(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IllegalStateException("Cannot get item at " + idx + " with " + size + " strings");
+        }
+        if (index == null) {
+            throw new IllegalStateException("The shared strings table is already closed");
+        }
+        String str = cache.get(idx);
+        if (str == null) {
+            long start = readIndex(idx);
+            long end = readIndex(idx + 1);
+            str = new String(readData(start, (int)(end - start)), StandardCharsets.UTF_8);
+            cache.put(idx, str);
+        }
+        return new XSSFRichTextString(str);
+    }
+
+    private long readIndex(int idx) {
+        long pos = (long)idx * INDEX_ENTRY_SIZE;
+        // the entries are aligned, so they never span two mapped chunks
+        return index.getLong(pos);
+    }
+
+    private byte[] readData(long start, int length) {
+        byte[] bytes = new byte[length];
+        data.read(ByteBuffer.wrap(bytes), start);
+        return bytes;
+    }
+
+    /**
+     * Unmaps and removes the temporary files
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        cache.clear();
+        if (data != null) {
+            data.close();
+            data = null;
+        }
+        if (index != null) {
+            index.close();
+            index = null;
+        }
+        delete(dataFile);
+        delete(indexFile);
+        dataFile = null;
+        indexFile = null;
+    }
+
+    private static void delete(File file) {
+        if (file != null && file.exists() && !file.delete()) {
+            LOG.atWarn().log("Failed to delete temporary file {}", file);
+        }
+    }
+
+    private static final class LruMap extends LinkedHashMap<Integer,String> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        LruMap(int initialCapacity, int maxEntries) {
+            super(initialCapacity, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer,String> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -177,6 +177,17 @@ public class ReadOnlySharedStringsTable extends DefaultHandler implements Shared
         readFrom(stream);
     }
 
+    /**
+     * Creates an empty table without parsing any data - this is meant for subclasses,
+     * which need to initialize their storage before calling {@link #readFrom(InputStream)}
+     *
+     * @param includePhoneticRuns whether or not to concatenate phoneticRuns onto the shared string
+     * @since POI 5.3.1
+     */
+    protected ReadOnlySharedStringsTable(boolean includePhoneticRuns) {
+        this.includePhoneticRuns = includePhoneticRuns;
+    }
+
     /**
      * Read this shared strings table from an XML file.
      *
@@ -230,6 +241,22 @@ public class ReadOnlySharedStringsTable extends DefaultHandler implements Shared
         return new XSSFRichTextString(strings.get(idx));
     }
 
+    /**
+     * Stores the next parsed string of the table
+     *
+     * @param string the plain text of the string item
+     * @since POI 5.3.1
+     */
+    protected void addString(String string) {
+        if (strings == null) {
+            strings = new ArrayList<>(
+                    // corrupted files may have a very large number here, so only use it
+                    // up to some size as guideline for pre-allocating the list
+                    Math.min(this.uniqueCount, 100_000));
+        }
+        strings.add(string);
+    }
+
     //// ContentHandler methods ////
 
     private StringBuilder characters;
@@ -248,10 +275,6 @@ public class ReadOnlySharedStringsTable extends DefaultHandler implements Shared
             String uniqueCount = attributes.getValue("uniqueCount");
             if(uniqueCount != null) this.uniqueCount = (int) Long.parseLong(uniqueCount);
 
-            this.strings = new ArrayList<>(
-                    // corrupted files may have a very large number here, so only use it
-                    // up to some size as guideline for pre-allocating the list
-                    Math.min(this.uniqueCount, 100_000));
             characters = new StringBuilder(64);
         } else if ("si".equals(localName)) {
             if (characters != null) {
@@ -274,8 +297,8 @@ public class ReadOnlySharedStringsTable extends DefaultHandler implements Shared
         }
 
         if ("si".equals(localName)) {
-            if (strings != null && characters != null) {
-                strings.add(characters.toString());
+            if (characters != null) {
+                addString(characters.toString());
             }
         } else if ("t".equals(localName)) {
             tIsOpen = false;
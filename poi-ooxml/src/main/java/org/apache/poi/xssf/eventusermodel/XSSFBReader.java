@@ -161,8 +161,19 @@ public class XSSFBReader extends XSSFReader {
         }
 
         public XSSFBCommentsTable getXSSFBSheetComments() {
-            PackagePart sheetPkg = getSheetPart();
+            return getXSSFBSheetComments(getSheetPart());
+        }
 
+        /**
+         * Returns the comments associated with the given sheet part,
+         * or null if there aren't any. Opposed to {@link #getXSSFBSheetComments()}
+         * this doesn't depend on the current position of the iterator.
+         *
+         * @param sheetPkg the package part of the sheet
+         * @return the comments of the sheet or null
+         * @since POI 5.3.1
+         */
+        public XSSFBCommentsTable getXSSFBSheetComments(PackagePart sheetPkg) {
             // Do we have a comments relationship? (Only ever one if so)
             try {
                 PackageRelationshipCollection commentsList =
@@ -0,0 +1,562 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.Styles;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+/**
+ * Pull-based reader for the sheet#.xml part of a XSSF .xlsx file.
+ * <p>
+ * Opposed to {@link XSSFSheetXMLHandler}, which pushes the cells to a callback,
+ * this class is an {@link Iterator} of read-only rows, which are parsed on demand
+ * via a StAX cursor over the sheet part stream. Only the row which is currently
+ * returned is held in memory, so sheets of arbitrary size can be read with
+ * constant memory and the caller controls the pace of reading.
+ * <p>
+ * The sheet part streams are usually obtained via {@link XSSFReader#getSheetsData()}:
+ * <pre>{@code
+ * XSSFReader reader = new XSSFReader(pkg);
+ * SharedStrings sst = reader.getSharedStringsTable();
+ * Styles styles = reader.getStylesTable();
+ * Iterator<InputStream> sheets = reader.getSheetsData();
+ * try (XSSFPullSheetReader rows = new XSSFPullSheetReader(sheets.next(), sst, styles)) {
+ *     rows.stream().forEach(row -> ...);
+ * }
+ * }</pre>
+ * Empty rows, i.e. rows which are not stored in the file, are not returned.
+ * Rows and cells are returned in the order of the sheet XML, which is ascending
+ * for all files written by Excel and POI.
+ *
+ * @since POI 5.3.1
+ */
+public class XSSFPullSheetReader implements Iterator<XSSFPullSheetReader.SheetRow>, Closeable {
+    private final InputStream sheetStream;
+    private final XMLStreamReader reader;
+    private final SharedStrings sharedStrings;
+    private final Styles styles;
+
+    private final StringBuilder value = new StringBuilder(64);
+    private final StringBuilder formula = new StringBuilder(64);
+
+    private SheetRow nextRow;
+    private boolean finished;
+    private int nextRowNum;
+
+    /**
+     * Creates a new reader for the given sheet part stream
+     *
+     * @param sheetStream the stream of the sheet#.xml part, which is closed together with this reader
+     * @param sharedStrings the shared strings table used to resolve shared string cells, may be {@code null}
+     *                      if the workbook has none
+     * @param styles the styles table used to resolve cell styles, may be {@code null}
+     * @throws IOException if the sheet XML can't be opened
+     */
+    public XSSFPullSheetReader(InputStream sheetStream, SharedStrings sharedStrings, Styles styles) throws IOException {
+        this.sheetStream = sheetStream;
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        try {
+            this.reader = XMLHelper.newXMLInputFactory().createXMLStreamReader(sheetStream);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to open sheet XML", e);
+        }
+    }
+
+    /**
+     * @return a sequential stream of the remaining rows - closing the stream closes this reader
+     */
+    public Stream<SheetRow> stream() {
+        Spliterator<SheetRow> split = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(split, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new POIXMLException(e);
+            }
+        });
+    }
+
+    /**
+     * @throws POIXMLException if the sheet XML is invalid
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !finished) {
+            try {
+                nextRow = readRow();
+            } catch (XMLStreamException e) {
+                throw new POIXMLException("Failed to parse sheet XML", e);
+            }
+            finished = (nextRow == null);
+        }
+        return nextRow != null;
+    }
+
+    /**
+     * @throws POIXMLException if the sheet XML is invalid
+     */
+    @Override
+    public SheetRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SheetRow row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            sheetStream.close();
+        }
+    }
+
+    private SheetRow readRow() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && isSpreadsheetML() && "row".equals(reader.getLocalName())) {
+                String r = reader.getAttributeValue(null, "r");
+                int rowNum = (r != null) ? Integer.parseInt(r) - 1 : nextRowNum;
+                nextRowNum = rowNum + 1;
+                return new SheetRow(rowNum, readCells(rowNum));
+            } else if (event == XMLStreamConstants.END_ELEMENT && isSpreadsheetML() && "sheetData".equals(reader.getLocalName())) {
+                // don't bother parsing the rest of the sheet (merged regions, page setup, ...)
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private List<SheetCell> readCells(int rowNum) throws XMLStreamException {
+        List<SheetCell> cells = new ArrayList<>();
+        int nextColNum = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && isSpreadsheetML() && "row".equals(reader.getLocalName())) {
+                break;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT && isSpreadsheetML() && "c".equals(reader.getLocalName())) {
+                String ref = reader.getAttributeValue(null, "r");
+                int colNum = (ref != null) ? new CellReference(ref).getCol() : nextColNum;
+                nextColNum = colNum + 1;
+                cells.add(readCell(rowNum, colNum));
+            }
+        }
+        return cells;
+    }
+
+    private SheetCell readCell(int rowNum, int colNum) throws XMLStreamException {
+        String type = reader.getAttributeValue(null, "t");
+        String styleStr = reader.getAttributeValue(null, "s");
+        int styleIdx = (styleStr == null || styleStr.isEmpty()) ? 0 : Integer.parseInt(styleStr);
+
+        value.setLength(0);
+        formula.setLength(0);
+        boolean hasValue = false;
+        boolean hasFormula = false;
+        boolean phonetic = false;
+        StringBuilder target = null;
+
+        // read the cell content up to the closing </c>
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT: {
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (!isSpreadsheetML() || phonetic) {
+                        target = null;
+                    } else if ("rPh".equals(name)) {
+                        // phonetic runs are not part of the cell text
+                        phonetic = true;
+                        target = null;
+                    } else if ("v".equals(name)) {
+                        hasValue = true;
+                        target = value;
+                    } else if ("f".equals(name)) {
+                        hasFormula = true;
+                        target = formula;
+                    } else if ("t".equals(name)) {
+                        // inline string <is><t>..</t></is> or rich text runs <is><r><t>..</t></r></is>
+                        hasValue = true;
+                        target = value;
+                    } else {
+                        target = null;
+                    }
+                    break;
+                }
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    if ("rPh".equals(reader.getLocalName())) {
+                        phonetic = false;
+                    }
+                    target = null;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (target != null) {
+                        target.append(reader.getText());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        String formulaStr = hasFormula && formula.length() > 0 ? formula.toString() : null;
+        CellType valueType;
+        String stringValue = null;
+        double numericValue = 0;
+
+        if (!hasValue) {
+            valueType = CellType.BLANK;
+        } else if ("s".equals(type)) {
+            valueType = CellType.STRING;
+            stringValue = resolveSharedString(value.toString());
+        } else if ("inlineStr".equals(type) || "str".equals(type)) {
+            valueType = CellType.STRING;
+            stringValue = value.toString();
+        } else if ("d".equals(type)) {
+            // ISO 8601 dates are converted to serial dates like numeric cells with a date format
+            numericValue = parseIsoDate(value.toString());
+            if (Double.isNaN(numericValue)) {
+                valueType = CellType.STRING;
+                stringValue = value.toString();
+                numericValue = 0;
+            } else {
+                valueType = CellType.NUMERIC;
+            }
+        } else if ("b".equals(type)) {
+            valueType = CellType.BOOLEAN;
+            stringValue = value.toString();
+        } else if ("e".equals(type)) {
+            valueType = CellType.ERROR;
+            stringValue = value.toString();
+        } else if (value.length() == 0) {
+            valueType = CellType.BLANK;
+        } else {
+            valueType = CellType.NUMERIC;
+            numericValue = Double.parseDouble(value.toString());
+        }
+
+        return new SheetCell(this, rowNum, colNum, styleIdx, valueType, stringValue, numericValue,
+                hasFormula, formulaStr);
+    }
+
+    /**
+     * @return the serial date of an ISO 8601 date, time or date-time or NaN, if it can't be parsed
+     */
+    private static double parseIsoDate(String isoDate) {
+        try {
+            if (isoDate.indexOf('-') < 1) {
+                // time only
+                LocalTime time = LocalTime.parse(isoDate);
+                return time.toNanoOfDay() / (double) TimeUnit.DAYS.toNanos(1);
+            }
+            final LocalDateTime dateTime;
+            if (isoDate.indexOf('T') == -1) {
+                dateTime = LocalDate.parse(isoDate).atStartOfDay();
+            } else if (isoDate.endsWith("Z") || isoDate.lastIndexOf('+') > 0 || isoDate.lastIndexOf('-') > isoDate.indexOf('T')) {
+                dateTime = OffsetDateTime.parse(isoDate).toLocalDateTime();
+            } else {
+                dateTime = LocalDateTime.parse(isoDate);
+            }
+            double serial = DateUtil.getExcelDate(dateTime);
+            return serial < 0 ? Double.NaN : serial;
+        } catch (DateTimeParseException e) {
+            return Double.NaN;
+        }
+    }
+
+    private String resolveSharedString(String idxStr) {
+        if (sharedStrings == null || idxStr.isEmpty()) {
+            return null;
+        }
+        try {
+            return sharedStrings.getItemAt(Integer.parseInt(idxStr)).getString();
+        } catch (NumberFormatException e) {
+            throw new POIXMLException("Failed to parse SST index '" + idxStr + "'", e);
+        }
+    }
+
+    private boolean isSpreadsheetML() {
+        String ns = reader.getNamespaceURI();
+        return ns == null || ns.isEmpty() || NS_SPREADSHEETML.equals(ns);
+    }
+
+    /**
+     * A read-only row of a sheet, which holds its cells in sheet order
+     */
+    public static final class SheetRow implements Iterable<SheetCell> {
+        private final int rowNum;
+        private final List<SheetCell> cells;
+
+        SheetRow(int rowNum, List<SheetCell> cells) {
+            this.rowNum = rowNum;
+            this.cells = Collections.unmodifiableList(cells);
+        }
+
+        /**
+         * @return the zero-based row number
+         */
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /**
+         * @return the stored cells of the row, in sheet order - empty cells which are
+         *      not stored in the file are not included
+         */
+        public List<SheetCell> getCells() {
+            return cells;
+        }
+
+        /**
+         * @param columnIndex the zero-based column index
+         * @return the cell of the given column or {@code null} if it's not stored
+         */
+        public SheetCell getCell(int columnIndex) {
+            for (SheetCell cell : cells) {
+                if (cell.getColumnIndex() == columnIndex) {
+                    return cell;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Iterator<SheetCell> iterator() {
+            return cells.iterator();
+        }
+    }
+
+    /**
+     * A read-only cell with its typed value as stored in the sheet.
+     * <p>
+     * For formula cells, the value is the cached formula result.
+     */
+    public static final class SheetCell {
+        private final XSSFPullSheetReader parent;
+        private final int rowIndex;
+        private final int columnIndex;
+        private final int styleIndex;
+        private final CellType valueType;
+        private final String stringValue;
+        private final double numericValue;
+        private final boolean formulaCell;
+        private final String formula;
+
+        SheetCell(XSSFPullSheetReader parent, int rowIndex, int columnIndex, int styleIndex, CellType valueType,
+                  String stringValue, double numericValue, boolean formulaCell, String formula) {
+            this.parent = parent;
+            this.rowIndex = rowIndex;
+            this.columnIndex = columnIndex;
+            this.styleIndex = styleIndex;
+            this.valueType = valueType;
+            this.stringValue = stringValue;
+            this.numericValue = numericValue;
+            this.formulaCell = formulaCell;
+            this.formula = formula;
+        }
+
+        public int getRowIndex() {
+            return rowIndex;
+        }
+
+        public int getColumnIndex() {
+            return columnIndex;
+        }
+
+        public CellAddress getAddress() {
+            return new CellAddress(rowIndex, columnIndex);
+        }
+
+        /**
+         * @return the type of the (cached) value, i.e. never {@link CellType#FORMULA}
+         * @see #isFormulaCell()
+         */
+        public CellType getCellType() {
+            return valueType;
+        }
+
+        /**
+         * @return true, if the cell contains a formula - the value is the cached result
+         */
+        public boolean isFormulaCell() {
+            return formulaCell;
+        }
+
+        /**
+         * @return the formula text or {@code null} if this isn't a formula cell or the cell
+         *      refers to a shared formula, which is only stored in the master cell
+         */
+        public String getCellFormula() {
+            return formula;
+        }
+
+        /**
+         * @return the numeric value or 0 for blank cells
+         * @throws IllegalStateException if the cell isn't numeric or blank
+         */
+        public double getNumericCellValue() {
+            checkType(CellType.NUMERIC);
+            return numericValue;
+        }
+
+        /**
+         * @return the date value of a numeric cell or {@code null} for blank cells
+         * @throws IllegalStateException if the cell isn't numeric or blank
+         */
+        public LocalDateTime getLocalDateTimeCellValue() {
+            checkType(CellType.NUMERIC);
+            return (valueType == CellType.BLANK) ? null : DateUtil.getLocalDateTime(numericValue);
+        }
+
+        /**
+         * @return the string value or an empty string for blank cells
+         * @throws IllegalStateException if the cell isn't a string or blank
+         */
+        public String getStringCellValue() {
+            checkType(CellType.STRING);
+            return (stringValue == null) ? "" : stringValue;
+        }
+
+        /**
+         * @return the boolean value or false for blank cells
+         * @throws IllegalStateException if the cell isn't a boolean or blank
+         */
+        public boolean getBooleanCellValue() {
+            checkType(CellType.BOOLEAN);
+            return stringValue != null && !stringValue.isEmpty() && stringValue.charAt(0) != '0';
+        }
+
+        /**
+         * @return the error code, see {@link FormulaError#getCode()} - unknown error literals
+         *      are reported as {@link FormulaError#NA}
+         * @throws IllegalStateException if the cell isn't an error
+         */
+        public byte getErrorCellValue() {
+            if (valueType != CellType.ERROR) {
+                throw new IllegalStateException("Cannot get an error value from a " + valueType + " cell");
+            }
+            try {
+                return FormulaError.forString(stringValue).getCode();
+            } catch (IllegalArgumentException e) {
+                return FormulaError.NA.getCode();
+            }
+        }
+
+        /**
+         * @return the index of the cell style in the styles table
+         */
+        public int getStyleIndex() {
+            return styleIndex;
+        }
+
+        /**
+         * @return the cell style or {@code null} if the reader has no styles table
+         */
+        public XSSFCellStyle getCellStyle() {
+            Styles styles = parent.styles;
+            return (styles == null || styles.getNumCellStyles() == 0) ? null : styles.getStyleAt(styleIndex);
+        }
+
+        /**
+         * Formats the (cached) cell value with the number format of the cell style
+         *
+         * @param formatter the formatter to use
+         * @return the formatted value, which is empty for blank cells
+         */
+        public String getFormattedValue(DataFormatter formatter) {
+            switch (valueType) {
+                case NUMERIC: {
+                    XSSFCellStyle style = getCellStyle();
+                    if (style == null) {
+                        return formatter.formatRawCellContents(numericValue, 0, "General");
+                    }
+                    String formatStr = style.getDataFormatString();
+                    if (formatStr == null) {
+                        formatStr = BuiltinFormats.getBuiltinFormat(style.getDataFormat());
+                    }
+                    return formatter.formatRawCellContents(numericValue, style.getDataFormat(), formatStr);
+                }
+                case BOOLEAN:
+                    return getBooleanCellValue() ? "TRUE" : "FALSE";
+                case STRING:
+                case ERROR:
+                    return (stringValue == null) ? "" : stringValue;
+                default:
+                    return "";
+            }
+        }
+
+        private void checkType(CellType expected) {
+            if (valueType != expected && valueType != CellType.BLANK) {
+                throw new IllegalStateException("Cannot get a " + expected + " value from a " + valueType + " cell");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getAddress() + ": " + (valueType == CellType.NUMERIC ? Double.toString(numericValue) : stringValue);
+        }
+    }
+}
@@ -28,6 +28,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -71,10 +77,12 @@ public class XSSFReader {
                             XSSFRelation.MACRO_SHEET_XML.getRelation())
             ));
     private static final Logger LOGGER = LogManager.getLogger(XSSFReader.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
 
     protected OPCPackage pkg;
     protected PackagePart workbookPart;
     protected boolean useReadOnlySharedStringsTable;
+    protected boolean useMappedSharedStringsTable;
 
     /**
      * Creates a new XSSFReader, for the given package
@@ -142,6 +150,28 @@ public class XSSFReader {
         return useReadOnlySharedStringsTable;
     }
 
+    /**
+     * Controls whether {@link #getSharedStringsTable()} uses the {@link MappedSharedStringsTable},
+     * which keeps the strings in memory-mapped temporary files instead of the heap.
+     * This takes precedence over {@link #setUseReadOnlySharedStringsTable(boolean)}.
+     * <p>
+     * The returned table needs to be closed by the caller to remove the temporary files.
+     *
+     * @param useMappedSharedStringsTable if true, the MappedSharedStringsTable is used
+     * @since POI 5.3.1
+     */
+    public void setUseMappedSharedStringsTable(boolean useMappedSharedStringsTable) {
+        this.useMappedSharedStringsTable = useMappedSharedStringsTable;
+    }
+
+    /**
+     * @return whether {@link #getSharedStringsTable()} uses {@link MappedSharedStringsTable}
+     * @since POI 5.3.1
+     */
+    public boolean useMappedSharedStringsTable() {
+        return useMappedSharedStringsTable;
+    }
+
     /**
      * Opens up the Shared Strings Table, parses it, and
      * returns a handy object for working with
@@ -151,11 +181,13 @@ public class XSSFReader {
      * @throws InvalidFormatException if the shared strings data format is invalid
      * @throws IOException if there is an I/O issue reading the data
      * @see #setUseReadOnlySharedStringsTable(boolean)
+     * @see #setUseMappedSharedStringsTable(boolean)
      */
     public SharedStrings getSharedStringsTable() throws IOException, InvalidFormatException {
         ArrayList<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
         try {
             return parts.isEmpty() ? null :
+                    useMappedSharedStringsTable ? new MappedSharedStringsTable(parts.get(0)) :
                     useReadOnlySharedStringsTable ? new ReadOnlySharedStringsTable(parts.get(0)) :
                             new SharedStringsTable(parts.get(0));
         } catch (SAXException se) {
@@ -270,6 +302,113 @@ public class XSSFReader {
         return new SheetIterator(workbookPart);
     }
 
+    /**
+     * Processes all sheets with the given number of threads.
+     *
+     * @param parallelism the number of sheets which are processed concurrently,
+     *                    a value of 1 or less processes the sheets on the calling thread
+     * @param processor the callback which parses a single sheet
+     * @return the results of the processor, in the (logical) order of the sheets
+     * @throws IOException if there is an I/O issue reading the data
+     * @throws SAXException if parsing a sheet failed
+     * @throws InvalidFormatException if the sheet data format is invalid
+     * @see #processSheets(Executor, SheetProcessor)
+     * @since POI 5.3.1
+     */
+    public <T> List<T> processSheets(int parallelism, SheetProcessor<T> processor)
+            throws IOException, SAXException, InvalidFormatException {
+        if (parallelism <= 1) {
+            return processSheets(Runnable::run, processor);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "POI-XSSFReader-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            return processSheets(executor, processor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Processes all sheets concurrently on the given executor.
+     * <p>
+     * The sheet parts are independent of each other, so the processor is called
+     * concurrently for different sheets, but only once per sheet. Any shared objects
+     * used by the processor, like the {@link SharedStrings} or {@link StylesTable},
+     * must only be read while the sheets are processed. The provided read-only tables
+     * and styles are safe for this, whereas non thread-safe helpers like the
+     * {@link org.apache.poi.ss.usermodel.DataFormatter} need to be created per sheet.
+     * <p>
+     * The degree of parallelism is controlled by the executor.
+     *
+     * @param executor the executor to run the processor on
+     * @param processor the callback which parses a single sheet
+     * @return the results of the processor, in the (logical) order of the sheets
+     * @throws IOException if there is an I/O issue reading the data
+     * @throws SAXException if parsing a sheet failed
+     * @throws InvalidFormatException if the sheet data format is invalid
+     * @since POI 5.3.1
+     */
+    public <T> List<T> processSheets(Executor executor, SheetProcessor<T> processor)
+            throws IOException, SAXException, InvalidFormatException {
+        SheetIterator iter = (SheetIterator)getSheetsData();
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        while (iter.sheetIterator.hasNext()) {
+            XSSFSheetRef ref = iter.sheetIterator.next();
+            PackagePart sheetPart = iter.sheetMap.get(ref.getId());
+            if (sheetPart == null) {
+                throw new POIXMLException("Failed to find sheet package for sheetId=" + ref.getId());
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return processor.process(ref, sheetPart);
+                } catch (IOException | SAXException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof SAXException) {
+                throw (SAXException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new POIXMLException(cause);
+        }
+        return results;
+    }
+
+    /**
+     * Callback for processing a single sheet via {@link #processSheets(Executor, SheetProcessor)}
+     *
+     * @since POI 5.3.1
+     */
+    @FunctionalInterface
+    public interface SheetProcessor<T> {
+        /**
+         * Processes a single sheet. This is called concurrently for different sheets.
+         *
+         * @param sheetRef the relation id and name of the sheet
+         * @param sheetPart the package part of the sheet, use {@link PackagePart#getInputStream()}
+         *                  to parse its data
+         * @return the result for this sheet
+         */
+        T process(XSSFSheetRef sheetRef, PackagePart sheetPart) throws IOException, SAXException;
+    }
+
     /**
      * Iterator over sheet data.
      */
@@ -412,8 +551,18 @@ public class XSSFReader {
          * or null if there aren't any
          */
         public Comments getSheetComments() {
-            PackagePart sheetPkg = getSheetPart();
+            return getSheetComments(getSheetPart());
+        }
 
+        /**
+         * Returns the comments associated with the given sheet part,
+         * or null if there aren't any. Opposed to {@link #getSheetComments()}
+         * this doesn't depend on the current position of the iterator.
+         *
+         * @param sheetPkg the package part of the sheet
+         * @since POI 5.3.1
+         */
+        public Comments getSheetComments(PackagePart sheetPkg) {
             // Do we have a comments relationship? (Only ever one if so)
             try {
                 PackageRelationshipCollection commentsList =
@@ -441,7 +590,19 @@ public class XSSFReader {
          * an empty list or null if there is an exception
          */
         public List<XSSFShape> getShapes() {
-            PackagePart sheetPkg = getSheetPart();
+            return getShapes(getSheetPart());
+        }
+
+        /**
+         * Returns the shapes associated with the given sheet part,
+         * an empty list or null if there is an exception.
+         * Opposed to {@link #getShapes()} this doesn't depend on the
+         * current position of the iterator.
+         *
+         * @param sheetPkg the package part of the sheet
+         * @since POI 5.3.1
+         */
+        public List<XSSFShape> getShapes(PackagePart sheetPkg) {
             List<XSSFShape> shapes = new LinkedList<>();
             // Do we have a shapes relationship? (Only ever one if so)
             try {
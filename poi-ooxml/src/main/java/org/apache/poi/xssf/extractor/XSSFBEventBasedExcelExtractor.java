@@ -112,6 +112,27 @@ public class XSSFBEventBasedExcelExtractor extends XSSFEventBasedExcelExtractor
             XSSFBReader.SheetIterator iter = (XSSFBReader.SheetIterator) xssfbReader.getSheetsData();
 
             StringBuilder text = new StringBuilder(64);
+
+            if (getParallelism() > 1) {
+                // the binary shared strings and styles are only read while the sheets are parsed
+                List<String> sheetTexts = xssfbReader.processSheets(getParallelism(), (sheetRef, sheetPart) -> {
+                    StringBuilder sheetText = new StringBuilder(64);
+                    if (getIncludeSheetNames()) {
+                        sheetText.append(sheetRef.getName());
+                        sheetText.append('\n');
+                    }
+                    XSSFBCommentsTable comments = getIncludeCellComments() ? iter.getXSSFBSheetComments(sheetPart) : null;
+                    SheetTextExtractor extractor = new SheetTextExtractor();
+                    try (InputStream stream = sheetPart.getInputStream()) {
+                        processSheet(extractor, styles, comments, strings, stream);
+                    }
+                    appendSheetText(extractor, getIncludeTextBoxes() ? iter.getShapes(sheetPart) : null, sheetText);
+                    return sheetText.toString();
+                });
+                sheetTexts.forEach(text::append);
+                return text.toString();
+            }
+
             SheetTextExtractor sheetExtractor = new SheetTextExtractor();
             XSSFBHyperlinksTable hyperlinksTable = null;
             while (iter.hasNext()) {
@@ -125,16 +146,7 @@ public class XSSFBEventBasedExcelExtractor extends XSSFEventBasedExcelExtractor
                     }
                     XSSFBCommentsTable comments = getIncludeCellComments() ? iter.getXSSFBSheetComments() : null;
                     processSheet(sheetExtractor, styles, comments, strings, stream);
-                    if (getIncludeHeadersFooters()) {
-                        sheetExtractor.appendHeaderText(text);
-                    }
-                    sheetExtractor.appendCellText(text);
-                    if (getIncludeTextBoxes()) {
-                        processShapes(iter.getShapes(), text);
-                    }
-                    if (getIncludeHeadersFooters()) {
-                        sheetExtractor.appendFooterText(text);
-                    }
+                    appendSheetText(sheetExtractor, getIncludeTextBoxes() ? iter.getShapes() : null, text);
                     sheetExtractor.reset();
                 }
             }
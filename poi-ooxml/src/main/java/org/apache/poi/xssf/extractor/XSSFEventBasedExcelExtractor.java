@@ -75,6 +75,7 @@ public class XSSFEventBasedExcelExtractor
     protected boolean includeHeadersFooters = true;
     protected boolean formulasNotResults;
     protected boolean concatenatePhoneticRuns = true;
+    protected int parallelism = 1;
 
     private boolean doCloseFilesystem = true;
 
@@ -174,6 +175,26 @@ public class XSSFEventBasedExcelExtractor
         this.concatenatePhoneticRuns = concatenatePhoneticRuns;
     }
 
+    /**
+     * Sets the number of sheets which are parsed concurrently by {@link #getText()}.
+     * Default is 1, i.e. the sheets are parsed one after another on the calling thread.
+     * The text of the sheets is always returned in sheet order.
+     *
+     * @param parallelism the number of threads used for parsing the sheets
+     * @since POI 5.3.1
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the number of sheets which are parsed concurrently
+     * @since POI 5.3.1
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
     public void setLocale(Locale locale) {
         this.locale = locale;
     }
@@ -264,6 +285,27 @@ public class XSSFEventBasedExcelExtractor
             StylesTable styles = xssfReader.getStylesTable();
             XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
             StringBuilder text = new StringBuilder(64);
+
+            if (parallelism > 1) {
+                // the read-only shared strings and the styles are only read while the sheets are parsed
+                List<String> sheetTexts = xssfReader.processSheets(parallelism, (sheetRef, sheetPart) -> {
+                    StringBuilder sheetText = new StringBuilder(64);
+                    if (includeSheetNames) {
+                        sheetText.append(sheetRef.getName());
+                        sheetText.append('\n');
+                    }
+                    Comments comments = includeCellComments ? iter.getSheetComments(sheetPart) : null;
+                    SheetTextExtractor extractor = new SheetTextExtractor();
+                    try (InputStream stream = sheetPart.getInputStream()) {
+                        processSheet(extractor, styles, comments, strings, stream);
+                    }
+                    appendSheetText(extractor, includeTextBoxes ? iter.getShapes(sheetPart) : null, sheetText);
+                    return sheetText.toString();
+                });
+                sheetTexts.forEach(text::append);
+                return text.toString();
+            }
+
             SheetTextExtractor sheetExtractor = new SheetTextExtractor();
 
             while (iter.hasNext()) {
@@ -274,16 +316,7 @@ public class XSSFEventBasedExcelExtractor
                     }
                     Comments comments = includeCellComments ? iter.getSheetComments() : null;
                     processSheet(sheetExtractor, styles, comments, strings, stream);
-                    if (includeHeadersFooters) {
-                        sheetExtractor.appendHeaderText(text);
-                    }
-                    sheetExtractor.appendCellText(text);
-                    if (includeTextBoxes) {
-                        processShapes(iter.getShapes(), text);
-                    }
-                    if (includeHeadersFooters) {
-                        sheetExtractor.appendFooterText(text);
-                    }
+                    appendSheetText(sheetExtractor, includeTextBoxes ? iter.getShapes() : null, text);
                     sheetExtractor.reset();
                 }
             }
@@ -295,6 +328,19 @@ public class XSSFEventBasedExcelExtractor
         }
     }
 
+    void appendSheetText(SheetTextExtractor sheetExtractor, List<XSSFShape> shapes, StringBuilder text) {
+        if (includeHeadersFooters) {
+            sheetExtractor.appendHeaderText(text);
+        }
+        sheetExtractor.appendCellText(text);
+        if (includeTextBoxes) {
+            processShapes(shapes, text);
+        }
+        if (includeHeadersFooters) {
+            sheetExtractor.appendFooterText(text);
+        }
+    }
+
     void processShapes(List<XSSFShape> shapes, StringBuilder text) {
         if (shapes == null) {
             return;
@@ -29,9 +29,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import org.apache.poi.ooxml.POIXMLDocumentPart;
 import org.apache.poi.openxml4j.opc.PackagePart;
@@ -47,13 +50,18 @@ import org.apache.poi.xssf.usermodel.DefaultIndexedColorMap;
 import org.apache.poi.xssf.usermodel.IndexedColorMap;
 import org.apache.poi.xssf.usermodel.XSSFBuiltinTableStyle;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFTableStyle;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder.BorderSide;
 import org.apache.poi.xssf.usermodel.extensions.XSSFCellFill;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlCursor.ChangeStamp;
 import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTBorder;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTBorders;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellStyleXfs;
@@ -84,6 +92,16 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     private final List<CTXf> styleXfs = new ArrayList<>();
     private final List<CTXf> xfs = new ArrayList<>();
 
+    // hash indexes over the above lists, used to find existing entries when registering styles
+    private final StyleIndex<XSSFFont> fontIndex = new StyleIndex<>(StylesTable::fontHash, XSSFFont::getCTFont);
+    private final StyleIndex<XSSFCellFill> fillIndex = new StyleIndex<>(StylesTable::fillHash, XSSFCellFill::getCTFill);
+    private final StyleIndex<XSSFCellBorder> borderIndex = new StyleIndex<>(StylesTable::borderHash, XSSFCellBorder::getCTBorder);
+    // CTXf doesn't override equals(), so the identity is sufficient
+    private final StyleIndex<CTXf> xfIndex = new StyleIndex<>(System::identityHashCode, null);
+
+    private long styleLookups;
+    private long styleLookupHits;
+
     private final List<CTDxf> dxfs = new ArrayList<>();
     private final Map<String, TableStyle> tableStyles = new HashMap<>();
 
@@ -241,25 +259,36 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
                     // Create the font and save it. Themes Table supplied later
                     XSSFFont f = new XSSFFont(font, idx, indexedColors);
                     fonts.add(f);
+                    // fonts of a loaded workbook are often customised via getFontAt(), so they are hashed lazily
+                    fontIndex.add(f, idx, false);
                     idx++;
                 }
             }
             CTFills ctfills = styleSheet.getFills();
             if(ctfills != null){
                 for (CTFill fill : ctfills.getFillArray()) {
-                    fills.add(new XSSFCellFill(fill, indexedColors));
+                    XSSFCellFill f = new XSSFCellFill(fill, indexedColors);
+                    fillIndex.add(f, fills.size(), true);
+                    fills.add(f);
                 }
             }
 
             CTBorders ctborders = styleSheet.getBorders();
             if(ctborders != null) {
                 for (CTBorder border : ctborders.getBorderArray()) {
-                    borders.add(new XSSFCellBorder(border, indexedColors));
+                    XSSFCellBorder b = new XSSFCellBorder(border, indexedColors);
+                    borderIndex.add(b, borders.size(), true);
+                    borders.add(b);
                 }
             }
 
             CTCellXfs cellXfs = styleSheet.getCellXfs();
-            if(cellXfs != null) xfs.addAll(Arrays.asList(cellXfs.getXfArray()));
+            if(cellXfs != null) {
+                for (CTXf xf : cellXfs.getXfArray()) {
+                    xfIndex.add(xf, xfs.size(), true);
+                    xfs.add(xf);
+                }
+            }
 
             CTCellStyleXfs cellStyleXfs = styleSheet.getCellStyleXfs();
             if(cellStyleXfs != null) styleXfs.addAll(Arrays.asList(cellStyleXfs.getXfArray()));
@@ -425,7 +454,7 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     public int putFont(XSSFFont font, boolean forceRegistration) {
         int idx = -1;
         if(!forceRegistration) {
-            idx = fonts.indexOf(font);
+            idx = lookup(fontIndex, fonts, font);
         }
 
         if (idx != -1) {
@@ -433,6 +462,9 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
         }
 
         idx = fonts.size();
+        // forced fonts are customised later on, so they are hashed by the next lookup
+        // forced duplicates share a bucket and are told apart by their index
+        fontIndex.add(font, idx, !forceRegistration);
         fonts.add(font);
         return idx;
     }
@@ -467,10 +499,11 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     public int putStyle(XSSFCellStyle style) {
         CTXf mainXF = style.getCoreXf();
 
-        int ret = xfs.indexOf(mainXF);
+        int ret = lookup(xfIndex, xfs, mainXF);
         if(ret == -1) {
+            ret = xfs.size();
+            xfIndex.add(mainXF, ret, true);
             xfs.add(mainXF);
-            ret = xfs.size() - 1;
         }
         return ret;
     }
@@ -489,10 +522,11 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
      */
     @Override
     public int putBorder(XSSFCellBorder border) {
-        int idx = borders.indexOf(border);
+        int idx = lookup(borderIndex, borders, border);
         if (idx != -1) {
             return idx;
         }
+        borderIndex.add(border, borders.size(), true);
         borders.add(border);
         border.setThemesTable(theme);
         return borders.size() - 1;
@@ -528,10 +562,11 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
      */
     @Override
     public int putFill(XSSFCellFill fill) {
-        int idx = fills.indexOf(fill);
+        int idx = lookup(fillIndex, fills, fill);
         if (idx != -1) {
             return idx;
         }
+        fillIndex.add(fill, fills.size(), true);
         fills.add(fill);
         return fills.size() - 1;
     }
@@ -550,13 +585,16 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
      */
     @Internal
     public int putCellXf(CTXf cellXf) {
+        xfIndex.add(cellXf, xfs.size(), true);
         xfs.add(cellXf);
         return xfs.size();
     }
 
     @Internal
     public void replaceCellXfAt(int idx, CTXf cellXf) {
-        xfs.set(idx, cellXf);
+        CTXf old = xfs.set(idx, cellXf);
+        xfIndex.remove(old, idx);
+        xfIndex.add(cellXf, idx, true);
     }
 
     @Internal
@@ -598,6 +636,25 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
         return xfs.size();
     }
 
+    /**
+     * @return the number of lookups for existing fonts, fills, borders and cell styles,
+     *  i.e. the deduplicating calls of {@link #putFont(XSSFFont)}, {@link #putFill(XSSFCellFill)},
+     *  {@link #putBorder(XSSFCellBorder)} and {@link #putStyle(XSSFCellStyle)}
+     * @since POI 5.3.1
+     */
+    public long getStyleLookupCount() {
+        return styleLookups;
+    }
+
+    /**
+     * @return the number of lookups, which found an existing entry and therefore didn't add a new one
+     * @see #getStyleLookupCount()
+     * @since POI 5.3.1
+     */
+    public long getStyleLookupHitCount() {
+        return styleLookupHits;
+    }
+
     /**
      * @return number of data formats in the styles table
      */
@@ -746,19 +803,25 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     private void initialize() {
         //CTFont ctFont = createDefaultFont();
         XSSFFont xssfFont = createDefaultFont();
+        fontIndex.add(xssfFont, 0, false);
         fonts.add(xssfFont);
 
         CTFill[] ctFill = createDefaultFills();
-        fills.add(new XSSFCellFill(ctFill[0], indexedColors));
-        fills.add(new XSSFCellFill(ctFill[1], indexedColors));
+        for (CTFill fill : ctFill) {
+            XSSFCellFill f = new XSSFCellFill(fill, indexedColors);
+            fillIndex.add(f, fills.size(), true);
+            fills.add(f);
+        }
 
-        CTBorder ctBorder = createDefaultBorder();
-        borders.add(new XSSFCellBorder(ctBorder));
+        XSSFCellBorder border = new XSSFCellBorder(createDefaultBorder());
+        borderIndex.add(border, 0, true);
+        borders.add(border);
 
         CTXf styleXf = createDefaultXf();
         styleXfs.add(styleXf);
         CTXf xf = createDefaultXf();
         xf.setXfId(0);
+        xfIndex.add(xf, 0, true);
         xfs.add(xf);
     }
 
@@ -922,4 +985,170 @@ public class StylesTable extends POIXMLDocumentPart implements Styles {
     public IndexedColorMap getIndexedColors() {
         return indexedColors;
     }
+
+    private <T> int lookup(StyleIndex<T> index, List<T> list, T entry) {
+        styleLookups++;
+        int idx = index.indexOf(list, entry);
+        if (idx != -1) {
+            styleLookupHits++;
+        }
+        return idx;
+    }
+
+    // The hash functions only use properties, which are compared by the respective equals() methods.
+    // Colors of fonts and borders are left out, as they depend on the themes table.
+
+    private static int fontHash(XSSFFont font) {
+        return Objects.hash(font.getFontName(), font.getFontHeight(), font.getBold(),
+                font.getItalic(), font.getUnderline(), font.getTypeOffset());
+    }
+
+    private static int fillHash(XSSFCellFill fill) {
+        return Objects.hash(fill.getPatternType(),
+                colorHash(fill.getFillForegroundColor()), colorHash(fill.getFillBackgroundColor()));
+    }
+
+    private static int borderHash(XSSFCellBorder border) {
+        int hash = 1;
+        for (BorderSide side : BorderSide.values()) {
+            hash = 31 * hash + border.getBorderStyle(side).hashCode();
+        }
+        return hash;
+    }
+
+    private static int colorHash(XSSFColor color) {
+        if (color == null) {
+            return 0;
+        }
+        return Objects.hash(color.isRGB() ? Arrays.hashCode(color.getARGB()) : null,
+                color.isIndexed() ? color.getIndexed() : null,
+                color.isThemed() ? color.getTheme() : null);
+    }
+
+    /**
+     * Hash index over one of the style lists, so that registering a style doesn't need to scan the list.
+     * <p>
+     * Entries are bucketed by a hash of properties, which are also compared by their {@code equals()} method.
+     * The candidates of a bucket are then checked with {@code equals()}, so a lookup finds an equal entry
+     * like {@link List#indexOf(Object)}. Entries which are likely modified after registration are added
+     * as pending and only hashed on the next lookup.
+     * <p>
+     * The XSSF wrappers write their properties to the XmlBeans objects, so the change stamps of their documents
+     * tell, which hashed entries might have been modified. Before a lookup concludes that there is no equal entry,
+     * the changed entries are hashed again and moved to their current bucket. If an earlier entry was modified
+     * to equal a later one, the later one might be found first.
+     */
+    private static final class StyleIndex<T> {
+        private final ToIntFunction<T> hashFunction;
+        // the XmlBeans object of an entry, or null if the hash doesn't depend on modifiable properties
+        private final Function<T, XmlObject> beanFunction;
+        private final Map<Integer, List<Integer>> buckets = new HashMap<>();
+        // the bucket key of each hashed entry
+        private final Map<Integer, Integer> hashes = new HashMap<>();
+        // the document change stamp of each hashed entry from the time it was hashed
+        private final Map<Integer, ChangeStamp> stamps = new HashMap<>();
+        private final List<Integer> pending = new ArrayList<>();
+
+        StyleIndex(ToIntFunction<T> hashFunction, Function<T, XmlObject> beanFunction) {
+            this.hashFunction = hashFunction;
+            this.beanFunction = beanFunction;
+        }
+
+        void add(T entry, int idx, boolean hashed) {
+            if (hashed) {
+                hash(entry, idx);
+            } else {
+                pending.add(idx);
+            }
+        }
+
+        void remove(T entry, int idx) {
+            Integer key = hashes.remove(idx);
+            if (key != null) {
+                removeFromBucket(key, idx);
+            }
+            stamps.remove(idx);
+            pending.remove((Integer)idx);
+        }
+
+        int indexOf(List<T> list, T entry) {
+            for (int idx : pending) {
+                hash(list.get(idx), idx);
+            }
+            pending.clear();
+
+            int key = hashFunction.applyAsInt(entry);
+            int found = find(list, entry, key);
+            if (found == -1 && rehashChanged(list)) {
+                found = find(list, entry, key);
+            }
+            return found;
+        }
+
+        private int find(List<T> list, T entry, int key) {
+            List<Integer> candidates = buckets.get(key);
+            if (candidates == null) {
+                return -1;
+            }
+            for (int idx : candidates) {
+                if (entry.equals(list.get(idx))) {
+                    return idx;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return true, if an entry was moved to another bucket
+         */
+        private boolean rehashChanged(List<T> list) {
+            boolean moved = false;
+            for (Map.Entry<Integer, ChangeStamp> me : stamps.entrySet()) {
+                if (!me.getValue().hasChanged()) {
+                    continue;
+                }
+                int idx = me.getKey();
+                T entry = list.get(idx);
+                me.setValue(changeStamp(entry));
+                int key = hashFunction.applyAsInt(entry);
+                int oldKey = hashes.get(idx);
+                if (key != oldKey) {
+                    removeFromBucket(oldKey, idx);
+                    addToBucket(key, idx);
+                    moved = true;
+                }
+            }
+            return moved;
+        }
+
+        private void hash(T entry, int idx) {
+            addToBucket(hashFunction.applyAsInt(entry), idx);
+            if (beanFunction != null) {
+                stamps.put(idx, changeStamp(entry));
+            }
+        }
+
+        private ChangeStamp changeStamp(T entry) {
+            try (XmlCursor cur = beanFunction.apply(entry).newCursor()) {
+                return cur.getDocChangeStamp();
+            }
+        }
+
+        private void addToBucket(int key, int idx) {
+            List<Integer> bucket = buckets.computeIfAbsent(key, k -> new ArrayList<>(1));
+            // keep the indexes sorted, to return the first equal entry
+            int pos = Collections.binarySearch(bucket, idx);
+            if (pos < 0) {
+                bucket.add(-pos - 1, idx);
+            }
+            hashes.put(idx, key);
+        }
+
+        private void removeFromBucket(int key, int idx) {
+            List<Integer> bucket = buckets.get(key);
+            if (bucket != null && bucket.remove((Integer)idx) && bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
 }
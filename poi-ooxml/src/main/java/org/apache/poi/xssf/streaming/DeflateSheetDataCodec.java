@@ -0,0 +1,199 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xssf.streaming;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compresses the temp files with raw deflate, i.e. the same format as the entries of the resulting zip file.
+ *
+ * @see SheetDataCodec#deflate(int)
+ */
+final class DeflateSheetDataCodec implements SheetDataCodec {
+    private final int level;
+
+    DeflateSheetDataCodec(int level) {
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid deflate level: " + level);
+        }
+        this.level = level;
+    }
+
+    @Override
+    public RawDeflateOutputStream encode(OutputStream out) {
+        return new RawDeflateOutputStream(out, level);
+    }
+
+    @Override
+    public InputStream decode(InputStream in) {
+        return new InflaterInputStream(in, new Inflater(true)) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    try {
+                        super.close();
+                    } finally {
+                        inf.end();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * A raw deflate stream, which keeps the CRC and the size of the uncompressed data.
+     * <p>
+     * On close, the data is terminated by an empty stored block (sync flush) before the final block
+     * is written. Hence, the first {@link #getDeflatedLength()} bytes can be embedded into another
+     * deflate stream, e.g. the worksheet entry of the resulting zip file, while the whole output
+     * can still be inflated on its own.
+     */
+    static final class RawDeflateOutputStream extends DeflaterOutputStream {
+        private final CRC32 crc = new CRC32();
+        private long size = -1;
+        private long deflatedLength = -1;
+        private boolean closed;
+
+        RawDeflateOutputStream(OutputStream out, int level) {
+            super(out, new Deflater(level, true), 8192);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                int len;
+                while ((len = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH)) > 0) {
+                    out.write(buf, 0, len);
+                    if (len < buf.length) {
+                        break;
+                    }
+                }
+                deflatedLength = def.getBytesWritten();
+                size = def.getBytesRead();
+                finish();
+            } finally {
+                def.end();
+                out.close();
+            }
+        }
+
+        /**
+         * @return the CRC-32 of the uncompressed data
+         */
+        long getCrc() {
+            return crc.getValue();
+        }
+
+        /**
+         * @return the size of the uncompressed data, only available after the stream is closed
+         */
+        long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the length of the deflate data up to the final block, only available after the stream is closed
+         */
+        long getDeflatedLength() {
+            return deflatedLength;
+        }
+    }
+
+    /**
+     * Combines the CRC-32 of two consecutive blocks of data, same as {@code crc32_combine()} of zlib
+     *
+     * @param crc1 the CRC-32 of the first block
+     * @param crc2 the CRC-32 of the second block
+     * @param len2 the length of the second block
+     * @return the CRC-32 of both blocks
+     */
+    static long combineCrc(long crc1, long crc2, long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        // operator for one zero bit in odd, for two zero bits in even
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+
+        // apply len2 zeros to crc1 (the first square puts the operator for one zero byte in even)
+        long crc = crc1;
+        long len = len2;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len & 1) != 0) {
+                crc = gf2MatrixTimes(even, crc);
+            }
+            len >>= 1;
+            if (len == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((len & 1) != 0) {
+                crc = gf2MatrixTimes(odd, crc);
+            }
+            len >>= 1;
+        } while (len != 0);
+        return crc ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(long[] mat, long vec) {
+        long sum = 0;
+        long v = vec;
+        for (int i = 0; v != 0; i++, v >>>= 1) {
+            if ((v & 1) != 0) {
+                sum ^= mat[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xssf.streaming;
+
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.apache.poi.util.LittleEndian;
+
+/**
+ * A pure Java block compression for the temp files, which uses the sequence format of
+ * the LZ4 block format with a greedy single-probe match finder.
+ * <p>
+ * The data is split into blocks of 64 KiB, which are compressed independently.
+ * Each block is prefixed by its uncompressed and compressed length (both as little-endian ints),
+ * where a compressed length equal to the uncompressed length denotes a stored block.
+ * This is not compatible with the LZ4 frame format, as the temp files are only read by this codec.
+ *
+ * @see SheetDataCodec#lz4()
+ */
+final class Lz4SheetDataCodec implements SheetDataCodec {
+    static final Lz4SheetDataCodec INSTANCE = new Lz4SheetDataCodec();
+
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    private static final int MIN_MATCH = 4;
+    /** the last literals which aren't compressed at the end of a block */
+    private static final int LAST_LITERALS = 5;
+    /** a match must start at least this number of bytes before the end of a block */
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 14;
+    private static final int HEADER_SIZE = 8;
+
+    private Lz4SheetDataCodec() {}
+
+    @Override
+    public OutputStream encode(OutputStream out) {
+        return new Lz4OutputStream(out);
+    }
+
+    @Override
+    public InputStream decode(InputStream in) {
+        return new Lz4InputStream(in);
+    }
+
+    /**
+     * @return the maximum length of the compressed data of the given length
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses a block
+     *
+     * @param src the uncompressed data
+     * @param srcLen the length of the uncompressed data
+     * @param dst the buffer for the compressed data, with at least {@link #maxCompressedLength(int)} bytes
+     * @param table the hash table, with {@code 1 << HASH_LOG} entries
+     * @return the length of the compressed data
+     */
+    static int compress(byte[] src, int srcLen, byte[] dst, int[] table) {
+        Arrays.fill(table, -1);
+        int anchor = 0;
+        int ip = 0;
+        int op = 0;
+        final int matchLimit = srcLen - MF_LIMIT;
+        while (ip < matchLimit) {
+            int seq = LittleEndian.getInt(src, ip);
+            int h = (seq * -1640531535) >>> (32 - HASH_LOG);
+            int ref = table[h];
+            table[h] = ip;
+            if (ref < 0 || ip - ref > MAX_OFFSET || LittleEndian.getInt(src, ref) != seq) {
+                ip++;
+                continue;
+            }
+            int len = MIN_MATCH;
+            final int maxLen = srcLen - LAST_LITERALS - ip;
+            while (len < maxLen && src[ref + len] == src[ip + len]) {
+                len++;
+            }
+            op = writeLiterals(dst, op, src, anchor, ip - anchor, len - MIN_MATCH);
+            dst[op++] = (byte)(ip - ref);
+            dst[op++] = (byte)((ip - ref) >>> 8);
+            if (len - MIN_MATCH >= 15) {
+                op = writeLength(dst, op, len - MIN_MATCH - 15);
+            }
+            ip += len;
+            anchor = ip;
+        }
+        return writeLiterals(dst, op, src, anchor, srcLen - anchor, 0);
+    }
+
+    private static int writeLiterals(byte[] dst, int op, byte[] src, int off, int len, int matchLen) {
+        int o = op;
+        dst[o++] = (byte)((Math.min(len, 15) << 4) | Math.min(matchLen, 15));
+        if (len >= 15) {
+            o = writeLength(dst, o, len - 15);
+        }
+        System.arraycopy(src, off, dst, o, len);
+        return o + len;
+    }
+
+    private static int writeLength(byte[] dst, int op, int len) {
+        int o = op;
+        int l = len;
+        while (l >= 255) {
+            dst[o++] = (byte)255;
+            l -= 255;
+        }
+        dst[o++] = (byte)l;
+        return o;
+    }
+
+    /**
+     * Decompresses a block
+     *
+     * @param src the compressed data
+     * @param srcLen the length of the compressed data
+     * @param dst the buffer for the uncompressed data
+     * @param dstLen the expected length of the uncompressed data
+     * @throws IOException if the compressed data is corrupt
+     */
+    static void decompress(byte[] src, int srcLen, byte[] dst, int dstLen) throws IOException {
+        try {
+            int ip = 0;
+            int op = 0;
+            while (true) {
+                int token = src[ip++] & 0xff;
+                int lit = token >>> 4;
+                if (lit == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xff;
+                        lit += b;
+                    } while (b == 255);
+                }
+                if (ip + lit > srcLen || op + lit > dstLen) {
+                    throw new IOException("Corrupt LZ4 block - literals exceed the block");
+                }
+                System.arraycopy(src, ip, dst, op, lit);
+                ip += lit;
+                op += lit;
+                if (ip == srcLen) {
+                    break;
+                }
+
+                int offset = (src[ip++] & 0xff) | ((src[ip++] & 0xff) << 8);
+                int len = token & 0x0f;
+                if (len == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xff;
+                        len += b;
+                    } while (b == 255);
+                }
+                len += MIN_MATCH;
+                int ref = op - offset;
+                if (offset == 0 || ref < 0 || op + len > dstLen) {
+                    throw new IOException("Corrupt LZ4 block - invalid match");
+                }
+                if (offset >= len) {
+                    System.arraycopy(dst, ref, dst, op, len);
+                    op += len;
+                } else {
+                    // overlapping match, i.e. a repetition of the last bytes
+                    for (int end = op + len; op < end; ) {
+                        dst[op++] = dst[ref++];
+                    }
+                }
+            }
+            if (op != dstLen) {
+                throw new IOException("Corrupt LZ4 block - expected " + dstLen + " bytes, but got " + op);
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt LZ4 block", e);
+        }
+    }
+
+    private static final class Lz4OutputStream extends FilterOutputStream {
+        private final byte[] header = new byte[HEADER_SIZE];
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+        private final int[] table = new int[1 << HASH_LOG];
+        private int pos;
+        private boolean closed;
+
+        Lz4OutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (pos == BLOCK_SIZE) {
+                writeBlock();
+            }
+            block[pos++] = (byte)b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int o = off;
+            int l = len;
+            while (l > 0) {
+                if (pos == BLOCK_SIZE) {
+                    writeBlock();
+                }
+                int n = Math.min(l, BLOCK_SIZE - pos);
+                System.arraycopy(b, o, block, pos, n);
+                pos += n;
+                o += n;
+                l -= n;
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (pos == 0) {
+                return;
+            }
+            int len = compress(block, pos, compressed, table);
+            // store the block, if it's not compressible
+            boolean stored = len >= pos;
+            LittleEndian.putInt(header, 0, pos);
+            LittleEndian.putInt(header, 4, stored ? pos : len);
+            out.write(header);
+            out.write(stored ? block : compressed, 0, stored ? pos : len);
+            pos = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // blocks are only written when they are full, otherwise the compression ratio would depend on the flushes
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeBlock();
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private static final class Lz4InputStream extends FilterInputStream {
+        private final DataInputStream din;
+        private final byte[] header = new byte[HEADER_SIZE];
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+        private int pos;
+        private int limit;
+
+        Lz4InputStream(InputStream in) {
+            super(in);
+            din = new DataInputStream(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos == limit && !readBlock()) {
+                return -1;
+            }
+            return block[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (pos == limit && !readBlock()) {
+                return -1;
+            }
+            int n = Math.min(len, limit - pos);
+            System.arraycopy(block, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                if (pos == limit && !readBlock()) {
+                    break;
+                }
+                int s = (int)Math.min(n - skipped, limit - pos);
+                pos += s;
+                skipped += s;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return limit - pos;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private boolean readBlock() throws IOException {
+            int first = din.read();
+            if (first == -1) {
+                return false;
+            }
+            header[0] = (byte)first;
+            din.readFully(header, 1, HEADER_SIZE - 1);
+            int rawLen = LittleEndian.getInt(header, 0);
+            int len = LittleEndian.getInt(header, 4);
+            if (rawLen <= 0 || rawLen > BLOCK_SIZE || len <= 0 || len > rawLen) {
+                throw new IOException("Corrupt LZ4 block header - length " + len + " / " + rawLen);
+            }
+            if (len == rawLen) {
+                din.readFully(block, 0, rawLen);
+            } else {
+                din.readFully(compressed, 0, len);
+                decompress(compressed, len, block, rawLen);
+            }
+            pos = 0;
+            limit = rawLen;
+            return true;
+        }
+    }
+}
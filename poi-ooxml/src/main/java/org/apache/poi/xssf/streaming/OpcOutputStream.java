@@ -17,9 +17,11 @@
 
 package org.apache.poi.xssf.streaming;
 
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.xssf.streaming.Zip64Impl.Entry;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -70,6 +72,37 @@ class OpcOutputStream extends DeflaterOutputStream {
         entries.add(current);
     }
 
+    /**
+     * Adds an entry with already deflated data, i.e. the raw deflate stream is copied
+     * as-is without compressing it again.
+     *
+     * @param name the name of the entry
+     * @param crc the CRC-32 of the uncompressed data
+     * @param size the size of the uncompressed data
+     * @param compressedSize the size of the raw deflate stream
+     * @param raw the raw deflate stream (without zlib header)
+     */
+    public void putRawEntry(String name, long crc, long size, long compressedSize, InputStream raw) throws IOException {
+        if (current != null) {
+            closeEntry();
+        }
+        Entry entry = new Entry(name);
+        entry.offset = written;
+        written += spec.writeLFH(entry);
+        entries.add(entry);
+
+        long copied = IOUtils.copy(raw, out);
+        if (copied != compressedSize) {
+            throw new IOException("Expected " + compressedSize + " compressed bytes for " + name + ", but got " + copied);
+        }
+        entry.size = size;
+        entry.compressedSize = Math.toIntExact(compressedSize);
+        entry.crc = crc;
+
+        written += entry.compressedSize;
+        written += spec.writeDAT(entry);
+    }
+
     /**
      * @throws IllegalStateException if no entry found
      * @see ZipOutputStream#closeEntry()
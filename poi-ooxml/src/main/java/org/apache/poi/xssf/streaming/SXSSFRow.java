@@ -18,12 +18,9 @@
 package org.apache.poi.xssf.streaming;
 
 import java.util.Iterator;
-import java.util.Map.Entry;
 import java.util.NoSuchElementException;
-import java.util.SortedMap;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.TreeMap;
 
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.eval.NotImplementedException;
@@ -34,6 +31,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.NotImplemented;
+import org.apache.poi.util.SortedIntMap;
 
 /**
  * Streaming version of XSSFRow implementing the "BigGridDemo" strategy.
@@ -43,7 +41,7 @@ public class SXSSFRow implements Row, Comparable<SXSSFRow>
     private static final Boolean UNDEFINED = null;
 
     private final SXSSFSheet _sheet; // parent sheet
-    private final SortedMap<Integer, SXSSFCell> _cells = new TreeMap<>();
+    private final SortedIntMap<SXSSFCell> _cells = new SortedIntMap<>();
     private short _style = -1; // index of cell style in style table
     private short _height = -1; // row height in twips (1/20 point)
     private boolean _zHeight; // row zero-height (this is somehow different than being hidden)
@@ -179,12 +177,7 @@ public class SXSSFRow implements Row, Comparable<SXSSFRow>
      */
     /*package*/ int getCellIndex(SXSSFCell cell)
     {
-        for (Entry<Integer, SXSSFCell> entry : _cells.entrySet()) {
-            if (entry.getValue()==cell) {
-                return entry.getKey();
-            }
-        }
-        return -1;
+        return _cells.keyOf(cell);
     }
 
     /**
@@ -261,11 +254,7 @@ public class SXSSFRow implements Row, Comparable<SXSSFRow>
     @Override
     public short getFirstCellNum()
     {
-        try {
-            return _cells.firstKey().shortValue();
-        } catch (final NoSuchElementException e) {
-            return -1;
-        }
+        return _cells.isEmpty() ? -1 : (short)_cells.firstKey();
     }
 
     /**
@@ -442,7 +431,7 @@ public class SXSSFRow implements Row, Comparable<SXSSFRow>
     @Override
     @SuppressWarnings("unchecked")
     public Spliterator<Cell> spliterator() {
-        return (Spliterator<Cell>)(Spliterator<? extends Cell>) _cells.values().spliterator();
+        return (Spliterator<Cell>)(Spliterator<? extends Cell>) _cells.spliterator();
     }
 
     /**
@@ -473,7 +462,7 @@ public class SXSSFRow implements Row, Comparable<SXSSFRow>
      */
     public class FilledCellIterator implements Iterator<Cell>
     {
-        private final Iterator<SXSSFCell> iter = _cells.values().iterator();
+        private final Iterator<SXSSFCell> iter = _cells.iterator();
 
         @Override
         public boolean hasNext()
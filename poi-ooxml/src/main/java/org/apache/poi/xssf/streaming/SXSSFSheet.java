@@ -32,6 +32,7 @@ import org.apache.poi.ss.util.SheetUtil;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.NotImplemented;
 import org.apache.poi.util.Removal;
+import org.apache.poi.util.SortedIntMap;
 import org.apache.poi.xssf.usermodel.*;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTColor;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheetFormatPr;
@@ -47,7 +48,7 @@ public class SXSSFSheet implements Sheet, OoxmlSheetExtensions {
 
     /*package*/ final XSSFSheet _sh;
     protected final SXSSFWorkbook _workbook;
-    private final TreeMap<Integer,SXSSFRow> _rows = new TreeMap<>();
+    private final SortedIntMap<SXSSFRow> _rows = new SortedIntMap<>();
     protected SheetDataWriter _writer;
     private int _randomAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
     protected AutoSizeColumnTracker _autoSizeColumnTracker;
@@ -141,6 +142,21 @@ public class SXSSFSheet implements Sheet, OoxmlSheetExtensions {
         return _writer.getWorksheetXMLInputStream();
     }
 
+    /**
+     * Flushes all remaining data and closes the temp file writer, if the temp file is compressed
+     * with the deflate codec
+     *
+     * @return the writer with the deflated "sheetData" document fragment, or null if it isn't deflated
+     */
+    SheetDataWriter getDeflatedSheetDataWriter() throws IOException {
+        if (_writer.getDeflatedData() == null) {
+            return null;
+        }
+        flushRows(0);
+        _writer.close();
+        return _writer;
+    }
+
     //start of interface implementation
     /**
      * Create a new row within the sheet and return the high level representation
@@ -198,12 +214,10 @@ public class SXSSFSheet implements Sheet, OoxmlSheetExtensions {
             throw new IllegalArgumentException("Specified row does not belong to this sheet");
         }
 
-        for(Iterator<Map.Entry<Integer, SXSSFRow>> iter = _rows.entrySet().iterator(); iter.hasNext();) {
-            Map.Entry<Integer, SXSSFRow> entry = iter.next();
-            if(entry.getValue() == row) {
-                iter.remove();
-                return;
-            }
+        // the row number might already be changed, so search for the row itself in that case
+        int rownum = (_rows.get(row.getRowNum()) == row) ? row.getRowNum() : _rows.keyOf(row);
+        if(rownum != -1) {
+            _rows.remove(rownum);
         }
     }
 
@@ -540,7 +554,7 @@ public class SXSSFSheet implements Sheet, OoxmlSheetExtensions {
     @Override
     public Iterator<Row> rowIterator() {
         @SuppressWarnings("unchecked")
-        Iterator<Row> result = (Iterator<Row>)(Iterator<? extends Row>)_rows.values().iterator();
+        Iterator<Row> result = (Iterator<Row>)(Iterator<? extends Row>)_rows.iterator();
         return result;
     }
 
@@ -555,7 +569,7 @@ public class SXSSFSheet implements Sheet, OoxmlSheetExtensions {
     @Override
     @SuppressWarnings("unchecked")
     public Spliterator<Row> spliterator() {
-        return (Spliterator<Row>)(Spliterator<? extends Row>) _rows.values().spliterator();
+        return (Spliterator<Row>)(Spliterator<? extends Row>) _rows.spliterator();
     }
 
     /**
@@ -1317,7 +1331,8 @@ public class SXSSFSheet implements Sheet, OoxmlSheetExtensions {
     @Override
     public void groupRow(int fromRow, int toRow) {
         int maxLevelRow = -1;
-        for(SXSSFRow row : _rows.subMap(fromRow, toRow + 1).values()){
+        for(Iterator<SXSSFRow> iter = _rows.iterator(fromRow, toRow + 1); iter.hasNext(); ){
+            SXSSFRow row = iter.next();
             final int level = row.getOutlineLevel() + 1;
             row.setOutlineLevel(level);
             maxLevelRow = Math.max(maxLevelRow, level);
@@ -1950,10 +1965,9 @@ public class SXSSFSheet implements Sheet, OoxmlSheetExtensions {
     }
 
     private void flushOneRow() throws IOException {
-        Integer firstRowNum = _rows.firstKey();
-        if (firstRowNum!=null) {
-            int rowIndex = firstRowNum;
-            SXSSFRow row = _rows.get(firstRowNum);
+        if (!_rows.isEmpty()) {
+            int rowIndex = _rows.firstKey();
+            SXSSFRow row = _rows.get(rowIndex);
             if (_autoSizeColumnTracker != null) {
                 // Update the best fit column widths for auto-sizing just before the rows are flushed
                 _autoSizeColumnTracker.updateColumnWidths(row);
@@ -1961,7 +1975,7 @@ public class SXSSFSheet implements Sheet, OoxmlSheetExtensions {
             if (_writer != null) {
                 _writer.writeRow(rowIndex, row);
             }
-            _rows.remove(firstRowNum);
+            _rows.remove(rowIndex);
             lastFlushedRowNumber = rowIndex;
         }
     }
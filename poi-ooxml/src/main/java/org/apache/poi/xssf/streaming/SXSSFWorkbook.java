@@ -17,6 +17,8 @@
 
 package org.apache.poi.xssf.streaming;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,9 +26,11 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.SequenceInputStream;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -34,6 +38,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.zip.Zip64Mode;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
@@ -48,6 +63,7 @@ import org.apache.poi.openxml4j.util.ZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipInputStreamZipEntrySource;
 import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.ooxml.POIXMLException;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.EvaluationWorkbook;
 import org.apache.poi.ss.formula.udf.UDFFinder;
@@ -114,6 +130,7 @@ public class SXSSFWorkbook implements Workbook {
      */
     public static final int DEFAULT_WINDOW_SIZE = 100;
     private static final Logger LOG = LogManager.getLogger(SXSSFWorkbook.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
 
     protected final XSSFWorkbook _wb;
 
@@ -143,6 +160,16 @@ public class SXSSFWorkbook implements Workbook {
 
     private boolean shouldCalculateSheetDimensions = true;
 
+    /**
+     * number of sheets which are compressed concurrently when writing the workbook
+     */
+    private int _writeParallelism = 1;
+
+    /**
+     * the codec of the temp files, null for using {@link #_compressTmpFiles}
+     */
+    private SheetDataCodec _tempFileCodec;
+
     /**
      * Construct a new workbook with default row window size
      */
@@ -329,6 +356,37 @@ public class SXSSFWorkbook implements Workbook {
         this.zip64Mode = zip64Mode;
     }
 
+    /**
+     * @return the number of sheets which are compressed concurrently when writing the workbook
+     * @see #setWriteParallelism(int)
+     * @since POI 5.3.1
+     */
+    public int getWriteParallelism() {
+        return _writeParallelism;
+    }
+
+    /**
+     * Sets the number of sheets which are compressed concurrently when writing the workbook.
+     * <p>
+     * By default, all parts are deflated one after the other into the output stream,
+     * so writing a workbook with many large sheets is bound to a single core.
+     * With a parallelism greater than 1, each worksheet is deflated on a worker thread
+     * into its own temporary file, and the pre-compressed data is then copied into the
+     * resulting archive in the original order. This needs additional temp file space
+     * of about the compressed size of the sheets.
+     * <p>
+     * The sheet data is read concurrently from the temp files of the different sheets,
+     * therefore custom sheet data writers or sheet injectors (e.g. the row generators of
+     * {@link DeferredSXSSFWorkbook}) must not depend on other sheets while writing.
+     *
+     * @param parallelism the number of sheets which are compressed concurrently,
+     *                    a value of 1 or less compresses the sheets on the calling thread
+     * @since POI 5.3.1
+     */
+    public void setWriteParallelism(int parallelism) {
+        _writeParallelism = Math.max(parallelism, 1);
+    }
+
     /**
      * Get whether temp files should be compressed.
      *
@@ -359,6 +417,35 @@ public class SXSSFWorkbook implements Workbook {
         _compressTmpFiles = compress;
     }
 
+    /**
+     * @return the codec of the temp files, or null if {@link #isCompressTempFiles()} decides about the compression
+     * @see #setTempFileCodec(SheetDataCodec)
+     * @since POI 5.3.1
+     */
+    public SheetDataCodec getTempFileCodec() {
+        return _tempFileCodec;
+    }
+
+    /**
+     * Sets the codec of the temp files, which takes precedence over {@link #setCompressTempFiles(boolean)}.
+     * <p>
+     * Opposed to the gzip compression, the {@link SheetDataCodec#lz4() LZ4} codec needs much less CPU,
+     * while the {@link SheetDataCodec#deflate() deflate} codec avoids compressing the sheet data twice:
+     * its temp files are copied as-is into the worksheet parts of the resulting workbook,
+     * so the rows don't need to be inflated and deflated again when the workbook is written.
+     * </p>
+     * <p>
+     *     Setting this option only affects compression for subsequent <code>createSheet()</code>
+     *     calls.
+     * </p>
+     *
+     * @param codec the codec of the temp files, or null to use {@link #setCompressTempFiles(boolean)}
+     * @since POI 5.3.1
+     */
+    public void setTempFileCodec(SheetDataCodec codec) {
+        _tempFileCodec = codec;
+    }
+
     /**
      * @param shouldCalculateSheetDimensions defaults to <code>true</code>, set to <code>false</code> if
      *                                       the calculated dimensions are causing trouble
@@ -383,6 +470,9 @@ public class SXSSFWorkbook implements Workbook {
     }
 
     protected SheetDataWriter createSheetDataWriter() throws IOException {
+        if (_tempFileCodec != null) {
+            return new SheetDataWriter(_sharedStringSource, _tempFileCodec);
+        }
         if(_compressTmpFiles) {
             return new GZIPSheetDataWriter(_sharedStringSource);
         }
@@ -423,21 +513,27 @@ public class SXSSFWorkbook implements Workbook {
     }
 
     protected void injectData(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
+        if (_writeParallelism > 1) {
+            injectDataConcurrently(zipEntrySource, out);
+            return;
+        }
         ZipArchiveOutputStream zos = createArchiveOutputStream(out);
         try {
             Enumeration<? extends ZipArchiveEntry> en = zipEntrySource.getEntries();
             while (en.hasMoreElements()) {
                 ZipArchiveEntry ze = en.nextElement();
+                SheetDataWriter deflatedWriter = getDeflatedSheetDataWriter(ze);
+                if (deflatedWriter != null) {
+                    try (final InputStream is = openEntry(zipEntrySource, ze)) {
+                        copyDeflatedWorksheet(is, ze, deflatedWriter, zos);
+                    }
+                    continue;
+                }
                 ZipArchiveEntry zeOut = new ZipArchiveEntry(ze.getName());
                 if (ze.getSize() >= 0) zeOut.setSize(ze.getSize());
                 if (ze.getTime() >= 0) zeOut.setTime(ze.getTime());
                 zos.putArchiveEntry(zeOut);
-                try (final InputStream is = zipEntrySource.getInputStream(ze)) {
-                    if (is instanceof ZipArchiveThresholdInputStream) {
-                        // #59743 - disable Threshold handling for SXSSF copy
-                        // as users tend to put too much repetitive data in when using SXSSF :)
-                        ((ZipArchiveThresholdInputStream)is).setGuardState(false);
-                    }
+                try (final InputStream is = openEntry(zipEntrySource, ze)) {
                     XSSFSheet xSheet = getSheetFromZipEntryName(ze.getName());
                     // See bug 56557, we should not inject data into the special ChartSheets
                     if (xSheet != null && !(xSheet instanceof XSSFChartSheet)) {
@@ -456,6 +552,247 @@ public class SXSSFWorkbook implements Workbook {
         }
     }
 
+    private void injectDataConcurrently(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(_writeParallelism, r -> {
+            Thread t = new Thread(r, "POI-SXSSFWorkbook-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        List<ZipArchiveEntry> entries = new ArrayList<>();
+        Map<String, CompletableFuture<DeflatedSheet>> sheets = new HashMap<>();
+        Map<String, SheetDataWriter> deflatedWriters = new HashMap<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        ZipArchiveOutputStream zos = createArchiveOutputStream(out);
+        try {
+            Enumeration<? extends ZipArchiveEntry> en = zipEntrySource.getEntries();
+            while (en.hasMoreElements()) {
+                ZipArchiveEntry ze = en.nextElement();
+                entries.add(ze);
+                XSSFSheet xSheet = getSheetFromZipEntryName(ze.getName());
+                // See bug 56557, we should not inject data into the special ChartSheets
+                if (xSheet == null || xSheet instanceof XSSFChartSheet) {
+                    continue;
+                }
+                // already deflated sheet data is only copied, which doesn't need another thread
+                SheetDataWriter deflatedWriter = getDeflatedSheetDataWriter(ze);
+                if (deflatedWriter != null) {
+                    deflatedWriters.put(ze.getName(), deflatedWriter);
+                    continue;
+                }
+                // the zip entry source is not thread-safe, so the (small) template part is buffered upfront
+                UnsynchronizedByteArrayOutputStream template = UnsynchronizedByteArrayOutputStream.builder().get();
+                try (final InputStream is = openEntry(zipEntrySource, ze)) {
+                    IOUtils.copy(is, template);
+                }
+                ISheetInjector sheetInjector = createSheetInjector(getSXSSFSheet(xSheet));
+                sheets.put(ze.getName(), CompletableFuture.supplyAsync(() -> {
+                    if (aborted.get()) {
+                        return null;
+                    }
+                    try (InputStream is = template.toInputStream()) {
+                        return DeflatedSheet.deflate(is, sheetInjector);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+            }
+
+            for (ZipArchiveEntry ze : entries) {
+                CompletableFuture<DeflatedSheet> future = sheets.get(ze.getName());
+                SheetDataWriter deflatedWriter = deflatedWriters.get(ze.getName());
+                if (deflatedWriter != null) {
+                    try (final InputStream is = openEntry(zipEntrySource, ze)) {
+                        copyDeflatedWorksheet(is, ze, deflatedWriter, zos);
+                    }
+                } else if (future == null) {
+                    ZipArchiveEntry zeOut = new ZipArchiveEntry(ze.getName());
+                    if (ze.getSize() >= 0) zeOut.setSize(ze.getSize());
+                    if (ze.getTime() >= 0) zeOut.setTime(ze.getTime());
+                    zos.putArchiveEntry(zeOut);
+                    try (final InputStream is = openEntry(zipEntrySource, ze)) {
+                        IOUtils.copy(is, zos);
+                    } finally {
+                        zos.closeArchiveEntry();
+                    }
+                } else {
+                    DeflatedSheet sheet = join(future);
+                    try {
+                        sheet.writeTo(zos, ze);
+                    } finally {
+                        sheet.dispose();
+                    }
+                }
+            }
+        } finally {
+            // after a failure, skip the pending sheets and remove the temp files of the already deflated ones
+            aborted.set(true);
+            executor.shutdown();
+            for (CompletableFuture<DeflatedSheet> future : sheets.values()) {
+                try {
+                    DeflatedSheet sheet = future.join();
+                    if (sheet != null) {
+                        sheet.dispose();
+                    }
+                } catch (CompletionException e) {
+                    LOG.atDebug().withThrowable(e.getCause()).log("Failed to deflate a sheet");
+                }
+            }
+            zos.finish();
+            zipEntrySource.close();
+        }
+    }
+
+    /**
+     * @return the writer of the sheet of the given entry, if its sheet data is already deflated
+     */
+    private SheetDataWriter getDeflatedSheetDataWriter(ZipArchiveEntry ze) throws IOException {
+        XSSFSheet xSheet = getSheetFromZipEntryName(ze.getName());
+        // See bug 56557, we should not inject data into the special ChartSheets
+        if (xSheet == null || xSheet instanceof XSSFChartSheet) {
+            return null;
+        }
+        SXSSFSheet sxSheet = getSXSSFSheet(xSheet);
+        return (sxSheet == null) ? null : sxSheet.getDeflatedSheetDataWriter();
+    }
+
+    /**
+     * Writes the worksheet entry with the already deflated sheet data.
+     * <p>
+     * The worksheet part before and after the sheet data is deflated separately. As the deflated head
+     * and the sheet data are terminated by an empty stored block (i.e. they are byte-aligned and
+     * not final), the three parts can be concatenated to a single valid deflate stream.
+     * The CRC of the entry is combined from the CRCs of the parts.
+     */
+    private static void copyDeflatedWorksheet(InputStream template, ZipArchiveEntry ze, SheetDataWriter writer,
+                                              ZipArchiveOutputStream zos) throws IOException {
+        DeflateSheetDataCodec.RawDeflateOutputStream body = writer.getDeflatedData();
+        UnsynchronizedByteArrayOutputStream headBytes = UnsynchronizedByteArrayOutputStream.builder().get();
+        UnsynchronizedByteArrayOutputStream tailBytes = UnsynchronizedByteArrayOutputStream.builder().get();
+        DeflateSheetDataCodec.RawDeflateOutputStream head =
+                new DeflateSheetDataCodec.RawDeflateOutputStream(headBytes, Deflater.DEFAULT_COMPRESSION);
+        DeflateSheetDataCodec.RawDeflateOutputStream tail =
+                new DeflateSheetDataCodec.RawDeflateOutputStream(tailBytes, Deflater.DEFAULT_COMPRESSION);
+        try {
+            final OutputStream[] part = { head };
+            OutputStream parts = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    part[0].write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    part[0].write(b, off, len);
+                }
+            };
+            copyStreamAndInjectWorksheet(template, parts, (output) -> {
+                head.close();
+                part[0] = tail;
+            });
+        } finally {
+            head.close();
+            tail.close();
+        }
+
+        long crc = DeflateSheetDataCodec.combineCrc(head.getCrc(), body.getCrc(), body.getSize());
+        crc = DeflateSheetDataCodec.combineCrc(crc, tail.getCrc(), tail.getSize());
+
+        ZipArchiveEntry zeOut = new ZipArchiveEntry(ze.getName());
+        zeOut.setMethod(ZipEntry.DEFLATED);
+        zeOut.setCrc(crc);
+        zeOut.setSize(head.getSize() + body.getSize() + tail.getSize());
+        zeOut.setCompressedSize(head.getDeflatedLength() + body.getDeflatedLength() + tailBytes.size());
+        if (ze.getTime() >= 0) zeOut.setTime(ze.getTime());
+        try (InputStream bodyStream = writer.getDeflatedDataInputStream();
+             InputStream raw = new SequenceInputStream(new SequenceInputStream(
+                     new ByteArrayInputStream(headBytes.toByteArray(), 0, (int)head.getDeflatedLength()), bodyStream),
+                     tailBytes.toInputStream())) {
+            zos.addRawArchiveEntry(zeOut, raw);
+        }
+    }
+
+    private static InputStream openEntry(ZipEntrySource zipEntrySource, ZipArchiveEntry ze) throws IOException {
+        InputStream is = zipEntrySource.getInputStream(ze);
+        if (is instanceof ZipArchiveThresholdInputStream) {
+            // #59743 - disable Threshold handling for SXSSF copy
+            // as users tend to put too much repetitive data in when using SXSSF :)
+            ((ZipArchiveThresholdInputStream)is).setGuardState(false);
+        }
+        return is;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new POIXMLException(cause);
+        }
+    }
+
+    /**
+     * A worksheet part, which has been deflated into a temp file
+     */
+    private static final class DeflatedSheet {
+        private final File file;
+        private final long crc;
+        private final long size;
+        private final long compressedSize;
+
+        private DeflatedSheet(File file, long crc, long size, long compressedSize) {
+            this.file = file;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+        }
+
+        static DeflatedSheet deflate(InputStream template, ISheetInjector sheetInjector) throws IOException {
+            File file = TempFile.createTempFile("poi-sxssf-deflated", ".tmp");
+            boolean success = false;
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                CRC32 crc = new CRC32();
+                try (OutputStream fos = new BufferedOutputStream(Files.newOutputStream(file.toPath()));
+                     DeflaterOutputStream dos = new DeflaterOutputStream(fos, deflater, 8192);
+                     OutputStream cos = new CheckedOutputStream(dos, crc)) {
+                    copyStreamAndInjectWorksheet(template, cos, sheetInjector);
+                    cos.flush();
+                    dos.finish();
+                }
+                success = true;
+                return new DeflatedSheet(file, crc.getValue(), deflater.getBytesRead(), deflater.getBytesWritten());
+            } finally {
+                deflater.end();
+                if (!success && !file.delete()) {
+                    LOG.atWarn().log("Failed to delete temporary file {}", file);
+                }
+            }
+        }
+
+        void writeTo(ZipArchiveOutputStream zos, ZipArchiveEntry ze) throws IOException {
+            ZipArchiveEntry zeOut = new ZipArchiveEntry(ze.getName());
+            zeOut.setMethod(ZipEntry.DEFLATED);
+            zeOut.setCrc(crc);
+            zeOut.setSize(size);
+            zeOut.setCompressedSize(compressedSize);
+            if (ze.getTime() >= 0) zeOut.setTime(ze.getTime());
+            try (InputStream raw = Files.newInputStream(file.toPath())) {
+                zos.addRawArchiveEntry(zeOut, raw);
+            }
+        }
+
+        void dispose() {
+            if (file.exists() && !file.delete()) {
+                LOG.atWarn().log("Failed to delete temporary file {}", file);
+            }
+        }
+    }
+
     protected ZipArchiveOutputStream createArchiveOutputStream(OutputStream out) {
         if (Zip64Mode.Always.equals(zip64Mode)) {
             return new OpcZipArchiveOutputStream(out);
@@ -0,0 +1,97 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xssf.streaming;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * A codec for the temporary files, which keep the flushed rows of the sheets in a {@link SXSSFWorkbook}.
+ * <p>
+ * The data is written once through {@link #encode(OutputStream)} and read back through
+ * {@link #decode(InputStream)} each time the workbook is written.
+ * Besides the built-in codecs, custom implementations can be used for e.g. other compression libraries.
+ *
+ * @see SXSSFWorkbook#setTempFileCodec(SheetDataCodec)
+ * @since POI 5.3.1
+ */
+public interface SheetDataCodec {
+    /**
+     * Keeps the temp files uncompressed
+     */
+    SheetDataCodec NONE = new SheetDataCodec() {
+        @Override
+        public OutputStream encode(OutputStream out) {
+            return out;
+        }
+
+        @Override
+        public InputStream decode(InputStream in) {
+            return in;
+        }
+    };
+
+    /**
+     * Compresses the temp files with the fastest deflate level.
+     * Additionally, the compressed sheet data is copied as-is into the resulting workbook,
+     * so the sheet data is only compressed once.
+     */
+    static SheetDataCodec deflate() {
+        return deflate(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Compresses the temp files with the given deflate level.
+     * Additionally, the compressed sheet data is copied as-is into the resulting workbook,
+     * so the sheet data is only compressed once.
+     *
+     * @param level the compression level (0-9), see {@link Deflater#setLevel(int)}
+     */
+    static SheetDataCodec deflate(int level) {
+        return new DeflateSheetDataCodec(level);
+    }
+
+    /**
+     * Compresses the temp files with a fast LZ4-style block compression.
+     * This needs much less CPU than deflate, but typically gives a lower compression ratio.
+     */
+    static SheetDataCodec lz4() {
+        return Lz4SheetDataCodec.INSTANCE;
+    }
+
+    /**
+     * Wraps the stream of the temp file for writing the sheet data.
+     * Closing the returned stream needs to close the given stream.
+     *
+     * @param out the stream of the temp file
+     * @return the encoding stream
+     */
+    OutputStream encode(OutputStream out) throws IOException;
+
+    /**
+     * Wraps the stream of the temp file for reading the sheet data.
+     * Closing the returned stream needs to close the given stream.
+     *
+     * @param in the stream of the temp file
+     * @return the decoding stream
+     */
+    InputStream decode(InputStream in) throws IOException;
+}
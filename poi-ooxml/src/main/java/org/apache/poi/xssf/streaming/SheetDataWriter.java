@@ -19,7 +19,6 @@
 
 package org.apache.poi.xssf.streaming;
 
-import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
@@ -27,12 +26,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.PrimitiveIterator;
 
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.ss.usermodel.Cell;
@@ -41,7 +39,6 @@ import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.FormulaError;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.util.CellReference;
-import org.apache.poi.util.CodepointsUtil;
 import org.apache.poi.util.Removal;
 import org.apache.poi.util.TempFile;
 import org.apache.poi.xssf.model.SharedStringsTable;
@@ -56,8 +53,28 @@ import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 public class SheetDataWriter implements Closeable {
     private static final Logger LOG = LogManager.getLogger(SheetDataWriter.class);
 
+    // pre-encoded fragments of the frequently written tags
+    private static final Fragment ROW_START = new Fragment("<row r=\"");
+    private static final Fragment ROW_START_END = new Fragment(">\n");
+    private static final Fragment ROW_END = new Fragment("</row>\n");
+    private static final Fragment CELL_START = new Fragment("<c r=\"");
+    private static final Fragment CELL_END = new Fragment("</c>");
+    private static final Fragment STYLE_ATTRIBUTE = new Fragment(" s=\"");
+    private static final Fragment QUOTE = new Fragment("\"");
+    private static final Fragment NUMERIC_VALUE = new Fragment(" t=\"n\"><v>");
+    private static final Fragment SHARED_STRING_VALUE = new Fragment(" t=\"" + STCellType.S + "\"><v>");
+    private static final Fragment VALUE_START = new Fragment("<v>");
+    private static final Fragment VALUE_END = new Fragment("</v>");
+
+    private final SheetDataCodec _codec;
     private final File _fd;
     protected final Writer _out;
+    /** the same as {@link #_out}, if the sheet data is directly encoded as UTF-8 */
+    private final Utf8SheetWriter _utf8Out;
+    /** the cached column letters of the cell references */
+    private String[] _columnNames = new String[0];
+    /** the encoding stream of the temp file, if it's compressed with the deflate codec */
+    private DeflateSheetDataCodec.RawDeflateOutputStream _deflateOut;
     private int _rownum;
     private int _numberOfFlushedRows;
     private int _lowestIndexOfFlushedRows; // meaningful only of _numberOfFlushedRows>0
@@ -71,13 +88,17 @@ public class SheetDataWriter implements Closeable {
     private SharedStringsTable _sharedStringSource;
 
     public SheetDataWriter() throws IOException {
+        _codec = null;
         _fd = createTempFile();
         _out = createWriter(_fd);
+        _utf8Out = (_out instanceof Utf8SheetWriter) ? (Utf8SheetWriter)_out : null;
     }
 
     public SheetDataWriter(Writer writer) throws IOException {
+        _codec = null;
         _fd = null;
         _out = writer;
+        _utf8Out = (_out instanceof Utf8SheetWriter) ? (Utf8SheetWriter)_out : null;
     }
 
     public SheetDataWriter(SharedStringsTable sharedStringsTable) throws IOException {
@@ -85,6 +106,21 @@ public class SheetDataWriter implements Closeable {
         this._sharedStringSource = sharedStringsTable;
     }
 
+    /**
+     * Creates a writer, which encodes the temp file with the given codec
+     *
+     * @param sharedStringsTable the shared strings table, or null for inline strings
+     * @param codec the codec of the temp file
+     * @since POI 5.3.1
+     */
+    public SheetDataWriter(SharedStringsTable sharedStringsTable, SheetDataCodec codec) throws IOException {
+        _codec = codec;
+        _fd = createTempFile();
+        _out = createWriter(_fd);
+        _utf8Out = (_out instanceof Utf8SheetWriter) ? (Utf8SheetWriter)_out : null;
+        _sharedStringSource = sharedStringsTable;
+    }
+
     /**
      * Create a temp file to write sheet data.
      * By default, temp files are created in the default temporary-file directory
@@ -102,6 +138,7 @@ public class SheetDataWriter implements Closeable {
 
     /**
      * Create a writer for the sheet data.
+     * The returned writer encodes the data directly into UTF-8 bytes.
      *
      * @param  fd the file to write to
      * @deprecated this method is due to be made non-public, probably protected
@@ -117,14 +154,14 @@ public class SheetDataWriter implements Closeable {
             fos.close();
             throw e;
         }
-        return new BufferedWriter(
-                new OutputStreamWriter(decorated, StandardCharsets.UTF_8));
+        return new Utf8SheetWriter(decorated);
     }
 
     /**
      * Override this to translate (such as encrypt or compress) the file output stream
      * as it is being written to disk.
-     * The default behavior is to to pass the stream through unmodified.
+     * The default behavior is to encode the stream with the {@link SheetDataCodec},
+     * or to pass the stream through unmodified if there's none.
      *
      * @param fos  the stream to decorate
      * @return a decorated stream
@@ -132,7 +169,14 @@ public class SheetDataWriter implements Closeable {
      * @see #decorateInputStream(FileInputStream)
      */
     protected OutputStream decorateOutputStream(FileOutputStream fos) throws IOException {
-        return fos;
+        if (_codec == null) {
+            return fos;
+        }
+        OutputStream os = _codec.encode(fos);
+        if (os instanceof DeflateSheetDataCodec.RawDeflateOutputStream) {
+            _deflateOut = (DeflateSheetDataCodec.RawDeflateOutputStream)os;
+        }
+        return os;
     }
 
     /**
@@ -168,7 +212,8 @@ public class SheetDataWriter implements Closeable {
     /**
      * Override this to translate (such as decrypt or expand) the file input stream
      * as it is being read from disk.
-     * The default behavior is to to pass the stream through unmodified.
+     * The default behavior is to decode the stream with the {@link SheetDataCodec},
+     * or to pass the stream through unmodified if there's none.
      *
      * @param fis  the stream to decorate
      * @return a decorated stream
@@ -176,7 +221,26 @@ public class SheetDataWriter implements Closeable {
      * @see #decorateOutputStream(FileOutputStream)
      */
     protected InputStream decorateInputStream(FileInputStream fis) throws IOException {
-        return fis;
+        return (_codec == null) ? fis : _codec.decode(fis);
+    }
+
+    /**
+     * @return the deflated sheet data of the closed temp file, or null if the temp file
+     *  isn't compressed with the deflate codec
+     */
+    DeflateSheetDataCodec.RawDeflateOutputStream getDeflatedData() {
+        return _deflateOut;
+    }
+
+    /**
+     * @return the raw deflate data of the closed temp file up to the final block
+     * @see DeflateSheetDataCodec.RawDeflateOutputStream#getDeflatedLength()
+     */
+    InputStream getDeflatedDataInputStream() throws IOException {
+        return BoundedInputStream.builder()
+                .setInputStream(new FileInputStream(_fd))
+                .setMaxCount(_deflateOut.getDeflatedLength())
+                .get();
     }
 
     public int getNumberOfFlushedRows() {
@@ -219,8 +283,9 @@ public class SheetDataWriter implements Closeable {
     }
 
     void beginRow(int rownum, SXSSFRow row) throws IOException {
-        _out.write("<row");
-        writeAttribute("r", Integer.toString(rownum + 1));
+        write(ROW_START);
+        writeInt(rownum + 1);
+        write(QUOTE);
         if (row.hasCustomHeight()) {
             writeAttribute("customHeight", "1");
             writeAttribute("ht", Float.toString(row.getHeightInPoints()));
@@ -229,7 +294,9 @@ public class SheetDataWriter implements Closeable {
             writeAttribute("hidden", "1");
         }
         if (row.isFormatted()) {
-            writeAttribute("s", Integer.toString(row.getRowStyleIndex()));
+            write(STYLE_ATTRIBUTE);
+            writeInt(row.getRowStyleIndex());
+            write(QUOTE);
             writeAttribute("customFormat", "1");
         }
         if (row.getOutlineLevel() != 0) {
@@ -242,27 +309,30 @@ public class SheetDataWriter implements Closeable {
             writeAttribute("collapsed", row.getCollapsed() ? "1" : "0");
         }
 
-        _out.write(">\n");
+        write(ROW_START_END);
         this._rownum = rownum;
     }
 
     void endRow() throws IOException {
-        _out.write("</row>\n");
+        write(ROW_END);
     }
 
     public void writeCell(int columnIndex, Cell cell) throws IOException {
         if (cell == null) {
             return;
         }
-        String ref = new CellReference(_rownum, columnIndex).formatAsString();
-        _out.write("<c");
-        writeAttribute("r", ref);
+        write(CELL_START);
+        _out.write(getColumnName(columnIndex));
+        writeInt(_rownum + 1);
+        write(QUOTE);
         CellStyle cellStyle = cell.getCellStyle();
         if (cellStyle.getIndex() != 0) {
             // need to convert the short to unsigned short as the indexes can be up to 64k
             // ideally we would use int for this index, but that would need changes to some more
             // APIs
-            writeAttribute("s", Integer.toString(cellStyle.getIndex() & 0xffff));
+            write(STYLE_ATTRIBUTE);
+            writeInt(cellStyle.getIndex() & 0xffff);
+            write(QUOTE);
         }
         CellType cellType = cell.getCellType();
         switch (cellType) {
@@ -292,9 +362,9 @@ public class SheetDataWriter implements Closeable {
                     case NUMERIC:
                         double nval = cell.getNumericCellValue();
                         if (!Double.isNaN(nval)) {
-                            _out.write("<v>");
-                            _out.write(Double.toString(nval));
-                            _out.write("</v>");
+                            write(VALUE_START);
+                            writeDouble(nval);
+                            write(VALUE_END);
                         }
                         break;
                     case STRING:
@@ -326,10 +396,9 @@ public class SheetDataWriter implements Closeable {
                     RichTextString rt = cell.getRichStringCellValue();
                     int sRef = _sharedStringSource.addSharedStringItem(rt);
 
-                    writeAttribute("t", STCellType.S.toString());
-                    _out.write("><v>");
-                    _out.write(String.valueOf(sRef));
-                    _out.write("</v>");
+                    write(SHARED_STRING_VALUE);
+                    writeInt(sRef);
+                    write(VALUE_END);
                 } else {
                     writeAttribute("t", "inlineStr");
                     _out.write("><is><t");
@@ -343,10 +412,9 @@ public class SheetDataWriter implements Closeable {
                 break;
             }
             case NUMERIC: {
-                writeAttribute("t", "n");
-                _out.write("><v>");
-                _out.write(Double.toString(cell.getNumericCellValue()));
-                _out.write("</v>");
+                write(NUMERIC_VALUE);
+                writeDouble(cell.getNumericCellValue());
+                write(VALUE_END);
                 break;
             }
             case BOOLEAN: {
@@ -369,7 +437,43 @@ public class SheetDataWriter implements Closeable {
                 throw new IllegalStateException("Invalid cell type: " + cellType);
             }
         }
-        _out.write("</c>");
+        write(CELL_END);
+    }
+
+    private void write(Fragment fragment) throws IOException {
+        if (_utf8Out != null) {
+            _utf8Out.write(fragment.utf8);
+        } else {
+            _out.write(fragment.text);
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        if (_utf8Out != null) {
+            _utf8Out.writeLong(value);
+        } else {
+            _out.write(Integer.toString(value));
+        }
+    }
+
+    private void writeDouble(double value) throws IOException {
+        if (_utf8Out != null) {
+            _utf8Out.writeDouble(value);
+        } else {
+            _out.write(Double.toString(value));
+        }
+    }
+
+    private String getColumnName(int columnIndex) {
+        if (columnIndex >= _columnNames.length) {
+            _columnNames = Arrays.copyOf(_columnNames, Math.max(columnIndex + 1, _columnNames.length * 2));
+        }
+        String name = _columnNames[columnIndex];
+        if (name == null) {
+            name = CellReference.convertNumToColString(columnIndex);
+            _columnNames[columnIndex] = name;
+        }
+        return name;
     }
 
     private void writeAttribute(String name, String value) throws IOException {
@@ -398,10 +502,10 @@ public class SheetDataWriter implements Closeable {
             return;
         }
 
-        int codepoint;
-        for (PrimitiveIterator.OfInt iter = CodepointsUtil.primitiveIterator(s); iter.hasNext(); ) {
-            codepoint = iter.nextInt();
-            switch (codepoint) {
+        // surrogate pairs are written as-is, so there's no need to iterate over the code points
+        for (int i = 0, len = s.length(); i < len; i++) {
+            char c = s.charAt(i);
+            switch (c) {
                 case '<':
                     _out.write("&lt;");
                     break;
@@ -428,18 +532,12 @@ public class SheetDataWriter implements Closeable {
                     _out.write("&#xa0;");
                     break;
                 default:
-                    final char[] chars = Character.toChars(codepoint);
-                    if (chars.length == 1) {
-                        char c = chars[0];
-                        // YK: XmlBeans silently replaces all ISO control characters ( < 32) with question marks.
-                        // the same rule applies to "not a character" symbols.
-                        if (replaceWithQuestionMark(c)) {
-                            _out.write('?');
-                        } else {
-                            _out.write(c);
-                        }
+                    // YK: XmlBeans silently replaces all ISO control characters ( < 32) with question marks.
+                    // the same rule applies to "not a character" symbols.
+                    if (replaceWithQuestionMark(c)) {
+                        _out.write('?');
                     } else {
-                        _out.write(chars);
+                        _out.write(c);
                     }
                     break;
             }
@@ -450,6 +548,19 @@ public class SheetDataWriter implements Closeable {
         return c < ' ' || ('\uFFFE' <= c && c <= '\uFFFF');
     }
 
+    /**
+     * A tag fragment with its UTF-8 encoding
+     */
+    private static final class Fragment {
+        private final String text;
+        private final byte[] utf8;
+
+        private Fragment(String text) {
+            this.text = text;
+            this.utf8 = Utf8SheetWriter.encode(text);
+        }
+    }
+
     void flush() throws IOException {
         this._out.flush();
     }
@@ -17,14 +17,11 @@
 
 package org.apache.poi.xssf.streaming;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -60,12 +57,12 @@ public class StreamingSheetWriter extends SheetDataWriter {
     }
 
     /**
-     * Create a writer for the sheet data.
+     * Create a writer for the sheet data, which encodes the data directly into UTF-8 bytes.
      *
      * @param out the output stream to write to
      */
     protected static Writer createWriter(OutputStream out) throws IOException {
-        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        return new Utf8SheetWriter(out);
     }
 
     @Override
@@ -0,0 +1,252 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xssf.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A buffered writer, which encodes the sheet data directly as UTF-8 into a reusable byte buffer.
+ * <p>
+ * Opposed to a {@link java.io.BufferedWriter} on top of an {@link java.io.OutputStreamWriter},
+ * this avoids the intermediate char buffer, the charset encoder and the per-call locking.
+ * In addition, it provides methods for writing pre-encoded fragments and numbers
+ * without creating temporary strings, so the output of numeric cells doesn't allocate at all.
+ * <p>
+ * Malformed surrogates are replaced by a question mark, like {@link java.io.OutputStreamWriter} does.
+ */
+final class Utf8SheetWriter extends Writer {
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    /** enough room for a long with sign */
+    private static final int MAX_LONG_LENGTH = 20;
+
+    private static final byte[] DECIMAL_ZERO = { '.', '0' };
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    private char highSurrogate;
+    private boolean closed;
+
+    Utf8SheetWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Encodes an ASCII text, which is written often, e.g. a tag or attribute name
+     */
+    static byte[] encode(String fragment) {
+        return fragment.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes an already encoded fragment
+     */
+    void write(byte[] fragment) throws IOException {
+        ensureOpen();
+        flushSurrogate();
+        if (fragment.length > buf.length - pos) {
+            flushBuffer();
+            if (fragment.length > buf.length) {
+                out.write(fragment);
+                return;
+            }
+        }
+        System.arraycopy(fragment, 0, buf, pos, fragment.length);
+        pos += fragment.length;
+    }
+
+    /**
+     * Writes the decimal representation of the given value, same as {@link Long#toString(long)}
+     */
+    void writeLong(long value) throws IOException {
+        ensureOpen();
+        flushSurrogate();
+        if (value == Long.MIN_VALUE) {
+            write(Long.toString(value));
+            return;
+        }
+        ensureCapacity(MAX_LONG_LENGTH);
+        long v = value;
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int len = 1;
+        for (long p = 10; len < 19 && v >= p; p *= 10) {
+            len++;
+        }
+        for (int i = pos + len - 1; i >= pos; i--) {
+            buf[i] = (byte)('0' + v % 10);
+            v /= 10;
+        }
+        pos += len;
+    }
+
+    /**
+     * Writes the same representation of the given value as {@link Double#toString(double)}.
+     * Integral values, which are the most common in spreadsheets, are formatted without
+     * creating temporary objects.
+     */
+    void writeDouble(double value) throws IOException {
+        long l = (long)value;
+        // Double.toString() uses the decimal notation below 10^7 and writes the sign of -0.0
+        if (l == value && l > -10_000_000L && l < 10_000_000L
+                && (l != 0 || Double.doubleToRawLongBits(value) == 0)) {
+            writeLong(l);
+            write(DECIMAL_ZERO);
+        } else {
+            write(Double.toString(value));
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        writeChar((char)c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        for (int i = off, end = off + len; i < end; i++) {
+            writeChar(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        int i = off;
+        final int end = off + len;
+        while (i < end) {
+            // fast path for ASCII
+            if (highSurrogate == 0) {
+                int limit = Math.min(end, i + buf.length - pos);
+                char c;
+                while (i < limit && (c = str.charAt(i)) < 0x80) {
+                    buf[pos++] = (byte)c;
+                    i++;
+                }
+                if (pos == buf.length) {
+                    flushBuffer();
+                }
+            }
+            if (i < end) {
+                writeChar(str.charAt(i++));
+            }
+        }
+    }
+
+    private void writeChar(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return;
+            }
+            writeByte('?');
+        }
+        if (c < 0x80) {
+            writeByte(c);
+        } else if (c < 0x800) {
+            ensureCapacity(2);
+            buf[pos++] = (byte)(0xc0 | (c >> 6));
+            buf[pos++] = (byte)(0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            writeByte('?');
+        } else {
+            ensureCapacity(3);
+            buf[pos++] = (byte)(0xe0 | (c >> 12));
+            buf[pos++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+            buf[pos++] = (byte)(0x80 | (c & 0x3f));
+        }
+    }
+
+    private void writeCodePoint(int cp) throws IOException {
+        ensureCapacity(4);
+        buf[pos++] = (byte)(0xf0 | (cp >> 18));
+        buf[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3f));
+        buf[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3f));
+        buf[pos++] = (byte)(0x80 | (cp & 0x3f));
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (pos == buf.length) {
+            flushBuffer();
+        }
+        buf[pos++] = (byte)b;
+    }
+
+    /**
+     * A pending high surrogate without a following low surrogate is malformed
+     */
+    private void flushSurrogate() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            writeByte('?');
+        }
+    }
+
+    private void ensureCapacity(int len) throws IOException {
+        if (buf.length - pos < len) {
+            flushBuffer();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flushSurrogate();
+            flushBuffer();
+        } finally {
+            closed = true;
+            out.close();
+        }
+    }
+}
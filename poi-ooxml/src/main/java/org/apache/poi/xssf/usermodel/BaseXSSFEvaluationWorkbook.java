@@ -24,6 +24,7 @@ import java.util.concurrent.ConcurrentSkipListMap;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.EvaluationName;
 import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaParseCache;
 import org.apache.poi.ss.formula.FormulaParser;
 import org.apache.poi.ss.formula.FormulaParsingWorkbook;
 import org.apache.poi.ss.formula.FormulaRenderingWorkbook;
@@ -55,8 +56,9 @@ public abstract class BaseXSSFEvaluationWorkbook implements FormulaRenderingWork
 
     // lazily populated. This should only be accessed through getTableCache
     // keys are lower-case to make this a quasi-case-insensitive map
-    private Map<String, XSSFTable> _tableCache;
+    private volatile Map<String, XSSFTable> _tableCache;
 
+    private final FormulaParseCache _parseCache = new FormulaParseCache();
 
     protected BaseXSSFEvaluationWorkbook(XSSFWorkbook book) {
         _uBook = book;
@@ -68,6 +70,16 @@ public abstract class BaseXSSFEvaluationWorkbook implements FormulaRenderingWork
     @Override
     public void clearAllCachedResultValues() {
         _tableCache = null;
+        _parseCache.clear();
+    }
+
+    /**
+     * @since POI 5.3.1
+     */
+    @Override
+    public FormulaParseCache getFormulaParseCache() {
+        _parseCache.setWorkbookStructure(_uBook.getNumberOfNames(), _uBook.getNumberOfSheets());
+        return _parseCache;
     }
 
     private int convertFromExternalSheetIndex(int externSheetIndex) {
@@ -361,17 +373,20 @@ public abstract class BaseXSSFEvaluationWorkbook implements FormulaRenderingWork
      *       Perhaps tables can be managed similar to PivotTable references above?
      */
     private Map<String, XSSFTable> getTableCache() {
-        if ( _tableCache != null ) {
-            return _tableCache;
+        Map<String, XSSFTable> cache = _tableCache;
+        if ( cache != null ) {
+            return cache;
         }
-        _tableCache = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+        // only publish the complete map, as formulas may be evaluated concurrently
+        cache = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
 
         for (Sheet sheet : _uBook) {
             for (XSSFTable tbl : ((XSSFSheet)sheet).getTables()) {
-                _tableCache.put(tbl.getName(), tbl);
+                cache.put(tbl.getName(), tbl);
             }
         }
-        return _tableCache;
+        _tableCache = cache;
+        return cache;
     }
 
     /**
@@ -19,13 +19,19 @@ package org.apache.poi.xssf.usermodel;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.EvaluationSheet;
 import org.apache.poi.ss.formula.FormulaParser;
 import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.SharedFormulaGroup;
 import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.util.Internal;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
 
 /**
  * Internal POI use only
@@ -33,6 +39,8 @@ import org.apache.poi.util.Internal;
 @Internal
 public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     private final Map<XSSFSheet, XSSFEvaluationSheet> _sheetCache = new HashMap<>();
+    // the parsed shared formulas by sheet and shared group index, which may be accessed concurrently
+    private final Map<XSSFSheet, Map<Integer, SharedFormulaEntry>> _sharedFormulaCache = new ConcurrentHashMap<>();
 
     public static XSSFEvaluationWorkbook create(XSSFWorkbook book) {
         if (book == null) {
@@ -52,6 +60,7 @@ public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     public void clearAllCachedResultValues() {
         super.clearAllCachedResultValues();
         _sheetCache.clear();
+        _sharedFormulaCache.clear();
     }
 
     @Override
@@ -80,8 +89,82 @@ public final class XSSFEvaluationWorkbook extends BaseXSSFEvaluationWorkbook {
     @Override
     public Ptg[] getFormulaTokens(EvaluationCell evalCell) {
         final XSSFCell cell = ((XSSFEvaluationCell)evalCell).getXSSFCell();
+        SharedFormulaGroup group = getSharedFormulaGroup(cell);
+        if (group != null) {
+            return group.getFormulaTokens(cell.getRowIndex(), cell.getColumnIndex());
+        }
         final int sheetIndex = _uBook.getSheetIndex(cell.getSheet());
-        return FormulaParser.parse(cell.getCellFormula(this), this,
+        return getFormulaParseCache().parse(cell.getCellFormula(this), this,
                 FormulaType.CELL, sheetIndex, cell.getRowIndex());
     }
+
+    /**
+     * Returns the shared formula group of a cell, which is parsed once per shared formula.
+     * <p>
+     * Shared formulas with structured references aren't grouped, as those are parsed for the row of each cell,
+     * and neither are those with 3D references, which are converted to the current sheet by
+     * {@link XSSFCell#getCellFormula()}, so they keep evaluating the same way.
+     *
+     * @since POI 5.3.1
+     */
+    @Override
+    public SharedFormulaGroup getSharedFormulaGroup(EvaluationCell evalCell) {
+        return getSharedFormulaGroup(((XSSFEvaluationCell)evalCell).getXSSFCell());
+    }
+
+    private SharedFormulaGroup getSharedFormulaGroup(XSSFCell cell) {
+        CTCellFormula f = cell.getCTCell().getF();
+        if (f == null || f.getT() != STCellFormulaType.SHARED || cell.isPartOfArrayFormulaGroup()) {
+            return null;
+        }
+        XSSFSheet sheet = cell.getSheet();
+        int si = Math.toIntExact(f.getSi());
+        CTCellFormula master = sheet.getSharedFormula(si);
+        if (master == null) {
+            // let getCellFormula() report the missing master cell
+            return null;
+        }
+
+        String formula = master.getStringValue();
+        String range = master.getRef();
+        if (formula == null || range == null) {
+            return null;
+        }
+        Map<Integer, SharedFormulaEntry> entries = _sharedFormulaCache.computeIfAbsent(sheet, s -> new ConcurrentHashMap<>());
+        SharedFormulaEntry entry = entries.get(si);
+        // the master cell of a shared formula changes if its formula is set or removed
+        if (entry == null || entry.master != master || !entry.formula.equals(formula) || !entry.range.equals(range)) {
+            entry = new SharedFormulaEntry(master, formula, range, parseSharedFormula(sheet, formula, range));
+            entries.put(si, entry);
+        }
+        return entry.group;
+    }
+
+    private SharedFormulaGroup parseSharedFormula(XSSFSheet sheet, String formula, String range) {
+        if (formula.indexOf('[') >= 0) {
+            // structured or external references
+            return null;
+        }
+        CellRangeAddress ref = CellRangeAddress.valueOf(range);
+        int sheetIndex = _uBook.getSheetIndex(sheet);
+        Ptg[] ptgs = FormulaParser.parse(formula, this, FormulaType.CELL, sheetIndex, ref.getFirstRow());
+        if (!SharedFormulaGroup.isShareable(ptgs)) {
+            return null;
+        }
+        return new SharedFormulaGroup(ptgs, ref.getFirstRow(), ref.getFirstColumn(), SpreadsheetVersion.EXCEL2007);
+    }
+
+    private static final class SharedFormulaEntry {
+        private final CTCellFormula master;
+        private final String formula;
+        private final String range;
+        private final SharedFormulaGroup group;
+
+        private SharedFormulaEntry(CTCellFormula master, String formula, String range, SharedFormulaGroup group) {
+            this.master = master;
+            this.formula = formula;
+            this.range = range;
+            this.group = group;
+        }
+    }
 }
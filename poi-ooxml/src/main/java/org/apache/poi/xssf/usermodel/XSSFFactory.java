@@ -17,6 +17,9 @@
 
 package org.apache.poi.xssf.usermodel;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.poi.ooxml.POIXMLFactory;
 import org.apache.poi.ooxml.POIXMLRelation;
 
@@ -26,6 +29,18 @@ import org.apache.poi.ooxml.POIXMLRelation;
 public class XSSFFactory extends POIXMLFactory {
     private static final XSSFFactory inst = new XSSFFactory();
 
+    /** relations which aren't needed while a workbook or sheet is read */
+    private static final Set<String> LAZY_RELATIONS = new HashSet<>();
+
+    static {
+        for (XSSFRelation rel : new XSSFRelation[]{
+            XSSFRelation.DRAWINGS, XSSFRelation.VML_DRAWINGS, XSSFRelation.CHART,
+            XSSFRelation.PIVOT_CACHE_DEFINITION, XSSFRelation.PIVOT_CACHE_RECORDS, XSSFRelation.SINGLE_XML_CELLS
+        }) {
+            LAZY_RELATIONS.add(rel.getRelation());
+        }
+    }
+
     public static XSSFFactory getInstance(){
         return inst;
     }
@@ -39,4 +54,12 @@ public class XSSFFactory extends POIXMLFactory {
     protected POIXMLRelation getDescriptor(String relationshipType) {
         return XSSFRelation.getInstance(relationshipType);
     }
+
+    /**
+     * @since POI 5.3.1
+     */
+    @Override
+    protected boolean isLazyRelation(String relationshipType) {
+        return LAZY_RELATIONS.contains(relationshipType);
+    }
 }
@@ -100,6 +100,19 @@ public final class XSSFFormulaEvaluator extends BaseXSSFFormulaEvaluator {
         evaluateAllFormulaCells(_book, this);
     }
 
+    /**
+     * Evaluates all formula cells of the workbook like {@link #evaluateAll()},
+     *  but evaluates independent formula cells concurrently.
+     *
+     * @param parallelism the number of threads, a value of 1 or less
+     *                    evaluates the formula cells on the calling thread
+     * @see BaseFormulaEvaluator#evaluateAllFormulaCells(org.apache.poi.ss.usermodel.Workbook, int)
+     * @since POI 5.3.1
+     */
+    public void evaluateAll(int parallelism) {
+        evaluateAllFormulaCells(_book, this, parallelism);
+    }
+
     /**
      * Turns a XSSFCell into a XSSFEvaluationCell
      */
@@ -0,0 +1,352 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.usermodel;
+
+import static org.apache.poi.ooxml.POIXMLTypeLoader.DEFAULT_XML_OPTIONS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.util.SortedIntMap;
+import org.apache.poi.util.XMLHelper;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRow;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheetData;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorksheetDocument;
+
+/**
+ * The rows of a worksheet, which were read with {@link XSSFWorkbook#setLazyLoadRows(boolean)}
+ * and haven't been accessed yet.
+ * <p>
+ * While XmlBeans parses the worksheet, the rows of the sheet data are filtered out of the StAX stream
+ * and kept as compact UTF-8 encoded XML. They are only parsed into {@link CTRow} beans, when they are
+ * removed from here to be added to the sheet.
+ */
+final class XSSFLazyRows {
+    private static final String NS_MAIN = XSSFRelation.NS_SPREADSHEETML;
+
+    private final SortedIntMap<byte[]> rows = new SortedIntMap<>();
+
+    /** rows with shared formula masters or array formulas, which the sheet needs to know from the start */
+    private final List<Integer> eagerRows = new ArrayList<>();
+
+    /** the namespace declarations of the worksheet and sheet data elements */
+    private final Map<String, String> namespaces = new LinkedHashMap<>();
+
+    /** the parsed worksheet, the rows are parsed into its document store, so they can be moved there */
+    private CTWorksheet worksheet;
+
+    /**
+     * Parses the worksheet, but keeps the rows of the sheet data in this instance
+     *
+     * @param is the worksheet xml
+     * @return the worksheet without rows
+     */
+    CTWorksheet parse(InputStream is) throws IOException, XmlException {
+        final XMLStreamReader reader;
+        try {
+            reader = XMLHelper.newXMLInputFactory().createXMLStreamReader(is);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        try {
+            worksheet = WorksheetDocument.Factory.parse(new RowFilter(reader), DEFAULT_XML_OPTIONS).getWorksheet();
+            return worksheet;
+        } finally {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    int firstKey() {
+        return rows.firstKey();
+    }
+
+    int lastKey() {
+        return rows.lastKey();
+    }
+
+    boolean containsKey(int rownum) {
+        return rows.containsKey(rownum);
+    }
+
+    int ceilingKey(int rownum) {
+        return rows.ceilingKey(rownum);
+    }
+
+    /**
+     * @return the 0-based numbers of the rows, which need to be added to the sheet when it's read
+     */
+    List<Integer> getEagerRows() {
+        return eagerRows;
+    }
+
+    /**
+     * Removes and parses rows in ascending order. The rows are parsed into the document store of the worksheet,
+     * so they can be moved into its sheet data without copying them.
+     *
+     * @param fromRow the first 0-based row number to look for
+     * @param toRow the last 0-based row number to look for
+     * @param maxRows the maximum number of rows to remove
+     * @return the sheet data with the removed rows
+     */
+    CTSheetData remove(int fromRow, int toRow, int maxRows) throws XmlException, IOException {
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            StringBuilder sb = new StringBuilder("<sheetData");
+            for (Map.Entry<String, String> me : namespaces.entrySet()) {
+                appendAttribute(sb, me.getKey().isEmpty() ? "xmlns" : "xmlns:" + me.getKey(), me.getValue());
+            }
+            sb.append('>');
+            bos.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+            for (int rownum = rows.ceilingKey(fromRow), count = 0;
+                 rownum != -1 && rownum <= toRow && count < maxRows; count++) {
+                bos.write(rows.remove(rownum));
+                rownum = rows.ceilingKey(rownum + 1);
+            }
+            bos.write("</sheetData>".getBytes(StandardCharsets.UTF_8));
+
+            XmlOptions options = new XmlOptions(DEFAULT_XML_OPTIONS);
+            options.setLoadReplaceDocumentElement(null);
+            options.setUseSameLocale(worksheet);
+            try (InputStream is = bos.toInputStream()) {
+                return CTSheetData.Factory.parse(is, options);
+            }
+        }
+    }
+
+    /**
+     * Passes everything but the rows of the sheet data to XmlBeans
+     */
+    private final class RowFilter extends StreamReaderDelegate {
+        private int depth;
+        private boolean inSheetData;
+        private int lastRowNum = -1;
+
+        RowFilter(XMLStreamReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            int event = super.next();
+            while (event == START_ELEMENT && inSheetData && depth == 2
+                && "row".equals(getLocalName()) && NS_MAIN.equals(getNamespaceURI())) {
+                readRow();
+                event = super.next();
+            }
+
+            if (event == START_ELEMENT) {
+                depth++;
+                if (depth <= 2) {
+                    // the rows get these namespaces when they are parsed later on
+                    for (int i = 0; i < getNamespaceCount(); i++) {
+                        String prefix = getNamespacePrefix(i);
+                        if (prefix != null && !prefix.isEmpty()) {
+                            namespaces.put(prefix, getNamespaceURI(i));
+                        }
+                    }
+                    namespaces.put("", NS_MAIN);
+                    inSheetData = depth == 2 && "sheetData".equals(getLocalName()) && NS_MAIN.equals(getNamespaceURI());
+                }
+            } else if (event == END_ELEMENT) {
+                if (depth == 2) {
+                    inSheetData = false;
+                }
+                depth--;
+            }
+            return event;
+        }
+
+        @Override
+        public int nextTag() throws XMLStreamException {
+            int event = next();
+            while ((event == CHARACTERS && isWhiteSpace()) || (event == CDATA && isWhiteSpace())
+                || event == SPACE || event == PROCESSING_INSTRUCTION || event == COMMENT) {
+                event = next();
+            }
+            if (event != START_ELEMENT && event != END_ELEMENT) {
+                throw new XMLStreamException("expected start or end tag", getLocation());
+            }
+            return event;
+        }
+
+        /**
+         * Serializes the row, which starts at the current position of the reader
+         */
+        private void readRow() throws XMLStreamException {
+            final XMLStreamReader reader = getParent();
+            final StringBuilder sb = new StringBuilder(256);
+            // the default namespace of the serialized elements
+            final Deque<String> defaultNs = new ArrayDeque<>();
+            defaultNs.push(NS_MAIN);
+
+            boolean eager = false;
+            boolean openTag = false;
+            int rownum = -1;
+            int level = 0;
+            int event = XMLStreamConstants.START_ELEMENT;
+            do {
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT: {
+                        if (openTag) {
+                            sb.append('>');
+                        }
+                        level++;
+                        final String ns = nonNull(reader.getNamespaceURI());
+                        final boolean unprefixed = appendName(sb.append('<'), reader, ns);
+                        if (unprefixed && !ns.equals(defaultNs.peek())) {
+                            appendAttribute(sb, "xmlns", ns);
+                        }
+                        defaultNs.push(unprefixed ? ns : defaultNs.peek());
+
+                        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                            String prefix = reader.getNamespacePrefix(i);
+                            if (prefix != null && !prefix.isEmpty()) {
+                                appendAttribute(sb, "xmlns:" + prefix, reader.getNamespaceURI(i));
+                            }
+                        }
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            String attrNs = reader.getAttributeNamespace(i);
+                            String name = reader.getAttributeLocalName(i);
+                            if (XMLConstants.XML_NS_URI.equals(attrNs)) {
+                                name = "xml:" + name;
+                            } else if (attrNs != null && !attrNs.isEmpty()) {
+                                name = reader.getAttributePrefix(i) + ":" + name;
+                            }
+                            appendAttribute(sb, name, reader.getAttributeValue(i));
+                        }
+
+                        if (level == 1) {
+                            String r = reader.getAttributeValue(null, "r");
+                            rownum = (r == null) ? lastRowNum + 1 : Integer.parseInt(r) - 1;
+                            if (r == null) {
+                                appendAttribute(sb, "r", Integer.toString(rownum + 1));
+                            }
+                        } else if ("f".equals(reader.getLocalName()) && NS_MAIN.equals(ns)) {
+                            String type = reader.getAttributeValue(null, "t");
+                            if ("array".equals(type) || ("shared".equals(type) && reader.getAttributeValue(null, "ref") != null)) {
+                                eager = true;
+                            }
+                        }
+                        openTag = true;
+                        break;
+                    }
+                    case XMLStreamConstants.END_ELEMENT:
+                        level--;
+                        defaultNs.pop();
+                        if (openTag) {
+                            sb.append("/>");
+                            openTag = false;
+                        } else {
+                            appendName(sb.append("</"), reader, nonNull(reader.getNamespaceURI()));
+                            sb.append('>');
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (openTag) {
+                            sb.append('>');
+                            openTag = false;
+                        }
+                        appendEscaped(sb, reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength(), false);
+                        break;
+                    default:
+                        // comments and processing instructions are dropped like XmlBeans does by default
+                        break;
+                }
+                if (level > 0) {
+                    event = reader.next();
+                }
+            } while (level > 0);
+
+            lastRowNum = rownum;
+            rows.put(rownum, sb.toString().getBytes(StandardCharsets.UTF_8));
+            if (eager) {
+                eagerRows.add(rownum);
+            }
+        }
+    }
+
+    /**
+     * @return true, if the element name was appended without a prefix
+     */
+    private static boolean appendName(StringBuilder sb, XMLStreamReader reader, String ns) {
+        final String prefix = nonNull(reader.getPrefix());
+        final boolean unprefixed = NS_MAIN.equals(ns) || prefix.isEmpty();
+        if (!unprefixed) {
+            sb.append(prefix).append(':');
+        }
+        sb.append(reader.getLocalName());
+        return unprefixed;
+    }
+
+    private static void appendAttribute(StringBuilder sb, String name, String value) {
+        sb.append(' ').append(name).append("=\"");
+        appendEscaped(sb, value.toCharArray(), 0, value.length(), true);
+        sb.append('"');
+    }
+
+    private static void appendEscaped(StringBuilder sb, char[] chars, int start, int length, boolean attribute) {
+        for (int i = start, end = start + length; i < end; i++) {
+            char c = chars[i];
+            switch (c) {
+                case '&': sb.append("&amp;"); break;
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '"': sb.append(attribute ? "&quot;" : "\""); break;
+                case '\t': sb.append(attribute ? "&#9;" : "\t"); break;
+                case '\n': sb.append(attribute ? "&#10;" : "\n"); break;
+                case '\r': sb.append("&#13;"); break;
+                default: sb.append(c); break;
+            }
+        }
+    }
+
+    private static String nonNull(String str) {
+        return str == null ? "" : str;
+    }
+}
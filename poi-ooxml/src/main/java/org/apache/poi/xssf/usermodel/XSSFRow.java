@@ -23,7 +23,6 @@ import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
 import java.util.Spliterator;
-import java.util.TreeMap;
 
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.FormulaShifter;
@@ -39,6 +38,7 @@ import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellUtil;
 import org.apache.poi.util.Beta;
 import org.apache.poi.util.Internal;
+import org.apache.poi.util.SortedIntMap;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.helpers.XSSFRowShifter;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
@@ -55,9 +55,9 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
 
     /**
      * Cells of this row keyed by their column indexes.
-     * The TreeMap ensures that the cells are ordered by columnIndex in the ascending order.
+     * The SortedIntMap ensures that the cells are ordered by columnIndex in the ascending order.
      */
-    private final TreeMap<Integer, XSSFCell> _cells;
+    private final SortedIntMap<XSSFCell> _cells;
 
     /**
      * the parent sheet
@@ -73,12 +73,10 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
     protected XSSFRow(CTRow row, XSSFSheet sheet) {
         _row = row;
         _sheet = sheet;
-        _cells = new TreeMap<>();
+        _cells = new SortedIntMap<>();
         for (CTCell c : row.getCArray()) {
             XSSFCell cell = new XSSFCell(this, c);
-            // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-            final Integer colI = Integer.valueOf(cell.getColumnIndex()); // NOSONAR
-            _cells.put(colI, cell);
+            _cells.put(cell.getColumnIndex(), cell);
             sheet.onReadCell(cell);
         }
 
@@ -117,7 +115,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
     @Override
     @SuppressWarnings("unchecked")
     public Iterator<Cell> cellIterator() {
-        return (Iterator<Cell>)(Iterator<? extends Cell>)_cells.values().iterator();
+        return (Iterator<Cell>)(Iterator<? extends Cell>)_cells.iterator();
     }
 
     /**
@@ -130,7 +128,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
     @Override
     @SuppressWarnings("unchecked")
     public Spliterator<Cell> spliterator() {
-        return (Spliterator<Cell>)(Spliterator<? extends Cell>)_cells.values().spliterator();
+        return (Spliterator<Cell>)(Spliterator<? extends Cell>)_cells.spliterator();
     }
 
     /**
@@ -210,10 +208,8 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
      */
     @Override
     public XSSFCell createCell(int columnIndex, CellType type) {
-        // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        final Integer colI = Integer.valueOf(columnIndex); // NOSONAR
         CTCell ctCell;
-        XSSFCell prev = _cells.get(colI);
+        XSSFCell prev = _cells.get(columnIndex);
         if(prev != null){
             ctCell = prev.getCTCell();
             ctCell.set(CTCell.Factory.newInstance());
@@ -234,7 +230,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
             setDefaultValue(xcell, type);
         }
 
-        _cells.put(colI, xcell);
+        _cells.put(columnIndex, xcell);
         return xcell;
     }
 
@@ -280,9 +276,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
             throw new IllegalArgumentException("Cell index must be >= 0");
         }
 
-        // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        final Integer colI = Integer.valueOf(cellnum); // NOSONAR
-        XSSFCell cell = _cells.get(colI);
+        XSSFCell cell = _cells.get(cellnum);
         switch (policy) {
             case RETURN_NULL_AND_BLANK:
                 return cell;
@@ -508,8 +502,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
         if (cell.getRow() != this) {
             throw new IllegalArgumentException("Specified cell does not belong to this row");
         }
-        //noinspection SuspiciousMethodCalls
-        if(!_cells.containsValue(cell)) {
+        if(_cells.get(cell.getColumnIndex()) != cell) {
             throw new IllegalArgumentException("the row does not contain this cell");
         }
 
@@ -520,9 +513,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
         if(cell.getCellType() == CellType.FORMULA) {
             _sheet.getWorkbook().onDeleteFormula(xcell);
         }
-        // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        final Integer colI = Integer.valueOf(cell.getColumnIndex()); // NOSONAR
-        XSSFCell removed = _cells.remove(colI);
+        XSSFCell removed = _cells.remove(cell.getColumnIndex());
 
         // also remove the corresponding CTCell from the _row.cArray,
         // it may not be at the same position right now
@@ -559,7 +550,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
         CTCell[] cArrayOrig = _row.getCArray();
         if(cArrayOrig.length == _cells.size()) {
             boolean allEqual = true;
-            Iterator<XSSFCell> it = _cells.values().iterator();
+            Iterator<XSSFCell> it = _cells.iterator();
             for (CTCell ctCell : cArrayOrig) {
                 XSSFCell cell = it.next();
                 cell.applyDefaultCellStyleIfNecessary();
@@ -595,7 +586,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
 
         // populate _row.cArray correctly
         i = 0;
-        for (XSSFCell cell : _cells.values()) {
+        for (XSSFCell cell : _cells) {
             // no need to change anything if position is correct
             Integer correctPosition = map.get(cell.getCTCell());
             Objects.requireNonNull(correctPosition, "Should find CTCell in _row");
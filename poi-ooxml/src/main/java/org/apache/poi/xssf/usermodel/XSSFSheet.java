@@ -53,6 +53,7 @@ import org.apache.poi.ss.util.SheetUtil;
 import org.apache.poi.util.Beta;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.Removal;
+import org.apache.poi.util.SortedIntMap;
 import org.apache.poi.util.Units;
 import org.apache.poi.xssf.model.Comments;
 import org.apache.poi.xssf.usermodel.XSSFPivotTable.PivotTableReferenceConfigurator;
@@ -90,7 +91,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     protected CTSheet sheet;
     protected CTWorksheet worksheet;
 
-    private final SortedMap<Integer, XSSFRow> _rows = new TreeMap<>();
+    private final SortedIntMap<XSSFRow> _rows = new SortedIntMap<>();
     private List<XSSFHyperlink> hyperlinks;
     private ColumnHelper columnHelper;
     private Comments sheetComments;
@@ -104,6 +105,11 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     private final XSSFDataValidationHelper dataValidationHelper;
     private XSSFVMLDrawing xssfvmlDrawing;
     private CellRangeAddress dimensionOverride;
+    /** the rows which haven't been loaded yet, or null if all rows are loaded */
+    private XSSFLazyRows lazyRows;
+
+    /** the number of rows which are loaded at once, when the lazy rows are iterated or accessed */
+    private static final int LAZY_ROWS_BATCH_SIZE = 256;
 
     /**
      * Creates new XSSFSheet   - called by XSSFWorkbook to create a sheet from scratch.
@@ -152,16 +158,36 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     }
 
     protected void read(InputStream is) throws IOException {
+        lazyRows = null;
         try {
-            worksheet = WorksheetDocument.Factory.parse(is, DEFAULT_XML_OPTIONS).getWorksheet();
+            if (XSSFWorkbook.isLazyLoadRows()) {
+                XSSFLazyRows lr = new XSSFLazyRows();
+                worksheet = lr.parse(is);
+                lazyRows = lr;
+            } else {
+                worksheet = WorksheetDocument.Factory.parse(is, DEFAULT_XML_OPTIONS).getWorksheet();
+            }
         } catch (XmlException e){
             throw new POIXMLException(e);
         }
 
         columnHelper = new ColumnHelper(worksheet);
         initRows(worksheet);
+        if (lazyRows != null) {
+            // shared formula masters and array formulas are registered, when their rows are read
+            for (int rownum : lazyRows.getEagerRows()) {
+                loadRows(rownum, rownum, 1);
+            }
+            if (lazyRows != null && lazyRows.isEmpty()) {
+                lazyRows = null;
+            }
+        }
         // Look for bits we're interested in
         for(RelationPart rp : getRelationParts()){
+            if (!rp.isLoaded()) {
+                // lazily loaded relations are none of the parts needed here
+                continue;
+            }
             POIXMLDocumentPart p = rp.getDocumentPart();
             if(p instanceof Comments) {
                 sheetComments = (Comments)p;
@@ -201,13 +227,59 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         arrayFormulas = new ArrayList<>();
         for (CTRow row : worksheetParam.getSheetData().getRowArray()) {
             XSSFRow r = new XSSFRow(row, this);
-            // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-            //noinspection UnnecessaryBoxing
-            final Integer rownumI = Integer.valueOf(r.getRowNum()); // NOSONAR
-            _rows.put(rownumI, r);
+            _rows.put(r.getRowNum(), r);
+        }
+    }
+
+    /**
+     * Adds lazily read rows to the sheet data and the row map
+     *
+     * @param fromRow the first 0-based row number to look for
+     * @param toRow the last 0-based row number to look for
+     * @param maxRows the maximum number of rows to load
+     */
+    private void loadRows(int fromRow, int toRow, int maxRows) {
+        if (lazyRows == null) {
+            return;
+        }
+        final CTRow[] loaded;
+        try {
+            loaded = lazyRows.remove(fromRow, toRow, maxRows).getRowArray();
+        } catch (XmlException | IOException e) {
+            throw new POIXMLException(e);
+        }
+        if (lazyRows.isEmpty()) {
+            lazyRows = null;
+        }
+
+        final CTSheetData sheetData = worksheet.getSheetData();
+        for (CTRow src : loaded) {
+            final int nextKey = _rows.ceilingKey(Math.toIntExact(src.getR() - 1));
+            // the parsed rows share the document store of the worksheet,
+            // so they are moved in front of the next loaded row instead of being copied
+            final CTRow ctRow;
+            try (XmlCursor from = src.newCursor();
+                 XmlCursor dest = (nextKey == -1 ? sheetData : _rows.get(nextKey).getCTRow()).newCursor()) {
+                if (nextKey == -1) {
+                    dest.toEndToken();
+                }
+                from.moveXml(dest);
+                dest.toPrevSibling();
+                ctRow = (CTRow) dest.getObject();
+            }
+            XSSFRow r = new XSSFRow(ctRow, this);
+            _rows.put(r.getRowNum(), r);
         }
     }
 
+    /**
+     * Loads the rows, which weren't accessed yet, when the sheet was read with
+     * {@link XSSFWorkbook#setLazyLoadRows(boolean)}
+     */
+    private void loadAllRows() {
+        loadRows(0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
     /**
      * Read hyperlink relations, link them with CTHyperlink beans in this worksheet
      * and initialize the internal array of XSSFHyperlink objects
@@ -272,6 +344,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Internal
     public CTWorksheet getCTWorksheet() {
+        loadAllRows();
         return this.worksheet;
     }
 
@@ -520,12 +593,11 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         if (ctDrawing != null) {
             // Search the referenced drawing in the list of the sheet's relations
             for (RelationPart rp : getRelationParts()){
-                POIXMLDocumentPart p = rp.getDocumentPart();
-                if (p instanceof XSSFDrawing) {
-                    XSSFDrawing dr = (XSSFDrawing)p;
-                    String drId = rp.getRelationship().getId();
-                    if (drId.equals(ctDrawing.getId())){
-                        return dr;
+                String drId = rp.getRelationship().getId();
+                if (drId.equals(ctDrawing.getId())) {
+                    POIXMLDocumentPart p = rp.getDocumentPart();
+                    if (p instanceof XSSFDrawing) {
+                        return (XSSFDrawing)p;
                     }
                 }
             }
@@ -591,15 +663,14 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
                 //search the referenced drawing in the list of the sheet's relations
                 final String id = ctDrawing.getId();
                 for (RelationPart rp : getRelationParts()){
-                    POIXMLDocumentPart p = rp.getDocumentPart();
-                    if(p instanceof XSSFVMLDrawing) {
-                        XSSFVMLDrawing dr = (XSSFVMLDrawing)p;
-                        String drId = rp.getRelationship().getId();
-                        if (drId.equals(id)) {
-                            drawing = dr;
+                    String drId = rp.getRelationship().getId();
+                    // do not break on other drawings, since the drawing has not been found yet (see bug 52425)
+                    if (drId.equals(id)) {
+                        POIXMLDocumentPart p = rp.getDocumentPart();
+                        if (p instanceof XSSFVMLDrawing) {
+                            drawing = (XSSFVMLDrawing)p;
                             break;
                         }
-                        // do not break here since drawing has not been found yet (see bug 52425)
                     }
                 }
                 if(drawing == null){
@@ -701,11 +772,11 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Override
     public XSSFRow createRow(int rownum) {
-        // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        //noinspection UnnecessaryBoxing
-        final Integer rownumI = Integer.valueOf(rownum); // NOSONAR
+        if (lazyRows != null && lazyRows.containsKey(rownum)) {
+            loadRows(rownum, rownum, 1);
+        }
         CTRow ctRow;
-        XSSFRow prev = _rows.get(rownumI);
+        XSSFRow prev = _rows.get(rownum);
         if(prev != null){
             // the Cells in an existing row are invalidated on-purpose, in order to clean up correctly, we
             // need to call the remove, so things like ArrayFormulas and CalculationChain updates are done
@@ -725,13 +796,13 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
             } else {
                 // get number of rows where row index < rownum
                 // --> this tells us where our row should go
-                int idx = _rows.headMap(rownumI).size();
+                int idx = _rows.countBefore(rownum);
                 ctRow = worksheet.getSheetData().insertNewRow(idx);
             }
         }
         XSSFRow r = new XSSFRow(ctRow, this);
         r.setRowNum(rownum);
-        _rows.put(rownumI, r);
+        _rows.put(rownum, r);
         return r;
     }
 
@@ -1073,6 +1144,9 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Override
     public int getFirstRowNum() {
+        if (lazyRows != null) {
+            return _rows.isEmpty() ? lazyRows.firstKey() : Math.min(_rows.firstKey(), lazyRows.firstKey());
+        }
         return _rows.isEmpty() ? -1 : _rows.firstKey();
     }
 
@@ -1191,10 +1265,10 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
 
     @Override
     public int getLastRowNum() {
-        // _rows.getLastKey() (O(logN)) or caching last row (O(1))?
-        // A test with 1_000_000 rows shows that querying getLastRowNum with lastKey() implementation takes ~40 ms,
-        // and ~1.2 ms with cached implementation. 40 ms is negligible compared to the time of evaluation a million
-        // cells, and the lastKey implementation is much more elegant and less error prone than caching.
+        // the row map keeps track of its highest key, so this is O(1)
+        if (lazyRows != null) {
+            return _rows.isEmpty() ? lazyRows.lastKey() : Math.max(_rows.lastKey(), lazyRows.lastKey());
+        }
         return _rows.isEmpty() ? -1 : _rows.lastKey();
     }
 
@@ -1409,7 +1483,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Override
     public int getPhysicalNumberOfRows() {
-        return _rows.size();
+        return _rows.size() + (lazyRows == null ? 0 : lazyRows.size());
     }
 
     /**
@@ -1487,10 +1561,12 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Override
     public XSSFRow getRow(int rownum) {
-        // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        //noinspection UnnecessaryBoxing
-        final Integer rownumI = Integer.valueOf(rownum); // NOSONAR
-        return _rows.get(rownumI);
+        if (lazyRows != null && lazyRows.containsKey(rownum)) {
+            // load the neighbouring rows as well, as they are usually accessed next
+            int firstRow = rownum - rownum % LAZY_ROWS_BATCH_SIZE;
+            loadRows(firstRow, firstRow + LAZY_ROWS_BATCH_SIZE - 1, LAZY_ROWS_BATCH_SIZE);
+        }
+        return _rows.get(rownum);
     }
 
     /**
@@ -1520,13 +1596,8 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
             }
         }
         else {
-            // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-            //noinspection UnnecessaryBoxing
-            final Integer startI = Integer.valueOf(startRowNum); // NOSONAR
-            //noinspection UnnecessaryBoxing
-            final Integer endI = Integer.valueOf(endRowNum+1); // NOSONAR
-            final Collection<XSSFRow> inclusive = _rows.subMap(startI, endI).values();
-            rows.addAll(inclusive);
+            loadRows(startRowNum, endRowNum, Integer.MAX_VALUE);
+            _rows.iterator(startRowNum, endRowNum+1).forEachRemaining(rows::add);
         }
         return rows;
     }
@@ -1746,8 +1817,9 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     }
 
     private short getMaxOutlineLevelRows(){
+        loadAllRows();
         int outlineLevel = 0;
-        for (XSSFRow xrow : _rows.values()) {
+        for (XSSFRow xrow : _rows) {
             outlineLevel = Math.max(outlineLevel, xrow.getCTRow().getOutlineLevel());
         }
         return (short) outlineLevel;
@@ -2041,12 +2113,9 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         }
 
         final int rowNum = row.getRowNum();
-        // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        //noinspection UnnecessaryBoxing
-        final Integer rowNumI = Integer.valueOf(rowNum); // NOSONAR
         // this is not the physical row number!
-        final int idx = _rows.headMap(rowNumI).size();
-        _rows.remove(rowNumI);
+        final int idx = _rows.countBefore(rowNum);
+        _rows.remove(rowNum);
         worksheet.getSheetData().removeRow(idx);
 
         // also remove any comment located in that row
@@ -2135,7 +2204,10 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     @Override
     @SuppressWarnings("unchecked")
     public Iterator<Row> rowIterator() {
-        return (Iterator<Row>)(Iterator<? extends Row>) _rows.values().iterator();
+        if (lazyRows != null) {
+            return new LazyRowIterator();
+        }
+        return (Iterator<Row>)(Iterator<? extends Row>) _rows.iterator();
     }
 
     /**
@@ -2148,7 +2220,60 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     @Override
     @SuppressWarnings("unchecked")
     public Spliterator<Row> spliterator() {
-        return (Spliterator<Row>)(Spliterator<? extends Row>) _rows.values().spliterator();
+        if (lazyRows != null) {
+            return Spliterators.spliterator(new LazyRowIterator(), getPhysicalNumberOfRows(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
+        return (Spliterator<Row>)(Spliterator<? extends Row>) _rows.spliterator();
+    }
+
+    /**
+     * Iterates the loaded and the lazy rows in ascending order and loads the lazy rows in batches
+     */
+    private final class LazyRowIterator implements Iterator<Row> {
+        private int nextKey = nextKey(0);
+        private XSSFRow lastReturned;
+
+        private int nextKey(int from) {
+            int key = _rows.ceilingKey(from);
+            if (lazyRows != null) {
+                int lazyKey = lazyRows.ceilingKey(from);
+                if (lazyKey != -1 && (key == -1 || lazyKey < key)) {
+                    key = lazyKey;
+                }
+            }
+            return key;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextKey != -1;
+        }
+
+        @Override
+        public Row next() {
+            if (nextKey == -1) {
+                throw new NoSuchElementException();
+            }
+            if (lazyRows != null && lazyRows.containsKey(nextKey)) {
+                loadRows(nextKey, Integer.MAX_VALUE, LAZY_ROWS_BATCH_SIZE);
+            }
+            lastReturned = _rows.get(nextKey);
+            if (lastReturned == null) {
+                throw new ConcurrentModificationException();
+            }
+            nextKey = nextKey(nextKey + 1);
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            _rows.remove(lastReturned.getRowNum());
+            lastReturned = null;
+        }
     }
 
     /**
@@ -2919,6 +3044,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         if (srcRows == null || srcRows.isEmpty()) {
             throw new IllegalArgumentException("No rows to copy");
         }
+        loadAllRows();
         final Row srcStartRow = srcRows.get(0);
         final Row srcEndRow = srcRows.get(srcRows.size() - 1);
 
@@ -3049,6 +3175,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Override
     public void shiftRows(int startRow, int endRow, final int n, boolean copyRowHeight, boolean resetOriginalRowHeight) {
+        loadAllRows();
         List<XSSFTable> overlappingTables = new ArrayList<>();
         for (XSSFTable table : getTables()) {
             if ((table.getStartRowIndex() < startRow && table.getEndRowIndex() < startRow)
@@ -3090,6 +3217,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Override
     public void shiftColumns(int startColumn, int endColumn, final int n) {
+        loadAllRows();
         List<XSSFTable> overlappingTables = new ArrayList<>();
         for (XSSFTable table : getTables()) {
             if ((table.getStartColIndex() < startColumn && table.getEndColIndex() < startColumn)
@@ -3159,8 +3287,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         _rows.clear();
         for (CTRow ctRow : sheetData.getRowList()) {
             XSSFRow row = new XSSFRow(ctRow, this);
-            Integer rownumI = Math.toIntExact(row.getRowNum());
-            _rows.put(rownumI, row);
+            _rows.put(row.getRowNum(), row);
         }
     }
 
@@ -3182,10 +3309,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
                     }
                 }
                 // remove row from worksheet.getSheetData row array
-                // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-                //noinspection UnnecessaryBoxing
-                final Integer rownumI = Integer.valueOf(row.getRowNum()); // NOSONAR
-                int idx = _rows.headMap(rownumI).size();
+                int idx = _rows.countBefore(row.getRowNum());
                 worksheet.getSheetData().removeRow(idx);
 
                 // remove row from _rows
@@ -3793,6 +3917,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         if (worksheet == null) {
             throw new POIXMLException("Cannot write invalid sheet, internal data is missing");
         }
+        loadAllRows();
 
         boolean setToNull = false;
         if(worksheet.sizeOfColsArray() == 1) {
@@ -3842,8 +3967,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         CellRangeAddress cellRangeAddress = dimensionOverride;
         if (cellRangeAddress == null) {
             int minCell = Integer.MAX_VALUE, maxCell = Integer.MIN_VALUE;
-            for(Map.Entry<Integer, XSSFRow> entry : _rows.entrySet()) {
-                XSSFRow row = entry.getValue();
+            for(XSSFRow row : _rows) {
 
                 // first perform the normal write actions for the row
                 row.onDocumentWrite();
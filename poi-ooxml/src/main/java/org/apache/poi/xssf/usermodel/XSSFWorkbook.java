@@ -210,6 +210,32 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
 
     private final XSSFFactory xssfFactory;
 
+    private static boolean lazyLoadRows;
+
+    /**
+     * Enables or disables the lazy loading of rows for workbooks which are read afterwards.
+     * <p>
+     * When enabled, the sheet data of a worksheet is streamed when the sheet is read and its rows are
+     * kept as compact xml fragments. Rows are only parsed into {@link XSSFRow}s when they are first accessed,
+     * e.g. via {@link XSSFSheet#getRow(int)} or by iterating the sheet. Rows with shared formula masters or
+     * array formulas are always loaded. Calls which need all rows, like shifting rows or
+     * {@link XSSFSheet#getCTWorksheet()}, load the remaining rows first.
+     *
+     * @param lazyLoad true, to load rows on demand, defaults to false
+     * @since POI 5.3.1
+     */
+    public static void setLazyLoadRows(boolean lazyLoad) {
+        lazyLoadRows = lazyLoad;
+    }
+
+    /**
+     * @return true, if rows are loaded on demand
+     * @since POI 5.3.1
+     */
+    public static boolean isLazyLoadRows() {
+        return lazyLoadRows;
+    }
+
     /**
      * Create a new SpreadsheetML workbook.
      */
@@ -402,6 +428,10 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
             Map<String, XSSFSheet> shIdMap = new HashMap<>();
             Map<String, ExternalLinksTable> elIdMap = new HashMap<>();
             for(RelationPart rp : getRelationParts()){
+                if (!rp.isLoaded()) {
+                    // lazily loaded relations are none of the parts needed here
+                    continue;
+                }
                 POIXMLDocumentPart p = rp.getDocumentPart();
                 if(p instanceof SharedStringsTable) {
                     sharedStringSource = (SharedStringsTable)p;
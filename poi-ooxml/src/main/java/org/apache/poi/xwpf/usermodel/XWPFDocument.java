@@ -123,6 +123,10 @@ public class XWPFDocument extends POIXMLDocument implements Document, IBody {
     private XWPFSettings settings;
     private XWPFComments comments;
     protected final List<XWPFChart> charts = new ArrayList<>();
+    /**
+     * Chart relations, which are loaded lazily and are added to the charts when first needed
+     */
+    private final List<RelationPart> lazyCharts = new ArrayList<>();
     /**
      * Keeps track on all id-values used in this document and included parts, like headers, footers, etc.
      */
@@ -252,8 +256,14 @@ public class XWPFDocument extends POIXMLDocument implements Document, IBody {
 
             // Create for each XML-part in the Package a PartClass
             for (RelationPart rp : getRelationParts()) {
-                POIXMLDocumentPart p = rp.getDocumentPart();
                 String relation = rp.getRelationship().getRelationshipType();
+                if (!rp.isLoaded()) {
+                    if (relation.equals(XWPFRelation.CHART.getRelation())) {
+                        lazyCharts.add(rp);
+                    }
+                    continue;
+                }
+                POIXMLDocumentPart p = rp.getDocumentPart();
                 try {
                     if (relation.equals(XWPFRelation.STYLES.getRelation())) {
                         this.styles = (XWPFStyles) p;
@@ -323,8 +333,11 @@ public class XWPFDocument extends POIXMLDocument implements Document, IBody {
 
     private void initFootnotes() throws XmlException, IOException {
         for (RelationPart rp : getRelationParts()) {
-            POIXMLDocumentPart p = rp.getDocumentPart();
             String relation = rp.getRelationship().getRelationshipType();
+            if (!relation.equals(XWPFRelation.FOOTNOTE.getRelation()) && !relation.equals(XWPFRelation.ENDNOTE.getRelation())) {
+                continue;
+            }
+            POIXMLDocumentPart p = rp.getDocumentPart();
             if (relation.equals(XWPFRelation.FOOTNOTE.getRelation()) && p instanceof XWPFFootnotes) {
                 this.footnotes = (XWPFFootnotes) p;
                 this.footnotes.onDocumentRead();
@@ -398,9 +411,17 @@ public class XWPFDocument extends POIXMLDocument implements Document, IBody {
      * @return list of XWPFCharts in this document
      */
     public List<XWPFChart> getCharts() {
+        loadLazyCharts();
         return Collections.unmodifiableList(charts);
     }
 
+    private void loadLazyCharts() {
+        for (RelationPart rp : lazyCharts) {
+            charts.add(rp.getDocumentPart());
+        }
+        lazyCharts.clear();
+    }
+
     @Override
     public XWPFTable getTableArray(int pos) {
         if (pos >= 0 && pos < tables.size()) {
@@ -1931,6 +1952,8 @@ public class XWPFDocument extends POIXMLDocument implements Document, IBody {
      * @since POI 4.1.2
      */
     public XWPFChart createChart(XWPFRun run, int width, int height) throws InvalidFormatException, IOException {
+        loadLazyCharts();
+
         //get chart number
         int chartNumber = getNextPartNumber(XWPFRelation.CHART, charts.size() + 1);
 
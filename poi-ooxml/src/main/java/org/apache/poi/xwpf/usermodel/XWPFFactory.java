@@ -39,4 +39,12 @@ public final class XWPFFactory extends POIXMLFactory {
     protected POIXMLRelation getDescriptor(String relationshipType) {
         return XWPFRelation.getInstance(relationshipType);
     }
-}
\ No newline at end of file
+
+    /**
+     * @since POI 5.3.1
+     */
+    @Override
+    protected boolean isLazyRelation(String relationshipType) {
+        return XWPFRelation.CHART.getRelation().equals(relationshipType);
+    }
+}
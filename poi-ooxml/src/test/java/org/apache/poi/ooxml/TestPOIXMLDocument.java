@@ -48,7 +48,13 @@ import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.TempFile;
 import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.usermodel.XSSFDrawing;
 import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xwpf.XWPFTestDataSamples;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFRelation;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
@@ -345,6 +351,56 @@ public final class TestPOIXMLDocument {
         assertFalse(uh.hasException(), "Should not have an exception now, but had " + uh.e);
     }
 
+    @Test
+    void testLazyLoadRelations() throws IOException {
+        POIXMLDocument.setLazyLoadRelations(true);
+        try (XSSFWorkbook wb = XSSFTestDataSamples.openSampleWorkbook("WithTwoCharts.xlsx")) {
+            XSSFSheet sheet = wb.getSheetAt(1);
+            RelationPart drawingRel = sheet.getRelationParts().stream()
+                .filter(rp -> XSSFRelation.DRAWINGS.getRelation().equals(rp.getRelationship().getRelationshipType()))
+                .findFirst().orElseThrow(AssertionError::new);
+            assertFalse(drawingRel.isLoaded());
+
+            // write without accessing the drawing
+            try (XSSFWorkbook wb2 = XSSFTestDataSamples.writeOutAndReadBack(wb)) {
+                assertEquals(1, wb2.getSheetAt(1).getDrawingPatriarch().getCharts().size());
+            }
+            assertFalse(drawingRel.isLoaded());
+
+            XSSFDrawing drawing = sheet.getDrawingPatriarch();
+            assertTrue(drawingRel.isLoaded());
+            assertSame(drawing, drawingRel.getDocumentPart());
+            assertEquals(1, drawing.getCharts().size());
+            assertEquals(1, ((POIXMLDocumentPart) drawing).getRelationCounter());
+
+            drawing.getCharts().get(0).setTitleText("lazy");
+            try (XSSFWorkbook wb2 = XSSFTestDataSamples.writeOutAndReadBack(wb)) {
+                assertEquals("lazy", wb2.getSheetAt(1).getDrawingPatriarch().getCharts().get(0).getTitleText().getString());
+            }
+        } finally {
+            POIXMLDocument.setLazyLoadRelations(false);
+        }
+    }
+
+    @Test
+    void testLazyLoadRelationsXWPF() throws IOException {
+        int charts;
+        try (XWPFDocument doc = XWPFTestDataSamples.openSampleDocument("61745.docx")) {
+            charts = doc.getCharts().size();
+        }
+        assertTrue(charts > 0);
+
+        POIXMLDocument.setLazyLoadRelations(true);
+        try (XWPFDocument doc = XWPFTestDataSamples.openSampleDocument("61745.docx")) {
+            assertTrue(doc.getRelationParts().stream().anyMatch(rp -> !rp.isLoaded()));
+            assertFalse(doc.getParagraphs().isEmpty());
+            assertEquals(charts, doc.getCharts().size());
+            assertTrue(doc.getRelationParts().stream().allMatch(RelationPart::isLoaded));
+        } finally {
+            POIXMLDocument.setLazyLoadRelations(false);
+        }
+    }
+
     private static class UncaughtHandler implements UncaughtExceptionHandler {
         Throwable e;
 
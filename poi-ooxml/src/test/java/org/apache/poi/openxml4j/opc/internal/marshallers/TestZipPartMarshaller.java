@@ -0,0 +1,130 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.opc.internal.marshallers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.openxml4j.OpenXML4JTestDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.openxml4j.opc.ZipPackage;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+import org.junit.jupiter.api.Test;
+
+class TestZipPartMarshaller {
+    private static final String IMAGE = "word/media/image1.gif";
+    private static final String FONT_TABLE = "word/fontTable.xml";
+    private static final String STYLES = "word/styles.xml";
+
+    @Test
+    void copyUnchangedParts() throws Exception {
+        File src = OpenXML4JTestDataSamples.getSampleFile("sample.docx");
+        byte[] saved = save(src, true);
+
+        try (ZipFile source = ZipFile.builder().setFile(src).get();
+             ZipFile target = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(saved)).get()) {
+            // the image is stored uncompressed in the source and an untouched part keeps that
+            assertEquals(ZipArchiveEntry.STORED, target.getEntry(IMAGE).getMethod());
+            assertArrayEquals(rawData(source, IMAGE), rawData(target, IMAGE));
+
+            // rewritten with the same content
+            assertArrayEquals(rawData(source, FONT_TABLE), rawData(target, FONT_TABLE));
+
+            // rewritten with new content
+            try (InputStream is = target.getInputStream(target.getEntry(STYLES))) {
+                assertEquals("<styles/>", new String(IOUtils.toByteArray(is), StandardCharsets.UTF_8));
+            }
+        }
+
+        try (OPCPackage expected = OPCPackage.open(src, PackageAccess.READ);
+             OPCPackage pkg = OPCPackage.open(new SeekableInMemoryByteChannel(saved))) {
+            assertEquals(expected.getParts().size(), pkg.getParts().size());
+        }
+    }
+
+    @Test
+    void recompressUnchangedParts() throws Exception {
+        byte[] saved;
+        ZipPackage.setCopyUnchangedParts(false);
+        try {
+            saved = save(OpenXML4JTestDataSamples.getSampleFile("sample.docx"), false);
+        } finally {
+            ZipPackage.setCopyUnchangedParts(true);
+        }
+
+        try (ZipFile target = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(saved)).get()) {
+            assertEquals(ZipArchiveEntry.DEFLATED, target.getEntry(IMAGE).getMethod());
+        }
+    }
+
+    private static byte[] save(File src, boolean modify) throws Exception {
+        File file = TempFile.createTempFile("copyUnchanged", ".docx");
+        try {
+            Files.copy(src.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ_WRITE);
+            try {
+                if (modify) {
+                    PackagePart fontTable = pkg.getPart(PackagingURIHelper.createPartName("/" + FONT_TABLE));
+                    byte[] data;
+                    try (InputStream is = fontTable.getInputStream()) {
+                        data = IOUtils.toByteArray(is);
+                    }
+                    try (OutputStream os = fontTable.getOutputStream()) {
+                        os.write(data);
+                    }
+
+                    PackagePart styles = pkg.getPart(PackagingURIHelper.createPartName("/" + STYLES));
+                    try (OutputStream os = styles.getOutputStream()) {
+                        os.write("<styles/>".getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+
+                UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+                pkg.save(bos);
+                return bos.toByteArray();
+            } finally {
+                pkg.revert();
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    private static byte[] rawData(ZipFile zipFile, String name) throws IOException {
+        try (InputStream is = zipFile.getRawInputStream(zipFile.getEntry(name))) {
+            return IOUtils.toByteArray(is);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.exceptions.OLE2NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.XSSFTestDataSamples;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+class TestMappedByteChannel {
+    @Test
+    void readAndSeek() throws IOException {
+        File file = XSSFTestDataSamples.getSampleFile("sample.xlsx");
+        byte[] expected = Files.readAllBytes(file.toPath());
+        try (MappedByteChannel channel = MappedByteChannel.map(file)) {
+            assertEquals(expected.length, channel.size());
+
+            ByteBuffer buf = ByteBuffer.allocate(100);
+            channel.position(expected.length - 40);
+            assertEquals(40, channel.read(buf));
+            assertArrayEquals(Arrays.copyOfRange(expected, expected.length - 40, expected.length),
+                Arrays.copyOf(buf.array(), 40));
+            assertEquals(expected.length, channel.position());
+            assertEquals(-1, channel.read(buf));
+
+            buf.clear();
+            channel.position(10);
+            assertEquals(100, channel.read(buf));
+            assertArrayEquals(Arrays.copyOfRange(expected, 10, 110), buf.array());
+
+            assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+            channel.close();
+            assertFalse(channel.isOpen());
+            assertThrows(ClosedChannelException.class, () -> channel.read(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    void openPackage() throws Exception {
+        File file = XSSFTestDataSamples.getSampleFile("sample.xlsx");
+        String expected = readFirstCells(OPCPackage.open(file, PackageAccess.READ));
+
+        SeekableByteChannel mapped = MappedByteChannel.map(file);
+        assertEquals(expected, readFirstCells(OPCPackage.open(mapped)));
+        assertFalse(mapped.isOpen());
+
+        SeekableByteChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        assertEquals(expected, readFirstCells(OPCPackage.open(fileChannel)));
+        assertFalse(fileChannel.isOpen());
+    }
+
+    @Test
+    void notOfficeXml() throws IOException {
+        File file = POIDataSamples.getSpreadSheetInstance().getFile("SampleSS.xls");
+        SeekableByteChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        assertThrows(OLE2NotOfficeXmlFileException.class, () -> OPCPackage.open(channel));
+        assertFalse(channel.isOpen());
+    }
+
+    private static String readFirstCells(OPCPackage pkg) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (XSSFWorkbook wb = new XSSFWorkbook(pkg)) {
+            for (Sheet sheet : wb) {
+                sb.append(sheet.getSheetName()).append(':');
+                if (sheet.getRow(0) != null) {
+                    sb.append(sheet.getRow(0).getCell(0));
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
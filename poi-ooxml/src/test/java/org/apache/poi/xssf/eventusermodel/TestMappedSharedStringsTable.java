@@ -0,0 +1,99 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.junit.jupiter.api.Test;
+
+class TestMappedSharedStringsTable {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @Test
+    void testMatchesReadOnlyTable() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("SampleSS.xlsx"))) {
+            List<PackagePart> parts = pkg.getPartsByName(Pattern.compile("/xl/sharedStrings.xml"));
+            assertEquals(1, parts.size());
+
+            ReadOnlySharedStringsTable rtbl = new ReadOnlySharedStringsTable(parts.get(0));
+            // use a tiny cache to exercise the eviction
+            try (MappedSharedStringsTable mtbl = new MappedSharedStringsTable(parts.get(0), true, 2)) {
+                assertEquals(rtbl.getCount(), mtbl.getCount());
+                assertEquals(rtbl.getUniqueCount(), mtbl.getUniqueCount());
+                assertEquals(rtbl.getUniqueCount(), mtbl.getSize());
+                for (int round = 0; round < 2; round++) {
+                    for (int i = 0; i < rtbl.getUniqueCount(); i++) {
+                        assertEquals(rtbl.getItemAt(i).getString(), mtbl.getItemAt(i).getString());
+                    }
+                }
+                assertThrows(IllegalStateException.class, () -> mtbl.getItemAt(rtbl.getUniqueCount()));
+                assertThrows(IllegalStateException.class, () -> mtbl.getItemAt(-1));
+            }
+        }
+    }
+
+    @Test
+    void testPhoneticRuns() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("51519.xlsx"))) {
+            List<PackagePart> parts = pkg.getPartsByName(Pattern.compile("/xl/sharedStrings.xml"));
+            try (MappedSharedStringsTable tbl = new MappedSharedStringsTable(parts.get(0), true, 10)) {
+                assertEquals("日本オラクル ニホン", tbl.getItemAt(3).getString());
+            }
+            try (MappedSharedStringsTable tbl = new MappedSharedStringsTable(parts.get(0), false, 10)) {
+                assertEquals("日本オラクル", tbl.getItemAt(3).getString());
+            }
+        }
+    }
+
+    @Test
+    void testEmptyStringsAndClose() throws Exception {
+        String xml = "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"3\" uniqueCount=\"3\">" +
+            "<si><t></t></si><si><t>äöü</t></si><si><t/></si></sst>";
+        InputStream is = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+        MappedSharedStringsTable tbl = new MappedSharedStringsTable(is, true, 0);
+        assertEquals(3, tbl.getSize());
+        assertEquals("", tbl.getItemAt(0).getString());
+        assertEquals("äöü", tbl.getItemAt(1).getString());
+        assertEquals("", tbl.getItemAt(2).getString());
+        tbl.close();
+        assertThrows(IllegalStateException.class, () -> tbl.getItemAt(1));
+    }
+
+    @Test
+    void testXSSFReader() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("SampleSS.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            reader.setUseMappedSharedStringsTable(true);
+            SharedStrings sst = reader.getSharedStringsTable();
+            assertInstanceOf(MappedSharedStringsTable.class, sst);
+            ((Closeable)sst).close();
+        }
+    }
+}
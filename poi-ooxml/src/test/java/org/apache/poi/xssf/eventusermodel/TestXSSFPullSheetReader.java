@@ -0,0 +1,193 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.eventusermodel.XSSFPullSheetReader.SheetCell;
+import org.apache.poi.xssf.eventusermodel.XSSFPullSheetReader.SheetRow;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+class TestXSSFPullSheetReader {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @Test
+    void testInlineString() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("InlineString.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            try (XSSFPullSheetReader rows = new XSSFPullSheetReader(reader.getSheetsData().next(),
+                    reader.getSharedStringsTable(), reader.getStylesTable())) {
+                assertTrue(rows.hasNext());
+                SheetCell cell = rows.next().getCells().get(0);
+                assertEquals(CellType.STRING, cell.getCellType());
+                assertEquals("\uD83D\uDE1Cmore text", cell.getStringCellValue());
+                assertFalse(rows.hasNext());
+                assertThrows(NoSuchElementException.class, rows::next);
+            }
+        }
+    }
+
+    @Test
+    void testMatchesUserModel() throws Exception {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            XSSFSheet sheet = wb.createSheet();
+            XSSFRow row0 = sheet.createRow(0);
+            row0.createCell(0).setCellValue("text");
+            row0.createCell(2).setCellValue(1.5);
+            row0.createCell(3).setCellValue(true);
+            row0.createCell(4).setCellErrorValue(FormulaError.DIV0.getCode());
+            XSSFRow row5 = sheet.createRow(5);
+            row5.createCell(1).setCellFormula("C1*2");
+            row5.createCell(2);
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            wb.write(bos);
+
+            try (OPCPackage pkg = OPCPackage.open(bos.toInputStream())) {
+                XSSFReader reader = new XSSFReader(pkg);
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                try (XSSFPullSheetReader rows = new XSSFPullSheetReader(sheets.next(),
+                        reader.getSharedStringsTable(), reader.getStylesTable())) {
+                    List<SheetRow> list = rows.stream().collect(Collectors.toList());
+                    assertEquals(2, list.size());
+
+                    SheetRow r0 = list.get(0);
+                    assertEquals(0, r0.getRowNum());
+                    assertEquals(4, r0.getCells().size());
+                    assertEquals("text", r0.getCell(0).getStringCellValue());
+                    assertNull(r0.getCell(1));
+                    assertEquals(1.5, r0.getCell(2).getNumericCellValue(), 0);
+                    assertTrue(r0.getCell(3).getBooleanCellValue());
+                    assertEquals(FormulaError.DIV0.getCode(), r0.getCell(4).getErrorCellValue());
+                    assertThrows(IllegalStateException.class, () -> r0.getCell(0).getNumericCellValue());
+
+                    SheetRow r5 = list.get(1);
+                    assertEquals(5, r5.getRowNum());
+                    SheetCell formula = r5.getCell(1);
+                    assertTrue(formula.isFormulaCell());
+                    assertEquals("C1*2", formula.getCellFormula());
+                    assertEquals(CellType.NUMERIC, formula.getCellType());
+                    assertEquals(3.0, formula.getNumericCellValue(), 0);
+                    assertEquals(CellType.BLANK, r5.getCell(2).getCellType());
+                    assertEquals("", r5.getCell(2).getStringCellValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFormattedValues() throws Exception {
+        DataFormatter formatter = new DataFormatter();
+        try (XSSFWorkbook wb = new XSSFWorkbook(_ssTests.openResourceAsStream("sample.xlsx"));
+             OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("sample.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFSheet sheet = wb.getSheetAt(0);
+            try (XSSFPullSheetReader rows = new XSSFPullSheetReader(reader.getSheetsData().next(),
+                    reader.getSharedStringsTable(), reader.getStylesTable())) {
+                int count = 0;
+                while (rows.hasNext()) {
+                    SheetRow row = rows.next();
+                    XSSFRow expRow = sheet.getRow(row.getRowNum());
+                    assertNotNull(expRow);
+                    for (SheetCell cell : row) {
+                        XSSFCell expCell = expRow.getCell(cell.getColumnIndex());
+                        assertNotNull(expCell);
+                        if (!cell.isFormulaCell()) {
+                            assertEquals(formatter.formatCellValue(expCell), cell.getFormattedValue(formatter),
+                                "cell " + cell.getAddress());
+                        }
+                        count++;
+                    }
+                }
+                assertTrue(count > 0);
+            }
+        }
+    }
+
+    @Test
+    void testStreamWithoutRowNumbers() throws Exception {
+        String xml = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row><c t=\"inlineStr\"><is><r><t>a</t></r><r><t>b</t></r><rPh><t>x</t></rPh></is></c><c><v>2</v></c></row>" +
+            "<row><c t=\"str\"><f>\"x\"</f><v>x</v></c></row>" +
+            "</sheetData></worksheet>";
+        InputStream is = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+        try (XSSFPullSheetReader rows = new XSSFPullSheetReader(is, null, null)) {
+            SheetRow r0 = rows.next();
+            assertEquals(0, r0.getRowNum());
+            assertEquals("ab", r0.getCell(0).getStringCellValue());
+            assertEquals(2, r0.getCell(1).getNumericCellValue(), 0);
+            assertNull(r0.getCell(1).getCellStyle());
+
+            SheetRow r1 = rows.next();
+            assertEquals(1, r1.getRowNum());
+            assertEquals("x", r1.getCell(0).getStringCellValue());
+            assertEquals("\"x\"", r1.getCell(0).getCellFormula());
+            assertFalse(rows.hasNext());
+        }
+    }
+
+    @Test
+    void testIsoDatesAndUnknownErrors() throws Exception {
+        String xml = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row r=\"1\"><c r=\"A1\" t=\"d\"><v>2024-02-29T12:00:00</v></c><c r=\"B1\" t=\"d\"><v>2024-02-29</v></c>" +
+            "<c r=\"C1\" t=\"d\"><v>06:00:00</v></c><c r=\"D1\" t=\"d\"><v>2024-02-29T12:00:00Z</v></c>" +
+            "<c r=\"E1\" t=\"d\"><v>no date</v></c><c r=\"F1\" t=\"e\"><v>#UNKNOWN!</v></c></row>" +
+            "</sheetData></worksheet>";
+        InputStream is = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+        try (XSSFPullSheetReader rows = new XSSFPullSheetReader(is, null, null)) {
+            SheetRow r0 = rows.next();
+            LocalDateTime expected = LocalDateTime.of(2024, 2, 29, 12, 0);
+            assertEquals(CellType.NUMERIC, r0.getCell(0).getCellType());
+            assertEquals(expected, r0.getCell(0).getLocalDateTimeCellValue());
+            assertEquals(expected.toLocalDate().atStartOfDay(), r0.getCell(1).getLocalDateTimeCellValue());
+            assertEquals(0.25, r0.getCell(2).getNumericCellValue(), 0);
+            assertEquals(expected, r0.getCell(3).getLocalDateTimeCellValue());
+
+            // unparseable dates are kept as text
+            assertEquals(CellType.STRING, r0.getCell(4).getCellType());
+            assertEquals("no date", r0.getCell(4).getStringCellValue());
+
+            assertEquals(CellType.ERROR, r0.getCell(5).getCellType());
+            assertEquals(FormulaError.NA.getCode(), r0.getCell(5).getErrorCellValue());
+        }
+    }
+}
@@ -126,4 +126,20 @@ class TestXSSFBEventBasedExcelExtractor {
             }
         }
     }
+
+    @Test
+    void testParallelMatchesSequential() throws Exception {
+        for (String file : new String[]{"sample.xlsb", "WithTextBox.xlsb", "Simple.xlsb", "62815.xlsb"}) {
+            String expected;
+            try (XSSFEventBasedExcelExtractor ex = getExtractor(file)) {
+                ex.setIncludeCellComments(true);
+                expected = ex.getText();
+            }
+            try (XSSFEventBasedExcelExtractor ex = getExtractor(file)) {
+                ex.setIncludeCellComments(true);
+                ex.setParallelism(4);
+                assertEquals(expected, ex.getText(), file);
+            }
+        }
+    }
 }
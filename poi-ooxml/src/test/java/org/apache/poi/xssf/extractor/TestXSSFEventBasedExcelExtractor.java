@@ -389,4 +389,21 @@ class TestXSSFEventBasedExcelExtractor {
             assertEquals("10/0", lines[4]);
         }
     }
+
+    @Test
+    void testParallelMatchesSequential() throws Exception {
+        for (String file : new String[]{"SampleSS.xlsx", "commentTest.xlsx", "WithTextBox.xlsx", "AverageTaxRates.xlsx"}) {
+            String expected;
+            try (XSSFEventBasedExcelExtractor ex = getExtractor(file)) {
+                ex.setIncludeCellComments(true);
+                expected = ex.getText();
+            }
+            try (XSSFEventBasedExcelExtractor ex = getExtractor(file)) {
+                ex.setIncludeCellComments(true);
+                ex.setParallelism(4);
+                assertEquals(4, ex.getParallelism());
+                assertEquals(expected, ex.getText(), file);
+            }
+        }
+    }
 }
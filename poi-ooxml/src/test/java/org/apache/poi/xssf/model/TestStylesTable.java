@@ -34,12 +34,19 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Map;
 
+import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.xssf.XSSFTestDataSamples;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder.BorderSide;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellFill;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTBorder;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTXf;
 
 public final class TestStylesTable {
     private static final String testFile = "Formatting.xlsx";
@@ -353,4 +360,73 @@ public final class TestStylesTable {
             assertNotNull(XSSFTestDataSamples.writeOutAndReadBack(workbook));
         }
     }
+
+    @Test
+    void testStyleIndex() throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            StylesTable st = wb.getStylesSource();
+            assertEquals(0, st.getStyleLookupCount());
+
+            // the default fills and borders are found
+            assertEquals(0, st.putFill(new XSSFCellFill(st.getFillAt(0).getCTFill(), st.getIndexedColors())));
+            assertEquals(1, st.putFill(new XSSFCellFill(st.getFillAt(1).getCTFill(), st.getIndexedColors())));
+            assertEquals(0, st.putBorder(new XSSFCellBorder(st.getBorderAt(0).getCTBorder())));
+            assertEquals(3, st.getStyleLookupCount());
+            assertEquals(3, st.getStyleLookupHitCount());
+
+            // equal borders are shared, also between styles
+            for (int i = 0; i < 100; i++) {
+                XSSFCellStyle style = wb.createCellStyle();
+                style.setBorderTop(BorderStyle.values()[i % 5]);
+            }
+            assertEquals(5, st.getBorders().size());
+            assertTrue(st.getStyleLookupHitCount() > 95);
+
+            // forced fonts can be customised after registration, and are found with their new properties
+            XSSFFont font = wb.createFont();
+            font.setFontName("Arial");
+            XSSFFont other = new XSSFFont();
+            other.setFontName("Arial");
+            assertEquals(font.getIndex(), st.putFont(other));
+
+            // forced duplicates are told apart by their index, the first one is found
+            XSSFFont duplicate = wb.createFont();
+            duplicate.setFontName("Arial");
+            assertEquals(font.getIndex(), st.putFont(other));
+
+            // fonts modified after they were hashed are moved to their new bucket
+            font.setFontName("Courier New");
+            assertEquals(duplicate.getIndex(), st.putFont(other));
+            XSSFFont courier = new XSSFFont();
+            courier.setFontName("Courier New");
+            assertEquals(font.getIndex(), st.putFont(courier));
+
+            // fonts modified after they were hashed are found by their new properties
+            int fontCount = st.getFonts().size();
+            font.setFontName("Times New Roman");
+            font.setBold(true);
+            XSSFFont times = new XSSFFont();
+            times.setFontName("Times New Roman");
+            times.setBold(true);
+            assertEquals(font.getIndex(), st.putFont(times));
+            assertEquals(fontCount, st.getFonts().size());
+
+            // ... as well as modified borders
+            XSSFCellBorder border = st.getBorderAt(1);
+            border.setBorderStyle(BorderSide.LEFT, BorderStyle.DOUBLE);
+            XSSFCellBorder doubleBorder = new XSSFCellBorder((CTBorder)border.getCTBorder().copy());
+            int borderCount = st.getBorders().size();
+            assertEquals(1, st.putBorder(doubleBorder));
+            assertEquals(borderCount, st.getBorders().size());
+
+            // replaced cell xfs are found at their new index
+            CTXf xf = (CTXf)st.getCellXfAt(0).copy();
+            int idx = st.putCellXf(xf) - 1;
+            CTXf replacement = (CTXf)xf.copy();
+            st.replaceCellXfAt(idx, replacement);
+            int size = st._getXfsSize();
+            assertEquals(idx, st.putStyle(new XSSFCellStyle(idx, 0, st, null)));
+            assertEquals(size, st._getXfsSize());
+        }
+    }
 }
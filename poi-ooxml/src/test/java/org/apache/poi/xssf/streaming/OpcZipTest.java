@@ -17,17 +17,28 @@
 
 package org.apache.poi.xssf.streaming;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
 
+import org.apache.poi.util.IOUtils;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class OpcZipTest {
     @Test
@@ -59,6 +70,43 @@ class OpcZipTest {
         }
     }
 
+    @Test
+    void rawEntries() throws Exception {
+        Map<String, String> contents = createContents();
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            try (OpcOutputStream zip = new OpcOutputStream(bos)) {
+                boolean raw = false;
+                for (Map.Entry<String, String> entry : contents.entrySet()) {
+                    byte[] data = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                    if (raw) {
+                        CRC32 crc = new CRC32();
+                        crc.update(data);
+                        UnsynchronizedByteArrayOutputStream deflated = UnsynchronizedByteArrayOutputStream.builder().get();
+                        try (DeflaterOutputStream dos = new DeflaterOutputStream(deflated, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+                            dos.write(data);
+                        }
+                        zip.putRawEntry(entry.getKey(), crc.getValue(), data.length, deflated.size(), new ByteArrayInputStream(deflated.toByteArray()));
+                    } else {
+                        zip.putNextEntry(entry.getKey());
+                        zip.write(data);
+                        zip.closeEntry();
+                    }
+                    raw = !raw;
+                }
+            }
+
+            try (ZipArchiveInputStream zis = new ZipArchiveInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+                for (Map.Entry<String, String> entry : contents.entrySet()) {
+                    ZipArchiveEntry ze = zis.getNextEntry();
+                    assertNotNull(ze);
+                    assertEquals(entry.getKey(), ze.getName());
+                    assertEquals(entry.getValue(), new String(IOUtils.toByteArray(zis), StandardCharsets.UTF_8));
+                }
+                assertNull(zis.getNextEntry());
+            }
+        }
+    }
+
     private static Map<String, String> createContents() {
         Map<String, String> contents = new LinkedHashMap<>();
         for (int i = 0; i < 3; i++) {
@@ -37,6 +37,7 @@ import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
 
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
 import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.POIDataSamples;
@@ -69,6 +70,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 public final class TestSXSSFWorkbook extends BaseTestXWorkbook {
@@ -314,6 +316,76 @@ public final class TestSXSSFWorkbook extends BaseTestXWorkbook {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void writeParallel(boolean opcZip64) throws IOException {
+        try (SXSSFWorkbook wb = new SXSSFWorkbook()) {
+            // Zip64Mode.Always uses the OpcZipArchiveOutputStream, otherwise the commons-compress implementation
+            wb.setZip64Mode(opcZip64 ? Zip64Mode.Always : Zip64Mode.AsNeeded);
+            wb.setWriteParallelism(3);
+            assertEquals(3, wb.getWriteParallelism());
+            populateData(wb);
+
+            // written twice to check the sheet temp files are still available afterwards
+            for (int k = 0; k < 2; k++) {
+                try (XSSFWorkbook xwb = SXSSFITestDataProvider.instance.writeOutAndReadBack(wb)) {
+                    assertEquals(5, xwb.getNumberOfSheets());
+                    for (int i = 0; i < 5; i++) {
+                        Sheet sh = xwb.getSheetAt(i);
+                        assertEquals("sheet" + i, sh.getSheetName());
+                        assertEquals(999, sh.getLastRowNum());
+                        for (int j = 0; j < 1000; j++) {
+                            Row row = sh.getRow(j);
+                            assertNotNull(row, "row[" + j + "]");
+                            assertEquals(new CellReference(row.getCell(0)).formatAsString(), row.getCell(0).getStringCellValue());
+                            assertEquals(i, (int) row.getCell(1).getNumericCellValue());
+                            assertEquals(j, (int) row.getCell(2).getNumericCellValue());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"none, 1", "deflate, 1", "deflate, 3", "lz4, 1", "lz4, 3"})
+    void tempFileCodec(String codecName, int parallelism) throws IOException {
+        SheetDataCodec codec = "none".equals(codecName) ? SheetDataCodec.NONE
+            : "deflate".equals(codecName) ? SheetDataCodec.deflate() : SheetDataCodec.lz4();
+        try (SXSSFWorkbook wb = new SXSSFWorkbook()) {
+            wb.setTempFileCodec(codec);
+            wb.setWriteParallelism(parallelism);
+            populateData(wb);
+            // an empty sheet and a sheet with unflushed rows only
+            wb.createSheet("empty");
+            wb.createSheet("unflushed").createRow(0).createCell(0).setCellValue("x");
+
+            for (Sheet sheet : wb) {
+                assertSame(codec, wb.getTempFileCodec());
+                assertNotNull(((SXSSFSheet) sheet).getSheetDataWriter().getTempFile());
+            }
+
+            for (Zip64Mode mode : new Zip64Mode[]{Zip64Mode.Always, Zip64Mode.AsNeeded}) {
+                wb.setZip64Mode(mode);
+                try (XSSFWorkbook xwb = SXSSFITestDataProvider.instance.writeOutAndReadBack(wb)) {
+                    assertEquals(7, xwb.getNumberOfSheets());
+                    for (int i = 0; i < 5; i++) {
+                        Sheet sh = xwb.getSheetAt(i);
+                        assertEquals(999, sh.getLastRowNum());
+                        for (int j = 0; j < 1000; j++) {
+                            Row row = sh.getRow(j);
+                            assertEquals(new CellReference(row.getCell(0)).formatAsString(), row.getCell(0).getStringCellValue());
+                            assertEquals(i, (int) row.getCell(1).getNumericCellValue());
+                            assertEquals(j, (int) row.getCell(2).getNumericCellValue());
+                        }
+                    }
+                    assertEquals(-1, xwb.getSheet("empty").getLastRowNum());
+                    assertEquals("x", xwb.getSheet("unflushed").getRow(0).getCell(0).getStringCellValue());
+                }
+            }
+        }
+    }
+
     private static void populateData(Workbook wb) {
         for(int i = 0; i < 5; i++){
             Sheet sh = wb.createSheet("sheet" + i);
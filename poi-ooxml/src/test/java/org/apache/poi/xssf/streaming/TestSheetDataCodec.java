@@ -0,0 +1,180 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.xssf.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.util.IOUtils;
+import org.junit.jupiter.api.Test;
+
+final class TestSheetDataCodec {
+    private static final SheetDataCodec[] CODECS = {
+        SheetDataCodec.NONE, SheetDataCodec.deflate(), SheetDataCodec.deflate(Deflater.BEST_COMPRESSION),
+        SheetDataCodec.lz4()
+    };
+
+    @Test
+    void roundTrip() throws IOException {
+        for (SheetDataCodec codec : CODECS) {
+            for (byte[] data : testData()) {
+                assertArrayEquals(data, decode(codec, encode(codec, data)), codec + " with " + data.length + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void lz4Compresses() throws IOException {
+        byte[] data = sheetData(20_000);
+        byte[] encoded = encode(SheetDataCodec.lz4(), data);
+        assertTrue(encoded.length < data.length / 4, "compressed to " + encoded.length + " of " + data.length);
+
+        // random data is stored in blocks
+        byte[] random = new byte[Lz4SheetDataCodec.BLOCK_SIZE * 2 + 100];
+        new Random(42).nextBytes(random);
+        assertEquals(random.length + 3 * 8, encode(SheetDataCodec.lz4(), random).length);
+    }
+
+    @Test
+    void lz4Corrupt() throws IOException {
+        byte[] encoded = encode(SheetDataCodec.lz4(), sheetData(1000));
+        // point the first match to before the start of the block
+        for (int i = 8; i < encoded.length; i++) {
+            encoded[i] = (byte)0xF0;
+        }
+        assertThrows(IOException.class, () -> decode(SheetDataCodec.lz4(), encoded));
+        assertThrows(IOException.class, () -> decode(SheetDataCodec.lz4(), Arrays.copyOf(encoded, 6)));
+    }
+
+    @Test
+    void deflatedParts() throws IOException {
+        byte[] head = "<worksheet><sheetData>".getBytes(StandardCharsets.UTF_8);
+        byte[] body = sheetData(5000);
+        byte[] tail = "</sheetData></worksheet>".getBytes(StandardCharsets.UTF_8);
+
+        DeflateSheetDataCodec.RawDeflateOutputStream[] streams = new DeflateSheetDataCodec.RawDeflateOutputStream[3];
+        UnsynchronizedByteArrayOutputStream raw = UnsynchronizedByteArrayOutputStream.builder().get();
+        long crc = 0;
+        byte[][] parts = { head, body, tail };
+        for (int i = 0; i < 3; i++) {
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            streams[i] = new DeflateSheetDataCodec.RawDeflateOutputStream(bos, Deflater.BEST_SPEED);
+            streams[i].write(parts[i]);
+            streams[i].close();
+            assertEquals(parts[i].length, streams[i].getSize());
+
+            // each part can be inflated on its own
+            assertArrayEquals(parts[i], decode(SheetDataCodec.deflate(), bos.toByteArray()));
+
+            // the last part is taken with its final block
+            int len = (i < 2) ? (int)streams[i].getDeflatedLength() : bos.size();
+            raw.write(bos.toByteArray(), 0, len);
+            crc = (i == 0) ? streams[i].getCrc() : DeflateSheetDataCodec.combineCrc(crc, streams[i].getCrc(), parts[i].length);
+        }
+
+        UnsynchronizedByteArrayOutputStream expected = UnsynchronizedByteArrayOutputStream.builder().get();
+        for (byte[] part : parts) {
+            expected.write(part);
+        }
+        CRC32 expectedCrc = new CRC32();
+        expectedCrc.update(expected.toByteArray());
+        assertEquals(expectedCrc.getValue(), crc);
+
+        // the concatenated parts form a single valid deflate stream
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(raw.toByteArray());
+            byte[] result = new byte[expected.size() + 10];
+            int len = inflater.inflate(result);
+            assertTrue(inflater.finished());
+            assertEquals(expected.size(), len);
+            assertArrayEquals(expected.toByteArray(), Arrays.copyOf(result, len));
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Test
+    void combineCrc() {
+        byte[] data = sheetData(100);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        for (int split : new int[]{ 0, 1, 17, data.length - 1, data.length }) {
+            CRC32 crc1 = new CRC32();
+            crc1.update(data, 0, split);
+            CRC32 crc2 = new CRC32();
+            crc2.update(data, split, data.length - split);
+            assertEquals(crc.getValue(), DeflateSheetDataCodec.combineCrc(crc1.getValue(), crc2.getValue(), data.length - split));
+        }
+    }
+
+    private static byte[][] testData() {
+        byte[] random = new byte[150_000];
+        new Random(1).nextBytes(random);
+        byte[] repeated = new byte[Lz4SheetDataCodec.BLOCK_SIZE + 1];
+        Arrays.fill(repeated, (byte)'x');
+        return new byte[][] {
+            new byte[0], { 1 }, "short <row/>".getBytes(StandardCharsets.UTF_8), repeated, random, sheetData(30_000)
+        };
+    }
+
+    private static byte[] sheetData(int rows) {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 1; r <= rows; r++) {
+            sb.append("<row r=\"").append(r).append("\">\n<c r=\"A").append(r).append("\" t=\"n\"><v>")
+              .append(r * 1.5).append("</v></c><c r=\"B").append(r).append("\" t=\"inlineStr\"><is><t>value ")
+              .append(r % 100).append("</t></is></c></row>\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(SheetDataCodec codec, byte[] data) throws IOException {
+        UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+        try (OutputStream os = codec.encode(bos)) {
+            // write in odd chunks to cross the block boundaries
+            for (int off = 0; off < data.length; off += 1000) {
+                os.write(data, off, Math.min(1000, data.length - off));
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] decode(SheetDataCodec codec, byte[] data) throws IOException {
+        try (InputStream is = codec.decode(new ByteArrayInputStream(data))) {
+            return IOUtils.toByteArray(is);
+        }
+    }
+}
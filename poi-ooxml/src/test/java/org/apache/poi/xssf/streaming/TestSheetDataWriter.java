@@ -19,6 +19,7 @@
 
 package org.apache.poi.xssf.streaming;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -26,8 +27,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaError;
 import org.apache.poi.util.IOUtils;
 import org.junit.jupiter.api.Test;
 
@@ -84,4 +91,84 @@ public final class TestSheetDataWriter {
             IOUtils.closeQuietly(writer);
         }
     }
+
+    @Test
+    void testUtf8Encoding() throws IOException {
+        String[] texts = {
+            "plain ascii", "umlauts \u00e4\u00f6\u00fc\u00df", "\u20ac and \u4e2d\u6587", unicodeSurrogates,
+            // malformed surrogates
+            "lone \uD835 high", "lone \uDF4A low", "trailing \uD835"
+        };
+        for (String text : texts) {
+            try (UnsynchronizedByteArrayOutputStream expected = UnsynchronizedByteArrayOutputStream.builder().get();
+                 UnsynchronizedByteArrayOutputStream actual = UnsynchronizedByteArrayOutputStream.builder().get()) {
+                try (Writer w = new OutputStreamWriter(expected, StandardCharsets.UTF_8)) {
+                    w.write(text);
+                }
+                try (Utf8SheetWriter w = new Utf8SheetWriter(actual)) {
+                    w.write(text);
+                }
+                assertArrayEquals(expected.toByteArray(), actual.toByteArray(), text);
+            }
+        }
+    }
+
+    @Test
+    void testUtf8Numbers() throws IOException {
+        double[] doubles = {
+            0, -0.0, 1, -1, 42, 1.5, -3.25, 0.001, 1e-4, 9_999_999, 10_000_000, -10_000_000, 1e22,
+            Math.PI, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY
+        };
+        long[] longs = { 0, 7, -7, 10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+
+        StringBuilder expected = new StringBuilder();
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            try (Utf8SheetWriter w = new Utf8SheetWriter(bos)) {
+                for (double d : doubles) {
+                    w.writeDouble(d);
+                    w.write(' ');
+                    expected.append(d).append(' ');
+                }
+                for (long l : longs) {
+                    w.writeLong(l);
+                    w.write(' ');
+                    expected.append(l).append(' ');
+                }
+            }
+            assertEquals(expected.toString(), new String(bos.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testWriteRowUtf8() throws IOException {
+        try (SXSSFWorkbook wb = new SXSSFWorkbook()) {
+            SXSSFSheet sheet = wb.createSheet();
+            CellStyle style = wb.createCellStyle();
+            SXSSFRow row = sheet.createRow(41);
+            row.setHeightInPoints(20);
+            row.createCell(0).setCellValue(1234);
+            row.createCell(1).setCellValue(-0.5);
+            row.createCell(2).setCellValue(" <text> & \u00e4\u20ac\n" + unicodeSurrogates);
+            row.createCell(3).setCellValue(true);
+            row.createCell(4).setCellErrorValue(FormulaError.DIV0.getCode());
+            row.createCell(27).setCellFormula("A42*2");
+            row.getCell(27).setCellStyle(style);
+            row.createCell(16383);
+
+            StringWriter expected = new StringWriter();
+            SheetDataWriter writer = new SheetDataWriter(expected);
+            writer.writeRow(41, row);
+            writer.close();
+
+            try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+                writer = new SheetDataWriter(new Utf8SheetWriter(bos));
+                writer.writeRow(41, row);
+                writer.close();
+                String actual = new String(bos.toByteArray(), StandardCharsets.UTF_8);
+                assertEquals(expected.toString(), actual);
+                assertTrue(actual.startsWith("<row r=\"42\" customHeight=\"1\" ht=\"20.0\">\n<c r=\"A42\" t=\"n\"><v>1234.0</v></c>"), actual);
+                assertTrue(actual.contains("<c r=\"XFD42\">"), actual);
+            }
+        }
+    }
 }
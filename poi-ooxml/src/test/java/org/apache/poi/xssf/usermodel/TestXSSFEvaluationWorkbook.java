@@ -18,14 +18,27 @@
 package org.apache.poi.xssf.usermodel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.io.IOException;
+
+import org.apache.poi.ss.formula.EvaluationSheet;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.SharedFormulaGroup;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.XSSFTestDataSamples;
 import org.junit.jupiter.api.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
 
 class TestXSSFEvaluationWorkbook {
 
@@ -77,4 +90,131 @@ class TestXSSFEvaluationWorkbook {
         assertEquals("3",cellC3.getStringCellValue());
     }
 
+    @Test
+    void sharedFormulaIsParsedOnce() throws IOException {
+        try (XSSFWorkbook wb = createSharedFormulas()) {
+            XSSFEvaluationWorkbook evalWorkbook = XSSFEvaluationWorkbook.create(wb);
+            EvaluationSheet evalSheet = evalWorkbook.getSheet(0);
+            SharedFormulaGroup group = evalWorkbook.getSharedFormulaGroup(evalSheet.getCell(0, 1));
+            assertNotNull(group);
+            assertEquals(0, group.getFirstRow());
+            assertEquals(1, group.getFirstColumn());
+            assertNotNull(evalWorkbook.getSharedFormulaGroup(evalSheet.getCell(0, 2)));
+            // 3D references are converted to the current sheet by XSSFCell, so they aren't shared
+            assertNull(evalWorkbook.getSharedFormulaGroup(evalSheet.getCell(0, 3)));
+            // not a shared formula
+            assertNull(evalWorkbook.getSharedFormulaGroup(evalSheet.getCell(0, 4)));
+
+            XSSFSheet sheet = wb.getSheetAt(0);
+            for (int r = 0; r < 100; r++) {
+                assertSame(group, evalWorkbook.getSharedFormulaGroup(evalSheet.getCell(r, 1)));
+                for (int c = 1; c <= 3; c++) {
+                    XSSFCell cell = sheet.getRow(r).getCell(c);
+                    String formula = FormulaRenderer.toFormulaString(evalWorkbook,
+                        evalWorkbook.getFormulaTokens(evalSheet.getCell(r, c)));
+                    assertEquals(cell.getCellFormula(), formula, cell.getAddress().formatAsString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void sharedFormulaResults() throws IOException {
+        try (XSSFWorkbook wb = createSharedFormulas()) {
+            XSSFSheet sheet = wb.getSheetAt(0);
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            assertSameResults(wb, evaluator);
+
+            // the formula of the master cell applies to the whole range
+            XSSFCell master = sheet.getRow(0).getCell(1);
+            SharedFormulaGroup group = getSharedFormulaGroup(sheet.getRow(50).getCell(1));
+            master.setCellFormula("A1*3");
+            evaluator.clearAllCachedResultValues();
+            assertEquals("A51*3", sheet.getRow(50).getCell(1).getCellFormula());
+            assertNotSame(group, getSharedFormulaGroup(sheet.getRow(50).getCell(1)));
+            assertSameResults(wb, evaluator);
+
+            // the next cell becomes the master cell
+            master.removeFormula();
+            evaluator.clearAllCachedResultValues();
+            group = getSharedFormulaGroup(sheet.getRow(50).getCell(1));
+            assertNotNull(group);
+            assertEquals(1, group.getFirstRow());
+            assertSameResults(wb, evaluator);
+        }
+    }
+
+    private static SharedFormulaGroup getSharedFormulaGroup(XSSFCell cell) {
+        return XSSFEvaluationWorkbook.create(cell.getSheet().getWorkbook())
+            .getSharedFormulaGroup(new XSSFEvaluationCell(cell));
+    }
+
+    /**
+     * Compares the results of the shared formulas with those of the equivalent plain formulas
+     */
+    private static void assertSameResults(XSSFWorkbook wb, FormulaEvaluator evaluator) throws IOException {
+        try (XSSFWorkbook expected = new XSSFWorkbook()) {
+            Sheet expectedSheet = expected.createSheet();
+            expected.createSheet("Other").createRow(0).createCell(0).setCellValue(1000);
+            for (Row row : wb.getSheetAt(0)) {
+                Row expectedRow = expectedSheet.createRow(row.getRowNum());
+                for (Cell cell : row) {
+                    Cell expectedCell = expectedRow.createCell(cell.getColumnIndex());
+                    if (cell.getCellType() == CellType.FORMULA) {
+                        expectedCell.setCellFormula(cell.getCellFormula());
+                    } else if (cell.getCellType() == CellType.NUMERIC) {
+                        expectedCell.setCellValue(cell.getNumericCellValue());
+                    }
+                }
+            }
+            FormulaEvaluator expectedEvaluator = expected.getCreationHelper().createFormulaEvaluator();
+            for (Row row : wb.getSheetAt(0)) {
+                for (Cell cell : row) {
+                    if (cell.getCellType() != CellType.FORMULA) {
+                        continue;
+                    }
+                    Cell expectedCell = expectedSheet.getRow(row.getRowNum()).getCell(cell.getColumnIndex());
+                    assertEquals(expectedEvaluator.evaluate(expectedCell).formatAsString(),
+                        evaluator.evaluate(cell).formatAsString(), cell.getAddress().formatAsString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates shared formulas in the columns B, C and D with 100 rows, and plain formulas in column E
+     */
+    private static XSSFWorkbook createSharedFormulas() {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        XSSFSheet sheet = wb.createSheet();
+        wb.createSheet("Other").createRow(0).createCell(0).setCellValue(1000);
+        for (int r = 0; r < 100; r++) {
+            sheet.createRow(r).createCell(0).setCellValue(r % 7 + 0.5);
+        }
+        setSharedFormula(sheet, 1, "A1*2+SUM(A$1:A1)");
+        // the area is inverted below row 10
+        setSharedFormula(sheet, 2, "IF(A1>3,SUM(A1:A$10),B1)");
+        setSharedFormula(sheet, 3, "A1+Other!$A$1");
+        for (int r = 0; r < 100; r++) {
+            sheet.getRow(r).createCell(4).setCellFormula("B" + (r + 1) + "-1");
+        }
+        // the shared formulas are registered when the workbook is read
+        return XSSFTestDataSamples.writeOutAndReadBack(wb);
+    }
+
+    private static void setSharedFormula(XSSFSheet sheet, int column, String formula) {
+        for (Row row : sheet) {
+            XSSFCell cell = (XSSFCell) row.createCell(column);
+            cell.setCellFormula("0");
+            CTCellFormula f = cell.getCTCell().getF();
+            f.setT(STCellFormulaType.SHARED);
+            f.setSi(column);
+            if (row.getRowNum() == 0) {
+                f.setStringValue(formula);
+                f.setRef(new CellRangeAddress(0, sheet.getLastRowNum(), column, column).formatAsString());
+            } else {
+                f.setStringValue("");
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -485,4 +485,43 @@ public final class TestXSSFFormulaEvaluation extends BaseTestFormulaEvaluator {
             assertEquals("Male", value.getStringValue());
         }
     }
+
+    @Test
+    void evaluateAllInParallelWithDataOnlySheet() throws IOException {
+        try (XSSFWorkbook serial = createParallelWorkbook(); XSSFWorkbook parallel = createParallelWorkbook()) {
+            serial.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            // the sheet with the data has no formulas, so its cell cache isn't built by collecting the formula cells
+            parallel.getCreationHelper().createFormulaEvaluator().evaluateAll(4);
+
+            Sheet expected = serial.getSheet("Calc");
+            Sheet actual = parallel.getSheet("Calc");
+            for (Row row : expected) {
+                for (Cell cell : row) {
+                    Cell other = actual.getRow(row.getRowNum()).getCell(cell.getColumnIndex());
+                    assertEquals(cell.getCachedFormulaResultType(), other.getCachedFormulaResultType(), cell.getAddress().toString());
+                    assertEquals(cell.toString(), other.toString(), cell.getAddress().toString());
+                }
+            }
+        }
+    }
+
+    private static XSSFWorkbook createParallelWorkbook() {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        XSSFSheet data = wb.createSheet("Data");
+        XSSFSheet calc = wb.createSheet("Calc");
+        int rows = 400;
+        for (int r = 0; r < rows; r++) {
+            Row row = data.createRow(r);
+            row.createCell(0).setCellValue("key" + r);
+            row.createCell(1).setCellValue(r * 1.5);
+        }
+        for (int r = 0; r < rows; r++) {
+            int rowNum = r + 1;
+            Row row = calc.createRow(r);
+            row.createCell(0).setCellFormula("VLOOKUP(\"key" + (rows - 1 - r) + "\",Data!$A$1:$B$" + rows + ",2,FALSE)");
+            row.createCell(1).setCellFormula("Data!B" + rowNum + "+A" + rowNum);
+            row.createCell(2).setCellFormula("SUM(Data!$B$1:B" + rowNum + ")");
+        }
+        return wb;
+    }
 }
@@ -2414,4 +2414,113 @@ public final class TestXSSFSheet extends BaseTestXSheet {
             assertEquals("2-1,2-1,1+2,2-1,2-1,3+3,3+3,3+3,2-1,2-1,", sb.toString());
         }
     }
+
+    @Test
+    void testLazyLoadRows() throws IOException {
+        final String expected;
+        try (XSSFWorkbook wb = openSampleWorkbook("shared_formulas.xlsx")) {
+            expected = dumpRows(wb);
+        }
+
+        XSSFWorkbook.setLazyLoadRows(true);
+        try {
+            try (XSSFWorkbook wb = openSampleWorkbook("shared_formulas.xlsx")) {
+                XSSFSheet sheet = wb.getSheetAt(0);
+                int first = sheet.getFirstRowNum();
+                int last = sheet.getLastRowNum();
+                int physical = sheet.getPhysicalNumberOfRows();
+
+                // accessing a single row doesn't change the row bounds
+                XSSFRow row = sheet.getRow(last);
+                assertNotNull(row);
+                assertSame(row, sheet.getRow(last));
+                assertEquals(first, sheet.getFirstRowNum());
+                assertEquals(last, sheet.getLastRowNum());
+                assertEquals(physical, sheet.getPhysicalNumberOfRows());
+
+                assertEquals(expected, dumpRows(wb));
+                assertEquals(physical, sheet.getCTWorksheet().getSheetData().sizeOfRowArray());
+
+                try (XSSFWorkbook wb2 = writeOutAndReadBack(wb)) {
+                    assertEquals(expected, dumpRows(wb2));
+                }
+            }
+
+            try (XSSFWorkbook wb = openSampleWorkbook("shared_formulas.xlsx")) {
+                // rows are written in order, when only some of them were loaded before
+                XSSFSheet sheet = wb.getSheetAt(0);
+                int last = sheet.getLastRowNum();
+                sheet.createRow(last + 1).createCell(0).setCellValue("appended");
+                sheet.getRow(last).getCell(0);
+                try (XSSFWorkbook wb2 = writeOutAndReadBack(wb)) {
+                    XSSFSheet sheet2 = wb2.getSheetAt(0);
+                    assertEquals("appended", sheet2.getRow(last + 1).getCell(0).getStringCellValue());
+                    long prev = -1;
+                    for (CTRow ctRow : sheet2.getCTWorksheet().getSheetData().getRowArray()) {
+                        assertTrue(ctRow.getR() > prev);
+                        prev = ctRow.getR();
+                    }
+                }
+            }
+        } finally {
+            XSSFWorkbook.setLazyLoadRows(false);
+        }
+    }
+
+    @Test
+    void testLazyLoadSparseRows() throws IOException {
+        final XSSFWorkbook source = new XSSFWorkbook();
+        XSSFSheet sourceSheet = source.createSheet();
+        for (int i = 0; i < 1000; i += 7) {
+            sourceSheet.createRow(i).createCell(0).setCellValue(i);
+        }
+        final String expected = dumpRows(source);
+
+        XSSFWorkbook.setLazyLoadRows(true);
+        try (XSSFWorkbook wb = writeOutAndReadBack(source)) {
+            XSSFSheet sheet = wb.getSheetAt(0);
+            // the neighbouring rows are loaded with the accessed row
+            assertEquals(301, (int) sheet.getRow(301).getCell(0).getNumericCellValue());
+            assertEquals(7, (int) sheet.getRow(7).getCell(0).getNumericCellValue());
+            assertNull(sheet.getRow(300));
+
+            // only the source rows are copied, the rows after the range are still lazy
+            sheet.copyRows(700, 720, 1000, new CellCopyPolicy());
+            assertEquals(707, (int) sheet.getRow(1007).getCell(0).getNumericCellValue());
+            assertNull(sheet.getRow(1021));
+
+            try (XSSFWorkbook wb2 = writeOutAndReadBack(wb)) {
+                XSSFSheet sheet2 = wb2.getSheetAt(0);
+                long prev = -1;
+                for (CTRow ctRow : sheet2.getCTWorksheet().getSheetData().getRowArray()) {
+                    assertTrue(ctRow.getR() > prev);
+                    prev = ctRow.getR();
+                }
+                for (int i = 1000; i <= 1014; i += 7) {
+                    sheet2.removeRow(sheet2.getRow(i));
+                }
+                assertEquals(expected, dumpRows(wb2));
+            }
+        } finally {
+            XSSFWorkbook.setLazyLoadRows(false);
+            source.close();
+        }
+    }
+
+    private static String dumpRows(XSSFWorkbook wb) {
+        FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+        StringBuilder sb = new StringBuilder();
+        for (Sheet sheet : wb) {
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    sb.append(cell.getAddress()).append('=').append(cell);
+                    if (cell.getCellType() == CellType.FORMULA) {
+                        sb.append('~').append(evaluator.evaluate(cell).formatAsString());
+                    }
+                    sb.append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
 }
@@ -25,6 +25,7 @@ import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.EvaluationName;
 import org.apache.poi.ss.formula.EvaluationSheet;
 import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaParseCache;
 import org.apache.poi.ss.formula.FormulaParsingWorkbook;
 import org.apache.poi.ss.formula.FormulaRenderingWorkbook;
 import org.apache.poi.ss.formula.SheetIdentifier;
@@ -47,6 +48,7 @@ import org.apache.poi.util.Internal;
 public final class HSSFEvaluationWorkbook implements FormulaRenderingWorkbook, EvaluationWorkbook, FormulaParsingWorkbook {
     private final HSSFWorkbook _uBook;
     private final InternalWorkbook _iBook;
+    private final FormulaParseCache _parseCache = new FormulaParseCache();
 
     public static HSSFEvaluationWorkbook create(HSSFWorkbook book) {
         if (book == null) {
@@ -65,7 +67,16 @@ public final class HSSFEvaluationWorkbook implements FormulaRenderingWorkbook, E
      */
     @Override
     public void clearAllCachedResultValues() {
-        // nothing to do
+        _parseCache.clear();
+    }
+
+    /**
+     * @since POI 5.3.1
+     */
+    @Override
+    public FormulaParseCache getFormulaParseCache() {
+        _parseCache.setWorkbookStructure(_uBook.getNumberOfNames(), _uBook.getNumberOfSheets());
+        return _parseCache;
     }
 
     @Override
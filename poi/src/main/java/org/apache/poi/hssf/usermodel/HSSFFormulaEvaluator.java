@@ -192,6 +192,19 @@ public class HSSFFormulaEvaluator extends BaseFormulaEvaluator {
         evaluateAllFormulaCells(_book, this);
     }
 
+    /**
+     * Evaluates all formula cells of the workbook like {@link #evaluateAll()},
+     *  but evaluates independent formula cells concurrently.
+     *
+     * @param parallelism the number of threads, a value of 1 or less
+     *                    evaluates the formula cells on the calling thread
+     * @see BaseFormulaEvaluator#evaluateAllFormulaCells(Workbook, int)
+     * @since POI 5.3.1
+     */
+    public void evaluateAll(int parallelism) {
+        evaluateAllFormulaCells(_book, this, parallelism);
+    }
+
     /**
      * Returns a CellValue wrapper around the supplied ValueEval instance.
      * @param cell The cell with the formula
@@ -27,8 +27,6 @@ import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 import org.apache.poi.poifs.property.DocumentProperty;
-import org.apache.poi.util.IOUtils;
-import org.apache.poi.util.LittleEndian;
 import org.apache.poi.util.LittleEndianInput;
 
 /**
@@ -152,9 +150,7 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
         if (atEOD()) {
             return EOF;
         }
-        byte[] b = new byte[1];
-        int result = read(b, 0, 1);
-        return (result == EOF) ? EOF : (b[0] & 0xFF);
+        return readUByte();
     }
 
     @Override
@@ -243,9 +239,15 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 
         long rval = new_offset - _current_offset;
 
-        // TODO Do this better
-        byte[] skip = IOUtils.safelyAllocate(rval, Integer.MAX_VALUE);
-        readFully(skip);
+        // move through the blocks without copying their data
+        int skipped = 0;
+        while (skipped < rval) {
+            nextBufferIfNeeded();
+            int limit = (int)Math.min(rval - skipped, _buffer.remaining());
+            _buffer.position(_buffer.position() + limit);
+            _current_offset += limit;
+            skipped += limit;
+        }
         return rval;
     }
 
@@ -284,10 +286,7 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 
         int read = 0;
         while(read < len) {
-           if(_buffer == null || _buffer.remaining() == 0) {
-              _current_block_count++;
-              _buffer = _data.next();
-           }
+           nextBufferIfNeeded();
 
            int limit = Math.min(len-read, _buffer.remaining());
            _buffer.get(buf, off+read, limit);
@@ -296,6 +295,36 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
         }
     }
 
+    private void nextBufferIfNeeded() {
+        if (_buffer == null || _buffer.remaining() == 0) {
+            _current_block_count++;
+            _buffer = _data.next();
+        }
+    }
+
+    /**
+     * Reads a little-endian value from the current block, if it's completely contained in it.
+     * Otherwise the bytes are read via {@link #readFully(byte[], int, int)}.
+     */
+    private long readLittleEndian(int size) {
+        checkAvaliable(size);
+        nextBufferIfNeeded();
+        long value = 0;
+        if (_buffer.remaining() >= size) {
+            for (int i = 0; i < size; i++) {
+                value |= (_buffer.get() & 0xFFL) << (8 * i);
+            }
+            _current_offset += size;
+        } else {
+            byte[] data = new byte[size];
+            readFully(data, 0, size);
+            for (int i = 0; i < size; i++) {
+                value |= (data[i] & 0xFFL) << (8 * i);
+            }
+        }
+        return value;
+    }
+
     @Override
     public void readPlain(byte[] buf, int off, int len) {
         readFully(buf, off, len);
@@ -314,26 +343,17 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 
    @Override
     public long readLong() {
-        checkAvaliable(LONG_SIZE);
-        byte[] data = new byte[LONG_SIZE];
-        readFully(data, 0, LONG_SIZE);
-        return LittleEndian.getLong(data, 0);
+        return readLittleEndian(LONG_SIZE);
     }
 
    @Override
    public short readShort() {
-      checkAvaliable(SHORT_SIZE);
-      byte[] data = new byte[SHORT_SIZE];
-      readFully(data, 0, SHORT_SIZE);
-      return LittleEndian.getShort(data);
+      return (short) readLittleEndian(SHORT_SIZE);
    }
 
    @Override
     public int readInt() {
-        checkAvaliable(INT_SIZE);
-      byte[] data = new byte[INT_SIZE];
-      readFully(data, 0, INT_SIZE);
-      return LittleEndian.getInt(data);
+        return (int) readLittleEndian(INT_SIZE);
     }
 
     public long readUInt() {
@@ -343,19 +363,11 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 
     @Override
     public int readUShort() {
-        checkAvaliable(SHORT_SIZE);
-      byte[] data = new byte[SHORT_SIZE];
-      readFully(data, 0, SHORT_SIZE);
-      return LittleEndian.getUShort(data);
+        return (int) readLittleEndian(SHORT_SIZE);
     }
 
     @Override
     public int readUByte() {
-        checkAvaliable(1);
-        byte[] data = new byte[1];
-        readFully(data, 0, 1);
-        if (data[0] >= 0)
-            return data[0];
-        return data[0] + 256;
+        return (int) readLittleEndian(1);
     }
 }
@@ -42,6 +42,7 @@ import org.apache.poi.poifs.dev.POIFSViewable;
 import org.apache.poi.poifs.nio.ByteArrayBackedDataSource;
 import org.apache.poi.poifs.nio.DataSource;
 import org.apache.poi.poifs.nio.FileBackedDataSource;
+import org.apache.poi.poifs.nio.MemoryMappedDataSource;
 import org.apache.poi.poifs.property.DirectoryProperty;
 import org.apache.poi.poifs.property.DocumentProperty;
 import org.apache.poi.poifs.property.PropertyTable;
@@ -89,6 +90,11 @@ public class POIFSFileSystem extends BlockStore
 
     protected DataSource _data;
 
+    /** the memory-mapped data, which was replaced by a heap copy before the file system was modified */
+    private DataSource _mappedData;
+
+    private static boolean memoryMapFiles;
+
     /**
      * What big block size the file uses. Most files
      * use 512 bytes, but a few use 4096
@@ -110,6 +116,30 @@ public class POIFSFileSystem extends BlockStore
         return MAX_RECORD_LENGTH;
     }
 
+    /**
+     * Enables or disables memory-mapping of files, which are opened read-only afterwards
+     * via {@link #POIFSFileSystem(File)} or {@link #POIFSFileSystem(File, boolean)}.
+     * <p>
+     * When enabled, the file is mapped via {@link MemoryMappedDataSource} and the blocks
+     * of the documents are handed out as slices of the mapped buffers instead of being read
+     * into newly allocated buffers. If such a file system is modified, its data is copied
+     * to the heap first.
+     *
+     * @param memoryMap true, to map read-only files, defaults to false
+     * @since POI 5.3.1
+     */
+    public static void setMemoryMapFiles(boolean memoryMap) {
+        memoryMapFiles = memoryMap;
+    }
+
+    /**
+     * @return true, if read-only files are memory-mapped
+     * @since POI 5.3.1
+     */
+    public static boolean isMemoryMapFiles() {
+        return memoryMapFiles;
+    }
+
     private POIFSFileSystem(boolean newFS) {
         _header = new HeaderBlock(bigBlockSize);
         _property_table = new PropertyTable(_header);
@@ -251,20 +281,29 @@ public class POIFSFileSystem extends BlockStore
 
         try {
             // Initialize the datasource
-            if (srcFile != null) {
+            ByteBuffer headerBuffer;
+            if (srcFile != null && readOnly && memoryMapFiles) {
                 if (srcFile.length() == 0)
                     throw new EmptyFileException(srcFile);
 
-                FileBackedDataSource d = new FileBackedDataSource(srcFile, readOnly);
-                channel = d.getChannel();
-                _data = d;
+                _data = new MemoryMappedDataSource(srcFile);
+                headerBuffer = _data.read(POIFSConstants.SMALLER_BIG_BLOCK_SIZE, 0);
             } else {
-                _data = new FileBackedDataSource(channel, readOnly, closeChannelOnClose);
-            }
+                if (srcFile != null) {
+                    if (srcFile.length() == 0)
+                        throw new EmptyFileException(srcFile);
 
-            // Get the header
-            ByteBuffer headerBuffer = ByteBuffer.allocate(POIFSConstants.SMALLER_BIG_BLOCK_SIZE);
-            IOUtils.readFully(channel, headerBuffer);
+                    FileBackedDataSource d = new FileBackedDataSource(srcFile, readOnly);
+                    channel = d.getChannel();
+                    _data = d;
+                } else {
+                    _data = new FileBackedDataSource(channel, readOnly, closeChannelOnClose);
+                }
+
+                // Get the header
+                headerBuffer = ByteBuffer.allocate(POIFSConstants.SMALLER_BIG_BLOCK_SIZE);
+                IOUtils.readFully(channel, headerBuffer);
+            }
 
             // Have the header processed
             _header = new HeaderBlock(headerBuffer);
@@ -278,6 +317,9 @@ public class POIFSFileSystem extends BlockStore
             if (closeChannelOnError && channel != null) {
                 channel.close();
             }
+            if (_data instanceof MemoryMappedDataSource) {
+                _data.close();
+            }
             throw e;
         }
     }
@@ -455,6 +497,7 @@ public class POIFSFileSystem extends BlockStore
         ByteBuffer buffer = ByteBuffer.allocate(bigBlockSize.getBigBlockSize());
         // Header isn't in BATs
         long writeTo = Math.multiplyExact(1L + offset, bigBlockSize.getBigBlockSize());
+        ensureWritableData();
         _data.write(buffer, writeTo);
         // All done
         return newBAT;
@@ -483,6 +526,7 @@ public class POIFSFileSystem extends BlockStore
      */
     @Override
     protected ByteBuffer createBlockIfNeeded(final int offset) throws IOException {
+        ensureWritableData();
         try {
             return getBlockAt(offset);
         } catch (IndexOutOfBoundsException e) {
@@ -734,6 +778,12 @@ public class POIFSFileSystem extends BlockStore
      * @throws IOException thrown on errors writing to the stream
      */
     public void writeFilesystem() throws IOException {
+        if (_data instanceof MemoryMappedDataSource || _mappedData != null) {
+            throw new IllegalArgumentException(
+                    "POIFS opened from a memory-mapped file, so writeFilesystem() may " +
+                            "not be called. Use writeFilesystem(OutputStream) instead"
+            );
+        }
         if (!(_data instanceof FileBackedDataSource)) {
             throw new IllegalArgumentException(
                     "POIFS opened from an inputstream, so writeFilesystem() may " +
@@ -769,6 +819,8 @@ public class POIFSFileSystem extends BlockStore
      * to their backing blocks
      */
     private void syncWithDataSource() throws IOException {
+        ensureWritableData();
+
         // Mini Stream + SBATs first, as mini-stream details have
         //  to be stored in the Root Property
         _mini_store.syncWithDataSource();
@@ -807,6 +859,27 @@ public class POIFSFileSystem extends BlockStore
     @Override
     public void close() throws IOException {
         _data.close();
+        if (_mappedData != null) {
+            _mappedData.close();
+        }
+    }
+
+    /**
+     * The buffers of a memory-mapped file are read-only, so the data is copied to the heap
+     * before blocks are modified. The mapping is kept until the file system is closed,
+     * as documents might still be read from the buffers which were handed out before.
+     */
+    void ensureWritableData() throws IOException {
+        if (!(_data instanceof MemoryMappedDataSource)) {
+            return;
+        }
+        IOUtils.safelyAllocateCheck(_data.size(), MAX_ALLOCATION_SIZE);
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder()
+                .setBufferSize((int) _data.size()).get()) {
+            _data.copyTo(bos);
+            _mappedData = _data;
+            _data = new ByteArrayBackedDataSource(bos.toByteArray());
+        }
     }
 
     /**
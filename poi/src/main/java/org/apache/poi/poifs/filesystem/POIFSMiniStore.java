@@ -86,6 +86,8 @@ public class POIFSMiniStore extends BlockStore {
      * Load the block, extending the underlying stream if needed
      */
     protected ByteBuffer createBlockIfNeeded(final int offset) throws IOException {
+        _filesystem.ensureWritableData();
+
         boolean firstInStore = false;
         if (_mini_stream.getStartBlock() == POIFSConstants.END_OF_CHAIN) {
             firstInStore = true;
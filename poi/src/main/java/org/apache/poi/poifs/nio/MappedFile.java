@@ -0,0 +1,188 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.nio;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.util.Internal;
+
+/**
+ * A read-only file, which is memory-mapped in chunks of 1 GiB, as a single mapped region is limited to 2 GiB.
+ * <p>
+ * As the chunk size is a power of two, aligned primitive values never span two chunks.
+ * The file is unmapped on {@link #close()} via {@link CleanerUtil}, if the platform supports it.
+ *
+ * @since POI 5.3.1
+ */
+@Internal
+public final class MappedFile implements Closeable {
+    private static final Logger LOG = LogManager.getLogger(MappedFile.class);
+
+    /** maximum size of a mapped region - large files are mapped in several chunks */
+    private static final int CHUNK_SIZE = 1 << 30;
+
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private final long size;
+    private boolean closed;
+
+    private MappedFile(FileChannel channel) throws IOException {
+        size = channel.size();
+        try {
+            for (long pos = 0; pos < size; pos += CHUNK_SIZE) {
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(CHUNK_SIZE, size - pos)));
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the file - the file handle isn't kept open
+     *
+     * @param file the file to map
+     * @return the mapped file, which needs to be closed to unmap it
+     * @throws IOException if the file can't be mapped
+     */
+    public static MappedFile map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            return new MappedFile(channel);
+        }
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return true, if the file was already unmapped
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns a read-only view of the mapped data, which must not be used after {@link #close()}
+     *
+     * @param position the position in the file
+     * @param length the length of the view
+     * @return the view, or {@code null} if the range doesn't fit into a single chunk
+     */
+    public ByteBuffer slice(long position, int length) {
+        final ByteBuffer chunk = chunks.get((int) (position / CHUNK_SIZE));
+        final int offset = (int) (position % CHUNK_SIZE);
+        if (offset + (long) length > chunk.capacity()) {
+            return null;
+        }
+        ByteBuffer dst = chunk.duplicate();
+        dst.position(offset);
+        dst.limit(offset + length);
+        return dst.slice();
+    }
+
+    /**
+     * Copies the mapped data into the buffer, until the buffer is full or the end of the file is reached
+     *
+     * @param dst the buffer to fill
+     * @param position the position in the file
+     * @return the number of copied bytes
+     */
+    public int read(ByteBuffer dst, long position) {
+        int done = 0;
+        for (long pos = position; dst.hasRemaining() && pos < size; ) {
+            ByteBuffer src = chunks.get((int) (pos / CHUNK_SIZE)).duplicate();
+            src.position((int) (pos % CHUNK_SIZE));
+            int len = Math.min(dst.remaining(), src.remaining());
+            src.limit(src.position() + len);
+            dst.put(src);
+            pos += len;
+            done += len;
+        }
+        return done;
+    }
+
+    /**
+     * @param position the position in the file, which must be a multiple of 8
+     * @return the long value at the position
+     */
+    public long getLong(long position) {
+        return chunks.get((int) (position / CHUNK_SIZE)).getLong((int) (position % CHUNK_SIZE));
+    }
+
+    /**
+     * Writes the whole file to the stream
+     *
+     * @param stream the stream to write to
+     * @throws IOException if the stream can't be written
+     */
+    public void copyTo(OutputStream stream) throws IOException {
+        byte[] buf = new byte[8192];
+        for (MappedByteBuffer chunk : chunks) {
+            ByteBuffer src = chunk.duplicate();
+            while (src.hasRemaining()) {
+                int len = Math.min(buf.length, src.remaining());
+                src.get(buf, 0, len);
+                stream.write(buf, 0, len);
+            }
+        }
+    }
+
+    /**
+     * Unmaps the file - buffers, which were returned by {@link #slice(long, int)}, must not be accessed afterwards
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (MappedByteBuffer chunk : chunks) {
+            unmap(chunk);
+        }
+        chunks.clear();
+    }
+
+    /**
+     * Unmaps the buffer, if the platform supports it
+     *
+     * @param buffer the mapped buffer, which must not be accessed afterwards
+     */
+    public static void unmap(ByteBuffer buffer) {
+        if (CleanerUtil.UNMAP_SUPPORTED) {
+            try {
+                CleanerUtil.getCleaner().freeBuffer(buffer);
+            } catch (IOException e) {
+                LOG.atWarn().withThrowable(e).log("Failed to unmap the buffer");
+            }
+        } else {
+            LOG.atDebug().log(CleanerUtil.UNMAP_NOT_SUPPORTED_REASON);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.nio;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+
+/**
+ * A read-only POIFS {@link DataSource} backed by a memory-mapped File.
+ * <p>
+ * The file is mapped once and blocks are returned as slices of the mapped buffers,
+ * so reading a block neither issues a system call nor copies its data.
+ * The returned buffers are read-only and must not be used after {@link #close()},
+ * which unmaps the file.
+ *
+ * @since POI 5.3.1
+ */
+public class MemoryMappedDataSource extends DataSource {
+    private final MappedFile file;
+
+    /**
+     * Maps the file - the file handle isn't kept open
+     *
+     * @param file the file to map
+     * @throws IOException if the file can't be mapped
+     */
+    public MemoryMappedDataSource(File file) throws IOException {
+        if (!file.exists()) {
+            throw new FileNotFoundException(file.toString());
+        }
+        this.file = MappedFile.map(file);
+    }
+
+    @Override
+    public ByteBuffer read(int length, long position) throws IOException {
+        if (position >= file.size()) {
+            throw new IndexOutOfBoundsException("Position " + position + " past the end of the file");
+        }
+        if (file.isClosed()) {
+            throw new IOException("The memory-mapped data source is already closed");
+        }
+
+        // the usual case - hand out a view of the mapped data
+        ByteBuffer dst = file.slice(position, length);
+        if (dst != null) {
+            return dst;
+        }
+
+        // the last block of a truncated file or a block spanning two chunks is copied,
+        // like FileBackedDataSource the buffer is padded with zeros
+        dst = ByteBuffer.allocate(length);
+        file.read(dst, position);
+        dst.position(0);
+        return dst;
+    }
+
+    /**
+     * @throws NonWritableChannelException always, as memory-mapped files are read-only
+     */
+    @Override
+    public void write(ByteBuffer src, long position) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public void copyTo(OutputStream stream) throws IOException {
+        file.copyTo(stream);
+    }
+
+    @Override
+    public long size() {
+        return file.size();
+    }
+
+    /**
+     * Unmaps the file - buffers, which were returned by {@link #read(int, long)}, must not be accessed afterwards
+     */
+    @Override
+    public void close() {
+        file.close();
+    }
+}
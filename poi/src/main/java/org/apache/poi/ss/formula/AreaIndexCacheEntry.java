@@ -0,0 +1,118 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.poi.ss.formula.eval.AreaEval;
+
+/**
+ * Caches data derived from the values of an area, like a lookup index,
+ * see {@link TwoDEval#getCachedIndex(Object, java.util.function.Function)}.
+ * <p>
+ * The values of the area are read within the evaluation frame of a formula cache entry, which isn't
+ * bound to a cell. So the entry is cleared like a formula referencing the area when any of its cells
+ * changes, and the formulas using the derived data are cleared along as its consumers.
+ */
+final class AreaIndexCacheEntry {
+    private final FormulaCellCacheEntry _cacheEntry = new FormulaCellCacheEntry();
+    private final AtomicInteger _requests = new AtomicInteger();
+    private volatile Object _index;
+
+    FormulaCellCacheEntry getCacheEntry() {
+        return _cacheEntry;
+    }
+
+    /**
+     * @return the number of requests for the index including this one
+     */
+    int addRequest() {
+        return _requests.incrementAndGet();
+    }
+
+    /**
+     * @return the index, or {@code null} if it hasn't been built or any cell of the area has changed since
+     */
+    Object getIndex() {
+        Object index = _index;
+        return (index != null && _cacheEntry.getValue() != null) ? index : null;
+    }
+
+    void setIndex(Object index) {
+        _index = index;
+    }
+
+    /**
+     * Identifies the area and the kind of the derived data
+     */
+    static final class Key {
+        private final int _bookIndex;
+        private final Object _kind;
+        private final int _firstSheetIndex;
+        private final int _lastSheetIndex;
+        private final int _firstRow;
+        private final int _lastRow;
+        private final int _firstColumn;
+        private final int _lastColumn;
+
+        Key(int bookIndex, Object kind, AreaEval area) {
+            _bookIndex = bookIndex;
+            _kind = kind;
+            _firstSheetIndex = area.getFirstSheetIndex();
+            _lastSheetIndex = area.getLastSheetIndex();
+            _firstRow = area.getFirstRow();
+            _lastRow = area.getLastRow();
+            _firstColumn = area.getFirstColumn();
+            _lastColumn = area.getLastColumn();
+        }
+
+        /**
+         * @return true, if the cell is within the area
+         */
+        boolean contains(int bookIndex, int sheetIndex, int rowIndex, int columnIndex) {
+            return _bookIndex == bookIndex
+                && _firstSheetIndex <= sheetIndex && sheetIndex <= _lastSheetIndex
+                && _firstRow <= rowIndex && rowIndex <= _lastRow
+                && _firstColumn <= columnIndex && columnIndex <= _lastColumn;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = _kind.hashCode();
+            result = 31 * result + _bookIndex;
+            result = 31 * result + _firstSheetIndex;
+            result = 31 * result + _lastSheetIndex;
+            result = 31 * result + _firstRow;
+            result = 31 * result + _lastRow;
+            result = 31 * result + _firstColumn;
+            return 31 * result + _lastColumn;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return _bookIndex == other._bookIndex && _kind.equals(other._kind)
+                && _firstSheetIndex == other._firstSheetIndex && _lastSheetIndex == other._lastSheetIndex
+                && _firstRow == other._firstRow && _lastRow == other._lastRow
+                && _firstColumn == other._firstColumn && _lastColumn == other._lastColumn;
+        }
+    }
+}
@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.poi.ss.usermodel.Cell;
@@ -281,6 +283,72 @@ public abstract class BaseFormulaEvaluator implements FormulaEvaluator, Workbook
         }
     }
 
+    /**
+     * Evaluates all formula cells of the supplied workbook like
+     *  {@link #evaluateAllFormulaCells(Workbook)}, but evaluates
+     *  independent formula cells concurrently.
+     * <p>
+     * The dependencies between the formula cells are derived from
+     *  their formulas, and all precedents of a cell are evaluated
+     *  before the cell itself. Formulas with dynamic references,
+     *  like {@code INDIRECT()} or {@code OFFSET()}, circular
+     *  references and the cells depending on those are evaluated
+     *  on the calling thread in the usual order. The results are
+     *  saved on the calling thread as well, so they are the same
+     *  as with the serial evaluation.
+     * <p>
+     * The workbook must not be modified during the evaluation.
+     *
+     * @param wb the workbook to evaluate
+     * @param parallelism the number of threads, a value of 1 or less
+     *                    evaluates the formula cells on the calling thread
+     * @since POI 5.3.1
+     */
+    public static void evaluateAllFormulaCells(Workbook wb, int parallelism) {
+        FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+        evaluateAllFormulaCells(wb, evaluator, parallelism);
+    }
+
+    /**
+     * @since POI 5.3.1
+     */
+    protected static void evaluateAllFormulaCells(Workbook wb, FormulaEvaluator evaluator, int parallelism) {
+        if (parallelism <= 1 || !(evaluator instanceof BaseFormulaEvaluator)) {
+            evaluateAllFormulaCells(wb, evaluator);
+            return;
+        }
+        WorkbookEvaluator bookEvaluator = ((BaseFormulaEvaluator)evaluator)._bookEvaluator;
+        EvaluationWorkbook evalWorkbook = bookEvaluator.getWorkbook();
+        // rebuild the cached evaluation sheets, so they are complete before they are shared between the threads
+        evalWorkbook.clearAllCachedResultValues();
+
+        List<Cell> cells = new ArrayList<>();
+        List<EvaluationCell> evalCells = new ArrayList<>();
+        for (int i=0; i<wb.getNumberOfSheets(); i++) {
+            EvaluationSheet evalSheet = evalWorkbook.getSheet(i);
+            if (evalSheet.getLastRowNum() >= 0) {
+                // the cell caches are created lazily, so build them up front, also the ones of sheets without
+                // formulas, which are only referenced - afterwards the evaluation sheets are only read by the threads
+                evalSheet.getCell(0, 0);
+            }
+            for (Row r : wb.getSheetAt(i)) {
+                for (Cell c : r) {
+                    if (c.getCellType() == CellType.FORMULA) {
+                        cells.add(c);
+                        evalCells.add(evalSheet.getCell(c.getRowIndex(), c.getColumnIndex()));
+                    }
+                }
+            }
+        }
+
+        ParallelFormulaEvaluation.evaluate(bookEvaluator, evalCells, parallelism);
+
+        // the cached results are saved in the usual order, which also evaluates the remaining cells
+        for (Cell c : cells) {
+            evaluator.evaluateFormulaCell(c);
+        }
+    }
+
     @Override
     public void setIgnoreMissingWorkbooks(boolean ignore){
         _bookEvaluator.setIgnoreMissingWorkbooks(ignore);
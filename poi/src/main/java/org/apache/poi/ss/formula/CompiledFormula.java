@@ -0,0 +1,521 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.EmptyStackException;
+import java.util.StringJoiner;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.MissingArgEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.ptg.AreaErrPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtg;
+import org.apache.poi.ss.formula.ptg.AttrPtg;
+import org.apache.poi.ss.formula.ptg.BoolPtg;
+import org.apache.poi.ss.formula.ptg.ControlPtg;
+import org.apache.poi.ss.formula.ptg.DeletedArea3DPtg;
+import org.apache.poi.ss.formula.ptg.DeletedRef3DPtg;
+import org.apache.poi.ss.formula.ptg.ErrPtg;
+import org.apache.poi.ss.formula.ptg.FuncVarPtg;
+import org.apache.poi.ss.formula.ptg.IntPtg;
+import org.apache.poi.ss.formula.ptg.MemAreaPtg;
+import org.apache.poi.ss.formula.ptg.MemErrPtg;
+import org.apache.poi.ss.formula.ptg.MemFuncPtg;
+import org.apache.poi.ss.formula.ptg.MissingArgPtg;
+import org.apache.poi.ss.formula.ptg.NumberPtg;
+import org.apache.poi.ss.formula.ptg.OperationPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefErrorPtg;
+import org.apache.poi.ss.formula.ptg.RefPtg;
+import org.apache.poi.ss.formula.ptg.StringPtg;
+import org.apache.poi.ss.formula.ptg.UnionPtg;
+
+/**
+ * A formula token array, which is prepared for repeated evaluation by the {@link WorkbookEvaluator}.
+ * <p>
+ * The tokens are classified once, the constants are converted to their values and the skip
+ * distances of the optimized IF, CHOOSE and skip tokens are resolved to token indexes, so that the
+ * evaluation doesn't need to inspect the tokens again. The resolved distances are kept in side tables,
+ * which are only created for formulas with such tokens. The compiled formulas of the formula cells
+ * are kept in the {@link FormulaCellCacheEntry} until the cell is updated.
+ * <p>
+ * Formulas which are only evaluated once, like the formulas of names and conditional formats, are not
+ * compiled, see {@link #interpret(Ptg[])}.
+ * <p>
+ * The formula of a {@link SharedFormulaGroup} is compiled once for all cells of the group. Its relative
+ * cell and area references are resolved by the offset of the evaluated cell to the first cell of the group,
+ * see {@link #getRow(int, boolean, int)} and {@link #getColumn(int, boolean, int)}.
+ * <p>
+ * Compiled formulas are immutable and can be evaluated concurrently.
+ */
+final class CompiledFormula {
+    /** a constant, see {@link #getConstant(int)} */
+    static final byte CONSTANT = 0;
+    /** a token without effect */
+    static final byte IGNORED = 1;
+    /** an optimized CHOOSE, see {@link #getChooseTargets(int)} */
+    static final byte CHOOSE = 2;
+    /** an optimized IF, see {@link #getTarget(int)} and {@link #getErrorTarget(int)} */
+    static final byte IF = 3;
+    /** a skip token, see {@link #getTarget(int)} */
+    static final byte SKIP = 4;
+    /** the union of the two top operands */
+    static final byte UNION = 5;
+    /** an operator or function, see {@link #getOperation(int)} */
+    static final byte OPERATION = 6;
+    /** a reference to a cell of the current sheet */
+    static final byte REF = 7;
+    /** a reference to an area of the current sheet */
+    static final byte AREA = 8;
+    /** any other operand, which is resolved by the evaluator */
+    static final byte OPERAND = 9;
+
+    /** marks a skip distance, which doesn't fit the tokens, so it fails when it's evaluated */
+    static final int INVALID_TARGET = -1;
+
+    private final Ptg[] _ptgs;
+    // per token, or null if the tokens are interpreted while they are evaluated
+    private final byte[] _kinds;
+    private final ValueEval[] _constants;
+    private final OperationPtg[] _operations;
+    // side tables, which are only created for formulas with the respective tokens,
+    // the values of missing tables are resolved when they are needed
+    private final int[] _targets;
+    private final int[] _errorTargets;
+    private final boolean[] _ifWithoutFalseParam;
+    private final int[][] _chooseTargets;
+    private final int[] _nextVarFunctions;
+
+    private final boolean _shared;
+    private final int _firstRow;
+    private final int _firstColumn;
+    private final int _rowWrappingMask;
+    private final int _columnWrappingMask;
+
+    private CompiledFormula(Ptg[] ptgs, boolean compiled, boolean shared, int firstRow, int firstColumn,
+            SpreadsheetVersion ssVersion) {
+        _ptgs = ptgs;
+        _shared = shared;
+        _firstRow = firstRow;
+        _firstColumn = firstColumn;
+        _rowWrappingMask = ssVersion == null ? 0 : ssVersion.getLastRowIndex();
+        _columnWrappingMask = ssVersion == null ? 0 : ssVersion.getLastColumnIndex();
+        if (!compiled) {
+            _kinds = null;
+            _constants = null;
+            _operations = null;
+            _targets = null;
+            _errorTargets = null;
+            _ifWithoutFalseParam = null;
+            _chooseTargets = null;
+            _nextVarFunctions = null;
+            return;
+        }
+
+        int size = ptgs.length;
+        _kinds = new byte[size];
+        _constants = new ValueEval[size];
+        _operations = new OperationPtg[size];
+        boolean hasIf = false, hasSkip = false, hasChoose = false, hasVarFunction = false;
+        for (int i = 0; i < size; i++) {
+            Ptg ptg = ptgs[i];
+            byte kind = getKind(ptg);
+            _kinds[i] = kind;
+            if (kind == OPERAND) {
+                ValueEval constant = toConstant(ptg);
+                if (constant != null) {
+                    _kinds[i] = CONSTANT;
+                    _constants[i] = constant;
+                }
+            } else if (kind == OPERATION) {
+                _operations[i] = toOperation(ptg);
+            }
+            hasIf |= kind == IF;
+            hasSkip |= kind == SKIP;
+            hasChoose |= kind == CHOOSE;
+            hasVarFunction |= ptg instanceof FuncVarPtg;
+        }
+
+        _targets = hasIf || hasSkip ? new int[size] : null;
+        _errorTargets = hasIf ? new int[size] : null;
+        _ifWithoutFalseParam = hasIf ? new boolean[size] : null;
+        _chooseTargets = hasChoose ? new int[size][] : null;
+        _nextVarFunctions = hasVarFunction ? new int[size] : null;
+        int nextVarFunction = -1;
+        for (int i = size - 1; i >= 0; i--) {
+            if (hasVarFunction) {
+                if (ptgs[i] instanceof FuncVarPtg) {
+                    nextVarFunction = i;
+                }
+                _nextVarFunctions[i] = nextVarFunction;
+            }
+            switch (_kinds[i]) {
+                case CHOOSE:
+                    _chooseTargets[i] = findChooseTargets(ptgs, i);
+                    break;
+                case IF: {
+                    int target = findTarget(ptgs, i, ((AttrPtg) ptgs[i]).getData());
+                    _targets[i] = target;
+                    _errorTargets[i] = INVALID_TARGET;
+                    if (target != INVALID_TARGET && ptgs[target] instanceof AttrPtg) {
+                        _errorTargets[i] = findTarget(ptgs, target, ((AttrPtg) ptgs[target]).getData() + 1);
+                        _ifWithoutFalseParam[i] = isIfWithoutFalseParam(ptgs, target);
+                    }
+                    break;
+                }
+                case SKIP:
+                    _targets[i] = findTarget(ptgs, i, ((AttrPtg) ptgs[i]).getData() + 1);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Compiles the formula tokens
+     *
+     * @param ptgs the tokens, which must not be modified afterwards
+     */
+    static CompiledFormula compile(Ptg[] ptgs) {
+        return new CompiledFormula(ptgs, true, false, 0, 0, null);
+    }
+
+    /**
+     * Compiles the formula tokens of a shared formula
+     *
+     * @param ptgs the tokens of the first cell of the group, which must not be modified afterwards
+     * @param firstRow the row of the first cell of the group
+     * @param firstColumn the column of the first cell of the group
+     * @param ssVersion the version, which defines where the relative references wrap around
+     */
+    static CompiledFormula compileShared(Ptg[] ptgs, int firstRow, int firstColumn, SpreadsheetVersion ssVersion) {
+        return new CompiledFormula(ptgs, true, true, firstRow, firstColumn, ssVersion);
+    }
+
+    /**
+     * Wraps the formula tokens without compiling them, for formulas which are only evaluated once,
+     * like the formulas of names and conditional formats. The tokens are classified while they are evaluated.
+     *
+     * @param ptgs the tokens, which must not be modified afterwards
+     */
+    static CompiledFormula interpret(Ptg[] ptgs) {
+        return new CompiledFormula(ptgs, false, false, 0, 0, null);
+    }
+
+    /**
+     * @return the kind of the token, constants are classified as {@link #OPERAND}, see {@link #toConstant(Ptg)}
+     */
+    private static byte getKind(Ptg ptg) {
+        if (ptg instanceof AttrPtg) {
+            AttrPtg attrPtg = (AttrPtg) ptg;
+            if (attrPtg.isOptimizedChoose()) {
+                return CHOOSE;
+            }
+            if (attrPtg.isOptimizedIf()) {
+                return IF;
+            }
+            if (attrPtg.isSkip()) {
+                return SKIP;
+            }
+            // Excel prefers to encode 'SUM()' as a tAttr token, but the evaluator
+            // expects the equivalent function token
+            return attrPtg.isSum() ? OPERATION : IGNORED;
+        }
+        if (ptg instanceof ControlPtg || ptg instanceof MemFuncPtg || ptg instanceof MemAreaPtg
+                || ptg instanceof MemErrPtg) {
+            // skip Parentheses, Attr, etc
+            // the rest of the tokens of Mem* expressions are in OK RPN order
+            return IGNORED;
+        }
+        if (ptg instanceof UnionPtg) {
+            return UNION;
+        }
+        if (ptg instanceof OperationPtg) {
+            return OPERATION;
+        }
+        if (ptg instanceof RefPtg) {
+            return REF;
+        }
+        if (ptg instanceof AreaPtg) {
+            return AREA;
+        }
+        return OPERAND;
+    }
+
+    private static OperationPtg toOperation(Ptg ptg) {
+        return ptg instanceof AttrPtg ? FuncVarPtg.SUM : (OperationPtg) ptg;
+    }
+
+    /**
+     * @return the value of a constant token, or {@code null} if the token isn't constant
+     */
+    private static ValueEval toConstant(Ptg ptg) {
+        if (ptg instanceof IntPtg) {
+            return new NumberEval(((IntPtg) ptg).getValue());
+        }
+        if (ptg instanceof NumberPtg) {
+            return new NumberEval(((NumberPtg) ptg).getValue());
+        }
+        if (ptg instanceof StringPtg) {
+            return new StringEval(((StringPtg) ptg).getValue());
+        }
+        if (ptg instanceof BoolPtg) {
+            return BoolEval.valueOf(((BoolPtg) ptg).getValue());
+        }
+        if (ptg instanceof ErrPtg) {
+            return ErrorEval.valueOf(((ErrPtg) ptg).getErrorCode());
+        }
+        if (ptg instanceof MissingArgPtg) {
+            return MissingArgEval.instance;
+        }
+        if (ptg instanceof AreaErrPtg || ptg instanceof RefErrorPtg
+                || ptg instanceof DeletedArea3DPtg || ptg instanceof DeletedRef3DPtg) {
+            return ErrorEval.REF_INVALID;
+        }
+        return null;
+    }
+
+    private static int findTarget(Ptg[] ptgs, int startIndex, int distInBytes) {
+        try {
+            return startIndex + countTokensToBeSkipped(ptgs, startIndex, distInBytes);
+        } catch (IllegalStateException e) {
+            return INVALID_TARGET;
+        }
+    }
+
+    private static int[] findChooseTargets(Ptg[] ptgs, int index) {
+        AttrPtg attrPtg = (AttrPtg) ptgs[index];
+        int[] jumpTable = attrPtg.getJumpTable();
+        int nChoices = jumpTable.length;
+        // Encoded dist for tAttrChoose includes size of jump table, but
+        // countTokensToBeSkipped() does not (it counts whole tokens).
+        int jumpTableSize = nChoices * 2 + 2;
+        int[] targets = new int[nChoices + 1];
+        for (int k = 0; k < nChoices; k++) {
+            targets[k] = findTarget(ptgs, index, jumpTable[k] - jumpTableSize);
+        }
+        // +4 for tFuncFar(CHOOSE)
+        targets[nChoices] = findTarget(ptgs, index, attrPtg.getChooseFuncOffset() + 4 - jumpTableSize);
+        return targets;
+    }
+
+    /**
+     * @param target the index of the skip token after the true parameter of an IF
+     */
+    private static boolean isIfWithoutFalseParam(Ptg[] ptgs, int target) {
+        Ptg nextPtg = target + 1 < ptgs.length ? ptgs[target + 1] : null;
+        // in order to verify that there is no third param, we need to check
+        // if we really have the IF next or some other FuncVarPtg as third param, e.g. ROW()/COLUMN()!
+        return nextPtg instanceof FuncVarPtg
+            && ((FuncVarPtg) nextPtg).getFunctionIndex() == FunctionMetadataRegistry.FUNCTION_INDEX_IF;
+    }
+
+    /**
+     * Calculates the number of tokens that the evaluator should skip upon reaching a tAttrSkip.
+     *
+     * @return the number of tokens (starting from {@code startIndex+1}) that need to be skipped
+     * to achieve the specified {@code distInBytes} skip distance.
+     */
+    static int countTokensToBeSkipped(Ptg[] ptgs, int startIndex, int distInBytes) {
+        int remBytes = distInBytes;
+        int index = startIndex;
+        while (remBytes != 0) {
+            index++;
+            if (index >= ptgs.length) {
+                throw new IllegalStateException("Skip distance too far (ran out of formula tokens).");
+            }
+            remBytes -= ptgs[index].getSize();
+            if (remBytes < 0) {
+                throw new IllegalStateException("Bad skip distance (wrong token size calculation).");
+            }
+        }
+        return index - startIndex;
+    }
+
+    Ptg[] getTokens() {
+        return _ptgs;
+    }
+
+    /**
+     * @return whether the formula is shared by a group of cells, so its relative references
+     *  need to be resolved for the evaluated cell
+     */
+    boolean isShared() {
+        return _shared;
+    }
+
+    /**
+     * Resolves the row of a reference of a shared formula like {@link SharedFormula}
+     *
+     * @param row the row of the reference in the first cell of the group
+     * @param relative whether the row is relative
+     * @param rowIndex the row of the evaluated cell
+     * @return the row of the reference in the evaluated cell
+     */
+    int getRow(int row, boolean relative, int rowIndex) {
+        if (!_shared || !relative) {
+            return row;
+        }
+        // relative rows wrap around at the last row
+        return (row + rowIndex - _firstRow) & _rowWrappingMask;
+    }
+
+    /**
+     * Resolves the column of a reference of a shared formula like {@link SharedFormula}
+     *
+     * @param column the column of the reference in the first cell of the group
+     * @param relative whether the column is relative
+     * @param columnIndex the column of the evaluated cell
+     * @return the column of the reference in the evaluated cell
+     */
+    int getColumn(int column, boolean relative, int columnIndex) {
+        if (!_shared || !relative) {
+            return column;
+        }
+        // relative columns wrap around at the last column
+        return (column + columnIndex - _firstColumn) & _columnWrappingMask;
+    }
+
+    int getSize() {
+        return _ptgs.length;
+    }
+
+    byte getKind(int index) {
+        if (_kinds != null) {
+            return _kinds[index];
+        }
+        byte kind = getKind(_ptgs[index]);
+        return kind == OPERAND && toConstant(_ptgs[index]) != null ? CONSTANT : kind;
+    }
+
+    ValueEval getConstant(int index) {
+        return _constants == null ? toConstant(_ptgs[index]) : _constants[index];
+    }
+
+    OperationPtg getOperation(int index) {
+        return _operations == null ? toOperation(_ptgs[index]) : _operations[index];
+    }
+
+    /**
+     * @return the index of the token, where the evaluation continues after a skip or a false IF condition,
+     *  or {@link #INVALID_TARGET} if it isn't resolved or doesn't fit the tokens
+     */
+    int getTarget(int index) {
+        return _targets == null ? INVALID_TARGET : _targets[index];
+    }
+
+    /**
+     * @return the index of the token, where the evaluation continues after an erroneous IF condition,
+     *  or {@link #INVALID_TARGET} if it isn't resolved or doesn't fit the tokens
+     */
+    int getErrorTarget(int index) {
+        return _errorTargets == null ? INVALID_TARGET : _errorTargets[index];
+    }
+
+    /**
+     * @return whether the IF has no false parameter, so it evaluates to FALSE for false conditions
+     */
+    boolean isIfWithoutFalseParam(int index) {
+        if (_ifWithoutFalseParam != null) {
+            return _ifWithoutFalseParam[index];
+        }
+        int target = findTarget(_ptgs, index, ((AttrPtg) _ptgs[index]).getData());
+        return target != INVALID_TARGET && _ptgs[target] instanceof AttrPtg && isIfWithoutFalseParam(_ptgs, target);
+    }
+
+    /**
+     * @return the indexes of the tokens, where the evaluation continues for the choices of a CHOOSE,
+     *  followed by the index for invalid choices
+     */
+    int[] getChooseTargets(int index) {
+        return _chooseTargets == null ? findChooseTargets(_ptgs, index) : _chooseTargets[index];
+    }
+
+    /**
+     * @return the index of the next variable argument function token, starting from the given index,
+     *  or -1 if there is none
+     */
+    int getNextVarFunction(int index) {
+        if (_nextVarFunctions != null) {
+            return _nextVarFunctions[index];
+        }
+        if (_kinds != null) {
+            // compiled without any variable argument function
+            return -1;
+        }
+        for (int i = index; i < _ptgs.length; i++) {
+            if (_ptgs[i] instanceof FuncVarPtg) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Operand stack for the evaluation of a compiled formula
+     */
+    static final class OperandStack {
+        private final ValueEval[] _values;
+        private int _size;
+
+        OperandStack(CompiledFormula formula) {
+            // every token pushes at most one value, an IF without false parameter
+            // pushes two values after popping its condition
+            _values = new ValueEval[formula.getSize() + 1];
+        }
+
+        void push(ValueEval value) {
+            _values[_size++] = value;
+        }
+
+        ValueEval pop() {
+            if (_size == 0) {
+                throw new EmptyStackException();
+            }
+            ValueEval value = _values[--_size];
+            _values[_size] = null;
+            return value;
+        }
+
+        ValueEval peek() {
+            if (_size == 0) {
+                throw new EmptyStackException();
+            }
+            return _values[_size - 1];
+        }
+
+        boolean isEmpty() {
+            return _size == 0;
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (int i = 0; i < _size; i++) {
+                joiner.add(String.valueOf(_values[i]));
+            }
+            return joiner.toString();
+        }
+    }
+}
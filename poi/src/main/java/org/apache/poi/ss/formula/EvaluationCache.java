@@ -17,6 +17,10 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.poi.ss.formula.FormulaUsedBlankCellSet.BookSheetKey;
 import org.apache.poi.ss.formula.PlainCellCache.Loc;
 import org.apache.poi.ss.formula.eval.BlankEval;
@@ -31,11 +35,17 @@ import org.apache.poi.ss.usermodel.CellType;
  * Performance optimisation for {@link org.apache.poi.ss.usermodel.FormulaEvaluator}.
  * This class stores previously calculated values of already visited cells,
  * to avoid unnecessary re-calculation when the same cells are referenced multiple times
+ * <p>
+ * The cache entries are only modified while holding the lock of this cache, so that independent
+ * cells can be evaluated concurrently (see {@link EvaluationTracker#updateCacheResult(ValueEval)}).
  */
 final class EvaluationCache {
+    /** the maximum number of areas with cached derived data, the least recently used are evicted */
+    static final int MAX_AREA_INDEX_ENTRIES = 1024;
 
     private final PlainCellCache _plainCellCache;
     private final FormulaCellCache _formulaCellCache;
+    private final Map<AreaIndexCacheEntry.Key, AreaIndexCacheEntry> _areaIndexCache;
     /** only used for testing. <code>null</code> otherwise */
     final IEvaluationListener _evaluationListener;
 
@@ -43,9 +53,10 @@ final class EvaluationCache {
         _evaluationListener = evaluationListener;
         _plainCellCache = new PlainCellCache();
         _formulaCellCache = new FormulaCellCache();
+        _areaIndexCache = new LinkedHashMap<>(16, 0.75f, true);
     }
 
-    public void notifyUpdateCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
+    public synchronized void notifyUpdateCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
         FormulaCellCacheEntry fcce = _formulaCellCache.get(cell);
 
         int rowIndex = cell.getRowIndex();
@@ -68,6 +79,8 @@ final class EvaluationCache {
             } else {
                 fcce.recurseClearCachedFormulaResults(_evaluationListener);
                 fcce.clearFormulaEntry();
+                // the formula itself may have changed
+                fcce.setCompiledFormula(null);
             }
             if (pcce == null) {
                 // was formula cell before - no change of type
@@ -116,9 +129,14 @@ final class EvaluationCache {
             final int rowIndex, final int columnIndex) {
         final BookSheetKey bsk = new BookSheetKey(bookIndex, sheetIndex);
         _formulaCellCache.applyOperation(entry -> entry.notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener));
+        for (Map.Entry<AreaIndexCacheEntry.Key, AreaIndexCacheEntry> entry : _areaIndexCache.entrySet()) {
+            if (entry.getKey().contains(bookIndex, sheetIndex, rowIndex, columnIndex)) {
+                entry.getValue().getCacheEntry().notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener);
+            }
+        }
     }
 
-    public PlainValueCellCacheEntry getPlainValueEntry(int bookIndex, int sheetIndex,
+    public synchronized PlainValueCellCacheEntry getPlainValueEntry(int bookIndex, int sheetIndex,
             int rowIndex, int columnIndex, ValueEval value) {
 
         Loc loc = new Loc(bookIndex, sheetIndex, rowIndex, columnIndex);
@@ -167,7 +185,7 @@ final class EvaluationCache {
         throw new IllegalStateException("Unexpected value class (" + cls.getName() + ")");
     }
 
-    public FormulaCellCacheEntry getOrCreateFormulaCellEntry(EvaluationCell cell) {
+    public synchronized FormulaCellCacheEntry getOrCreateFormulaCellEntry(EvaluationCell cell) {
         FormulaCellCacheEntry result = _formulaCellCache.get(cell);
         if (result == null) {
 
@@ -177,17 +195,43 @@ final class EvaluationCache {
         return result;
     }
 
+    public synchronized AreaIndexCacheEntry getOrCreateAreaIndexEntry(AreaIndexCacheEntry.Key key) {
+        AreaIndexCacheEntry result = _areaIndexCache.get(key);
+        if (result == null) {
+            result = new AreaIndexCacheEntry();
+            _areaIndexCache.put(key, result);
+            if (_areaIndexCache.size() > MAX_AREA_INDEX_ENTRIES) {
+                // the evicted data isn't notified about changed blank cells anymore,
+                // so the formulas using it are cleared along with it
+                Iterator<AreaIndexCacheEntry> iter = _areaIndexCache.values().iterator();
+                FormulaCellCacheEntry eldest = iter.next().getCacheEntry();
+                iter.remove();
+                eldest.recurseClearCachedFormulaResults(_evaluationListener);
+                eldest.clearFormulaEntry();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of areas with cached derived data
+     */
+    synchronized int getAreaIndexCacheSize() {
+        return _areaIndexCache.size();
+    }
+
     /**
      * Should be called whenever there are changes to input cells in the evaluated workbook.
      */
-    public void clear() {
+    public synchronized void clear() {
         if(_evaluationListener != null) {
             _evaluationListener.onClearWholeCache();
         }
         _plainCellCache.clear();
         _formulaCellCache.clear();
+        _areaIndexCache.clear();
     }
-    public void notifyDeleteCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
+    public synchronized void notifyDeleteCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
 
         if (cell.getCellType() == CellType.FORMULA) {
             FormulaCellCacheEntry fcce = _formulaCellCache.remove(cell);
@@ -0,0 +1,428 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.OperationPtg;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * Records where the time of the formula evaluation is spent, to find the formulas which make
+ * the recalculation of a workbook slow.
+ * <p>
+ * The profiler records for each evaluated formula cell, each function (or operator) and each sheet
+ * the number of evaluations, the total time including the evaluation of the referenced formula cells
+ * and the self time without it. Additionally, the hits of the evaluation cache and the maximum depth
+ * of nested cell evaluations are counted.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+ * EvaluationProfiler profiler = EvaluationProfiler.attach(evaluator);
+ * evaluator.evaluateAll();
+ * profiler.writeReport(System.out, 20);
+ * profiler.detach();
+ * }</pre>
+ * The timings include the overhead of the profiling, so they are meant for comparing formulas
+ * with each other. Instances of this class are thread-safe, so cells may be evaluated concurrently.
+ *
+ * @since POI 5.3.1
+ */
+public final class EvaluationProfiler implements IEvaluationListener {
+
+    /**
+     * The statistics of a cell, function or sheet
+     */
+    public static final class Entry {
+        private final String _name;
+        private final long _count;
+        private final long _totalNanos;
+        private final long _selfNanos;
+
+        private Entry(String name, long count, long totalNanos, long selfNanos) {
+            _name = name;
+            _count = count;
+            _totalNanos = totalNanos;
+            _selfNanos = selfNanos;
+        }
+
+        /**
+         * @return the cell reference including the sheet name, the function name or the sheet name
+         */
+        public String getName() {
+            return _name;
+        }
+
+        /**
+         * @return the number of evaluations
+         */
+        public long getCount() {
+            return _count;
+        }
+
+        /**
+         * @return the time of the evaluations including the evaluation of the referenced formula cells
+         */
+        public long getTotalNanos() {
+            return _totalNanos;
+        }
+
+        /**
+         * @return the time of the evaluations without the evaluation of the referenced formula cells
+         */
+        public long getSelfNanos() {
+            return _selfNanos;
+        }
+
+        @Override
+        public String toString() {
+            return _name + " [count=" + _count + ", total=" + _totalNanos + "ns, self=" + _selfNanos + "ns]";
+        }
+    }
+
+    private static final Comparator<Entry> BY_SELF_TIME =
+        Comparator.comparingLong(Entry::getSelfNanos).reversed().thenComparing(Entry::getName);
+
+    private final WorkbookEvaluator _evaluator;
+    private final Map<Object, CellStats> _cellStats = new ConcurrentHashMap<>();
+    private final Map<String, Stats> _functionStats = new ConcurrentHashMap<>();
+    private final Map<Integer, Stats> _sheetStats = new ConcurrentHashMap<>();
+    private final LongAdder _cacheHits = new LongAdder();
+    private final LongAdder _plainValueReads = new LongAdder();
+    private final LongAdder _formulaEvaluations = new LongAdder();
+    private final AtomicInteger _maxDepth = new AtomicInteger();
+    private final ThreadLocal<Deque<Frame>> _frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private EvaluationProfiler(WorkbookEvaluator evaluator) {
+        _evaluator = evaluator;
+    }
+
+    /**
+     * Attaches a new profiler to the evaluator. The cached results of the evaluator are cleared,
+     * so that all formulas are evaluated again.
+     *
+     * @param evaluator the evaluator of a HSSF, XSSF or SXSSF workbook
+     * @return the profiler, which records the subsequent evaluations of the evaluator
+     * @throws IllegalArgumentException if the evaluator doesn't provide a {@link WorkbookEvaluator}
+     * @throws IllegalStateException if the evaluator is part of a {@link CollaboratingWorkbooksEnvironment}
+     */
+    public static EvaluationProfiler attach(FormulaEvaluator evaluator) {
+        if (!(evaluator instanceof WorkbookEvaluatorProvider)) {
+            throw new IllegalArgumentException("Unsupported formula evaluator " + evaluator);
+        }
+        WorkbookEvaluator bookEvaluator = ((WorkbookEvaluatorProvider) evaluator)._getWorkbookEvaluator();
+        EvaluationProfiler profiler = new EvaluationProfiler(bookEvaluator);
+        bookEvaluator.setEvaluationListener(profiler);
+        return profiler;
+    }
+
+    /**
+     * Stops the recording. The recorded statistics are kept.
+     */
+    public void detach() {
+        if (_evaluator.getEvaluationListener() == this) {
+            _evaluator.setEvaluationListener(null);
+        }
+    }
+
+    /**
+     * Discards the recorded statistics
+     */
+    public void reset() {
+        _cellStats.clear();
+        _functionStats.clear();
+        _sheetStats.clear();
+        _cacheHits.reset();
+        _plainValueReads.reset();
+        _formulaEvaluations.reset();
+        _maxDepth.set(0);
+    }
+
+    /**
+     * @return the statistics of the evaluated formula cells, with the highest self time first
+     */
+    public List<Entry> getCellEntries() {
+        List<Entry> result = new ArrayList<>(_cellStats.size());
+        for (CellStats stats : _cellStats.values()) {
+            String name = _evaluator.getSheetName(stats._sheetIndex) + "!"
+                + new CellReference(stats._rowIndex, stats._columnIndex).formatAsString();
+            result.add(stats.toEntry(name));
+        }
+        result.sort(BY_SELF_TIME);
+        return result;
+    }
+
+    /**
+     * @return the statistics of the evaluated functions and operators, with the highest self time first
+     */
+    public List<Entry> getFunctionEntries() {
+        List<Entry> result = new ArrayList<>(_functionStats.size());
+        _functionStats.forEach((name, stats) -> result.add(stats.toEntry(name)));
+        result.sort(BY_SELF_TIME);
+        return result;
+    }
+
+    /**
+     * @return the statistics of the sheets, which sum up the self time of their formula cells,
+     *  with the highest self time first
+     */
+    public List<Entry> getSheetEntries() {
+        List<Entry> result = new ArrayList<>(_sheetStats.size());
+        _sheetStats.forEach((sheetIndex, stats) -> result.add(stats.toEntry(_evaluator.getSheetName(sheetIndex))));
+        result.sort(BY_SELF_TIME);
+        return result;
+    }
+
+    /**
+     * @return the number of cell values, which have been taken from the evaluation cache
+     */
+    public long getCacheHitCount() {
+        return _cacheHits.sum();
+    }
+
+    /**
+     * @return the number of cell values, which weren't in the evaluation cache,
+     *  i.e. the evaluated formulas and the read plain values
+     */
+    public long getCacheMissCount() {
+        return _formulaEvaluations.sum() + _plainValueReads.sum();
+    }
+
+    /**
+     * @return the share of cell values taken from the evaluation cache, between 0 and 1
+     */
+    public double getCacheHitRate() {
+        long hits = getCacheHitCount();
+        long total = hits + getCacheMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the maximum number of nested cell evaluations, i.e. the length of the longest
+     *  chain of formula cells, which referenced each other
+     */
+    public int getMaxEvaluationDepth() {
+        return _maxDepth.get();
+    }
+
+    /**
+     * Writes a plain text report of the recorded statistics
+     *
+     * @param out the target of the report
+     * @param maxEntries the maximum number of cells, functions and sheets listed
+     */
+    public void writeReport(Appendable out, int maxEntries) throws IOException {
+        out.append(String.format(Locale.ROOT, "Evaluated formulas: %d, cache hits: %d, cache misses: %d (hit rate %.1f%%), max evaluation depth: %d%n",
+            _formulaEvaluations.sum(), getCacheHitCount(), getCacheMissCount(), getCacheHitRate() * 100, getMaxEvaluationDepth()));
+        writeEntries(out, "Sheets", getSheetEntries(), maxEntries);
+        writeEntries(out, "Functions", getFunctionEntries(), maxEntries);
+        writeEntries(out, "Cells", getCellEntries(), maxEntries);
+    }
+
+    /**
+     * @return the report of the 20 slowest cells, functions and sheets
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeReport(sb, 20);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    private static void writeEntries(Appendable out, String title, List<Entry> entries, int maxEntries) throws IOException {
+        out.append(String.format(Locale.ROOT, "%n%-40s %10s %14s %14s%n", title, "count", "total [ms]", "self [ms]"));
+        for (Entry entry : entries.subList(0, Math.min(entries.size(), Math.max(maxEntries, 0)))) {
+            out.append(String.format(Locale.ROOT, "%-40s %10d %14.3f %14.3f%n", entry.getName(),
+                entry.getCount(), entry.getTotalNanos() / 1e6, entry.getSelfNanos() / 1e6));
+        }
+    }
+
+    @Override
+    public void onCacheHit(int sheetIndex, int rowIndex, int columnIndex, ValueEval result) {
+        _cacheHits.increment();
+    }
+
+    @Override
+    public void onReadPlainValue(int sheetIndex, int rowIndex, int columnIndex, ICacheEntry entry) {
+        _plainValueReads.increment();
+    }
+
+    @Override
+    public void onStartEvaluate(EvaluationCell cell, ICacheEntry entry) {
+        _formulaEvaluations.increment();
+        Deque<Frame> frames = _frames.get();
+        Frame parent = frames.peek();
+        int depth = parent == null ? 1 : parent._depth + 1;
+        frames.push(new Frame(entry, cell, depth));
+        if (depth > _maxDepth.get()) {
+            _maxDepth.accumulateAndGet(depth, Math::max);
+        }
+    }
+
+    @Override
+    public void onEndEvaluate(ICacheEntry entry, ValueEval result) {
+        Frame frame = pop(entry);
+        if (frame == null) {
+            return;
+        }
+        EvaluationCell cell = frame._cell;
+        long total = System.nanoTime() - frame._start;
+        long self = total - frame._childNanos;
+        int sheetIndex = _evaluator.getSheetIndex(cell.getSheet());
+        _cellStats.computeIfAbsent(cell.getIdentityKey(), k -> new CellStats(sheetIndex, cell)).add(total, self);
+        _sheetStats.computeIfAbsent(sheetIndex, k -> new Stats()).add(total, self);
+    }
+
+    @Override
+    public void onStartFunction(OperationPtg operation) {
+        Deque<Frame> frames = _frames.get();
+        Frame parent = frames.peek();
+        frames.push(new Frame(operation, null, parent == null ? 0 : parent._depth));
+    }
+
+    @Override
+    public void onEndFunction(OperationPtg operation, ValueEval result) {
+        Frame frame = pop(operation);
+        if (frame == null) {
+            return;
+        }
+        long total = System.nanoTime() - frame._start;
+        _functionStats.computeIfAbsent(getFunctionName(operation), k -> new Stats()).add(total, total - frame._childNanos);
+    }
+
+    /**
+     * Removes the frame of the key and the frames above it, which are left over if the
+     * evaluation has been aborted by an exception, and adds the elapsed time to the parent frame
+     */
+    private Frame pop(Object key) {
+        Deque<Frame> frames = _frames.get();
+        boolean found = false;
+        for (Frame frame : frames) {
+            if (frame._key == key) {
+                found = true;
+                break;
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        Frame frame;
+        do {
+            frame = frames.pop();
+        } while (frame._key != key);
+
+        Frame parent = frames.peek();
+        if (parent != null) {
+            parent._childNanos += System.nanoTime() - frame._start;
+        }
+        return frame;
+    }
+
+    private static String getFunctionName(OperationPtg operation) {
+        if (operation instanceof AbstractFunctionPtg) {
+            return ((AbstractFunctionPtg) operation).getName();
+        }
+        // operators are rendered without their operands, e.g. "+" or "%"
+        String[] operands = new String[operation.getNumberOfOperands()];
+        Arrays.fill(operands, "");
+        return operation.toFormulaString(operands).trim();
+    }
+
+    @Override
+    public void onClearWholeCache() {
+    }
+
+    @Override
+    public void onClearCachedValue(ICacheEntry entry) {
+    }
+
+    @Override
+    public void sortDependentCachedValues(ICacheEntry[] formulaCells) {
+    }
+
+    @Override
+    public void onClearDependentCachedValue(ICacheEntry formulaCell, int depth) {
+    }
+
+    @Override
+    public void onChangeFromBlankValue(int sheetIndex, int rowIndex, int columnIndex, EvaluationCell cell, ICacheEntry entry) {
+    }
+
+    private static final class Frame {
+        private final Object _key;
+        private final EvaluationCell _cell;
+        /** number of the nested cell evaluations */
+        private final int _depth;
+        private final long _start = System.nanoTime();
+        private long _childNanos;
+
+        Frame(Object key, EvaluationCell cell, int depth) {
+            _key = key;
+            _cell = cell;
+            _depth = depth;
+        }
+    }
+
+    private static class Stats {
+        private long _count;
+        private long _totalNanos;
+        private long _selfNanos;
+
+        synchronized void add(long totalNanos, long selfNanos) {
+            _count++;
+            _totalNanos += totalNanos;
+            _selfNanos += selfNanos;
+        }
+
+        synchronized Entry toEntry(String name) {
+            return new Entry(name, _count, _totalNanos, _selfNanos);
+        }
+    }
+
+    private static final class CellStats extends Stats {
+        private final int _sheetIndex;
+        private final int _rowIndex;
+        private final int _columnIndex;
+
+        CellStats(int sheetIndex, EvaluationCell cell) {
+            _sheetIndex = sheetIndex;
+            _rowIndex = cell.getRowIndex();
+            _columnIndex = cell.getColumnIndex();
+        }
+    }
+}
@@ -88,7 +88,10 @@ final class EvaluationTracker {
             return;
         }
 
-        frame.updateFormulaResult(result);
+        // the consuming cells of the input cells are shared with other threads evaluating the same workbook
+        synchronized (_cache) {
+            frame.updateFormulaResult(result);
+        }
     }
 
     /**
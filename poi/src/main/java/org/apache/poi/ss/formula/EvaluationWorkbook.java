@@ -18,6 +18,7 @@
 package org.apache.poi.ss.formula;
 
 import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.ptg.NamePtg;
 import org.apache.poi.ss.formula.ptg.NameXPtg;
 import org.apache.poi.ss.formula.ptg.Ptg;
@@ -93,6 +94,47 @@ public interface EvaluationWorkbook {
     EvaluationName getName(String name, int sheetIndex);
     String resolveNameXText(NameXPtg ptg);
     Ptg[] getFormulaTokens(EvaluationCell cell);
+
+    /**
+     * Returns the shared formula group of a formula cell, so that the formula is parsed and compiled
+     * once for all cells of the group instead of retrieving the tokens of each cell by
+     * {@link #getFormulaTokens(EvaluationCell)}. All cells of a group return the same instance, as
+     * long as the shared formula isn't changed.
+     *
+     * @param cell the formula cell
+     * @return the shared formula group of the cell or {@code null} if the formula of the cell isn't shared,
+     *  which is the default
+     * @since POI 5.3.1
+     */
+    default SharedFormulaGroup getSharedFormulaGroup(EvaluationCell cell) {
+        return null;
+    }
+
+    /**
+     * Returns the cache of the formulas, which are parsed for the evaluation, e.g. the formulas of
+     * conditional formatting rules and data validations.
+     *
+     * @return the cache or {@code null} if the formulas are parsed each time, which is the default
+     * @since POI 5.3.1
+     */
+    default FormulaParseCache getFormulaParseCache() {
+        return null;
+    }
+
+    /**
+     * Returns the result of a formula cell, which has been calculated in advance, so that the formula
+     * isn't evaluated, e.g. the unaffected cells of a {@link org.apache.poi.ss.formula.eval.forked.ForkedEvaluator}
+     * based on an {@link org.apache.poi.ss.formula.eval.forked.EvaluationSnapshot}.
+     * The result is cached like an evaluated result, but doesn't depend on other cells.
+     *
+     * @param cell the formula cell
+     * @return the result or {@code null} if the formula needs to be evaluated, which is the default
+     * @since POI 5.3.1
+     */
+    default ValueEval getPrecalculatedResult(EvaluationCell cell) {
+        return null;
+    }
+
     UDFFinder getUDFFinder();
     SpreadsheetVersion getSpreadsheetVersion();
 
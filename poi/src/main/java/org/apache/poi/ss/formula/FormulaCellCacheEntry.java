@@ -40,6 +40,11 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
 
     private FormulaUsedBlankCellSet _usedBlankCellGroup;
 
+    /**
+     * The compiled formula of the cell, which is kept until the cell is updated
+     */
+    private volatile CompiledFormula _compiledFormula;
+
     public FormulaCellCacheEntry() {
         // leave fields un-set
     }
@@ -65,6 +70,14 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
         }
     }
 
+    public CompiledFormula getCompiledFormula() {
+        return _compiledFormula;
+    }
+
+    public void setCompiledFormula(CompiledFormula compiledFormula) {
+        _compiledFormula = compiledFormula;
+    }
+
     public void clearFormulaEntry() {
         CellCacheEntry[] usedCells = _sensitiveInputCells;
         if (usedCells != null) {
@@ -0,0 +1,485 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.apache.poi.ss.formula.FormulaDependencyGraph.REF_SIZE;
+import static org.apache.poi.ss.formula.FormulaDependencyGraph.toPosition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.IntList;
+import org.apache.poi.util.SortedIntMap;
+
+/**
+ * An index of the dependencies between the cells of a workbook, which is used to recalculate
+ * only the formula cells affected by a batch of changes.
+ * <p>
+ * The precedents of a formula are derived from its parsed tokens, i.e. from the cell and area
+ * references, 3D references, table references and the definitions of defined names.
+ * The precedents of formulas with {@code INDIRECT()}, {@code OFFSET()} or references to other
+ * workbooks can't be determined in advance - these formulas are {@link #isDynamic(CellReference) dynamic}
+ * and are recalculated on every {@link #recalculate()}.
+ * <p>
+ * Changed cells need to be reported by {@link #notifyUpdateCell(Cell)} or {@link #notifyDeleteCell(Cell)}
+ * instead of the corresponding methods of the formula evaluator:
+ * <pre>{@code
+ * FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+ * FormulaDependencies dependencies = new FormulaDependencies(wb, evaluator);
+ * for (Cell cell : changedCells) {
+ *     cell.setCellValue(...);
+ *     dependencies.notifyUpdateCell(cell);
+ * }
+ * dependencies.recalculate();
+ * }</pre>
+ * The index needs to be recreated, when sheets are added, removed, renamed or moved and when rows
+ * or columns are shifted.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @since POI 5.3.1
+ */
+public final class FormulaDependencies {
+    /** references spanning more columns are kept per sheet instead of per column */
+    private static final int MAX_INDEXED_COLUMNS = 32;
+
+    /** the column of the key for the wide references of a sheet, beyond the valid columns */
+    private static final int WIDE_REFERENCES = 0xFFFFF;
+
+    /** the references of a column are bucketed by blocks of this many rows */
+    private static final int ROW_BLOCK_BITS = 6;
+
+    /** references spanning more row blocks are kept in a list sorted by their first row */
+    private static final int MAX_INDEXED_ROW_BLOCKS = 16;
+
+    private final Workbook _workbook;
+    private final FormulaEvaluator _evaluator;
+    private final EvaluationWorkbook _evaluationWorkbook;
+
+    private final Map<Long, Formula> _formulas = new HashMap<>();
+    /** the references keyed by sheet and column, or by sheet for references to wide areas */
+    private final Map<Long, References> _references = new HashMap<>();
+    private final Set<Formula> _dynamicFormulas = new LinkedHashSet<>();
+    private final Set<Long> _changedCells = new LinkedHashSet<>();
+
+    /**
+     * Indexes the formula cells of the workbook
+     *
+     * @param workbook the workbook
+     * @param evaluator the formula evaluator of the workbook, which is used for the recalculation
+     *
+     * @throws IllegalArgumentException if the evaluator isn't based on a {@link WorkbookEvaluator}
+     */
+    public FormulaDependencies(Workbook workbook, FormulaEvaluator evaluator) {
+        if (!(evaluator instanceof BaseFormulaEvaluator)) {
+            throw new IllegalArgumentException("Unsupported formula evaluator: " + evaluator.getClass().getName());
+        }
+        _workbook = workbook;
+        _evaluator = evaluator;
+        _evaluationWorkbook = ((BaseFormulaEvaluator)evaluator).getEvaluationWorkbook();
+
+        for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+            for (Row row : workbook.getSheetAt(sheetIndex)) {
+                for (Cell cell : row) {
+                    if (cell.getCellType() == CellType.FORMULA) {
+                        addFormula(sheetIndex, cell.getRowIndex(), cell.getColumnIndex());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Should be called whenever the value or the formula of a cell has changed.
+     * The cell is forwarded to {@link FormulaEvaluator#notifyUpdateCell(Cell)} and its formula is reindexed.
+     *
+     * @param cell the changed cell
+     */
+    public void notifyUpdateCell(Cell cell) {
+        _evaluator.notifyUpdateCell(cell);
+        long position = getPosition(cell);
+        removeFormula(position);
+        if (cell.getCellType() == CellType.FORMULA) {
+            addFormula(getSheetIndex(position), cell.getRowIndex(), cell.getColumnIndex());
+        }
+        _changedCells.add(position);
+    }
+
+    /**
+     * Should be called whenever a cell is about to be removed.
+     * The cell is forwarded to {@link FormulaEvaluator#notifyDeleteCell(Cell)}.
+     *
+     * @param cell the removed cell
+     */
+    public void notifyDeleteCell(Cell cell) {
+        _evaluator.notifyDeleteCell(cell);
+        long position = getPosition(cell);
+        removeFormula(position);
+        _changedCells.add(position);
+    }
+
+    /**
+     * Recalculates the formula cells, which depend directly or indirectly on the cells changed
+     * since the last recalculation, and the dynamic formula cells. The results are stored as
+     * cached formula results like in {@link FormulaEvaluator#evaluateFormulaCell(Cell)}.
+     *
+     * @return the number of recalculated formula cells
+     */
+    public int recalculate() {
+        if (_changedCells.isEmpty()) {
+            return 0;
+        }
+        Set<Formula> affected = getAffectedFormulas(_changedCells);
+        _changedCells.clear();
+
+        // the evaluator resolves the order of the evaluation and caches the intermediate results
+        for (Formula formula : affected) {
+            Cell cell = getCell(formula);
+            if (cell != null) {
+                _evaluator.evaluateFormulaCell(cell);
+            }
+        }
+        return affected.size();
+    }
+
+    /**
+     * @param cellReference the formula cell, including the sheet name
+     * @return the cells and areas referenced by the formula directly or via defined names,
+     *  or an empty list, if the cell isn't a formula cell. 3D references are split into an area per sheet.
+     */
+    public List<AreaReference> getPrecedents(CellReference cellReference) {
+        Formula formula = _formulas.get(getPosition(cellReference));
+        if (formula == null || formula.references.length == 0) {
+            return Collections.emptyList();
+        }
+        SpreadsheetVersion version = _workbook.getSpreadsheetVersion();
+        List<AreaReference> precedents = new ArrayList<>();
+        int[] refs = formula.references;
+        for (int i = 0; i < refs.length; i += REF_SIZE) {
+            for (int sheetIndex = refs[i]; sheetIndex <= refs[i + 1]; sheetIndex++) {
+                String sheetName = _workbook.getSheetName(sheetIndex);
+                precedents.add(new AreaReference(
+                    new CellReference(sheetName, refs[i + 2], refs[i + 4], false, false),
+                    new CellReference(sheetName, refs[i + 3], refs[i + 5], false, false),
+                    version));
+            }
+        }
+        return precedents;
+    }
+
+    /**
+     * @param cellReference the cell, including the sheet name
+     * @return the formula cells, which reference the given cell directly or via defined names.
+     *  Dynamic formula cells are only included for their statically known references.
+     */
+    public List<CellReference> getDependents(CellReference cellReference) {
+        long position = getPosition(cellReference);
+        Set<Formula> dependents = new LinkedHashSet<>();
+        addDependents(getSheetIndex(position), getRowIndex(position), getColumnIndex(position), dependents, null);
+        List<CellReference> result = new ArrayList<>(dependents.size());
+        for (Formula formula : dependents) {
+            result.add(new CellReference(_workbook.getSheetName(formula.sheetIndex),
+                formula.rowIndex, formula.columnIndex, false, false));
+        }
+        return result;
+    }
+
+    /**
+     * Determines the formula cells, which {@link #recalculate()} would recalculate after the given cells
+     * have been changed, without changing the index. Concurrent calls of this method are safe, as long
+     * as the index isn't modified.
+     *
+     * @param changedCells the changed cells, including the sheet name
+     * @return the formula cells, which depend directly or indirectly on the changed cells, including
+     *  changed formula cells, and the dynamic formula cells, or an empty set if no cells have been changed
+     *
+     * @since POI 5.3.1
+     */
+    public Set<CellReference> getAffectedCells(Collection<CellReference> changedCells) {
+        if (changedCells.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Long> positions = new LinkedHashSet<>();
+        for (CellReference cellReference : changedCells) {
+            positions.add(getPosition(cellReference));
+        }
+        Set<Formula> affected = getAffectedFormulas(positions);
+        Set<CellReference> result = new LinkedHashSet<>();
+        for (Formula formula : affected) {
+            result.add(new CellReference(_workbook.getSheetName(formula.sheetIndex),
+                formula.rowIndex, formula.columnIndex, false, false));
+        }
+        return result;
+    }
+
+    /**
+     * @param cellReference the formula cell, including the sheet name
+     * @return {@code true}, if the precedents of the formula can't be determined in advance
+     */
+    public boolean isDynamic(CellReference cellReference) {
+        Formula formula = _formulas.get(getPosition(cellReference));
+        return formula != null && formula.dynamic;
+    }
+
+    /**
+     * @return the formulas at the changed positions, the dynamic formulas and all formulas depending on them
+     */
+    private Set<Formula> getAffectedFormulas(Collection<Long> changedPositions) {
+        Set<Formula> affected = new LinkedHashSet<>();
+        Deque<Formula> pending = new ArrayDeque<>();
+        for (long position : changedPositions) {
+            Formula formula = _formulas.get(position);
+            if (formula != null && affected.add(formula)) {
+                pending.add(formula);
+            }
+            addDependents(getSheetIndex(position), getRowIndex(position), getColumnIndex(position), affected, pending);
+        }
+        for (Formula formula : _dynamicFormulas) {
+            if (affected.add(formula)) {
+                pending.add(formula);
+            }
+        }
+        while (!pending.isEmpty()) {
+            Formula formula = pending.poll();
+            addDependents(formula.sheetIndex, formula.rowIndex, formula.columnIndex, affected, pending);
+        }
+        return affected;
+    }
+
+    private void addFormula(int sheetIndex, int rowIndex, int columnIndex) {
+        EvaluationCell cell = _evaluationWorkbook.getSheet(sheetIndex).getCell(rowIndex, columnIndex);
+        if (cell == null) {
+            return;
+        }
+        IntList refs = new IntList();
+        boolean resolved = FormulaDependencyGraph.collectReferences(_evaluationWorkbook, cell, sheetIndex, refs);
+        Formula formula = new Formula(sheetIndex, rowIndex, columnIndex, refs.toArray(), !resolved);
+        _formulas.put(toPosition(sheetIndex, columnIndex, rowIndex), formula);
+        if (formula.dynamic) {
+            _dynamicFormulas.add(formula);
+        }
+        forEachReference(formula, (key, ref) -> _references.computeIfAbsent(key, k -> new References()).add(ref));
+    }
+
+    private void removeFormula(long position) {
+        Formula formula = _formulas.remove(position);
+        if (formula == null) {
+            return;
+        }
+        _dynamicFormulas.remove(formula);
+        forEachReference(formula, (key, ref) -> {
+            References refs = _references.get(key);
+            if (refs != null) {
+                refs.remove(ref);
+            }
+        });
+    }
+
+    /**
+     * Calls the consumer for each key of the reverse index, which holds a reference of the formula
+     */
+    private static void forEachReference(Formula formula, BiConsumer<Long, Reference> consumer) {
+        int[] refs = formula.references;
+        for (int i = 0; i < refs.length; i += REF_SIZE) {
+            Reference ref = new Reference(formula, refs[i + 2], refs[i + 3], refs[i + 4], refs[i + 5]);
+            boolean wide = ref.lastColumn - ref.firstColumn >= MAX_INDEXED_COLUMNS;
+            for (int sheetIndex = refs[i]; sheetIndex <= refs[i + 1]; sheetIndex++) {
+                if (wide) {
+                    consumer.accept(getColumnKey(sheetIndex, WIDE_REFERENCES), ref);
+                } else {
+                    for (int col = ref.firstColumn; col <= ref.lastColumn; col++) {
+                        consumer.accept(getColumnKey(sheetIndex, col), ref);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the formulas referencing the given cell, which aren't already contained in {@code dependents}
+     */
+    private void addDependents(int sheetIndex, int rowIndex, int columnIndex, Set<Formula> dependents, Deque<Formula> pending) {
+        addDependents(_references.get(getColumnKey(sheetIndex, columnIndex)), rowIndex, columnIndex, dependents, pending);
+        addDependents(_references.get(getColumnKey(sheetIndex, WIDE_REFERENCES)), rowIndex, columnIndex, dependents, pending);
+    }
+
+    private static void addDependents(References refs, int rowIndex, int columnIndex, Set<Formula> dependents, Deque<Formula> pending) {
+        if (refs != null) {
+            refs.addDependents(rowIndex, columnIndex, dependents, pending);
+        }
+    }
+
+    private static void addDependent(Reference ref, int rowIndex, int columnIndex, Set<Formula> dependents, Deque<Formula> pending) {
+        if (ref.contains(rowIndex, columnIndex) && dependents.add(ref.formula) && pending != null) {
+            pending.add(ref.formula);
+        }
+    }
+
+    private Cell getCell(Formula formula) {
+        Sheet sheet = _workbook.getSheetAt(formula.sheetIndex);
+        Row row = sheet.getRow(formula.rowIndex);
+        return row == null ? null : row.getCell(formula.columnIndex);
+    }
+
+    private long getPosition(Cell cell) {
+        int sheetIndex = _workbook.getSheetIndex(cell.getSheet());
+        return toPosition(sheetIndex, cell.getColumnIndex(), cell.getRowIndex());
+    }
+
+    private long getPosition(CellReference cellReference) {
+        String sheetName = cellReference.getSheetName();
+        int sheetIndex = (sheetName == null) ? -1 : _workbook.getSheetIndex(sheetName);
+        if (sheetIndex < 0) {
+            throw new IllegalArgumentException("The cell reference '" + cellReference.formatAsString() +
+                "' doesn't refer to a sheet of the workbook");
+        }
+        return toPosition(sheetIndex, cellReference.getCol(), cellReference.getRow());
+    }
+
+    private static long getColumnKey(int sheetIndex, int columnIndex) {
+        return ((long)sheetIndex << 20) | columnIndex;
+    }
+
+    private static int getSheetIndex(long position) {
+        return (int)(position >>> 40);
+    }
+
+    private static int getColumnIndex(long position) {
+        return (int)((position >>> 20) & 0xFFFFF);
+    }
+
+    private static int getRowIndex(long position) {
+        return (int)(position & 0xFFFFF);
+    }
+
+    private static final class Formula {
+        private final int sheetIndex;
+        private final int rowIndex;
+        private final int columnIndex;
+        private final int[] references;
+        private final boolean dynamic;
+
+        private Formula(int sheetIndex, int rowIndex, int columnIndex, int[] references, boolean dynamic) {
+            this.sheetIndex = sheetIndex;
+            this.rowIndex = rowIndex;
+            this.columnIndex = columnIndex;
+            this.references = references;
+            this.dynamic = dynamic;
+        }
+    }
+
+    private static final class Reference {
+        private final Formula formula;
+        private final int firstRow;
+        private final int lastRow;
+        private final int firstColumn;
+        private final int lastColumn;
+
+        private Reference(Formula formula, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+            this.formula = formula;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.firstColumn = firstColumn;
+            this.lastColumn = lastColumn;
+        }
+
+        private boolean contains(int rowIndex, int columnIndex) {
+            return firstRow <= rowIndex && rowIndex <= lastRow
+                && firstColumn <= columnIndex && columnIndex <= lastColumn;
+        }
+    }
+
+    /**
+     * The references of a column or of the wide areas of a sheet, which are bucketed by row blocks,
+     * so that looking up the dependents of a cell doesn't need to check all references of the column.
+     * References spanning many rows are rare and kept in a list sorted by their first row instead.
+     */
+    private static final class References {
+        private final SortedIntMap<List<Reference>> _blocks = new SortedIntMap<>();
+        private final List<Reference> _longReferences = new ArrayList<>();
+
+        private void add(Reference ref) {
+            int firstBlock = ref.firstRow >>> ROW_BLOCK_BITS;
+            int lastBlock = ref.lastRow >>> ROW_BLOCK_BITS;
+            if (lastBlock - firstBlock >= MAX_INDEXED_ROW_BLOCKS) {
+                int pos = Collections.binarySearch(_longReferences, ref, (r1, r2) -> Integer.compare(r1.firstRow, r2.firstRow));
+                _longReferences.add(pos < 0 ? -pos - 1 : pos, ref);
+                return;
+            }
+            for (int block = firstBlock; block <= lastBlock; block++) {
+                List<Reference> refs = _blocks.get(block);
+                if (refs == null) {
+                    refs = new ArrayList<>(2);
+                    _blocks.put(block, refs);
+                }
+                refs.add(ref);
+            }
+        }
+
+        /**
+         * Removes the references of the formula of the given reference within its range
+         */
+        private void remove(Reference ref) {
+            int firstBlock = ref.firstRow >>> ROW_BLOCK_BITS;
+            int lastBlock = ref.lastRow >>> ROW_BLOCK_BITS;
+            if (lastBlock - firstBlock >= MAX_INDEXED_ROW_BLOCKS) {
+                _longReferences.removeIf(r -> r.formula == ref.formula);
+                return;
+            }
+            for (int block = firstBlock; block <= lastBlock; block++) {
+                List<Reference> refs = _blocks.get(block);
+                if (refs != null && refs.removeIf(r -> r.formula == ref.formula) && refs.isEmpty()) {
+                    _blocks.remove(block);
+                }
+            }
+        }
+
+        private void addDependents(int rowIndex, int columnIndex, Set<Formula> dependents, Deque<Formula> pending) {
+            List<Reference> refs = _blocks.get(rowIndex >>> ROW_BLOCK_BITS);
+            if (refs != null) {
+                for (Reference ref : refs) {
+                    addDependent(ref, rowIndex, columnIndex, dependents, pending);
+                }
+            }
+            for (Reference ref : _longReferences) {
+                if (ref.firstRow > rowIndex) {
+                    break;
+                }
+                addDependent(ref, rowIndex, columnIndex, dependents, pending);
+            }
+        }
+    }
+}
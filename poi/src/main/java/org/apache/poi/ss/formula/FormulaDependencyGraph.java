@@ -0,0 +1,379 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheetRange;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.Area3DPxg;
+import org.apache.poi.ss.formula.ptg.AreaErrPtg;
+import org.apache.poi.ss.formula.ptg.AreaNPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.ArrayPtg;
+import org.apache.poi.ss.formula.ptg.ControlPtg;
+import org.apache.poi.ss.formula.ptg.Deleted3DPxg;
+import org.apache.poi.ss.formula.ptg.DeletedArea3DPtg;
+import org.apache.poi.ss.formula.ptg.DeletedRef3DPtg;
+import org.apache.poi.ss.formula.ptg.MemAreaPtg;
+import org.apache.poi.ss.formula.ptg.MemErrPtg;
+import org.apache.poi.ss.formula.ptg.MemFuncPtg;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPtg;
+import org.apache.poi.ss.formula.ptg.NameXPxg;
+import org.apache.poi.ss.formula.ptg.OperationPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg3D;
+import org.apache.poi.ss.formula.ptg.Ref3DPxg;
+import org.apache.poi.ss.formula.ptg.RefErrorPtg;
+import org.apache.poi.ss.formula.ptg.RefNPtg;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.ss.formula.ptg.ScalarConstantPtg;
+import org.apache.poi.util.IntList;
+
+/**
+ * The static dependencies between the formula cells of a workbook.
+ * <p>
+ * The precedents of a formula are derived from its parsed tokens, i.e. from the cell and area
+ * references, including 3D references and the definitions of defined names. Formulas whose
+ * precedents can't be determined in advance, like {@code INDIRECT()}, {@code OFFSET()} or
+ * references to other workbooks, are flagged as dynamic.
+ * <p>
+ * The references of the formula cells are collected by {@link #collectReferences(int)}, which
+ * may be called concurrently for different cells.
+ */
+final class FormulaDependencyGraph {
+    /** level of cells, which need to be evaluated in the original order */
+    static final int SERIAL = -1;
+
+    private static final int FUNCTION_INDEX_OFFSET = FunctionMetadataRegistry.lookupIndexByName("OFFSET");
+
+    /** the maximum nesting of defined names - deeper nested names are treated as dynamic */
+    private static final int MAX_NAME_DEPTH = 64;
+
+    /** number of ints per reference: first/last sheet, first/last row, first/last column */
+    static final int REF_SIZE = 6;
+
+    private static final int[] NO_REFERENCES = {};
+
+    private final EvaluationWorkbook _workbook;
+    private final EvaluationCell[] _cells;
+    private final int[] _sheetIndexes;
+    private final int[][] _references;
+    private final boolean[] _dynamic;
+
+    /** the positions of the formula cells, sorted by sheet, column and row */
+    private final long[] _positions;
+    private final int[] _nodesByPosition;
+
+    /**
+     * @param workbook the workbook of the cells
+     * @param cells the formula cells, the index in this list is used as node index
+     */
+    FormulaDependencyGraph(EvaluationWorkbook workbook, List<EvaluationCell> cells) {
+        _workbook = workbook;
+        int size = cells.size();
+        _cells = cells.toArray(new EvaluationCell[size]);
+        _sheetIndexes = new int[size];
+        _references = new int[size][];
+        _dynamic = new boolean[size];
+
+        long[] positions = new long[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            EvaluationCell cell = _cells[i];
+            _sheetIndexes[i] = workbook.getSheetIndex(cell.getSheet());
+            positions[i] = toPosition(_sheetIndexes[i], cell.getColumnIndex(), cell.getRowIndex());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(positions[a], positions[b]));
+        _positions = new long[size];
+        _nodesByPosition = new int[size];
+        for (int i = 0; i < size; i++) {
+            _positions[i] = positions[order[i]];
+            _nodesByPosition[i] = order[i];
+        }
+    }
+
+    static long toPosition(int sheetIndex, int columnIndex, int rowIndex) {
+        return ((long)sheetIndex << 40) | ((long)columnIndex << 20) | rowIndex;
+    }
+
+    int getSize() {
+        return _cells.length;
+    }
+
+    EvaluationCell getCell(int node) {
+        return _cells[node];
+    }
+
+    boolean isDynamic(int node) {
+        return _dynamic[node];
+    }
+
+    /**
+     * Parses the formula of the given cell and records the referenced areas
+     */
+    void collectReferences(int node) {
+        IntList refs = new IntList();
+        boolean resolved = collectReferences(_workbook, _cells[node], _sheetIndexes[node], refs);
+        _references[node] = refs.isEmpty() ? NO_REFERENCES : refs.toArray();
+        _dynamic[node] = !resolved;
+    }
+
+    /**
+     * Parses the formula of the given cell and adds the referenced areas to {@code refs}, each as
+     * {@value #REF_SIZE} ints: first/last sheet index, first/last row and first/last column.
+     *
+     * @return {@code false}, if the references of the formula can't be determined statically -
+     *  the references, which could be determined, are added nevertheless
+     */
+    static boolean collectReferences(EvaluationWorkbook workbook, EvaluationCell cell, int sheetIndex, IntList refs) {
+        try {
+            Ptg[] ptgs = workbook.getFormulaTokens(cell);
+            return addReferences(workbook, ptgs, sheetIndex, refs, 0);
+        } catch (RuntimeException e) {
+            // the evaluation of the cell will report the problem
+            return false;
+        }
+    }
+
+    /**
+     * @return {@code false}, if the references of the tokens can't be determined statically
+     */
+    private static boolean addReferences(EvaluationWorkbook workbook, Ptg[] ptgs, int sheetIndex, IntList refs, int nameDepth) {
+        boolean resolved = true;
+        for (Ptg ptg : ptgs) {
+            if (ptg instanceof ExternSheetReferenceToken) {
+                int externSheetIndex = ((ExternSheetReferenceToken)ptg).getExternSheetIndex();
+                resolved &= add3DReference(workbook, ptg, workbook.getExternalSheet(externSheetIndex), refs);
+            } else if (ptg instanceof Ref3DPxg || ptg instanceof Area3DPxg) {
+                Pxg3D pxg = (Pxg3D)ptg;
+                ExternalSheet sheet = workbook.getExternalSheet(
+                    pxg.getSheetName(), pxg.getLastSheetName(), pxg.getExternalWorkbookNumber());
+                resolved &= add3DReference(workbook, ptg, sheet, refs);
+            } else if (ptg instanceof RefNPtg || ptg instanceof AreaNPtg) {
+                // relative tokens are only expected in shared formula definitions
+                resolved = false;
+            } else if (ptg instanceof RefPtgBase || ptg instanceof AreaPtgBase) {
+                addReference(ptg, sheetIndex, sheetIndex, refs);
+            } else if (ptg instanceof NamePtg) {
+                EvaluationName name = workbook.getName((NamePtg)ptg);
+                resolved &= name != null && addNameReferences(workbook, name, sheetIndex, refs, nameDepth);
+            } else if (ptg instanceof NameXPtg) {
+                NameXPtg nameX = (NameXPtg)ptg;
+                if (isExternal(workbook.getExternalSheet(nameX.getSheetRefIndex()))) {
+                    resolved = false;
+                    continue;
+                }
+                String text = workbook.resolveNameXText(nameX);
+                int sheetNameAt = text.indexOf('!');
+                EvaluationName name = (sheetNameAt > -1)
+                    ? workbook.getName(text.substring(sheetNameAt + 1), workbook.getSheetIndex(text.substring(0, sheetNameAt)))
+                    : workbook.getName(text, -1);
+                // unknown names are add-in functions
+                resolved &= name == null || addNameReferences(workbook, name, sheetIndex, refs, nameDepth);
+            } else if (ptg instanceof NameXPxg) {
+                NameXPxg nameX = (NameXPxg)ptg;
+                if (isExternal(workbook.getExternalSheet(nameX.getSheetName(), null, nameX.getExternalWorkbookNumber()))) {
+                    resolved = false;
+                    continue;
+                }
+                int nameSheetIndex = nameX.getSheetName() == null ? -1 : workbook.getSheetIndex(nameX.getSheetName());
+                EvaluationName name = workbook.getName(nameX.getNameName(), nameSheetIndex);
+                resolved &= name == null || addNameReferences(workbook, name, sheetIndex, refs, nameDepth);
+            } else if (ptg instanceof AbstractFunctionPtg) {
+                int functionIndex = ((AbstractFunctionPtg)ptg).getFunctionIndex();
+                if (functionIndex == FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT
+                    || functionIndex == FUNCTION_INDEX_OFFSET) {
+                    resolved = false;
+                }
+            } else if (!(ptg instanceof OperationPtg || ptg instanceof ControlPtg
+                || ptg instanceof ScalarConstantPtg || ptg instanceof ArrayPtg
+                || ptg instanceof MemAreaPtg || ptg instanceof MemFuncPtg || ptg instanceof MemErrPtg
+                || ptg instanceof AreaErrPtg || ptg instanceof RefErrorPtg || ptg instanceof Deleted3DPxg
+                || ptg instanceof DeletedArea3DPtg || ptg instanceof DeletedRef3DPtg)) {
+                // e.g. UnknownPtg, which isn't supported by the evaluator
+                resolved = false;
+            }
+        }
+        return resolved;
+    }
+
+    private static boolean addNameReferences(EvaluationWorkbook workbook, EvaluationName name, int sheetIndex, IntList refs, int nameDepth) {
+        if (name.isFunctionName()) {
+            return true;
+        }
+        if (!name.hasFormula() || nameDepth >= MAX_NAME_DEPTH) {
+            return false;
+        }
+        return addReferences(workbook, name.getNameDefinition(), sheetIndex, refs, nameDepth + 1);
+    }
+
+    private static boolean isExternal(ExternalSheet sheet) {
+        return sheet != null && sheet.getWorkbookName() != null;
+    }
+
+    /**
+     * Resolves the sheets like {@link OperationEvaluationContext#createExternSheetRefEvaluator(ExternalSheet)}
+     */
+    private static boolean add3DReference(EvaluationWorkbook workbook, Ptg ptg, ExternalSheet sheet, IntList refs) {
+        if (isExternal(sheet)) {
+            // the formula cells of other workbooks aren't part of the graph
+            return false;
+        }
+        int firstSheet = 0;
+        int lastSheet = 0;
+        if (sheet != null) {
+            firstSheet = workbook.getSheetIndex(sheet.getSheetName());
+            lastSheet = (sheet instanceof ExternalSheetRange)
+                ? workbook.getSheetIndex(((ExternalSheetRange)sheet).getLastSheetName())
+                : firstSheet;
+        }
+        if (firstSheet < 0 || lastSheet < firstSheet) {
+            return false;
+        }
+        addReference(ptg, firstSheet, lastSheet, refs);
+        return true;
+    }
+
+    private static void addReference(Ptg ptg, int firstSheet, int lastSheet, IntList refs) {
+        refs.add(firstSheet);
+        refs.add(lastSheet);
+        if (ptg instanceof RefPtgBase) {
+            RefPtgBase ref = (RefPtgBase)ptg;
+            refs.add(ref.getRow());
+            refs.add(ref.getRow());
+            refs.add(ref.getColumn());
+            refs.add(ref.getColumn());
+        } else {
+            AreaPtgBase area = (AreaPtgBase)ptg;
+            refs.add(area.getFirstRow());
+            refs.add(area.getLastRow());
+            refs.add(area.getFirstColumn());
+            refs.add(area.getLastColumn());
+        }
+    }
+
+    /**
+     * @return the formula cells within the referenced areas of the given cell
+     */
+    int[] getPrecedents(int node) {
+        int[] refs = _references[node];
+        if (refs.length == 0) {
+            return NO_REFERENCES;
+        }
+        IntList precedents = new IntList();
+        for (int i = 0; i < refs.length; i += REF_SIZE) {
+            for (int sheet = refs[i]; sheet <= refs[i + 1]; sheet++) {
+                addNodesInArea(sheet, refs[i + 2], refs[i + 3], refs[i + 4], refs[i + 5], precedents);
+            }
+        }
+        return precedents.toArray();
+    }
+
+    private void addNodesInArea(int sheet, int firstRow, int lastRow, int firstCol, int lastCol, IntList nodes) {
+        long end = toPosition(sheet, lastCol, lastRow);
+        int idx = lowerBound(toPosition(sheet, firstCol, firstRow));
+        while (idx < _positions.length && _positions[idx] <= end) {
+            long pos = _positions[idx];
+            int col = (int)((pos >>> 20) & 0xFFFFF);
+            int row = (int)(pos & 0xFFFFF);
+            if (row < firstRow) {
+                idx = lowerBound(toPosition(sheet, col, firstRow));
+            } else if (row > lastRow) {
+                // skip to the next column
+                idx = lowerBound(toPosition(sheet, col + 1, firstRow));
+            } else {
+                nodes.add(_nodesByPosition[idx++]);
+            }
+        }
+    }
+
+    private int lowerBound(long position) {
+        int idx = Arrays.binarySearch(_positions, position);
+        return idx < 0 ? -idx - 1 : idx;
+    }
+
+    /**
+     * Assigns each formula cell a level, so that the formula cells of a level only depend on cells
+     * of lower levels. Dynamic cells, cells within circular references and the cells depending on
+     * those get the level {@link #SERIAL}, as they need to be evaluated in the original order.
+     * <p>
+     * All references need to be {@link #collectReferences(int) collected} before.
+     *
+     * @return the levels indexed by node
+     */
+    int[] computeLevels() {
+        final int size = _cells.length;
+        final int[] levels = new int[size];
+        // 0 = not visited, 1 = in progress, 2 = done
+        final byte[] states = new byte[size];
+        final int[][] precedents = new int[size][];
+        final int[] nextPrecedent = new int[size];
+        // explicit stack, as the chains of formulas may be much longer than the call stack allows
+        final int[] stack = new int[size];
+
+        for (int root = 0; root < size; root++) {
+            if (states[root] != 0) {
+                continue;
+            }
+            int top = 0;
+            stack[top] = root;
+            enter(root, states, levels, precedents);
+            while (top >= 0) {
+                int node = stack[top];
+                int[] prec = precedents[node];
+                if (nextPrecedent[node] < prec.length) {
+                    int p = prec[nextPrecedent[node]++];
+                    if (states[p] == 0) {
+                        stack[++top] = p;
+                        enter(p, states, levels, precedents);
+                    } else if (states[p] == 1) {
+                        // circular reference
+                        levels[node] = SERIAL;
+                    } else {
+                        levels[node] = mergeLevel(levels[node], levels[p]);
+                    }
+                } else {
+                    states[node] = 2;
+                    precedents[node] = null;
+                    top--;
+                    if (top >= 0) {
+                        int consumer = stack[top];
+                        levels[consumer] = mergeLevel(levels[consumer], levels[node]);
+                    }
+                }
+            }
+        }
+        return levels;
+    }
+
+    private void enter(int node, byte[] states, int[] levels, int[][] precedents) {
+        states[node] = 1;
+        levels[node] = _dynamic[node] ? SERIAL : 0;
+        precedents[node] = getPrecedents(node);
+    }
+
+    private static int mergeLevel(int level, int precedentLevel) {
+        return (level == SERIAL || precedentLevel == SERIAL) ? SERIAL : Math.max(level, precedentLevel + 1);
+    }
+}
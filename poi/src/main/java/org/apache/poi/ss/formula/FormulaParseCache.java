@@ -0,0 +1,210 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.poi.ss.formula.ptg.OperandPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+
+/**
+ * A bounded cache of parsed formulas, which are keyed by the formula text, the {@link FormulaType}
+ * and the sheet index.
+ * <p>
+ * The same formulas are often parsed repeatedly, e.g. the rules of conditional formats and data
+ * validations, which are parsed for every evaluated cell, or cell formulas with the same text.
+ * The parsed tokens don't depend on the cell of the formula, as references keep their relative
+ * flags and are resolved by the evaluator. Only structured references to the current table row
+ * are resolved by the parser, so formulas with brackets are always parsed.
+ * <p>
+ * Names and sheets are resolved to indexes by the parser. The owning evaluation workbook reports
+ * the number of names and sheets via {@link #setWorkbookStructure(int, int)}, which clears the cache
+ * when names or sheets are added or removed. Renaming a name or sheet, or replacing one with another
+ * at the same count, isn't detected - {@link #clear()} has to be called in that case, which is done by
+ * {@link EvaluationWorkbook#clearAllCachedResultValues()}.
+ * <p>
+ * The least recently used formulas are evicted, when the cache is full. As the tokens
+ * of a formula may be modified by the caller, each call returns a copy of the cached tokens.
+ * Instances of this class are thread-safe.
+ *
+ * @see EvaluationWorkbook#getFormulaParseCache()
+ * @since POI 5.3.1
+ */
+public final class FormulaParseCache {
+    /** default number of parsed formulas kept in the cache */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final Map<Key, Ptg[]> _cache;
+    private int _numberOfNames = -1;
+    private int _numberOfSheets = -1;
+    private long _hitCount;
+    private long _missCount;
+
+    /**
+     * Creates a cache with the {@link #DEFAULT_MAX_ENTRIES default size}
+     */
+    public FormulaParseCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries the number of parsed formulas kept in the cache
+     */
+    public FormulaParseCache(int maxEntries) {
+        final int max = Math.max(maxEntries, 0);
+        _cache = new LruMap(Math.min(max, 1024), max);
+    }
+
+    /**
+     * Clears the cache, if the number of names or sheets differs from the previous call,
+     * as the parsed tokens refer to them by index
+     *
+     * @param numberOfNames the current number of defined names
+     * @param numberOfSheets the current number of sheets
+     */
+    public synchronized void setWorkbookStructure(int numberOfNames, int numberOfSheets) {
+        if (numberOfNames != _numberOfNames || numberOfSheets != _numberOfSheets) {
+            _cache.clear();
+            _numberOfNames = numberOfNames;
+            _numberOfSheets = numberOfSheets;
+        }
+    }
+
+    /**
+     * Parses a formula like {@link FormulaParser#parse(String, FormulaParsingWorkbook, FormulaType, int, int)},
+     * unless it's in the cache already
+     *
+     * @param formula the formula to parse
+     * @param workbook the parent workbook
+     * @param formulaType the type of the formula
+     * @param sheetIndex the 0-based index of the sheet this formula belongs to, or -1 for the workbook scope
+     * @param rowIndex the 0-based row of the cell this formula belongs to, or -1 if unknown
+     * @return the parsed formula tokens, which can be modified by the caller
+     * @throws FormulaParseException if the formula has incorrect syntax or is otherwise invalid
+     */
+    public Ptg[] parse(String formula, FormulaParsingWorkbook workbook, FormulaType formulaType, int sheetIndex, int rowIndex) {
+        if (formula.indexOf('[') >= 0) {
+            // structured references may depend on the row
+            return FormulaParser.parse(formula, workbook, formulaType, sheetIndex, rowIndex);
+        }
+        Key key = new Key(formula, formulaType, sheetIndex);
+        Ptg[] ptgs;
+        synchronized (this) {
+            ptgs = _cache.get(key);
+            if (ptgs != null) {
+                _hitCount++;
+                return copy(ptgs);
+            }
+            _missCount++;
+        }
+        // parse outside of the lock, concurrent misses of the same formula store equivalent tokens
+        ptgs = FormulaParser.parse(formula, workbook, formulaType, sheetIndex, rowIndex);
+        synchronized (this) {
+            _cache.put(key, ptgs);
+        }
+        return copy(ptgs);
+    }
+
+    private static Ptg[] copy(Ptg[] ptgs) {
+        Ptg[] copy = ptgs.clone();
+        for (int i = 0; i < copy.length; i++) {
+            // any subclass of OperandPtg is mutable, all other tokens are immutable and can be shared
+            if (copy[i] instanceof OperandPtg) {
+                copy[i] = ((OperandPtg) copy[i]).copy();
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @return the number of formulas, which were found in the cache
+     */
+    public synchronized long getHitCount() {
+        return _hitCount;
+    }
+
+    /**
+     * @return the number of formulas, which were parsed and added to the cache
+     */
+    public synchronized long getMissCount() {
+        return _missCount;
+    }
+
+    /**
+     * @return the number of formulas in the cache
+     */
+    public synchronized int getSize() {
+        return _cache.size();
+    }
+
+    /**
+     * Removes all formulas from the cache, e.g. as the names or sheets of the workbook have changed.
+     * The hit and miss counts are kept.
+     */
+    public synchronized void clear() {
+        _cache.clear();
+    }
+
+    private static final class LruMap extends LinkedHashMap<Key, Ptg[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int _maxEntries;
+
+        LruMap(int initialCapacity, int maxEntries) {
+            super(initialCapacity, 0.75f, true);
+            _maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Ptg[]> eldest) {
+            return size() > _maxEntries;
+        }
+    }
+
+    private static final class Key {
+        private final String _formula;
+        private final FormulaType _formulaType;
+        private final int _sheetIndex;
+
+        Key(String formula, FormulaType formulaType, int sheetIndex) {
+            _formula = formula;
+            _formulaType = formulaType;
+            _sheetIndex = sheetIndex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return _sheetIndex == other._sheetIndex && _formulaType == other._formulaType
+                && _formula.equals(other._formula);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(_formula, _formulaType, _sheetIndex);
+        }
+    }
+}
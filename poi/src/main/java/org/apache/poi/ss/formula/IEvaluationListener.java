@@ -18,6 +18,7 @@
 package org.apache.poi.ss.formula;
 
 import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.ptg.OperationPtg;
 
 /**
  * Tests can implement this class to track the internal working of the {@link WorkbookEvaluator}.<br>
@@ -49,4 +50,19 @@ interface IEvaluationListener {
     void onClearDependentCachedValue(ICacheEntry formulaCell, int depth);
     void onChangeFromBlankValue(int sheetIndex, int rowIndex, int columnIndex,
             EvaluationCell cell, ICacheEntry entry);
+
+    /**
+     * Called before an operator or function of a formula is evaluated. The evaluation of the
+     * operands may evaluate further cells before the matching call of {@link #onEndFunction}.
+     *
+     * @since POI 5.3.1
+     */
+    default void onStartFunction(OperationPtg operation) {}
+
+    /**
+     * Called after an operator or function of a formula has been evaluated
+     *
+     * @since POI 5.3.1
+     */
+    default void onEndFunction(OperationPtg operation, ValueEval result) {}
 }
@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.function.Function;
+
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.AreaEvalBase;
 import org.apache.poi.ss.formula.eval.ValueEval;
@@ -82,6 +84,11 @@ final class LazyAreaEval extends AreaEvalBase {
         return new LazyAreaEval(getFirstRow(), absColIx, getLastRow(), absColIx, _evaluator);
     }
 
+    @Override
+    public <T> T getCachedIndex(Object kind, Function<? super TwoDEval, T> builder) {
+        return _evaluator.getSheetEvaluator(getFirstSheetIndex()).getCachedIndex(this, kind, builder);
+    }
+
     public String toString() {
         CellReference crA = new CellReference(getFirstRow(), getFirstColumn());
         CellReference crB = new CellReference(getLastRow(), getLastColumn());
@@ -0,0 +1,165 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Evaluates the formula cells of a workbook concurrently, in the order of their static dependencies.
+ * <p>
+ * The formula cells are grouped into levels by the {@link FormulaDependencyGraph}. The cells of a
+ * level only depend on cells of lower levels, so they are evaluated concurrently once the lower levels
+ * are done, and their evaluation only hits the cache for the formula cells they reference.
+ * The results are kept in the shared {@link EvaluationCache}.
+ * <p>
+ * Cells with dynamic references or circular references aren't evaluated here, but left to the caller,
+ * which evaluates all cells in their original order afterwards. Likewise, failed evaluations aren't
+ * cached, so the caller evaluates them again and gets the same error as with the serial evaluation.
+ */
+final class ParallelFormulaEvaluation {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** the minimum number of cells per task, as smaller tasks cost more than they gain */
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final WorkbookEvaluator _evaluator;
+    private final int _parallelism;
+    private final ExecutorService _executor;
+
+    private ParallelFormulaEvaluation(WorkbookEvaluator evaluator, int parallelism, ExecutorService executor) {
+        _evaluator = evaluator;
+        _parallelism = parallelism;
+        _executor = executor;
+    }
+
+    /**
+     * Evaluates the given formula cells into the cache of the evaluator
+     *
+     * @param evaluator the evaluator of the workbook
+     * @param cells the formula cells to evaluate
+     * @param parallelism the number of threads
+     */
+    static void evaluate(WorkbookEvaluator evaluator, List<EvaluationCell> cells, int parallelism) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "POI-FormulaEvaluator-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            new ParallelFormulaEvaluation(evaluator, parallelism, executor).evaluate(cells);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void evaluate(List<EvaluationCell> cells) {
+        FormulaDependencyGraph graph = new FormulaDependencyGraph(_evaluator.getWorkbook(), cells);
+        int size = graph.getSize();
+        forEach(size, graph::collectReferences);
+
+        int[] levels = graph.computeLevels();
+        int maxLevel = -1;
+        for (int level : levels) {
+            maxLevel = Math.max(maxLevel, level);
+        }
+        if (maxLevel < 0) {
+            return;
+        }
+
+        // sort the nodes by level
+        int[] offsets = new int[maxLevel + 2];
+        for (int level : levels) {
+            if (level != FormulaDependencyGraph.SERIAL) {
+                offsets[level + 1]++;
+            }
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] nodes = new int[offsets[maxLevel + 1]];
+        int[] next = offsets.clone();
+        for (int node = 0; node < size; node++) {
+            if (levels[node] != FormulaDependencyGraph.SERIAL) {
+                nodes[next[levels[node]]++] = node;
+            }
+        }
+
+        for (int level = 0; level <= maxLevel; level++) {
+            final int start = offsets[level];
+            forEach(offsets[level + 1] - start, i -> evaluateQuietly(graph.getCell(nodes[start + i])));
+        }
+    }
+
+    private void evaluateQuietly(EvaluationCell cell) {
+        try {
+            _evaluator.evaluate(cell);
+        } catch (RuntimeException e) {
+            // the cell is evaluated again on the calling thread, which reports the error for the right cell
+        }
+    }
+
+    /**
+     * Calls the action for the indexes 0 to count - 1 and waits for all calls to complete
+     */
+    private void forEach(int count, IntConsumer action) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (count + _parallelism * 4 - 1) / (_parallelism * 4));
+        if (count <= chunkSize) {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < count; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(count, start + chunkSize);
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+            }, _executor));
+        }
+        // wait for all tasks, before any failure is reported
+        RuntimeException failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            Throwable cause = failure.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.ptg.AreaPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefPtg;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.util.Internal;
+
+/**
+ * The formula of a group of cells, which share the same formula with relative references,
+ * like the shared formulas of XSSF workbooks.
+ * <p>
+ * The formula is parsed for the first cell of the group only. The relative references of the other
+ * cells are resolved by their offset to the first cell, either by {@link #getFormulaTokens(int, int)},
+ * or at evaluation time, so that the {@link WorkbookEvaluator} compiles the formula only once for
+ * all cells of the group.
+ *
+ * @see SharedFormula
+ * @since POI 5.3.1
+ */
+@Internal
+public final class SharedFormulaGroup {
+    private final Ptg[] _ptgs;
+    private final int _firstRow;
+    private final int _firstColumn;
+    private final SpreadsheetVersion _ssVersion;
+    private volatile CompiledFormula _compiledFormula;
+
+    /**
+     * @param ptgs the tokens of the formula of the first cell, which must not be modified afterwards
+     * @param firstRow the 0-based row of the first cell
+     * @param firstColumn the 0-based column of the first cell
+     * @param ssVersion the version, which defines where the relative references wrap around
+     * @throws IllegalArgumentException if the tokens can't be shared, see {@link #isShareable(Ptg[])}
+     */
+    public SharedFormulaGroup(Ptg[] ptgs, int firstRow, int firstColumn, SpreadsheetVersion ssVersion) {
+        if (!isShareable(ptgs)) {
+            throw new IllegalArgumentException("The formula contains references, which can't be shared");
+        }
+        _ptgs = ptgs;
+        _firstRow = firstRow;
+        _firstColumn = firstColumn;
+        _ssVersion = ssVersion;
+    }
+
+    /**
+     * Checks if the formula tokens can be shared between the cells of a group. This is the case if all
+     * references are cell or area references to the current sheet, as {@link SharedFormula} converts
+     * any other reference to one of those.
+     *
+     * @param ptgs the tokens of the formula of the first cell
+     * @return {@code true} if the tokens can be shared
+     */
+    public static boolean isShareable(Ptg[] ptgs) {
+        for (Ptg ptg : ptgs) {
+            if ((ptg instanceof RefPtgBase && ptg.getClass() != RefPtg.class)
+                    || (ptg instanceof AreaPtgBase && ptg.getClass() != AreaPtg.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the 0-based row of the first cell
+     */
+    public int getFirstRow() {
+        return _firstRow;
+    }
+
+    /**
+     * @return the 0-based column of the first cell
+     */
+    public int getFirstColumn() {
+        return _firstColumn;
+    }
+
+    /**
+     * Converts the formula for a cell of the group
+     *
+     * @param rowIndex the 0-based row of the cell
+     * @param columnIndex the 0-based column of the cell
+     * @return the formula tokens of the cell
+     */
+    public Ptg[] getFormulaTokens(int rowIndex, int columnIndex) {
+        return new SharedFormula(_ssVersion).convertSharedFormulas(_ptgs, rowIndex - _firstRow, columnIndex - _firstColumn);
+    }
+
+    /**
+     * @return the formula compiled for all cells of the group
+     */
+    CompiledFormula getCompiledFormula() {
+        CompiledFormula formula = _compiledFormula;
+        if (formula == null) {
+            // concurrent evaluations may compile the formula twice, but use equivalent results
+            formula = CompiledFormula.compileShared(_ptgs, _firstRow, _firstColumn, _ssVersion);
+            _compiledFormula = formula;
+        }
+        return formula;
+    }
+}
@@ -17,6 +17,9 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.function.Function;
+
+import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.ptg.FuncVarPtg;
 import org.apache.poi.ss.formula.ptg.Ptg;
@@ -48,6 +51,13 @@ final class SheetRefEvaluator {
         return _bookEvaluator.evaluateReference(getSheet(), _sheetIndex, rowIndex, columnIndex, _tracker);
     }
 
+    /**
+     * @see TwoDEval#getCachedIndex(Object, Function)
+     */
+    public <T> T getCachedIndex(AreaEval area, Object kind, Function<? super TwoDEval, T> builder) {
+        return _bookEvaluator.getCachedIndex(area, kind, builder, _tracker);
+    }
+
     private EvaluationSheet getSheet() {
         if (_sheet == null) {
             _sheet = _bookEvaluator.getSheet(_sheetIndex);
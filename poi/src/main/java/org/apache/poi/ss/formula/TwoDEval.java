@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.function.Function;
+
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.functions.Subtotal;
@@ -74,4 +76,20 @@ public interface TwoDEval extends ValueEval {
      */
     boolean isRowHidden(int rowIndex);
 
+    /**
+     * Returns data derived from the values of this area, like a lookup index, which is cached by
+     * the formula evaluator until any of the values changes. The evaluator only builds the data
+     * once the same area and kind have been requested repeatedly.
+     *
+     * @param kind identifies the kind of the derived data, e.g. the class of the data
+     * @param builder creates the data from the values of this area, or returns {@code null},
+     *  if the area can't be indexed
+     * @param <T> the type of the derived data
+     * @return the cached data, or {@code null} if it isn't available - then the caller needs to
+     *  work on the values directly
+     * @since POI 5.3.1
+     */
+    default <T> T getCachedIndex(Object kind, Function<? super TwoDEval, T> builder) {
+        return null;
+    }
 }
@@ -22,7 +22,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Stack;
 import java.util.TreeSet;
 
 import org.apache.logging.log4j.LogManager;
@@ -56,6 +55,9 @@ public final class WorkbookEvaluator {
 
     private static final Logger LOG = LogManager.getLogger(WorkbookEvaluator.class);
 
+    /** the number of requests for the derived data of an area, before it is built and cached */
+    private static final int MIN_INDEX_REQUESTS = 2;
+
     private final EvaluationWorkbook _workbook;
     private EvaluationCache _cache;
     /**
@@ -63,7 +65,7 @@ public final class WorkbookEvaluator {
      */
     private int _workbookIx;
 
-    private final IEvaluationListener _evaluationListener;
+    private IEvaluationListener _evaluationListener;
     private final Map<EvaluationSheet, Integer> _sheetIndexesBySheet;
     private final Map<String, Integer> _sheetIndexesByName;
     private CollaboratingWorkbooksEnvironment _collaboratingWorkbookEnvironment;
@@ -94,8 +96,9 @@ public final class WorkbookEvaluator {
         _workbook = workbook;
         _evaluationListener = evaluationListener;
         _cache = new EvaluationCache(evaluationListener);
-        _sheetIndexesBySheet = new IdentityHashMap<>();
-        _sheetIndexesByName = new IdentityHashMap<>();
+        // synchronized, as independent cells may be evaluated concurrently
+        _sheetIndexesBySheet = Collections.synchronizedMap(new IdentityHashMap<>());
+        _sheetIndexesByName = Collections.synchronizedMap(new IdentityHashMap<>());
         _collaboratingWorkbookEnvironment = CollaboratingWorkbooksEnvironment.EMPTY;
         _workbookIx = 0;
         _stabilityClassifier = stabilityClassifier;
@@ -123,6 +126,15 @@ public final class WorkbookEvaluator {
         return _workbook;
     }
 
+    /**
+     * @return the cache of the parsed formulas of the workbook, which provides the hit and miss counts,
+     *  or {@code null} if the workbook doesn't cache the parsed formulas
+     * @since POI 5.3.1
+     */
+    public FormulaParseCache getFormulaParseCache() {
+        return _workbook.getFormulaParseCache();
+    }
+
     /* package */ EvaluationName getName(String name, int sheetIndex) {
         return _workbook.getName(name, sheetIndex);
     }
@@ -158,6 +170,20 @@ public final class WorkbookEvaluator {
         return _evaluationListener;
     }
 
+    /**
+     * Replaces the evaluation listener, e.g. to attach an {@link EvaluationProfiler}.
+     * The evaluation cache is reset, so that all formulas are evaluated again.
+     *
+     * @throws IllegalStateException if this evaluator is part of a {@link CollaboratingWorkbooksEnvironment}
+     */
+    /* package */ void setEvaluationListener(IEvaluationListener evaluationListener) {
+        if (_collaboratingWorkbookEnvironment != CollaboratingWorkbooksEnvironment.EMPTY) {
+            throw new IllegalStateException("The evaluation listener can't be changed in a collaborating workbooks environment");
+        }
+        _evaluationListener = evaluationListener;
+        _cache = new EvaluationCache(evaluationListener);
+    }
+
     /**
      * Should be called whenever there are changes to input cells in the evaluated workbook.
      * Failure to call this method after changing cell values will cause incorrect behaviour
@@ -187,7 +213,7 @@ public final class WorkbookEvaluator {
         _cache.notifyDeleteCell(_workbookIx, sheetIndex, cell);
     }
 
-    private int getSheetIndex(EvaluationSheet sheet) {
+    /* package */ int getSheetIndex(EvaluationSheet sheet) {
         Integer result = _sheetIndexesBySheet.get(sheet);
         if (result == null) {
             int sheetIndex = _workbook.getSheetIndex(sheet);
@@ -257,15 +283,24 @@ public final class WorkbookEvaluator {
 
             try {
 
-                Ptg[] ptgs = _workbook.getFormulaTokens(srcCell);
-                OperationEvaluationContext ec = new OperationEvaluationContext
-                        (this, _workbook, sheetIndex, rowIndex, columnIndex, tracker);
-                if (evalListener == null) {
-                    result = evaluateFormula(ec, ptgs);
+                ValueEval precalculated = _workbook.getPrecalculatedResult(srcCell);
+                if (precalculated != null) {
+                    result = precalculated;
                 } else {
-                    evalListener.onStartEvaluate(srcCell, cce);
-                    result = evaluateFormula(ec, ptgs);
-                    evalListener.onEndEvaluate(cce, result);
+                    CompiledFormula formula = cce.getCompiledFormula();
+                    if (formula == null) {
+                        formula = compileFormula(srcCell);
+                        cce.setCompiledFormula(formula);
+                    }
+                    OperationEvaluationContext ec = new OperationEvaluationContext
+                            (this, _workbook, sheetIndex, rowIndex, columnIndex, tracker);
+                    if (evalListener == null) {
+                        result = evaluateFormula(ec, formula);
+                    } else {
+                        evalListener.onStartEvaluate(srcCell, cce);
+                        result = evaluateFormula(ec, formula);
+                        evalListener.onEndEvaluate(cce, result);
+                    }
                 }
 
                 tracker.updateCacheResult(result);
@@ -371,6 +406,22 @@ public final class WorkbookEvaluator {
     // visibility raised for testing
     @Internal
     /* package */ ValueEval evaluateFormula(OperationEvaluationContext ec, Ptg[] ptgs) {
+        return evaluateFormula(ec, CompiledFormula.interpret(ptgs));
+    }
+
+    /**
+     * Compiles the formula of a cell, the cells of a shared formula group use the same compiled formula
+     */
+    private CompiledFormula compileFormula(EvaluationCell srcCell) {
+        SharedFormulaGroup group = _workbook.getSharedFormulaGroup(srcCell);
+        if (group != null) {
+            return group.getCompiledFormula();
+        }
+        return CompiledFormula.compile(_workbook.getFormulaTokens(srcCell));
+    }
+
+    private ValueEval evaluateFormula(OperationEvaluationContext ec, CompiledFormula formula) {
+        Ptg[] ptgs = formula.getTokens();
 
         String dbgIndentStr = "";        // always init. to non-null just for defensive avoiding NPE
         if (dbgEvaluationOutputForNextEval) {
@@ -397,154 +448,104 @@ public final class WorkbookEvaluator {
         EvaluationSheet evalSheet = ec.getWorkbook().getSheet(ec.getSheetIndex());
         EvaluationCell evalCell = evalSheet.getCell(ec.getRowIndex(), ec.getColumnIndex());
 
-        Stack<ValueEval> stack = new Stack<>();
-        for (int i = 0, iSize = ptgs.length; i < iSize; i++) {
-            // since we don't know how to handle these yet :(
-            Ptg ptg = ptgs[i];
+        CompiledFormula.OperandStack stack = new CompiledFormula.OperandStack(formula);
+        for (int i = 0, iSize = formula.getSize(); i < iSize; i++) {
             if (dbgEvaluationOutputIndent > 0) {
-                EVAL_LOG.atInfo().log("{}  * ptg {}: {}, stack: {}", dbgIndentStr, box(i), ptg, stack);
+                EVAL_LOG.atInfo().log("{}  * ptg {}: {}, stack: {}", dbgIndentStr, box(i), ptgs[i], stack);
             }
-            if (ptg instanceof AttrPtg) {
-                AttrPtg attrPtg = (AttrPtg) ptg;
-                if (attrPtg.isSum()) {
-                    // Excel prefers to encode 'SUM()' as a tAttr token, but this evaluator
-                    // expects the equivalent function token
-                    ptg = FuncVarPtg.SUM;
+            ValueEval opResult;
+            switch (formula.getKind(i)) {
+                case CompiledFormula.CONSTANT:
+                    opResult = formula.getConstant(i);
+                    break;
+                case CompiledFormula.REF: {
+                    RefPtg rptg = (RefPtg) ptgs[i];
+                    if (formula.isShared()) {
+                        opResult = ec.getRefEval(
+                            formula.getRow(rptg.getRow(), rptg.isRowRelative(), ec.getRowIndex()),
+                            formula.getColumn(rptg.getColumn(), rptg.isColRelative(), ec.getColumnIndex()));
+                    } else {
+                        opResult = ec.getRefEval(rptg.getRow(), rptg.getColumn());
+                    }
+                    break;
                 }
-                if (attrPtg.isOptimizedChoose()) {
+                case CompiledFormula.AREA: {
+                    AreaPtg aptg = (AreaPtg) ptgs[i];
+                    if (formula.isShared()) {
+                        opResult = getSharedAreaEval(formula, aptg, ec);
+                    } else {
+                        opResult = ec.getAreaEval(aptg.getFirstRow(), aptg.getFirstColumn(), aptg.getLastRow(), aptg.getLastColumn());
+                    }
+                    break;
+                }
+                case CompiledFormula.OPERAND:
+                    opResult = getEvalForPtg(ptgs[i], ec);
+                    break;
+                case CompiledFormula.OPERATION: {
+                    IEvaluationListener evalListener = _evaluationListener;
+                    if (evalListener == null) {
+                        opResult = evaluateOperation(formula, i, stack, ec);
+                    } else {
+                        OperationPtg optg = formula.getOperation(i);
+                        evalListener.onStartFunction(optg);
+                        opResult = evaluateOperation(formula, i, stack, ec);
+                        evalListener.onEndFunction(optg, opResult);
+                    }
+                    break;
+                }
+                case CompiledFormula.UNION: {
+                    ValueEval v2 = stack.pop();
+                    ValueEval v1 = stack.pop();
+                    stack.push(new RefListEval(v1, v2));
+                    continue;
+                }
+                case CompiledFormula.CHOOSE: {
                     ValueEval arg0 = stack.pop();
+                    AttrPtg attrPtg = (AttrPtg) ptgs[i];
                     int[] jumpTable = attrPtg.getJumpTable();
-                    int dist;
+                    int[] targets = formula.getChooseTargets(i);
                     int nChoices = jumpTable.length;
+                    int choice;
                     try {
                         int switchIndex = Choose.evaluateFirstArg(arg0, ec.getRowIndex(), ec.getColumnIndex());
                         if (switchIndex < 1 || switchIndex > nChoices) {
                             stack.push(ErrorEval.VALUE_INVALID);
-                            dist = attrPtg.getChooseFuncOffset() + 4; // +4 for tFuncFar(CHOOSE)
+                            choice = nChoices;
                         } else {
-                            dist = jumpTable[switchIndex - 1];
+                            choice = switchIndex - 1;
                         }
                     } catch (EvaluationException e) {
                         stack.push(e.getErrorEval());
-                        dist = attrPtg.getChooseFuncOffset() + 4; // +4 for tFuncFar(CHOOSE)
+                        choice = nChoices;
                     }
+                    // +4 for tFuncFar(CHOOSE)
+                    int dist = choice == nChoices ? attrPtg.getChooseFuncOffset() + 4 : jumpTable[choice];
                     // Encoded dist for tAttrChoose includes size of jump table, but
                     // countTokensToBeSkipped() does not (it counts whole tokens).
                     dist -= nChoices * 2 + 2; // subtract jump table size
-                    i += countTokensToBeSkipped(ptgs, i, dist);
+                    i = getTarget(formula, i, targets[choice], dist);
                     continue;
                 }
-                if (attrPtg.isOptimizedIf()) {
+                case CompiledFormula.IF:
                     if (!evalCell.isPartOfArrayFormulaGroup()) {
-                        ValueEval arg0 = stack.pop();
-                        boolean evaluatedPredicate;
-
-                        try {
-                            evaluatedPredicate = IfFunc.evaluateFirstArg(arg0, ec.getRowIndex(), ec.getColumnIndex());
-                        } catch (EvaluationException e) {
-                            stack.push(e.getErrorEval());
-                            int dist = attrPtg.getData();
-                            i += countTokensToBeSkipped(ptgs, i, dist);
-                            attrPtg = (AttrPtg) ptgs[i];
-                            dist = attrPtg.getData() + 1;
-                            i += countTokensToBeSkipped(ptgs, i, dist);
-                            continue;
-                        }
-                        if (evaluatedPredicate) {
-                            // nothing to skip - true param follows
-                        } else {
-                            int dist = attrPtg.getData();
-                            i += countTokensToBeSkipped(ptgs, i, dist);
-                            Ptg nextPtg = ptgs[i + 1];
-                            if (ptgs[i] instanceof AttrPtg && nextPtg instanceof FuncVarPtg &&
-                                    // in order to verify that there is no third param, we need to check
-                                    // if we really have the IF next or some other FuncVarPtg as third param, e.g. ROW()/COLUMN()!
-                                    ((FuncVarPtg) nextPtg).getFunctionIndex() == FunctionMetadataRegistry.FUNCTION_INDEX_IF) {
-                                // this is an if statement without a false param (as opposed to MissingArgPtg as the false param)
-                                //i++;
-                                stack.push(arg0);
-                                stack.push(BoolEval.FALSE);
-                            }
-                        }
+                        i = evaluateOptimizedIf(formula, i, stack, ec);
                     }
                     continue;
-                }
-                if (attrPtg.isSkip() && !evalCell.isPartOfArrayFormulaGroup()) {
-                    int dist = attrPtg.getData() + 1;
-                    i += countTokensToBeSkipped(ptgs, i, dist);
-                    if (stack.peek() == MissingArgEval.instance) {
-                        stack.pop();
-                        stack.push(BlankEval.instance);
-                    }
-                    continue;
-                }
-            }
-            if (ptg instanceof ControlPtg) {
-                // skip Parentheses, Attr, etc
-                continue;
-            }
-            if (ptg instanceof MemFuncPtg || ptg instanceof MemAreaPtg) {
-                // can ignore, rest of tokens for this expression are in OK RPN order
-                continue;
-            }
-            if (ptg instanceof MemErrPtg) {
-                continue;
-            }
-
-            if (ptg instanceof UnionPtg) {
-                ValueEval v2 = stack.pop();
-                ValueEval v1 = stack.pop();
-                stack.push(new RefListEval(v1, v2));
-                continue;
-            }
-
-            ValueEval opResult;
-            if (ptg instanceof OperationPtg) {
-                OperationPtg optg = (OperationPtg) ptg;
-
-                int numops = optg.getNumberOfOperands();
-                ValueEval[] ops = new ValueEval[numops];
-
-                // storing the ops in reverse order since they are popping
-                boolean areaArg = false; // whether one of the operands is an area
-                for (int j = numops - 1; j >= 0; j--) {
-                    ValueEval p = stack.pop();
-                    ops[j] = p;
-                    if (p instanceof AreaEval) {
-                        areaArg = true;
-                    }
-                }
-
-                boolean arrayMode = false;
-                if (areaArg) for (int ii = i; ii < iSize; ii++) {
-                    if (ptgs[ii] instanceof FuncVarPtg) {
-                        FuncVarPtg f = (FuncVarPtg) ptgs[ii];
-                        try {
-                            Function func = FunctionEval.getBasicFunction(f.getFunctionIndex());
-                            if (func instanceof ArrayMode) {
-                                arrayMode = true;
-                            }
-                        } catch (NotImplementedException ne) {
-                            //FunctionEval.getBasicFunction can throw NotImplementedException
-                            // if the function is not yet supported.
+                case CompiledFormula.SKIP:
+                    if (!evalCell.isPartOfArrayFormulaGroup()) {
+                        i = getTarget(formula, i, formula.getTarget(i), ((AttrPtg) ptgs[i]).getData() + 1);
+                        if (stack.peek() == MissingArgEval.instance) {
+                            stack.pop();
+                            stack.push(BlankEval.instance);
                         }
-                        break;
                     }
-                }
-                ec.setArrayMode(arrayMode);
-
-//                logDebug("invoke " + operation + " (nAgs=" + numops + ")");
-                opResult = OperationEvaluatorFactory.evaluate(optg, ops, ec);
-
-                ec.setArrayMode(false);
-
-            } else {
-                opResult = getEvalForPtg(ptg, ec);
+                    continue;
+                default:
+                    continue;
             }
             if (opResult == null) {
                 throw new IllegalStateException("Evaluation result must not be null");
             }
-//            logDebug("push " + opResult);
             stack.push(opResult);
             if (dbgEvaluationOutputIndent > 0) {
                 EVAL_LOG.atInfo().log("{}    = {}", dbgIndentStr, opResult);
@@ -576,26 +577,102 @@ public final class WorkbookEvaluator {
 
     }
 
-    /**
-     * Calculates the number of tokens that the evaluator should skip upon reaching a tAttrSkip.
-     *
-     * @return the number of tokens (starting from {@code startIndex+1}) that need to be skipped
-     * to achieve the specified {@code distInBytes} skip distance.
-     */
-    private static int countTokensToBeSkipped(Ptg[] ptgs, int startIndex, int distInBytes) {
-        int remBytes = distInBytes;
-        int index = startIndex;
-        while (remBytes != 0) {
-            index++;
-            if (index >= ptgs.length) {
-                throw new IllegalStateException("Skip distance too far (ran out of formula tokens).");
+    private static ValueEval evaluateOperation(CompiledFormula formula, int i, CompiledFormula.OperandStack stack,
+            OperationEvaluationContext ec) {
+        OperationPtg optg = formula.getOperation(i);
+
+        int numops = optg.getNumberOfOperands();
+        ValueEval[] ops = new ValueEval[numops];
+
+        // storing the ops in reverse order since they are popping
+        boolean areaArg = false; // whether one of the operands is an area
+        for (int j = numops - 1; j >= 0; j--) {
+            ValueEval p = stack.pop();
+            ops[j] = p;
+            if (p instanceof AreaEval) {
+                areaArg = true;
             }
-            remBytes -= ptgs[index].getSize();
-            if (remBytes < 0) {
-                throw new IllegalStateException("Bad skip distance (wrong token size calculation).");
+        }
+
+        boolean arrayMode = false;
+        int funcIndex = formula.getNextVarFunction(i);
+        if (areaArg && funcIndex >= 0) {
+            FuncVarPtg f = (FuncVarPtg) formula.getTokens()[funcIndex];
+            try {
+                Function func = FunctionEval.getBasicFunction(f.getFunctionIndex());
+                if (func instanceof ArrayMode) {
+                    arrayMode = true;
+                }
+            } catch (NotImplementedException ne) {
+                //FunctionEval.getBasicFunction can throw NotImplementedException
+                // if the function is not yet supported.
+            }
+        }
+        ec.setArrayMode(arrayMode);
+
+        ValueEval opResult = OperationEvaluatorFactory.evaluate(optg, ops, ec);
+
+        ec.setArrayMode(false);
+        return opResult;
+    }
+
+    /**
+     * @return the index of the last token to be skipped
+     */
+    private static int evaluateOptimizedIf(CompiledFormula formula, int i, CompiledFormula.OperandStack stack,
+            OperationEvaluationContext ec) {
+        Ptg[] ptgs = formula.getTokens();
+        AttrPtg attrPtg = (AttrPtg) ptgs[i];
+        ValueEval arg0 = stack.pop();
+        boolean evaluatedPredicate;
+
+        try {
+            evaluatedPredicate = IfFunc.evaluateFirstArg(arg0, ec.getRowIndex(), ec.getColumnIndex());
+        } catch (EvaluationException e) {
+            stack.push(e.getErrorEval());
+            int errorTarget = formula.getErrorTarget(i);
+            if (errorTarget == CompiledFormula.INVALID_TARGET) {
+                // fails like the skip distances were resolved here
+                int target = i + CompiledFormula.countTokensToBeSkipped(ptgs, i, attrPtg.getData());
+                attrPtg = (AttrPtg) ptgs[target];
+                errorTarget = target + CompiledFormula.countTokensToBeSkipped(ptgs, target, attrPtg.getData() + 1);
             }
+            return errorTarget;
+        }
+        if (evaluatedPredicate) {
+            // nothing to skip - true param follows
+            return i;
+        }
+        int target = getTarget(formula, i, formula.getTarget(i), attrPtg.getData());
+        if (formula.isIfWithoutFalseParam(i)) {
+            // this is an if statement without a false param (as opposed to MissingArgPtg as the false param)
+            stack.push(arg0);
+            stack.push(BoolEval.FALSE);
+        }
+        return target;
+    }
+
+    /**
+     * Resolves an area reference of a shared formula for the evaluated cell
+     */
+    private static ValueEval getSharedAreaEval(CompiledFormula formula, AreaPtg aptg, OperationEvaluationContext ec) {
+        int firstRow = formula.getRow(aptg.getFirstRow(), aptg.isFirstRowRelative(), ec.getRowIndex());
+        int lastRow = formula.getRow(aptg.getLastRow(), aptg.isLastRowRelative(), ec.getRowIndex());
+        int firstColumn = formula.getColumn(aptg.getFirstColumn(), aptg.isFirstColRelative(), ec.getColumnIndex());
+        int lastColumn = formula.getColumn(aptg.getLastColumn(), aptg.isLastColRelative(), ec.getColumnIndex());
+        // mixed references like A1:A$10 may be inverted for some cells of the group, which SharedFormula sorts as well
+        return ec.getAreaEval(Math.min(firstRow, lastRow), Math.min(firstColumn, lastColumn),
+            Math.max(firstRow, lastRow), Math.max(firstColumn, lastColumn));
+    }
+
+    /**
+     * @return the precomputed target, or fails like the skip distance was resolved here
+     */
+    private static int getTarget(CompiledFormula formula, int i, int target, int distInBytes) {
+        if (target == CompiledFormula.INVALID_TARGET) {
+            return i + CompiledFormula.countTokensToBeSkipped(formula.getTokens(), i, distInBytes);
         }
-        return index - startIndex;
+        return target;
     }
 
     /**
@@ -780,6 +857,48 @@ public final class WorkbookEvaluator {
         return evaluateFormula(anyValueContext, ptgs);
     }
 
+    /**
+     * Used by the lazy area evals to get the cached data derived from their values.
+     * The cache entry of the data is recorded as input of the currently evaluated formula.
+     *
+     * @see TwoDEval#getCachedIndex(Object, java.util.function.Function)
+     */
+    /* package */ <T> T getCachedIndex(AreaEval area, Object kind, java.util.function.Function<? super TwoDEval, T> builder,
+            EvaluationTracker tracker) {
+        AreaIndexCacheEntry entry = _cache.getOrCreateAreaIndexEntry(new AreaIndexCacheEntry.Key(_workbookIx, kind, area));
+        @SuppressWarnings("unchecked")
+        T index = (T)entry.getIndex();
+        if (index == null) {
+            // a single request is served faster by the caller than by building the index
+            if (entry.addRequest() < MIN_INDEX_REQUESTS) {
+                return null;
+            }
+            FormulaCellCacheEntry cce = entry.getCacheEntry();
+            if (!tracker.startEvaluate(cce)) {
+                // the index is requested again while building it
+                return null;
+            }
+            try {
+                // the cells read by the builder are recorded as inputs of the index
+                index = builder.apply(area);
+                if (index != null) {
+                    entry.setIndex(index);
+                    tracker.updateCacheResult(BoolEval.TRUE);
+                }
+            } catch (RuntimeException e) {
+                // the caller works on the values directly and reports the error, if it reaches the failing cell
+                index = null;
+            } finally {
+                tracker.endEvaluate(cce);
+            }
+            if (index == null) {
+                return null;
+            }
+        }
+        tracker.acceptFormulaDependency(entry.getCacheEntry());
+        return index;
+    }
+
     /**
      * Used by the lazy ref evals whenever they need to get the value of a contained cell.
      */
@@ -820,7 +939,7 @@ public final class WorkbookEvaluator {
                 colIndex,
                 new EvaluationTracker(_cache)
         );
-        Ptg[] ptgs = FormulaParser.parse(formula, (FormulaParsingWorkbook) getWorkbook(), FormulaType.CELL, sheetIndex, rowIndex);
+        Ptg[] ptgs = parseFormula(formula, FormulaType.CELL, sheetIndex, rowIndex);
         return evaluateNameFormula(ptgs, ec);
     }
 
@@ -865,7 +984,7 @@ public final class WorkbookEvaluator {
         if (sheetName == null) throw new IllegalArgumentException("Sheet name is required");
 
         final int sheetIndex = getWorkbook().getSheetIndex(sheetName);
-        Ptg[] ptgs = FormulaParser.parse(formula, (FormulaParsingWorkbook) getWorkbook(), formulaType, sheetIndex, target.getRow());
+        Ptg[] ptgs = parseFormula(formula, formulaType, sheetIndex, target.getRow());
 
         adjustRegionRelativeReference(ptgs, target, region);
 
@@ -873,6 +992,18 @@ public final class WorkbookEvaluator {
         return evaluateNameFormula(ptgs, ec);
     }
 
+    /**
+     * Parses a formula, which isn't the formula of a cell, by the parse cache of the workbook if available
+     */
+    private Ptg[] parseFormula(String formula, FormulaType formulaType, int sheetIndex, int rowIndex) {
+        FormulaParsingWorkbook parsingWorkbook = (FormulaParsingWorkbook) getWorkbook();
+        FormulaParseCache parseCache = _workbook.getFormulaParseCache();
+        if (parseCache == null) {
+            return FormulaParser.parse(formula, parsingWorkbook, formulaType, sheetIndex, rowIndex);
+        }
+        return parseCache.parse(formula, parsingWorkbook, formulaType, sheetIndex, rowIndex);
+    }
+
     /**
      * Adjust formula relative references by the offset between the start of the given region and the given target cell.
      * That is, treat the region top-left cell as "A1" for the purposes of evaluating relative reference components (row and/or column),
@@ -0,0 +1,155 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.eval.forked;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.formula.EvaluationCell;
+import org.apache.poi.ss.formula.EvaluationSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaDependencies;
+import org.apache.poi.ss.formula.IStabilityClassifier;
+import org.apache.poi.ss.formula.WorkbookEvaluator;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.udf.UDFFinder;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * A frozen state of a workbook, which is shared by many {@link ForkedEvaluator}s on concurrent threads,
+ * e.g. to evaluate what-if scenarios with different input values.
+ * <p>
+ * The snapshot evaluates all formula cells of the workbook once. An evaluator created by {@link #fork()}
+ * only evaluates the formula cells, which depend directly or indirectly on its updated cells, and the
+ * formula cells with dynamic references like {@code INDIRECT()}. The results of all other formula cells
+ * are taken from the snapshot, so that the cache of the forked evaluator only holds the changed results.
+ * <pre>{@code
+ * EvaluationSnapshot snapshot = EvaluationSnapshot.create(workbook, null, null);
+ * // for each scenario, on any thread
+ * ForkedEvaluator evaluator = snapshot.fork();
+ * evaluator.updateCell("Inputs", 0, 0, new NumberEval(4.0));
+ * ValueEval result = evaluator.evaluate("Calculations", 0, 0);
+ * }</pre>
+ * The workbook must not be modified after the creation of the snapshot. Instances of this class are
+ * thread-safe, the forked evaluators are meant to be used by a single thread.
+ *
+ * @since POI 5.3.1
+ */
+public final class EvaluationSnapshot {
+    private static final Logger LOG = LogManager.getLogger(EvaluationSnapshot.class);
+
+    private final EvaluationWorkbook _masterBook;
+    private final IStabilityClassifier _stabilityClassifier;
+    private final FormulaDependencies _dependencies;
+    /** the results of the formula cells keyed by the identity key of the cell */
+    private final Map<Object, ValueEval> _results;
+
+    private EvaluationSnapshot(Workbook wb, IStabilityClassifier stabilityClassifier, UDFFinder udfFinder) {
+        _masterBook = wb.createEvaluationWorkbook();
+        _stabilityClassifier = stabilityClassifier;
+        WorkbookEvaluator evaluator = new WorkbookEvaluator(_masterBook, stabilityClassifier, udfFinder);
+
+        _results = new HashMap<>();
+        for (int sheetIndex = 0; sheetIndex < wb.getNumberOfSheets(); sheetIndex++) {
+            // the lazily created sheets and cell caches of the master workbook are built here,
+            // so that it's only read by the forked evaluators
+            EvaluationSheet sheet = _masterBook.getSheet(sheetIndex);
+            sheet.getCell(0, 0);
+            for (Row row : wb.getSheetAt(sheetIndex)) {
+                for (Cell cell : row) {
+                    if (cell.getCellType() == CellType.FORMULA) {
+                        addResult(evaluator, sheet.getCell(cell.getRowIndex(), cell.getColumnIndex()), cell);
+                    }
+                }
+            }
+        }
+
+        // the evaluator of the dependency index is only used to look up the formulas
+        _dependencies = new FormulaDependencies(wb, wb.getCreationHelper().createFormulaEvaluator());
+    }
+
+    /**
+     * Evaluates all formula cells of the workbook
+     *
+     * @param wb the workbook, which must not be modified afterwards
+     * @param stabilityClassifier the stability classifier used by the snapshot and the forked evaluators,
+     *  or {@code null}
+     * @param udfFinder pass {@code null} for default (AnalysisToolPak only)
+     * @return the snapshot of the workbook
+     */
+    public static EvaluationSnapshot create(Workbook wb, IStabilityClassifier stabilityClassifier, UDFFinder udfFinder) {
+        return new EvaluationSnapshot(wb, stabilityClassifier, udfFinder);
+    }
+
+    /**
+     * Creates a lightweight evaluator for a scenario, which initially returns the results of the snapshot
+     *
+     * @return a new evaluator, which can be used independently of the other evaluators of the snapshot
+     */
+    public ForkedEvaluator fork() {
+        return new ForkedEvaluator(this, _stabilityClassifier);
+    }
+
+    /* package */ EvaluationWorkbook getMasterWorkbook() {
+        return _masterBook;
+    }
+
+    /**
+     * @return the result of the formula cell of the master workbook or {@code null} if the evaluation failed
+     */
+    /* package */ ValueEval getResult(EvaluationCell cell) {
+        return _results.get(cell.getIdentityKey());
+    }
+
+    /**
+     * @param updatedCells the updated cells, including the sheet names
+     * @return the identity keys of the master cells, which are affected by the updated cells
+     */
+    /* package */ Set<Object> getAffectedCells(Collection<CellReference> updatedCells) {
+        Set<Object> result = new HashSet<>();
+        for (CellReference cr : _dependencies.getAffectedCells(updatedCells)) {
+            EvaluationSheet sheet = _masterBook.getSheet(_masterBook.getSheetIndex(cr.getSheetName()));
+            EvaluationCell cell = sheet.getCell(cr.getRow(), cr.getCol());
+            if (cell != null) {
+                result.add(cell.getIdentityKey());
+            }
+        }
+        return result;
+    }
+
+    private void addResult(WorkbookEvaluator evaluator, EvaluationCell evalCell, Cell cell) {
+        if (evalCell == null) {
+            return;
+        }
+        try {
+            _results.put(evalCell.getIdentityKey(), evaluator.evaluate(evalCell));
+        } catch (RuntimeException e) {
+            // the forked evaluators evaluate the cell again and report the problem
+            LOG.atDebug().withThrowable(e).log("Can't evaluate cell {}", new CellReference(cell).formatAsString());
+        }
+    }
+}
@@ -17,14 +17,19 @@
 
 package org.apache.poi.ss.formula.eval.forked;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.EvaluationCell;
 import org.apache.poi.ss.formula.EvaluationName;
 import org.apache.poi.ss.formula.EvaluationSheet;
 import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaParseCache;
+import org.apache.poi.ss.formula.SharedFormulaGroup;
+import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.ptg.NamePtg;
 import org.apache.poi.ss.formula.ptg.NameXPtg;
 import org.apache.poi.ss.formula.ptg.Ptg;
@@ -44,10 +49,30 @@ final class ForkedEvaluationWorkbook implements EvaluationWorkbook {
 
     private final EvaluationWorkbook _masterBook;
     private final Map<String, ForkedEvaluationSheet> _sharedSheetsByName;
+    /** the snapshot providing the results of the unaffected formula cells, or {@code null} */
+    private final EvaluationSnapshot _snapshot;
+    /** the identity keys of the master cells, which are affected by the updated cells */
+    private Set<Object> _affectedCells = Collections.emptySet();
 
     public ForkedEvaluationWorkbook(EvaluationWorkbook master) {
+        this(master, null);
+    }
+
+    public ForkedEvaluationWorkbook(EvaluationWorkbook master, EvaluationSnapshot snapshot) {
         _masterBook = master;
         _sharedSheetsByName = new HashMap<>();
+        _snapshot = snapshot;
+    }
+
+    /**
+     * @param affectedCells the identity keys of the master cells, whose results of the snapshot can't be used
+     */
+    public void setAffectedCells(Set<Object> affectedCells) {
+        _affectedCells = affectedCells;
+    }
+
+    public int getAffectedCellCount() {
+        return _affectedCells.size();
     }
 
     public ForkedEvaluationCell getOrCreateUpdatableCell(String sheetName, int rowIndex,
@@ -103,6 +128,25 @@ final class ForkedEvaluationWorkbook implements EvaluationWorkbook {
         return _masterBook.getFormulaTokens(cell);
     }
 
+    @Override
+    public SharedFormulaGroup getSharedFormulaGroup(EvaluationCell cell) {
+        return (cell instanceof ForkedEvaluationCell) ? null : _masterBook.getSharedFormulaGroup(cell);
+    }
+
+    @Override
+    public FormulaParseCache getFormulaParseCache() {
+        return _masterBook.getFormulaParseCache();
+    }
+
+    @Override
+    public ValueEval getPrecalculatedResult(EvaluationCell cell) {
+        if (_snapshot == null || cell instanceof ForkedEvaluationCell
+            || _affectedCells.contains(cell.getIdentityKey())) {
+            return null;
+        }
+        return _snapshot.getResult(cell);
+    }
+
     @Override
     public EvaluationName getName(NamePtg namePtg) {
         return _masterBook.getName(namePtg);
@@ -169,6 +213,9 @@ final class ForkedEvaluationWorkbook implements EvaluationWorkbook {
      */
     @Override
     public void clearAllCachedResultValues() {
-        _masterBook.clearAllCachedResultValues();
+        // the master workbook of a snapshot is shared between threads and must not be changed
+        if (_snapshot == null) {
+            _masterBook.clearAllCachedResultValues();
+        }
     }
 }
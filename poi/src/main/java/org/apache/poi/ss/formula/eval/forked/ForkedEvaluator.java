@@ -17,6 +17,9 @@
 
 package org.apache.poi.ss.formula.eval.forked;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
@@ -32,6 +35,7 @@ import org.apache.poi.ss.formula.eval.StringEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.udf.UDFFinder;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
 
 /**
  * An alternative workbook evaluator that saves memory in situations where a single workbook is
@@ -40,15 +44,37 @@ import org.apache.poi.ss.usermodel.Workbook;
  * This class enables a 'master workbook' to be loaded just once and shared between many evaluation
  * clients.  Each evaluation client creates its own {@link ForkedEvaluator} and can set cell values
  * that will be used for local evaluations (and don't disturb evaluations on other evaluators).
+ * <p>
+ * The evaluators created by {@link EvaluationSnapshot#fork()} share the results of the snapshot
+ * and only evaluate the formulas affected by their updated cells.
  */
 public final class ForkedEvaluator {
 
-    private final WorkbookEvaluator _evaluator;
+    private WorkbookEvaluator _evaluator;
     private final ForkedEvaluationWorkbook _sewb;
+    private final IStabilityClassifier _stabilityClassifier;
+    /** the snapshot of the master workbook or {@code null} */
+    private final EvaluationSnapshot _snapshot;
+    /** the cells updated since the fork of the snapshot */
+    private final List<CellReference> _updatedCells;
+    /** whether the affected cells need to be determined again, as cells have been updated */
+    private boolean _affectedCellsStale;
 
     private ForkedEvaluator(EvaluationWorkbook masterWorkbook, IStabilityClassifier stabilityClassifier, UDFFinder udfFinder) {
         _sewb = new ForkedEvaluationWorkbook(masterWorkbook);
         _evaluator = new WorkbookEvaluator(_sewb, stabilityClassifier, udfFinder);
+        _stabilityClassifier = stabilityClassifier;
+        _snapshot = null;
+        _updatedCells = null;
+    }
+
+    /* package */ ForkedEvaluator(EvaluationSnapshot snapshot, IStabilityClassifier stabilityClassifier) {
+        _sewb = new ForkedEvaluationWorkbook(snapshot.getMasterWorkbook(), snapshot);
+        // the UDFs have been added to the master workbook by the snapshot
+        _evaluator = new WorkbookEvaluator(_sewb, stabilityClassifier, null);
+        _stabilityClassifier = stabilityClassifier;
+        _snapshot = snapshot;
+        _updatedCells = new ArrayList<>();
     }
 
     /**
@@ -69,6 +95,10 @@ public final class ForkedEvaluator {
         ForkedEvaluationCell cell = _sewb.getOrCreateUpdatableCell(sheetName, rowIndex, columnIndex);
         cell.setValue(value);
         _evaluator.notifyUpdateCell(cell);
+        if (_snapshot != null) {
+            _updatedCells.add(new CellReference(sheetName, rowIndex, columnIndex, false, false));
+            _affectedCellsStale = true;
+        }
     }
     /**
      * Copies the values of all updated cells (modified by calls to {@link
@@ -93,6 +123,9 @@ public final class ForkedEvaluator {
      * @return {@code null} if the supplied cell is {@code null} or blank
      */
     public ValueEval evaluate(String sheetName, int rowIndex, int columnIndex) {
+        if (_affectedCellsStale) {
+            updateAffectedCells();
+        }
         EvaluationCell cell = _sewb.getEvaluationCell(sheetName, rowIndex, columnIndex);
 
         switch (cell.getCellType()) {
@@ -112,14 +145,32 @@ public final class ForkedEvaluator {
                 throw new IllegalStateException("Bad cell type (" + cell.getCellType() + ")");
         }
     }
+    /**
+     * Determines the formula cells, which can't use the results of the snapshot anymore
+     */
+    private void updateAffectedCells() {
+        Set<Object> affectedCells = _snapshot.getAffectedCells(_updatedCells);
+        // the affected cells only grow with further updates
+        if (affectedCells.size() != _sewb.getAffectedCellCount()) {
+            _sewb.setAffectedCells(affectedCells);
+            // the cache may contain results of the snapshot for cells, which are affected now
+            _evaluator = new WorkbookEvaluator(_sewb, _stabilityClassifier, null);
+        }
+        _affectedCellsStale = false;
+    }
+
     /**
      * Coordinates several formula evaluators together so that formulas that involve external
      * references can be evaluated.
      * @param workbookNames the simple file names used to identify the workbooks in formulas
      * with external links (for example "MyData.xls" as used in a formula "[MyData.xls]Sheet1!A1")
      * @param evaluators all evaluators for the full set of workbooks required by the formulas.
+     * @throws IllegalArgumentException if an evaluator has been forked from an {@link EvaluationSnapshot}
      */
     public static void setupEnvironment(String[] workbookNames, ForkedEvaluator[] evaluators) {
+        if (Stream.of(evaluators).anyMatch(e -> e._snapshot != null)) {
+            throw new IllegalArgumentException("Evaluators forked from a snapshot can't collaborate");
+        }
         WorkbookEvaluator[] wbEvals = Stream.of(evaluators).map(e -> e._evaluator).toArray(WorkbookEvaluator[]::new);
         CollaboratingWorkbooksEnvironment.setup(workbookNames, wbEvals);
     }
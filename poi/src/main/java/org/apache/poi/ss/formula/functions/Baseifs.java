@@ -19,6 +19,8 @@
 
 package org.apache.poi.ss.formula.functions;
 
+import java.util.BitSet;
+
 import org.apache.poi.ss.formula.OperationEvaluationContext;
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
@@ -136,35 +138,78 @@ import org.apache.poi.ss.formula.functions.Countif.ErrorMatcher;
         int height = ranges[0].getHeight();
         int width = ranges[0].getWidth();
 
+        BitSet candidates = findIndexedCandidates(ranges, predicates);
+        if (candidates != null) {
+            for (int cell = candidates.nextSetBit(0); cell >= 0; cell = candidates.nextSetBit(cell + 1)) {
+                int r = cell / width;
+                int c = cell % width;
+                if (matchesAll(ranges, predicates, r, c)) {
+                    aggregateCell(aggregator, sumRange, r, c);
+                }
+            }
+            return aggregator.getResult();
+        }
+
         for (int r = 0; r < height; r++) {
             for (int c = 0; c < width; c++) {
+                if (matchesAll(ranges, predicates, r, c)) {
+                    // aggregate only if all of the corresponding criteria specified are true for that cell.
+                    aggregateCell(aggregator, sumRange, r, c);
+                }
+            }
+        }
+        return aggregator.getResult();
+    }
 
-                boolean matches = true;
-                for(int i = 0; i < ranges.length; i++){
-                    AreaEval aeRange = ranges[i];
-                    I_MatchPredicate mp = predicates[i];
+    private static boolean matchesAll(AreaEval[] ranges, I_MatchPredicate[] predicates, int r, int c) {
+        for(int i = 0; i < ranges.length; i++){
+            AreaEval aeRange = ranges[i];
+            I_MatchPredicate mp = predicates[i];
 
-                    // Bugs 60858 and 56420 show predicate can be null
-                    if (mp == null || !mp.matches(aeRange.getRelativeValue(r, c))) {
-                        matches = false;
-                        break;
-                    }
-                }
+            // Bugs 60858 and 56420 show predicate can be null
+            if (mp == null || !mp.matches(aeRange.getRelativeValue(r, c))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-                if(matches) { // aggregate only if all of the corresponding criteria specified are true for that cell.
-                    if(sumRange != null) {
-                        ValueEval value = sumRange.getRelativeValue(r, c);
-                        if (value instanceof ErrorEval) {
-                            throw new EvaluationException((ErrorEval)value);
-                        }
-                        aggregator.addValue(value);
-                    } else {
-                        aggregator.addValue(null);
-                    }
-                }
+    private static void aggregateCell(Aggregator aggregator, AreaEval sumRange, int r, int c) throws EvaluationException {
+        if(sumRange != null) {
+            ValueEval value = sumRange.getRelativeValue(r, c);
+            if (value instanceof ErrorEval) {
+                throw new EvaluationException((ErrorEval)value);
             }
+            aggregator.addValue(value);
+        } else {
+            aggregator.addValue(null);
         }
-        return aggregator.getResult();
+    }
+
+    /**
+     * Intersects the cells matching the equality criteria, whose ranges are indexed.
+     * The candidates still need to be tested against the other criteria.
+     *
+     * @return the candidate cells, numbered row by row, or {@code null} if no criteria range is indexed
+     */
+    private static BitSet findIndexedCandidates(AreaEval[] ranges, I_MatchPredicate[] predicates) {
+        BitSet candidates = null;
+        for (int i = 0; i < ranges.length; i++) {
+            Object key = Countif.getEqualityKey(predicates[i]);
+            if (key == null) {
+                continue;
+            }
+            CriteriaIndex index = CriteriaIndex.get(ranges[i]);
+            if (index == null) {
+                continue;
+            }
+            if (candidates == null) {
+                candidates = (BitSet)index.getCells(key).clone();
+            } else {
+                candidates.and(index.getCells(key));
+            }
+        }
+        return candidates;
     }
 
     protected static AreaEval convertRangeArg(ValueEval eval) throws EvaluationException {
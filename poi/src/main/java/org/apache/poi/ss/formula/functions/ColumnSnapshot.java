@@ -0,0 +1,124 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.BitSet;
+
+import org.apache.poi.ss.formula.TwoDEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.NumericValueEval;
+import org.apache.poi.ss.formula.eval.StringValueEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+
+/**
+ * Snapshot of the values of an area column as primitive doubles, which replaces the cell by cell
+ * access of the aggregate functions when the same column is aggregated repeatedly.
+ * The snapshots are cached by the formula evaluator, see
+ * {@link TwoDEval#getCachedIndex(Object, java.util.function.Function)}.
+ * <p>
+ * Columns with errors or unexpected values aren't snapshot, so the aggregate functions still
+ * report the errors in their usual order.
+ */
+final class ColumnSnapshot {
+    private final double[] _values;
+    private final BitSet _numbers;
+    private final boolean _hasBooleans;
+    private final boolean _hasBlanks;
+    private final boolean _hasStrings;
+
+    private ColumnSnapshot(double[] values, BitSet numbers, boolean hasBooleans, boolean hasBlanks, boolean hasStrings) {
+        _values = values;
+        _numbers = numbers;
+        _hasBooleans = hasBooleans;
+        _hasBlanks = hasBlanks;
+        _hasStrings = hasStrings;
+    }
+
+    /**
+     * @return the snapshots of all columns of the area, or {@code null} if any of them isn't available
+     */
+    static ColumnSnapshot[] get(TwoDEval area) {
+        // the snapshots are cached per column, so the height is the number of their values
+        if (area.getHeight() < LookupIndexes.MIN_INDEXED_SIZE) {
+            return null;
+        }
+        ColumnSnapshot[] columns = new ColumnSnapshot[area.getWidth()];
+        boolean complete = true;
+        for (int c = 0; c < columns.length; c++) {
+            // request all columns, so that they become available together
+            TwoDEval column = area.isColumn() ? area : area.getColumn(c);
+            columns[c] = column.getCachedIndex(ColumnSnapshot.class, ColumnSnapshot::create);
+            complete &= columns[c] != null;
+        }
+        return complete ? columns : null;
+    }
+
+    private static ColumnSnapshot create(TwoDEval column) {
+        int height = column.getHeight();
+        double[] values = new double[height];
+        BitSet numbers = new BitSet(height);
+        boolean hasBooleans = false;
+        boolean hasBlanks = false;
+        boolean hasStrings = false;
+        for (int r = 0; r < height; r++) {
+            ValueEval ve = column.getValue(r, 0);
+            if (ve instanceof BoolEval) {
+                hasBooleans = true;
+                values[r] = ((BoolEval) ve).getNumberValue();
+            } else if (ve instanceof NumericValueEval) {
+                numbers.set(r);
+                values[r] = ((NumericValueEval) ve).getNumberValue();
+            } else if (ve instanceof StringValueEval) {
+                hasStrings = true;
+            } else if (ve == BlankEval.instance) {
+                hasBlanks = true;
+            } else {
+                // errors and anything unexpected are left to the cell by cell access
+                return null;
+            }
+        }
+        return new ColumnSnapshot(values, numbers, hasBooleans, hasBlanks, hasStrings);
+    }
+
+    /**
+     * @return the number of the cell, or the number value of booleans, and 0 for all other cells
+     */
+    double getValue(int rowIndex) {
+        return _values[rowIndex];
+    }
+
+    /**
+     * @return {@code true} if the cell holds a number
+     */
+    boolean isNumber(int rowIndex) {
+        return _numbers.get(rowIndex);
+    }
+
+    boolean hasBooleans() {
+        return _hasBooleans;
+    }
+
+    boolean hasBlanks() {
+        return _hasBlanks;
+    }
+
+    boolean hasStrings() {
+        return _hasStrings;
+    }
+}
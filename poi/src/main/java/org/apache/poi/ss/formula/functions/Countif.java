@@ -481,6 +481,34 @@ public final class Countif extends Fixed2ArgFunction {
                 + evaluatedCriteriaArg.getClass().getName() + ")");
     }
 
+    /**
+     * Returns the key of an equality criteria, which matches exactly the cells whose
+     * {@link CriteriaIndex} keys are equal to it
+     *
+     * @return the key, or {@code null} if the criteria isn't a plain equality criteria
+     */
+    /* package */ static Object getEqualityKey(I_MatchPredicate mp) {
+        if (!(mp instanceof MatcherBase)) {
+            return null;
+        }
+        int code = ((MatcherBase)mp).getCode();
+        if (code != CmpOp.NONE && code != CmpOp.EQ) {
+            return null;
+        }
+        if (mp instanceof NumberMatcher) {
+            return ((NumberMatcher)mp)._value;
+        }
+        if (mp instanceof BooleanMatcher) {
+            return ((BooleanMatcher)mp)._value == 1;
+        }
+        if (mp instanceof StringMatcher) {
+            StringMatcher sm = (StringMatcher)mp;
+            // empty strings match blanks, wildcards can't be looked up
+            return sm._pattern != null || sm._value.isEmpty() ? null : CriteriaIndex.toStringKey(sm._value);
+        }
+        return null;
+    }
+
     /**
      *
      * @return the de-referenced criteria arg (possibly {@link ErrorEval})
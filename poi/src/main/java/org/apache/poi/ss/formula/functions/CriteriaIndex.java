@@ -0,0 +1,116 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.formula.TwoDEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.OperandResolver;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+
+/**
+ * Index of a criteria range, which maps the values of the range to the cells holding them,
+ * so that equality criteria of the *IFS functions don't need to test every cell of the range.
+ * The indexes are cached by the formula evaluator, see
+ * {@link TwoDEval#getCachedIndex(Object, java.util.function.Function)}.
+ * <p>
+ * The keys mirror the equality criteria of {@link Countif}: numbers match numbers and strings
+ * parsing as an equal number, strings match case insensitively and booleans only match booleans.
+ * The cells are numbered row by row.
+ */
+final class CriteriaIndex {
+    private static final BitSet NO_CELLS = new BitSet();
+
+    private final Map<Object, BitSet> _cells;
+
+    private CriteriaIndex(Map<Object, BitSet> cells) {
+        _cells = cells;
+    }
+
+    /**
+     * @return the index of the range, or {@code null} if it isn't available
+     */
+    static CriteriaIndex get(TwoDEval range) {
+        if (range.getHeight() * range.getWidth() < LookupIndexes.MIN_INDEXED_SIZE) {
+            return null;
+        }
+        return range.getCachedIndex(CriteriaIndex.class, CriteriaIndex::create);
+    }
+
+    /**
+     * @return the key of a string value
+     */
+    static String toStringKey(String value) {
+        return LookupIndexes.foldCase(value);
+    }
+
+    private static CriteriaIndex create(TwoDEval range) {
+        int height = range.getHeight();
+        int width = range.getWidth();
+        Map<Object, BitSet> cells = new HashMap<>();
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                ValueEval value = range.getValue(r, c);
+                int cell = r * width + c;
+                if (value instanceof NumberEval) {
+                    add(cells, ((NumberEval) value).getNumberValue(), cell);
+                } else if (value instanceof StringEval) {
+                    String text = ((StringEval) value).getStringValue();
+                    Double number = OperandResolver.parseDouble(text);
+                    if (number != null) {
+                        add(cells, number, cell);
+                        if (number == 0.0) {
+                            // numeric strings are compared with ==, so they match both zeros
+                            add(cells, -number, cell);
+                        }
+                    }
+                    // strings with surrogates only match criteria with surrogates, which aren't indexed
+                    String key = toStringKey(text);
+                    if (key != null) {
+                        add(cells, key, cell);
+                    }
+                } else if (value instanceof BoolEval) {
+                    add(cells, ((BoolEval) value).getBooleanValue(), cell);
+                } else if (value == ErrorEval.CIRCULAR_REF_ERROR) {
+                    // a circular reference within the range might not be hit by a scan
+                    return null;
+                }
+            }
+        }
+        return new CriteriaIndex(cells);
+    }
+
+    private static void add(Map<Object, BitSet> cells, Object key, int cell) {
+        cells.computeIfAbsent(key, k -> new BitSet()).set(cell);
+    }
+
+    /**
+     * @param key the key of an equality criteria, see {@link Countif#getEqualityKey}
+     * @return the cells matching the key, which must not be modified
+     */
+    BitSet getCells(Object key) {
+        BitSet cells = _cells.get(key);
+        return cells == null ? NO_CELLS : cells;
+    }
+}
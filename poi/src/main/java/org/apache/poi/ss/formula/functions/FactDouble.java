@@ -21,7 +21,8 @@ import org.apache.poi.ss.formula.OperationEvaluationContext;
 import org.apache.poi.ss.formula.eval.*;
 
 import java.math.BigInteger;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation for Excel FACTDOUBLE() function.
@@ -44,7 +45,7 @@ public class FactDouble extends Fixed1ArgFunction implements FreeRefFunction {
     public static final FreeRefFunction instance = new FactDouble();
 
     //Caching of previously calculated factorial for speed
-    static HashMap<Integer, BigInteger> cache = new HashMap<>();
+    static Map<Integer, BigInteger> cache = new ConcurrentHashMap<>();
 
     @Override
     public ValueEval evaluate(int srcRowIndex, int srcColumnIndex, ValueEval numberVE) {
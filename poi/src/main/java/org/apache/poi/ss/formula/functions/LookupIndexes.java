@@ -0,0 +1,307 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.LookupUtils.ValueVector;
+import org.apache.poi.util.IntList;
+
+/**
+ * Indexes of lookup vectors, which replace the linear scans of the lookup functions when the same
+ * vector is searched repeatedly. The indexes are cached by the formula evaluator, see
+ * {@link ValueVector#getCachedIndex(Object, java.util.function.Function)}.
+ * <p>
+ * The keys mirror the {@link LookupUtils.LookupValueComparer}s: only values of the same type match,
+ * numbers are compared like {@link Double#compare(double, double)}, strings like
+ * {@link String#compareToIgnoreCase(String)} and booleans with FALSE &lt; TRUE. Blanks and errors
+ * never match.
+ */
+final class LookupIndexes {
+    /**
+     * The minimum number of values of the areas, which are indexed by the functions of this package.
+     * Smaller areas are scanned, as the evaluator only caches a limited number of area indexes and
+     * the indexes of small areas would evict the ones of the large areas.
+     */
+    static final int MIN_INDEXED_SIZE = 32;
+
+    /** key of items, which prevent indexing the vector */
+    private static final Object UNINDEXABLE = new Object();
+
+    private LookupIndexes() {}
+
+    /**
+     * @return the exact match index of the vector, or {@code null} if it isn't available
+     */
+    static ExactMatch getExactMatchIndex(ValueVector vector) {
+        return vector.getSize() < MIN_INDEXED_SIZE ? null : vector.getCachedIndex(ExactMatch.class, ExactMatch::create);
+    }
+
+    /**
+     * @return the sorted index of the vector, or {@code null} if it isn't available
+     */
+    static Sorted getSortedIndex(ValueVector vector) {
+        return vector.getSize() < MIN_INDEXED_SIZE ? null : vector.getCachedIndex(Sorted.class, Sorted::create);
+    }
+
+    /**
+     * Folds the case of the string, so that the folded strings compare like
+     * {@link String#compareToIgnoreCase(String)} compares the original strings
+     *
+     * @return the folded string, or {@code null} for strings with surrogate characters,
+     *  which may be compared by code points instead
+     */
+    static String foldCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            if (Character.isSurrogate(c)) {
+                return null;
+            }
+            chars[i] = Character.toLowerCase(Character.toUpperCase(c));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return the key of the item, {@code null} if the item never matches or {@link #UNINDEXABLE}
+     */
+    private static Object toItemKey(ValueEval item) {
+        if (item instanceof NumberEval) {
+            return ((NumberEval) item).getNumberValue();
+        }
+        if (item instanceof StringEval) {
+            String key = foldCase(((StringEval) item).getStringValue());
+            return key == null ? UNINDEXABLE : key;
+        }
+        if (item instanceof BoolEval) {
+            return ((BoolEval) item).getBooleanValue();
+        }
+        // a circular reference within the vector might not be hit by a scan
+        return item == ErrorEval.CIRCULAR_REF_ERROR ? UNINDEXABLE : null;
+    }
+
+    /**
+     * Maps the values of a vector to the index of their first occurrence
+     */
+    static final class ExactMatch {
+        private final Map<Object, Integer> _firstIndexes;
+
+        private ExactMatch(Map<Object, Integer> firstIndexes) {
+            _firstIndexes = firstIndexes;
+        }
+
+        private static ExactMatch create(ValueVector vector) {
+            int size = vector.getSize();
+            Map<Object, Integer> firstIndexes = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                Object key = toItemKey(vector.getItem(i));
+                if (key == UNINDEXABLE) {
+                    return null;
+                }
+                if (key != null) {
+                    firstIndexes.putIfAbsent(key, i);
+                }
+            }
+            return new ExactMatch(firstIndexes);
+        }
+
+        /**
+         * @return the zero based index of the first item equal to the key, or -1 if there is none
+         */
+        int indexOf(Object key) {
+            Integer index = _firstIndexes.get(key);
+            return index == null ? -1 : index;
+        }
+    }
+
+    /**
+     * Keeps the values of a vector sorted per type, for the lookups of the nearest values
+     */
+    static final class Sorted {
+        private final Map<Class<?>, SortedValues> _valuesByType;
+
+        private Sorted(Map<Class<?>, SortedValues> valuesByType) {
+            _valuesByType = valuesByType;
+        }
+
+        private static Sorted create(ValueVector vector) {
+            Map<Class<?>, List<Object>> keysByType = new HashMap<>();
+            Map<Class<?>, IntList> indexesByType = new HashMap<>();
+            int size = vector.getSize();
+            for (int i = 0; i < size; i++) {
+                Object key = toItemKey(vector.getItem(i));
+                if (key == UNINDEXABLE) {
+                    return null;
+                }
+                if (key != null) {
+                    keysByType.computeIfAbsent(key.getClass(), k -> new ArrayList<>()).add(key);
+                    indexesByType.computeIfAbsent(key.getClass(), k -> new IntList()).add(i);
+                }
+            }
+            Map<Class<?>, SortedValues> valuesByType = new HashMap<>();
+            keysByType.forEach((type, keys) -> valuesByType.put(type, new SortedValues(keys, indexesByType.get(type))));
+            return new Sorted(valuesByType);
+        }
+
+        /**
+         * @return the zero based index of the first item equal to the key, or -1 if there is none
+         */
+        int firstIndexOf(Object key) {
+            SortedValues values = _valuesByType.get(key.getClass());
+            if (values == null) {
+                return -1;
+            }
+            int pos = values.lowerBound(key);
+            return (pos < values.size() && compare(values._keys[pos], key) == 0) ? values._indexes[pos] : -1;
+        }
+
+        /**
+         * @return the greatest index of the items less than or equal to the key, or -1 if there is none
+         */
+        int lastIndexOfLessOrEqual(Object key) {
+            SortedValues values = _valuesByType.get(key.getClass());
+            if (values == null) {
+                return -1;
+            }
+            int pos = values.upperBound(key);
+            return pos == 0 ? -1 : values._maxIndexes[pos - 1];
+        }
+
+        /**
+         * @return the smallest index of the items less than the key, or -1 if there is none
+         */
+        int firstIndexOfLess(Object key) {
+            SortedValues values = _valuesByType.get(key.getClass());
+            if (values == null) {
+                return -1;
+            }
+            int pos = values.lowerBound(key);
+            return pos == 0 ? -1 : values._minIndexes[pos - 1];
+        }
+
+        /**
+         * @return the first index of the greatest item less than the key, or -1 if there is none
+         */
+        int firstIndexOfNextSmaller(Object key) {
+            SortedValues values = _valuesByType.get(key.getClass());
+            if (values == null) {
+                return -1;
+            }
+            int pos = values.lowerBound(key);
+            return pos == 0 ? -1 : values._indexes[values.lowerBound(values._keys[pos - 1])];
+        }
+
+        /**
+         * @return the first index of the smallest item greater than the key, or -1 if there is none
+         */
+        int firstIndexOfNextLarger(Object key) {
+            SortedValues values = _valuesByType.get(key.getClass());
+            if (values == null) {
+                return -1;
+            }
+            int pos = values.upperBound(key);
+            return pos == values.size() ? -1 : values._indexes[pos];
+        }
+    }
+
+    private static final class SortedValues {
+        /** the keys in ascending order, equal keys are ordered by their index */
+        private final Object[] _keys;
+        private final int[] _indexes;
+        /** the smallest index of the keys up to the position */
+        private final int[] _minIndexes;
+        /** the greatest index of the keys up to the position */
+        private final int[] _maxIndexes;
+
+        private SortedValues(List<Object> keys, IntList indexes) {
+            int size = keys.size();
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            // the sort is stable, so equal keys keep the order of their indexes
+            Arrays.sort(order, (a, b) -> compare(keys.get(a), keys.get(b)));
+            _keys = new Object[size];
+            _indexes = new int[size];
+            _minIndexes = new int[size];
+            _maxIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                _keys[i] = keys.get(order[i]);
+                _indexes[i] = indexes.get(order[i]);
+                _minIndexes[i] = (i == 0) ? _indexes[i] : Math.min(_minIndexes[i - 1], _indexes[i]);
+                _maxIndexes[i] = (i == 0) ? _indexes[i] : Math.max(_maxIndexes[i - 1], _indexes[i]);
+            }
+        }
+
+        private int size() {
+            return _keys.length;
+        }
+
+        /**
+         * @return the position of the first key greater than or equal to the given key
+         */
+        private int lowerBound(Object key) {
+            int low = 0;
+            int high = _keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(_keys[mid], key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the position of the first key greater than the given key
+         */
+        private int upperBound(Object key) {
+            int low = 0;
+            int high = _keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(_keys[mid], key) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Compares keys of the same type, i.e. Double, String or Boolean
+     */
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+}
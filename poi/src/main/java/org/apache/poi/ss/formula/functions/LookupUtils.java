@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -149,6 +150,15 @@ public final class LookupUtils {
                 }
             };
         }
+
+        /**
+         * @return the cached index of this vector, or {@code null} if it isn't available
+         * @see TwoDEval#getCachedIndex(Object, Function)
+         * @since POI 5.3.1
+         */
+        default <T> T getCachedIndex(Object kind, Function<? super ValueVector, T> builder) {
+            return null;
+        }
     }
 
     private static final class RowVector implements ValueVector {
@@ -181,6 +191,11 @@ public final class LookupUtils {
         public int getSize() {
             return _size;
         }
+
+        @Override
+        public <T> T getCachedIndex(Object kind, Function<? super ValueVector, T> builder) {
+            return _tableArray.getRow(_rowIndex).getCachedIndex(kind, area -> builder.apply(this));
+        }
     }
 
     private static final class ColumnVector implements ValueVector {
@@ -212,6 +227,11 @@ public final class LookupUtils {
         public int getSize() {
             return _size;
         }
+
+        @Override
+        public <T> T getCachedIndex(Object kind, Function<? super ValueVector, T> builder) {
+            return _tableArray.getColumn(_columnIndex).getCachedIndex(kind, area -> builder.apply(this));
+        }
     }
 
     private static final class SheetVector implements ValueVector {
@@ -407,10 +427,14 @@ public final class LookupUtils {
             return se.getStringValue();
         }
 
+        boolean isWildcardMatch() {
+            return _wildCardPattern != null && (_isMatchFunction || !_matchExact);
+        }
+
         @Override
         protected CompareResult compareSameType(ValueEval other) {
             String stringValue = convertToString(other);
-            if (_wildCardPattern != null && (_isMatchFunction || !_matchExact)) {
+            if (isWildcardMatch()) {
                 Matcher matcher = _wildCardPattern.matcher(stringValue);
                 boolean matches = matcher.matches();
 
@@ -625,7 +649,7 @@ public final class LookupUtils {
         if(isRangeLookup) {
             result = performBinarySearch(vector, lookupComparer);
         } else {
-            result = lookupFirstIndexOfValue(lookupComparer, vector, MatchMode.ExactMatch);
+            result = indexOfExactMatch(lookupComparer, vector);
         }
         if(result < 0) {
             throw new EvaluationException(ErrorEval.NA);
@@ -666,7 +690,7 @@ public final class LookupUtils {
         } else if (searchMode == SearchMode.IterateBackward) {
             result = lookupLastIndexOfValue(lookupComparer, vector, matchMode);
         } else {
-            result = lookupFirstIndexOfValue(lookupComparer, vector, matchMode);
+            result = lookupFirstIndexOfValueIndexed(lookupComparer, vector, matchMode);
         }
         if(result < 0) {
             throw new EvaluationException(ErrorEval.NA);
@@ -674,6 +698,67 @@ public final class LookupUtils {
         return result;
     }
 
+    /**
+     * Finds first (lowest index) occurrence of the exact value, using the cached index of the
+     * vector if available.
+     * @return zero based index into the vector, -1 if value cannot be found
+     */
+    static int indexOfExactMatch(LookupValueComparer lookupComparer, ValueVector vector) {
+        Object key = getIndexKey(lookupComparer);
+        LookupIndexes.ExactMatch index = (key == null) ? null : LookupIndexes.getExactMatchIndex(vector);
+        if (index == null) {
+            return lookupFirstIndexOfValue(lookupComparer, vector, MatchMode.ExactMatch);
+        }
+        return index.indexOf(key);
+    }
+
+    /**
+     * Same as {@link #lookupFirstIndexOfValue(LookupValueComparer, ValueVector, MatchMode)}, but using
+     * the cached indexes of the vector if available.
+     */
+    private static int lookupFirstIndexOfValueIndexed(LookupValueComparer lookupComparer, ValueVector vector,
+                                                      MatchMode matchMode) {
+        switch (matchMode) {
+            case ExactMatch:
+            case WildcardMatch:
+                return indexOfExactMatch(lookupComparer, vector);
+            case ExactMatchFallbackToSmallerValue:
+            case ExactMatchFallbackToLargerValue:
+                // the candidates for the best match are compared like the lookup value only for numbers
+                LookupIndexes.Sorted index = (lookupComparer instanceof NumberLookupComparer)
+                        ? LookupIndexes.getSortedIndex(vector) : null;
+                if (index == null) {
+                    break;
+                }
+                Object key = getIndexKey(lookupComparer);
+                int result = index.firstIndexOf(key);
+                if (result >= 0) {
+                    return result;
+                }
+                return matchMode == MatchMode.ExactMatchFallbackToSmallerValue
+                        ? index.firstIndexOfNextSmaller(key) : index.firstIndexOfNextLarger(key);
+        }
+        return lookupFirstIndexOfValue(lookupComparer, vector, matchMode);
+    }
+
+    /**
+     * @return the key of the lookup value in the {@link LookupIndexes}, or {@code null}
+     *  if the value is matched by wildcards
+     */
+    static Object getIndexKey(LookupValueComparer lookupComparer) {
+        if (lookupComparer instanceof NumberLookupComparer) {
+            return ((NumberLookupComparer) lookupComparer)._value;
+        }
+        if (lookupComparer instanceof BooleanLookupComparer) {
+            return ((BooleanLookupComparer) lookupComparer)._value;
+        }
+        if (lookupComparer instanceof StringLookupComparer) {
+            StringLookupComparer stringComparer = (StringLookupComparer) lookupComparer;
+            return stringComparer.isWildcardMatch() ? null : LookupIndexes.foldCase(stringComparer._value);
+        }
+        return null;
+    }
+
     /**
      * Finds first (lowest index) matching occurrence of specified value.
      * @param lookupComparer the value to be found in column or row vector
@@ -204,12 +204,17 @@ public final class Match extends Var2or3ArgFunction {
 
         int size = lookupRange.getSize();
         if(matchExact) {
-            for (int i = 0; i < size; i++) {
-                if(lookupComparer.compareTo(lookupRange.getItem(i)).isEqual()) {
-                    return i;
-                }
+            int index = LookupUtils.indexOfExactMatch(lookupComparer, lookupRange);
+            if (index < 0) {
+                throw new EvaluationException(ErrorEval.NA);
             }
-            throw new EvaluationException(ErrorEval.NA);
+            return index;
+        }
+
+        Object key = LookupUtils.getIndexKey(lookupComparer);
+        LookupIndexes.Sorted sortedIndex = (key == null) ? null : LookupIndexes.getSortedIndex(lookupRange);
+        if (sortedIndex != null) {
+            return findIndexOfValue(sortedIndex, key, size, findLargestLessThanOrEqual);
         }
 
         if(findLargestLessThanOrEqual) {
@@ -243,6 +248,34 @@ public final class Match extends Var2or3ArgFunction {
         return size-1;
     }
 
+    /**
+     * Same as the iterations of {@link #findIndexOfValue(ValueEval, ValueVector, boolean, boolean)},
+     * but using the sorted index of the lookup range
+     */
+    private static int findIndexOfValue(LookupIndexes.Sorted sortedIndex, Object key, int size,
+            boolean findLargestLessThanOrEqual) throws EvaluationException {
+        if (findLargestLessThanOrEqual) {
+            int index = sortedIndex.lastIndexOfLessOrEqual(key);
+            if (index < 0) {
+                throw new EvaluationException(ErrorEval.NA);
+            }
+            return index;
+        }
+        // the forward iteration stops at the first equal or smaller value
+        int equalIndex = sortedIndex.firstIndexOf(key);
+        int lessIndex = sortedIndex.firstIndexOfLess(key);
+        if (equalIndex >= 0 && (lessIndex < 0 || equalIndex < lessIndex)) {
+            return equalIndex;
+        }
+        if (lessIndex >= 0) {
+            if (lessIndex < 1) {
+                throw new EvaluationException(ErrorEval.NA);
+            }
+            return lessIndex - 1;
+        }
+        return size - 1;
+    }
+
     private static LookupValueComparer createLookupComparer(ValueEval lookupValue, boolean matchExact) {
         return LookupUtils.createLookupComparer(lookupValue, matchExact, true);
     }
@@ -48,11 +48,15 @@ public abstract class MultiOperandNumericFunction implements Function {
     private EvalConsumer<BoolEval, DoubleList> boolByValueConsumer;
     private EvalConsumer<BlankEval, DoubleList> blankConsumer;
     private EvalConsumer<MissingArgEval, DoubleList> missingArgConsumer = ConsumerFactory.createForMissingArg(Policy.SKIP);
+    private final boolean isReferenceBoolCounted;
+    private Policy blankPolicy;
 
     protected MultiOperandNumericFunction(boolean isReferenceBoolCounted, boolean isBlankCounted) {
+        this.isReferenceBoolCounted = isReferenceBoolCounted;
         boolByRefConsumer = ConsumerFactory.createForBoolEval(isReferenceBoolCounted ? Policy.COERCE : Policy.SKIP);
         boolByValueConsumer = ConsumerFactory.createForBoolEval(Policy.COERCE);
-        blankConsumer = ConsumerFactory.createForBlank(isBlankCounted ? Policy.COERCE : Policy.SKIP);
+        blankPolicy = isBlankCounted ? Policy.COERCE : Policy.SKIP;
+        blankConsumer = ConsumerFactory.createForBlank(blankPolicy);
     }
 
     private static final int DEFAULT_MAX_NUM_OPERANDS = SpreadsheetVersion.EXCEL2007.getMaxFunctionArgs();
@@ -62,6 +66,7 @@ public abstract class MultiOperandNumericFunction implements Function {
     }
 
     public void setBlankEvalPolicy(Policy policy) {
+        blankPolicy = policy;
         blankConsumer = ConsumerFactory.createForBlank(policy);
     }
 
@@ -141,6 +146,10 @@ public abstract class MultiOperandNumericFunction implements Function {
     private void collectValues(ValueEval operand, DoubleList temp) throws EvaluationException {
         if (operand instanceof ThreeDEval) {
             ThreeDEval ae = (ThreeDEval) operand;
+            if (ae.getFirstSheetIndex() == ae.getLastSheetIndex() && operand instanceof TwoDEval
+                    && collectSnapshotValues((TwoDEval) operand, temp)) {
+                return;
+            }
             for (int sIx = ae.getFirstSheetIndex(); sIx <= ae.getLastSheetIndex(); sIx++) {
                 int width = ae.getWidth();
                 int height = ae.getHeight();
@@ -178,6 +187,38 @@ public abstract class MultiOperandNumericFunction implements Function {
         collectValue(operand, false, temp);
     }
 
+    /**
+     * Collects the values of an area from the cached column snapshots, which only works if all
+     * the cells are handled alike and none of them is an error
+     *
+     * @return {@code false} if the values need to be collected cell by cell
+     */
+    private boolean collectSnapshotValues(TwoDEval ae, DoubleList temp) {
+        if (!isSubtotalCounted() || !isHiddenRowCounted()) {
+            return false;
+        }
+        ColumnSnapshot[] columns = ColumnSnapshot.get(ae);
+        if (columns == null) {
+            return false;
+        }
+        for (ColumnSnapshot column : columns) {
+            if ((column.hasBooleans() && isReferenceBoolCounted)
+                    || (column.hasBlanks() && blankPolicy != Policy.SKIP)
+                    || (column.hasStrings() && treatStringsAsZero())) {
+                return false;
+            }
+        }
+        int height = ae.getHeight();
+        for (int rrIx = 0; rrIx < height; rrIx++) {
+            for (ColumnSnapshot column : columns) {
+                if (column.isNumber(rrIx)) {
+                    temp.add(column.getValue(rrIx));
+                }
+            }
+        }
+        return true;
+    }
+
     private void collectValue(ValueEval ve, boolean isViaReference, DoubleList temp) throws EvaluationException {
         if (ve == null) {
             throw new IllegalArgumentException("ve must not be null");
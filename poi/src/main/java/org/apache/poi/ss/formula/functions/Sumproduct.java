@@ -156,6 +156,11 @@ public final class Sumproduct implements Function {
             return ErrorEval.VALUE_INVALID;
         }
 
+        ColumnSnapshot[][] snapshots = getColumnSnapshots(args);
+        if (snapshots != null) {
+            return new NumberEval(sumProductOfSnapshots(snapshots, height, width));
+        }
+
         double acc = 0;
 
         for (int rrIx=0; rrIx<height; rrIx++) {
@@ -172,6 +177,36 @@ public final class Sumproduct implements Function {
         return new NumberEval(acc);
     }
 
+    /**
+     * @return the column snapshots of all areas, or {@code null} if any of them isn't available
+     */
+    private static ColumnSnapshot[][] getColumnSnapshots(TwoDEval[] args) {
+        ColumnSnapshot[][] snapshots = new ColumnSnapshot[args.length][];
+        boolean complete = true;
+        for (int n = 0; n < args.length; n++) {
+            snapshots[n] = ColumnSnapshot.get(args[n]);
+            complete &= snapshots[n] != null;
+        }
+        return complete ? snapshots : null;
+    }
+
+    /**
+     * Same as the cell by cell loop, as the snapshots hold the product terms of all cells
+     */
+    private static double sumProductOfSnapshots(ColumnSnapshot[][] snapshots, int height, int width) {
+        double acc = 0;
+        for (int rrIx=0; rrIx<height; rrIx++) {
+            for (int rcIx=0; rcIx<width; rcIx++) {
+                double term = 1D;
+                for (ColumnSnapshot[] columns : snapshots) {
+                    term *= columns[rcIx].getValue(rrIx);
+                }
+                acc += term;
+            }
+        }
+        return acc;
+    }
+
     private static void throwFirstError(TwoDEval areaEval) throws EvaluationException {
         int height = areaEval.getHeight();
         int width = areaEval.getWidth();
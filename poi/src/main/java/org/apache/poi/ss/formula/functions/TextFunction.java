@@ -375,7 +375,10 @@ public abstract class TextFunction implements Function {
                     }
                     if (valueDouble != null) {
                         String format = formatPatternValueEval2String(formatVe);
-                        evaluated = formatter.formatRawCellContents(valueDouble, -1, format);
+                        // the formatter caches the formats, and formulas may be evaluated concurrently
+                        synchronized (formatter) {
+                            evaluated = formatter.formatRawCellContents(valueDouble, -1, format);
+                        }
                     }
 
                     valueEval = new StringEval(evaluated);
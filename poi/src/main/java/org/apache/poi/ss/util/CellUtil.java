@@ -17,13 +17,17 @@
 
 package org.apache.poi.ss.util;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -59,6 +63,9 @@ public final class CellUtil {
 
     private static final Logger LOGGER = LogManager.getLogger(CellUtil.class);
 
+    /** the style indexes of the workbooks, which are used with this class */
+    private static final Map<Workbook, StyleIndex> STYLE_INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
     private static final Set<CellPropertyType> SHORT_VALUES = EnumSet.of(
             CellPropertyType.BOTTOM_BORDER_COLOR,
             CellPropertyType.LEFT_BORDER_COLOR,
@@ -607,7 +614,6 @@ public final class CellUtil {
         Workbook workbook = cell.getSheet().getWorkbook();
         CellStyle originalStyle = cell.getCellStyle();
 
-        CellStyle newStyle = null;
         Map<CellPropertyType, Object> values = getFormatProperties(originalStyle);
         if (properties.containsKey(CellPropertyType.FILL_FOREGROUND_COLOR_COLOR) && properties.get(CellPropertyType.FILL_FOREGROUND_COLOR_COLOR) == null) {
             values.remove(CellPropertyType.FILL_FOREGROUND_COLOR);
@@ -623,20 +629,9 @@ public final class CellUtil {
         }
         putAll(properties, values);
 
-        // index seems like what index the cellstyle is in the list of styles for a workbook.
-        // not good to compare on!
-        int numberCellStyles = workbook.getNumCellStyles();
-
-        for (int i = 0; i < numberCellStyles; i++) {
-            CellStyle wbStyle = workbook.getCellStyleAt(i);
-            Map<CellPropertyType, Object> wbStyleMap = getFormatProperties(wbStyle);
-
-            // the desired style already exists in the workbook. Use the existing style.
-            if (styleMapsMatch(wbStyleMap, values, disableNullColorCheck)) {
-                newStyle = wbStyle;
-                break;
-            }
-        }
+        // the desired style might already exist in the workbook. Use the existing style.
+        StyleIndex styleIndex = STYLE_INDEXES.computeIfAbsent(workbook, k -> new StyleIndex());
+        CellStyle newStyle = styleIndex.find(workbook, values, disableNullColorCheck);
 
         // the desired style does not exist in the workbook. Create a new style with desired properties.
         if (newStyle == null) {
@@ -647,6 +642,97 @@ public final class CellUtil {
         cell.setCellStyle(newStyle);
     }
 
+    /**
+     * Index of the format properties of the cell styles of a workbook, so that an existing style
+     * can be found without comparing the properties of each style in the workbook.
+     * <p>
+     * The styles are bucketed by their properties without the fill colors, i.e. the part of the properties
+     * which needs to be equal in {@link #styleMapsMatch(Map, Map, boolean)}. The candidates are compared with
+     * their current properties, so the first matching style of the bucket is returned.
+     * Styles added to the workbook are indexed on the next lookup.
+     * <p>
+     * The styles don't signal modifications, so a style which is modified after it was indexed stays in the
+     * bucket of its old properties, until it's compared as a candidate there and moved to its new bucket.
+     * Until then, the style isn't found by its new properties and an equal style might be created.
+     */
+    private static final class StyleIndex {
+        private final Map<Map<CellPropertyType, Object>, List<Integer>> buckets = new HashMap<>();
+        // the bucket key of each indexed style
+        private final List<Map<CellPropertyType, Object>> keys = new ArrayList<>();
+
+        synchronized CellStyle find(Workbook workbook, Map<CellPropertyType, Object> values,
+                                    boolean disableNullColorCheck) {
+            // index seems like what index the cellstyle is in the list of styles for a workbook.
+            // not good to compare on!
+            int numberCellStyles = workbook.getNumCellStyles();
+            if (numberCellStyles < keys.size()) {
+                // styles were removed, e.g. by HSSFOptimiser, so the indexes have shifted
+                buckets.clear();
+                keys.clear();
+            }
+            for (int idx = keys.size(); idx < numberCellStyles; idx++) {
+                Map<CellPropertyType, Object> styleKey = withoutFillColors(getFormatProperties(workbook.getCellStyleAt(idx)));
+                keys.add(styleKey);
+                add(styleKey, idx);
+            }
+
+            Map<CellPropertyType, Object> key = withoutFillColors(values);
+            List<Integer> candidates = buckets.get(key);
+            if (candidates == null) {
+                return null;
+            }
+            CellStyle match = null;
+            List<Integer> modified = null;
+            for (int idx : candidates) {
+                CellStyle wbStyle = workbook.getCellStyleAt(idx);
+                Map<CellPropertyType, Object> wbStyleMap = getFormatProperties(wbStyle);
+                if (!key.equals(withoutFillColors(wbStyleMap))) {
+                    // modified after it was indexed, so it's moved to the bucket of its current properties
+                    if (modified == null) {
+                        modified = new ArrayList<>();
+                    }
+                    modified.add(idx);
+                } else if (styleMapsMatch(wbStyleMap, values, disableNullColorCheck)) {
+                    match = wbStyle;
+                    break;
+                }
+            }
+            if (modified != null) {
+                for (int idx : modified) {
+                    Map<CellPropertyType, Object> styleKey = withoutFillColors(getFormatProperties(workbook.getCellStyleAt(idx)));
+                    remove(keys.get(idx), idx);
+                    keys.set(idx, styleKey);
+                    add(styleKey, idx);
+                }
+            }
+            return match;
+        }
+
+        private void add(Map<CellPropertyType, Object> key, int idx) {
+            List<Integer> bucket = buckets.computeIfAbsent(key, k -> new ArrayList<>(1));
+            // keep the indexes sorted, to return the first matching style
+            int pos = Collections.binarySearch(bucket, idx);
+            if (pos < 0) {
+                bucket.add(-pos - 1, idx);
+            }
+        }
+
+        private void remove(Map<CellPropertyType, Object> key, int idx) {
+            List<Integer> bucket = buckets.get(key);
+            if (bucket != null && bucket.remove((Integer)idx) && bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+
+        private static Map<CellPropertyType, Object> withoutFillColors(Map<CellPropertyType, Object> properties) {
+            Map<CellPropertyType, Object> key = new EnumMap<>(CellPropertyType.class);
+            key.putAll(properties);
+            key.remove(CellPropertyType.FILL_BACKGROUND_COLOR_COLOR);
+            key.remove(CellPropertyType.FILL_FOREGROUND_COLOR_COLOR);
+            return key;
+        }
+    }
+
     private static boolean styleMapsMatch(final Map<CellPropertyType, Object> newProps,
                                           final Map<CellPropertyType, Object> storedProps, final boolean disableNullColorCheck) {
         final Map<CellPropertyType, Object> map1Copy = new HashMap<>(newProps);
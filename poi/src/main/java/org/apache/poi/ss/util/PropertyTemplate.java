@@ -24,6 +24,7 @@ import org.apache.poi.ss.usermodel.BorderExtent;
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellPropertyType;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -433,6 +434,9 @@ public final class PropertyTemplate {
      */
     public void applyBorders(Sheet sheet) {
         Workbook wb = sheet.getWorkbook();
+        // the resulting styles by the original style index and the applied properties,
+        // as the same borders are usually applied to many cells with the same style
+        Map<Short, Map<Map<CellPropertyType, Object>, CellStyle>> appliedStyles = new HashMap<>();
         for (Map.Entry<CellAddress, Map<CellPropertyType, Object>> entry : _propertyTemplate
                 .entrySet()) {
             CellAddress cellAddress = entry.getKey();
@@ -442,7 +446,15 @@ public final class PropertyTemplate {
                 Map<CellPropertyType, Object> properties = entry.getValue();
                 Row row = CellUtil.getRow(cellAddress.getRow(), sheet);
                 Cell cell = CellUtil.getCell(row, cellAddress.getColumn());
-                CellUtil.setCellStylePropertiesEnum(cell, properties);
+                Map<Map<CellPropertyType, Object>, CellStyle> styles =
+                        appliedStyles.computeIfAbsent(cell.getCellStyle().getIndex(), k -> new HashMap<>());
+                CellStyle style = styles.get(properties);
+                if (style == null) {
+                    CellUtil.setCellStylePropertiesEnum(cell, properties);
+                    styles.put(properties, cell.getCellStyle());
+                } else {
+                    cell.setCellStyle(style);
+                }
             }
         }
     }
@@ -0,0 +1,452 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * A map of non-negative {@code int} keys to objects, which iterates in ascending key order.
+ * <p>
+ * This is a replacement for a {@code TreeMap<Integer,V>} in the row and cell containers, which
+ * avoids boxing the keys and the per-entry node overhead. The values are kept in pages of 32 slots,
+ * which are directly addressed by the key and only allocated, if they contain at least one value.
+ * The page table starts at the page of the lowest key, which has been added. So dense keys need
+ * about one reference per entry, while gaps between keys cost at most a page reference per 32 keys
+ * and a large offset of the first key, e.g. of a sheet starting at a far-right column, costs nothing.
+ * <p>
+ * {@code null} values are not supported. The iterators are fail-fast, like the ones of the
+ * {@code java.util} collections, and support removal.
+ * <p>
+ * This class is only meant for internal use in Apache POI.
+ *
+ * @param <V> the type of the values
+ * @since POI 5.3.1
+ */
+@Internal
+public final class SortedIntMap<V> implements Iterable<V> {
+    private static final int PAGE_BITS = 5;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private Object[][] pages = new Object[0][];
+    /** the page index of the first element of {@link #pages} */
+    private int basePage;
+    /** number of values per page */
+    private byte[] counts = new byte[0];
+    private int size;
+    private int firstKey = -1;
+    private int lastKey = -1;
+    private int modCount;
+
+    /**
+     * @return the number of values in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true, if this map contains no values
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key the key, negative keys are never contained
+     * @return the value of the key or {@code null}, if there's no value for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key < 0) {
+            return null;
+        }
+        int pageIdx = (key >>> PAGE_BITS) - basePage;
+        if (pageIdx < 0 || pageIdx >= pages.length) {
+            return null;
+        }
+        Object[] page = pages[pageIdx];
+        return page == null ? null : (V)page[key & PAGE_MASK];
+    }
+
+    /**
+     * @param key the key, negative keys are never contained
+     * @return true, if there's a value for the key
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates the value with the key
+     *
+     * @param key the non-negative key
+     * @param value the non-null value
+     * @return the previous value of the key or {@code null}
+     * @throws IllegalArgumentException if the key is negative
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative keys are not supported: " + key);
+        }
+        if (size == 0) {
+            // start the page table at the first key - the pages of an empty map have already been released
+            basePage = key >>> PAGE_BITS;
+        }
+        int pageIdx = (key >>> PAGE_BITS) - basePage;
+        if (pageIdx < 0) {
+            pageIdx += growFront(-pageIdx);
+        } else if (pageIdx >= pages.length) {
+            int newLength = Math.max(pageIdx + 1, pages.length + (pages.length >> 1));
+            pages = Arrays.copyOf(pages, newLength);
+            counts = Arrays.copyOf(counts, newLength);
+        }
+        Object[] page = pages[pageIdx];
+        if (page == null) {
+            page = pages[pageIdx] = new Object[PAGE_SIZE];
+        }
+        Object old = page[key & PAGE_MASK];
+        page[key & PAGE_MASK] = value;
+        if (old == null) {
+            counts[pageIdx]++;
+            if (size++ == 0) {
+                firstKey = lastKey = key;
+            } else {
+                firstKey = Math.min(firstKey, key);
+                lastKey = Math.max(lastKey, key);
+            }
+            modCount++;
+        }
+        return (V)old;
+    }
+
+    /**
+     * Prepends pages to the page table
+     *
+     * @return the number of prepended pages
+     */
+    private int growFront(int minGrowth) {
+        int growth = Math.min(Math.max(minGrowth, pages.length >> 1), basePage);
+        Object[][] newPages = new Object[pages.length + growth][];
+        System.arraycopy(pages, 0, newPages, growth, pages.length);
+        byte[] newCounts = new byte[counts.length + growth];
+        System.arraycopy(counts, 0, newCounts, growth, counts.length);
+        pages = newPages;
+        counts = newCounts;
+        basePage -= growth;
+        return growth;
+    }
+
+    /**
+     * Removes the value of the key
+     *
+     * @param key the key, negative keys are never contained
+     * @return the removed value or {@code null}, if there was no value for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key < 0) {
+            return null;
+        }
+        int pageIdx = (key >>> PAGE_BITS) - basePage;
+        if (pageIdx < 0 || pageIdx >= pages.length || pages[pageIdx] == null) {
+            return null;
+        }
+        Object[] page = pages[pageIdx];
+        Object old = page[key & PAGE_MASK];
+        if (old == null) {
+            return null;
+        }
+        page[key & PAGE_MASK] = null;
+        if (--counts[pageIdx] == 0) {
+            pages[pageIdx] = null;
+        }
+        modCount++;
+        if (--size == 0) {
+            firstKey = lastKey = -1;
+        } else if (key == firstKey) {
+            firstKey = ceilingKey(key + 1);
+        } else if (key == lastKey) {
+            lastKey = floorKey(key - 1);
+        }
+        return (V)old;
+    }
+
+    /**
+     * Removes all values
+     */
+    public void clear() {
+        pages = new Object[0][];
+        counts = new byte[0];
+        basePage = 0;
+        size = 0;
+        firstKey = lastKey = -1;
+        modCount++;
+    }
+
+    /**
+     * @return the lowest key
+     * @throws NoSuchElementException if this map is empty
+     */
+    public int firstKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return firstKey;
+    }
+
+    /**
+     * @return the highest key
+     * @throws NoSuchElementException if this map is empty
+     */
+    public int lastKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return lastKey;
+    }
+
+    /**
+     * @param key the lower bound (inclusive)
+     * @return the lowest key greater than or equal to the given key, or -1 if there's no such key
+     */
+    public int ceilingKey(int key) {
+        if (size == 0 || key > lastKey) {
+            return -1;
+        }
+        if (key <= firstKey) {
+            return firstKey;
+        }
+        // the key is greater than firstKey, so its page is within the page table
+        for (int pageIdx = (key >>> PAGE_BITS) - basePage, offset = key & PAGE_MASK; pageIdx < pages.length; pageIdx++, offset = 0) {
+            Object[] page = pages[pageIdx];
+            if (page == null) {
+                continue;
+            }
+            for (int i = offset; i < PAGE_SIZE; i++) {
+                if (page[i] != null) {
+                    return ((pageIdx + basePage) << PAGE_BITS) | i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param key the upper bound (inclusive)
+     * @return the highest key less than or equal to the given key, or -1 if there's no such key
+     */
+    public int floorKey(int key) {
+        if (size == 0 || key < firstKey) {
+            return -1;
+        }
+        if (key >= lastKey) {
+            return lastKey;
+        }
+        // the key is less than lastKey, so its page is within the page table
+        for (int pageIdx = (key >>> PAGE_BITS) - basePage, offset = key & PAGE_MASK; pageIdx >= 0; pageIdx--, offset = PAGE_MASK) {
+            Object[] page = pages[pageIdx];
+            if (page == null) {
+                continue;
+            }
+            for (int i = offset; i >= 0; i--) {
+                if (page[i] != null) {
+                    return ((pageIdx + basePage) << PAGE_BITS) | i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the keys lower than the given key, i.e. this is the equivalent of {@code headMap(key).size()}
+     *
+     * @param key the upper bound (exclusive)
+     * @return the number of keys lower than the given key
+     */
+    public int countBefore(int key) {
+        if (size == 0 || key <= firstKey) {
+            return 0;
+        }
+        if (key > lastKey) {
+            return size;
+        }
+        int pageIdx = (key >>> PAGE_BITS) - basePage;
+        int count = 0;
+        for (int i = 0; i < pageIdx; i++) {
+            count += counts[i];
+        }
+        Object[] page = pages[pageIdx];
+        if (page != null) {
+            for (int i = 0; i < (key & PAGE_MASK); i++) {
+                if (page[i] != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param value the value to search for
+     * @return the key of the given value, which is compared by identity, or -1 if the value isn't contained
+     */
+    public int keyOf(Object value) {
+        for (int key = ceilingKey(0); key != -1; key = ceilingKey(key + 1)) {
+            if (get(key) == value) {
+                return key;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return an iterator over the values in ascending key order
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new ValueIterator(firstKey, Integer.MAX_VALUE + 1L);
+    }
+
+    /**
+     * @param fromKey the lower bound (inclusive)
+     * @param toKey the upper bound (exclusive)
+     * @return an iterator over the values of the keys in the given range in ascending key order,
+     *  i.e. the equivalent of {@code subMap(fromKey, toKey).values().iterator()}
+     * @throws IllegalArgumentException if fromKey is greater than toKey
+     */
+    public Iterator<V> iterator(int fromKey, int toKey) {
+        if (fromKey > toKey) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return new ValueIterator(ceilingKey(Math.max(fromKey, 0)), toKey);
+    }
+
+    @Override
+    public Spliterator<V> spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * @return a view of the values in ascending key order, which supports removal
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return SortedIntMap.this.iterator();
+            }
+
+            @Override
+            public Spliterator<V> spliterator() {
+                return SortedIntMap.this.spliterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return the hash code, which is calculated like the one of a {@code java.util.Map} with the same entries
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int key = ceilingKey(0); key != -1; key = ceilingKey(key + 1)) {
+            hash += key ^ get(key).hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof SortedIntMap)) {
+            return false;
+        }
+        SortedIntMap<?> other = (SortedIntMap<?>)obj;
+        if (size != other.size) {
+            return false;
+        }
+        for (int key = ceilingKey(0); key != -1; key = ceilingKey(key + 1)) {
+            if (!get(key).equals(other.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class ValueIterator implements Iterator<V> {
+        private final long toKey;
+        private int nextKey;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        ValueIterator(int nextKey, long toKey) {
+            this.toKey = toKey;
+            this.nextKey = (nextKey < toKey) ? nextKey : -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextKey != -1;
+        }
+
+        @Override
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (nextKey == -1) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = nextKey;
+            int key = (nextKey == Integer.MAX_VALUE) ? -1 : ceilingKey(nextKey + 1);
+            nextKey = (key < toKey) ? key : -1;
+            return get(lastReturned);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == -1) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            SortedIntMap.this.remove(lastReturned);
+            lastReturned = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
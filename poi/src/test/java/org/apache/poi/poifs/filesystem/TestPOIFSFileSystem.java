@@ -321,6 +321,33 @@ final class TestPOIFSFileSystem {
         }
     }
 
+    @ParameterizedTest
+    @CsvSource({"BlockSize512.zvi", "BlockSize4096.zvi", "64322.ole2"})
+    void testMemoryMapFiles(String sample) throws IOException, NoPropertySetStreamException {
+        File file = _samples.getFile(sample);
+        POIFSFileSystem.setMemoryMapFiles(true);
+        try (POIFSFileSystem mapped = new POIFSFileSystem(file);
+             POIFSFileSystem plain = new POIFSFileSystem(_samples.openResourceAsStream(sample))) {
+            POIFSFileSystem.setMemoryMapFiles(false);
+            assertFalse(mapped.isInPlaceWriteable());
+            assertTrue(EntryUtils.areDirectoriesIdentical(plain.getRoot(), mapped.getRoot()));
+            recurseDir(mapped.getRoot());
+
+            // modifying a mapped file system copies its data, the source file is left unchanged
+            long length = file.length();
+            mapped.createDocument(new ByteArrayInputStream(new byte[5000]), "mapped");
+            plain.createDocument(new ByteArrayInputStream(new byte[5000]), "mapped");
+            assertEquals(length, file.length());
+            assertThrows(IllegalArgumentException.class, mapped::writeFilesystem);
+
+            try (POIFSFileSystem copy = POIDataSamples.writeOutAndReadBack(mapped)) {
+                assertTrue(EntryUtils.areDirectoriesIdentical(plain.getRoot(), copy.getRoot()));
+            }
+        } finally {
+            POIFSFileSystem.setMemoryMapFiles(false);
+        }
+    }
+
     private static int recurseDir(DirectoryEntry dir) throws IOException, NoPropertySetStreamException {
         int count = 0;
         for (Entry entry : dir) {
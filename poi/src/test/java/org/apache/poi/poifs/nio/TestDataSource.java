@@ -19,6 +19,7 @@
 
 package org.apache.poi.poifs.nio;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -31,7 +32,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
 
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.TempFile;
@@ -166,6 +169,51 @@ class TestDataSource {
             "Shouldn't be able to read off the end of the file");
     }
 
+    @Test
+    void testMemoryMapped() throws Exception {
+        File f = data.getFile("Notes.ole2");
+
+        MemoryMappedDataSource ds = new MemoryMappedDataSource(f);
+        try {
+            assertEquals(8192, ds.size());
+
+            // Start of file
+            ByteBuffer bs = ds.read(4, 0);
+            assertEquals(4, bs.capacity());
+            assertEquals(0, bs.position());
+            assertTrue(bs.isReadOnly());
+            assertEquals(0xd0 - 256, bs.get(0));
+            assertEquals(0xcf - 256, bs.get(1));
+            assertEquals(0x11, bs.get(2));
+            assertEquals(0xe0 - 256, bs.get(3));
+
+            // Mid way through
+            bs = ds.read(8, 0x400);
+            assertEquals(8, bs.capacity());
+            assertEquals(0, bs.position());
+            assertEquals((byte) 'R', bs.get(0));
+            assertEquals((byte) 't', bs.get(6));
+
+            // Reading over the end pads the buffer
+            bs = ds.read(8, 8190);
+            assertEquals(8, bs.capacity());
+            assertEquals(0, bs.position());
+            assertEquals(0, bs.get(7));
+
+            assertThrows(IndexOutOfBoundsException.class, () -> ds.read(4, ds.size()),
+                "Shouldn't be able to read off the end of the file");
+            assertThrows(NonWritableChannelException.class, () -> ds.write(ByteBuffer.allocate(4), 0));
+
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            ds.copyTo(bos);
+            try (InputStream is = data.openResourceAsStream("Notes.ole2")) {
+                assertArrayEquals(IOUtils.toByteArray(is), bos.toByteArray());
+            }
+        } finally {
+            ds.close();
+        }
+    }
+
     @Test
     void testByteArray() {
         byte[] data = new byte[256];
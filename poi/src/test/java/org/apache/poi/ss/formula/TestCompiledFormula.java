@@ -0,0 +1,153 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationTestHelper;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringValueEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.usermodel.Name;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the evaluation of compiled formulas
+ */
+final class TestCompiledFormula {
+    private static final String[][] FORMULAS = {
+        {"IF(A1>1,\"big\",\"small\")", "big"},
+        {"IF(A1>5,\"big\",\"small\")", "small"},
+        {"IF(A1>5,\"big\")", "FALSE"},
+        {"IF(A1>5,\"big\",)", "0.0"},
+        {"IF(1/0,\"big\",\"small\")", "#DIV/0!"},
+        {"IF(A1>1,IF(A1>2,\"huge\",\"big\"),IF(A1<0,\"negative\",\"small\"))", "huge"},
+        {"IF(A1<1,1,ROW())+1", "2.0"},
+        {"CHOOSE(A1,\"one\",\"two\",\"three\")&\"!\"", "three!"},
+        {"CHOOSE(A1+1,\"one\",\"two\",\"three\")", "#VALUE!"},
+        {"CHOOSE(1/0,\"one\",\"two\")", "#DIV/0!"},
+        {"CHOOSE(2,SUM(A1:A2),A1*10,)", "30.0"},
+        {"SUM(A1,IF(A1>1,A2))", "7.0"},
+    };
+
+    @Test
+    void optimizedIfAndChoose() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet("Sheet1");
+            sheet.createRow(0).createCell(0).setCellValue(3);
+            sheet.createRow(1).createCell(0).setCellValue(4);
+            WorkbookEvaluator evaluator = new WorkbookEvaluator(HSSFEvaluationWorkbook.create(wb), null, null);
+            for (int i = 0; i < FORMULAS.length; i++) {
+                HSSFCell cell = sheet.getRow(0).createCell(i + 1);
+                cell.setCellFormula(FORMULAS[i][0]);
+                ValueEval result = evaluator.evaluate(HSSFEvaluationTestHelper.wrapCell(cell));
+                assertEquals(FORMULAS[i][1], toString(result), FORMULAS[i][0]);
+            }
+        }
+    }
+
+    @Test
+    void interpretedIfAndChoose() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet("Sheet1");
+            sheet.createRow(0).createCell(0).setCellValue(3);
+            sheet.createRow(1).createCell(0).setCellValue(4);
+            WorkbookEvaluator evaluator = new WorkbookEvaluator(HSSFEvaluationWorkbook.create(wb), null, null);
+            for (int i = 0; i < FORMULAS.length; i++) {
+                // the formulas of names are evaluated without compiling them
+                Name name = wb.createName();
+                name.setNameName("formula" + i);
+                name.setRefersToFormula(FORMULAS[i][0].replace("A1:A2", "Sheet1!$A$1:$A$2")
+                    .replaceAll("A([12])\\b", "Sheet1!\\$A\\$$1"));
+                HSSFCell cell = sheet.getRow(0).createCell(i + 1);
+                cell.setCellFormula(name.getNameName());
+                ValueEval result = evaluator.evaluate(HSSFEvaluationTestHelper.wrapCell(cell));
+                assertEquals(FORMULAS[i][1], toString(result), FORMULAS[i][0]);
+            }
+        }
+    }
+
+    @Test
+    void compiledFormulaIsReused() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet("Sheet1");
+            HSSFRow row = sheet.createRow(0);
+            HSSFCell input = row.createCell(0);
+            input.setCellValue(1);
+            HSSFCell formula1 = row.createCell(1);
+            formula1.setCellFormula("A1*2");
+            HSSFCell formula2 = row.createCell(2);
+            formula2.setCellFormula("IF(B1>2,\"big\",CHOOSE(B1,\"one\",\"two\"))");
+
+            AtomicInteger tokenRequests = new AtomicInteger();
+            EvaluationWorkbook evalWorkbook = countTokenRequests(HSSFEvaluationWorkbook.create(wb), tokenRequests);
+            WorkbookEvaluator evaluator = new WorkbookEvaluator(evalWorkbook, null, null);
+            EvaluationCell inputCell = HSSFEvaluationTestHelper.wrapCell(input);
+            EvaluationCell evalCell = HSSFEvaluationTestHelper.wrapCell(formula2);
+
+            assertEquals("two", toString(evaluator.evaluate(evalCell)));
+            assertEquals(2, tokenRequests.get());
+
+            input.setCellValue(2);
+            evaluator.notifyUpdateCell(inputCell);
+            assertEquals("big", toString(evaluator.evaluate(evalCell)));
+            // the formulas are evaluated again, but not compiled again
+            assertEquals(2, tokenRequests.get());
+
+            formula2.setCellFormula("B1&\"!\"");
+            evaluator.notifyUpdateCell(evalCell);
+            assertEquals("4!", toString(evaluator.evaluate(evalCell)));
+            assertEquals(3, tokenRequests.get());
+        }
+    }
+
+    private static EvaluationWorkbook countTokenRequests(EvaluationWorkbook workbook, AtomicInteger tokenRequests) {
+        return (EvaluationWorkbook) Proxy.newProxyInstance(TestCompiledFormula.class.getClassLoader(),
+            new Class<?>[]{EvaluationWorkbook.class}, (proxy, method, args) -> {
+                if (method.getName().equals("getFormulaTokens")) {
+                    tokenRequests.incrementAndGet();
+                }
+                try {
+                    return method.invoke(workbook, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    private static String toString(ValueEval result) {
+        if (result instanceof ErrorEval) {
+            return ((ErrorEval) result).getErrorString();
+        }
+        if (result instanceof NumberEval) {
+            return String.valueOf(((NumberEval) result).getNumberValue());
+        }
+        return ((StringValueEval) result).getStringValue();
+    }
+}
@@ -20,6 +20,10 @@ package org.apache.poi.ss.formula;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,6 +40,7 @@ import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.formula.IEvaluationListener.ICacheEntry;
 import org.apache.poi.ss.formula.PlainCellCache.Loc;
 import org.apache.poi.ss.formula.eval.BlankEval;
@@ -44,6 +49,7 @@ import org.apache.poi.ss.formula.eval.ErrorEval;
 import org.apache.poi.ss.formula.eval.NumberEval;
 import org.apache.poi.ss.formula.eval.StringEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.EvalFactory;
 import org.apache.poi.ss.formula.ptg.Ptg;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellValue;
@@ -51,6 +57,7 @@ import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.AreaReference;
 import org.apache.poi.ss.util.CellReference;
 import org.junit.jupiter.api.Test;
 
@@ -709,4 +716,39 @@ class TestEvaluationCache {
         assertEquals(8394753.0, summaryCell.getNumericCellValue(), 0);
     }
 
+
+    @Test
+    void testAreaIndexCacheIsBounded() {
+        EvaluationCache cache = new EvaluationCache(null);
+        AreaIndexCacheEntry first = cache.getOrCreateAreaIndexEntry(areaIndexKey(0));
+        FormulaCellCacheEntry consumer = new FormulaCellCacheEntry();
+        consumer.updateFormulaResult(new NumberEval(1), new CellCacheEntry[] { first.getCacheEntry() }, null);
+        first.getCacheEntry().updateFormulaResult(BoolEval.TRUE, CellCacheEntry.EMPTY_ARRAY, null);
+
+        for (int i = 1; i < EvaluationCache.MAX_AREA_INDEX_ENTRIES; i++) {
+            cache.getOrCreateAreaIndexEntry(areaIndexKey(i));
+            // the first area is reused
+            assertSame(first, cache.getOrCreateAreaIndexEntry(areaIndexKey(0)));
+        }
+        assertEquals(EvaluationCache.MAX_AREA_INDEX_ENTRIES, cache.getAreaIndexCacheSize());
+        assertNotNull(consumer.getValue());
+
+        // the least recently used area is evicted, which clears the formulas using its data
+        AreaIndexCacheEntry second = cache.getOrCreateAreaIndexEntry(areaIndexKey(1));
+        cache.getOrCreateAreaIndexEntry(areaIndexKey(EvaluationCache.MAX_AREA_INDEX_ENTRIES));
+        assertEquals(EvaluationCache.MAX_AREA_INDEX_ENTRIES, cache.getAreaIndexCacheSize());
+        assertSame(second, cache.getOrCreateAreaIndexEntry(areaIndexKey(1)));
+        for (int i = 2; i < EvaluationCache.MAX_AREA_INDEX_ENTRIES + 2; i++) {
+            cache.getOrCreateAreaIndexEntry(areaIndexKey(i));
+        }
+        assertNull(consumer.getValue());
+        assertNull(first.getCacheEntry().getValue());
+        assertNotSame(first, cache.getOrCreateAreaIndexEntry(areaIndexKey(0)));
+    }
+
+    private static AreaIndexCacheEntry.Key areaIndexKey(int row) {
+        ValueEval[] values = { new NumberEval(row), new NumberEval(row + 1) };
+        return new AreaIndexCacheEntry.Key(0, "kind", EvalFactory.createAreaEval(new AreaReference(
+            new CellReference(row, 0), new CellReference(row + 1, 0), SpreadsheetVersion.EXCEL97).formatAsString(), values));
+    }
 }
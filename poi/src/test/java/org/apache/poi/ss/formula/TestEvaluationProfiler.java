@@ -0,0 +1,107 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.EvaluationProfiler.Entry;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.junit.jupiter.api.Test;
+
+final class TestEvaluationProfiler {
+    @Test
+    void recordsCellsFunctionsAndSheets() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            EvaluationProfiler profiler = EvaluationProfiler.attach(evaluator);
+            evaluator.evaluateAll();
+
+            // B1..B10 are evaluated once, the other reads of them are cache hits
+            assertEquals(11, profiler.getCellEntries().size());
+            for (Entry entry : profiler.getCellEntries()) {
+                assertEquals(1, entry.getCount());
+                assertTrue(entry.getSelfNanos() <= entry.getTotalNanos());
+            }
+            assertEquals(11, profiler.getSheetEntries().get(0).getCount());
+            assertEquals("Sheet1", profiler.getSheetEntries().get(0).getName());
+
+            List<String> functions = profiler.getFunctionEntries().stream()
+                .map(Entry::getName).sorted().collect(Collectors.toList());
+            assertEquals("[*, SUM]", functions.toString());
+            Entry mult = profiler.getFunctionEntries().stream()
+                .filter(e -> "*".equals(e.getName())).findFirst().orElse(null);
+            assertEquals(10, mult.getCount());
+
+            // C1 is evaluated first and evaluates all of B1..B10 nested in SUM
+            Entry c1 = profiler.getCellEntries().stream()
+                .filter(e -> "Sheet1!C1".equals(e.getName())).findFirst().orElse(null);
+            assertTrue(c1.getSelfNanos() < c1.getTotalNanos());
+            assertEquals(2, profiler.getMaxEvaluationDepth());
+            // B1 within SUM and B2..B10 after C1
+            assertEquals(10, profiler.getCacheHitCount());
+            // the formulas and the plain values of A1..A10
+            assertEquals(21, profiler.getCacheMissCount());
+
+            String report = profiler.toString();
+            assertTrue(report.contains("Sheet1!C1"), report);
+            assertTrue(report.contains("SUM"), report);
+
+            profiler.detach();
+            evaluator.clearAllCachedResultValues();
+            evaluator.evaluateAll();
+            assertEquals(11, profiler.getCellEntries().size());
+            assertEquals(1, profiler.getCellEntries().get(0).getCount());
+
+            profiler.reset();
+            assertEquals(0, profiler.getCellEntries().size());
+            assertEquals(0, profiler.getCacheHitCount());
+            assertEquals(0, profiler.getMaxEvaluationDepth());
+        }
+    }
+
+    @Test
+    void collaboratingEvaluatorsAreRejected() throws IOException {
+        try (HSSFWorkbook wb1 = createWorkbook(); HSSFWorkbook wb2 = createWorkbook()) {
+            HSSFFormulaEvaluator evaluator1 = wb1.getCreationHelper().createFormulaEvaluator();
+            HSSFFormulaEvaluator evaluator2 = wb2.getCreationHelper().createFormulaEvaluator();
+            HSSFFormulaEvaluator.setupEnvironment(new String[]{"a.xls", "b.xls"},
+                new HSSFFormulaEvaluator[]{evaluator1, evaluator2});
+            assertThrows(IllegalStateException.class, () -> EvaluationProfiler.attach(evaluator1));
+        }
+    }
+
+    private static HSSFWorkbook createWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        HSSFSheet sheet = wb.createSheet("Sheet1");
+        for (int r = 0; r < 10; r++) {
+            sheet.createRow(r).createCell(0).setCellValue(r + 1);
+            sheet.getRow(r).createCell(1).setCellFormula("A" + (r + 1) + "*2");
+        }
+        sheet.getRow(0).createCell(2).setCellFormula("SUM(B1:B10)");
+        return wb;
+    }
+}
@@ -0,0 +1,203 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellReference;
+import org.junit.jupiter.api.Test;
+
+final class TestFormulaDependencies {
+
+    @Test
+    void precedentsAndDependents() throws IOException {
+        try (Workbook wb = createWorkbook()) {
+            FormulaDependencies deps = new FormulaDependencies(wb, wb.getCreationHelper().createFormulaEvaluator());
+
+            assertEquals("[Sheet1!A1:Sheet1!A2]", format(deps.getPrecedents(new CellReference("Sheet1!B1"))));
+            assertEquals("[Sheet1!B1]", format(deps.getPrecedents(new CellReference("Sheet1!C1"))));
+            // the defined name is resolved
+            assertEquals("[Sheet1!C1, Sheet1!A1:Sheet1!A2]", format(deps.getPrecedents(new CellReference("Sheet2!A1"))));
+            // a 3D reference is split by sheet
+            assertEquals("[Sheet1!A1, Sheet2!A1]", format(deps.getPrecedents(new CellReference("Sheet2!B1"))));
+            assertTrue(deps.getPrecedents(new CellReference("Sheet1!A1")).isEmpty());
+
+            assertEquals("[Sheet1!B1, Sheet2!A1, Sheet2!B1]", formatCells(deps.getDependents(new CellReference("Sheet1!A1"))));
+            assertEquals("[Sheet1!B1, Sheet1!F1, Sheet2!A1]", formatCells(deps.getDependents(new CellReference("Sheet1!A2"))));
+            assertEquals("[Sheet2!B1]", formatCells(deps.getDependents(new CellReference("Sheet2!A1"))));
+            assertTrue(deps.getDependents(new CellReference("Sheet1!E1")).isEmpty());
+
+            assertTrue(deps.isDynamic(new CellReference("Sheet1!D1")));
+            assertFalse(deps.isDynamic(new CellReference("Sheet1!B1")));
+
+            assertThrows(IllegalArgumentException.class, () -> deps.getDependents(new CellReference("A1")));
+        }
+    }
+
+    @Test
+    void recalculateChangedCells() throws IOException {
+        try (Workbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            evaluator.evaluateAll();
+            FormulaDependencies deps = new FormulaDependencies(wb, evaluator);
+            assertEquals(0, deps.recalculate());
+
+            Sheet sheet1 = wb.getSheetAt(0);
+            Cell a1 = sheet1.getRow(0).getCell(0);
+            a1.setCellValue(5);
+            deps.notifyUpdateCell(a1);
+            // changed without notification, so the dependent E1 isn't recalculated
+            sheet1.getRow(2).getCell(0).setCellValue(100);
+
+            // B1, C1, Sheet2!A1, Sheet2!B1 and the dynamic D1
+            assertEquals(5, deps.recalculate());
+            assertEquals(7, sheet1.getRow(0).getCell(1).getNumericCellValue(), 0);
+            assertEquals(14, sheet1.getRow(0).getCell(2).getNumericCellValue(), 0);
+            assertEquals(5, sheet1.getRow(0).getCell(3).getNumericCellValue(), 0);
+            assertEquals(6, sheet1.getRow(0).getCell(4).getNumericCellValue(), 0);
+            assertEquals(21, wb.getSheetAt(1).getRow(0).getCell(0).getNumericCellValue(), 0);
+            assertEquals(26, wb.getSheetAt(1).getRow(0).getCell(1).getNumericCellValue(), 0);
+            assertEquals(0, deps.recalculate());
+        }
+    }
+
+    @Test
+    void changedFormula() throws IOException {
+        try (Workbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            FormulaDependencies deps = new FormulaDependencies(wb, evaluator);
+
+            Cell c1 = wb.getSheetAt(0).getRow(0).getCell(2);
+            c1.setCellFormula("A2*3");
+            deps.notifyUpdateCell(c1);
+            assertEquals("[Sheet1!A2]", format(deps.getPrecedents(new CellReference("Sheet1!C1"))));
+            assertTrue(deps.getDependents(new CellReference("Sheet1!B1")).isEmpty());
+
+            // C1, Sheet2!A1, Sheet2!B1 and the dynamic D1
+            assertEquals(4, deps.recalculate());
+            assertEquals(6, c1.getNumericCellValue(), 0);
+
+            deps.notifyDeleteCell(c1);
+            c1.getRow().removeCell(c1);
+            assertTrue(deps.getPrecedents(new CellReference("Sheet1!C1")).isEmpty());
+            assertEquals(3, deps.recalculate());
+        }
+    }
+
+    @Test
+    void longChainsAndRanges() throws IOException {
+        try (Workbook wb = new HSSFWorkbook()) {
+            Sheet sheet = wb.createSheet("Sheet1");
+            for (int r = 0; r < 2000; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue(r);
+                row.createCell(1).setCellFormula(r == 0 ? "A1" : "B" + r + "+A" + (r + 1));
+            }
+            Row row = sheet.getRow(0);
+            row.createCell(2).setCellFormula("SUM(A1:A2000)");
+            row.createCell(3).setCellFormula("SUM(A100:A160)");
+            row.createCell(4).setCellFormula("SUM(A:A)");
+            FormulaDependencies deps = new FormulaDependencies(wb, wb.getCreationHelper().createFormulaEvaluator());
+
+            assertEquals(cells("Sheet1!B130", "Sheet1!C1", "Sheet1!D1", "Sheet1!E1"),
+                new HashSet<>(deps.getDependents(new CellReference("Sheet1!A130"))));
+            assertEquals(cells("Sheet1!B1700", "Sheet1!C1", "Sheet1!E1"),
+                new HashSet<>(deps.getDependents(new CellReference("Sheet1!A1700"))));
+            // the rest of the chain in column B and the sums
+            assertEquals(501 + 2, deps.getAffectedCells(Collections.singletonList(new CellReference("Sheet1!A1500"))).size());
+
+            Cell d1 = row.getCell(3);
+            d1.setCellFormula("A1");
+            deps.notifyUpdateCell(d1);
+            Cell c1 = row.getCell(2);
+            c1.setCellFormula("A1");
+            deps.notifyUpdateCell(c1);
+            assertEquals(cells("Sheet1!B130", "Sheet1!E1"), new HashSet<>(deps.getDependents(new CellReference("Sheet1!A130"))));
+            assertEquals(cells("Sheet1!B1", "Sheet1!E1", "Sheet1!D1", "Sheet1!C1"),
+                new HashSet<>(deps.getDependents(new CellReference("Sheet1!A1"))));
+        }
+    }
+
+    private static Workbook createWorkbook() {
+        Workbook wb = new HSSFWorkbook();
+        Sheet sheet1 = wb.createSheet("Sheet1");
+        Sheet sheet2 = wb.createSheet("Sheet2");
+        Name name = wb.createName();
+        name.setNameName("Total");
+        name.setRefersToFormula("SUM(Sheet1!$A$1:$A$2)");
+
+        Row row1 = sheet1.createRow(0);
+        row1.createCell(0).setCellValue(1);
+        row1.createCell(1).setCellFormula("SUM(A1:A2)");
+        row1.createCell(2).setCellFormula("B1*2");
+        row1.createCell(3).setCellFormula("INDIRECT(\"A1\")");
+        row1.createCell(4).setCellFormula("A3*2");
+        row1.createCell(5).setCellFormula("A2");
+        sheet1.createRow(1).createCell(0).setCellValue(2);
+        sheet1.createRow(2).createCell(0).setCellValue(3);
+
+        Row row2 = sheet2.createRow(0);
+        row2.createCell(0).setCellFormula("Sheet1!C1+Total");
+        row2.createCell(1).setCellFormula("SUM(Sheet1:Sheet2!A1)");
+        return wb;
+    }
+
+    private static String format(List<AreaReference> areas) {
+        List<String> result = new ArrayList<>();
+        for (AreaReference area : areas) {
+            String first = area.getFirstCell().formatAsString();
+            String last = area.getLastCell().formatAsString();
+            result.add(first.equals(last) ? first : first + ":" + last);
+        }
+        return result.toString();
+    }
+
+    private static Set<CellReference> cells(String... refs) {
+        Set<CellReference> result = new HashSet<>();
+        for (String ref : refs) {
+            result.add(new CellReference(ref));
+        }
+        return result;
+    }
+
+    private static String formatCells(List<CellReference> cells) {
+        List<String> result = new ArrayList<>();
+        for (CellReference cell : cells) {
+            result.add(cell.formatAsString());
+        }
+        return result.toString();
+    }
+}
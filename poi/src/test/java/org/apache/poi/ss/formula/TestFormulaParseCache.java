@@ -0,0 +1,152 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefPtg;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.junit.jupiter.api.Test;
+
+final class TestFormulaParseCache {
+    @Test
+    void hitsAndMisses() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            HSSFEvaluationWorkbook evalWorkbook = HSSFEvaluationWorkbook.create(wb);
+            FormulaParseCache cache = new FormulaParseCache();
+
+            Ptg[] ptgs = cache.parse("A1+1", evalWorkbook, FormulaType.CELL, 0, 0);
+            assertEquals(0, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            // the cell of the formula isn't part of the key
+            Ptg[] ptgs2 = cache.parse("A1+1", evalWorkbook, FormulaType.CELL, 0, 5);
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(ptgs.length, ptgs2.length);
+            assertNotSame(ptgs[0], ptgs2[0]);
+            // immutable tokens are shared
+            assertSame(ptgs[1], ptgs2[1]);
+
+            // the cached tokens aren't affected by changes of the returned ones
+            ((RefPtg) ptgs2[0]).setRow(7);
+            assertEquals(0, ((RefPtg) cache.parse("A1+1", evalWorkbook, FormulaType.CELL, 0, 0)[0]).getRow());
+
+            cache.parse("A1+1", evalWorkbook, FormulaType.CELL, 1, 0);
+            cache.parse("A1+1", evalWorkbook, FormulaType.NAMEDRANGE, 0, 0);
+            assertEquals(2, cache.getHitCount());
+            assertEquals(3, cache.getMissCount());
+            assertEquals(3, cache.getSize());
+
+            // brackets may be structured references, which depend on the row
+            cache.parse("\"[1]\"&A1", evalWorkbook, FormulaType.CELL, 0, 0);
+            assertEquals(3, cache.getMissCount());
+            assertEquals(3, cache.getSize());
+
+            cache.clear();
+            assertEquals(0, cache.getSize());
+            cache.parse("A1+1", evalWorkbook, FormulaType.CELL, 0, 0);
+            assertEquals(4, cache.getMissCount());
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedAreEvicted() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            HSSFEvaluationWorkbook evalWorkbook = HSSFEvaluationWorkbook.create(wb);
+            FormulaParseCache cache = new FormulaParseCache(2);
+            cache.parse("A1", evalWorkbook, FormulaType.CELL, 0, 0);
+            cache.parse("A2", evalWorkbook, FormulaType.CELL, 0, 0);
+            cache.parse("A1", evalWorkbook, FormulaType.CELL, 0, 0);
+            cache.parse("A3", evalWorkbook, FormulaType.CELL, 0, 0);
+            assertEquals(2, cache.getSize());
+            assertEquals(1, cache.getHitCount());
+
+            cache.parse("A1", evalWorkbook, FormulaType.CELL, 0, 0);
+            assertEquals(2, cache.getHitCount());
+            cache.parse("A2", evalWorkbook, FormulaType.CELL, 0, 0);
+            assertEquals(4, cache.getMissCount());
+        }
+    }
+
+    @Test
+    void regionFormulasAreParsedOnce() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            WorkbookEvaluator evaluator = new HSSFFormulaEvaluator(wb)._getWorkbookEvaluator();
+            FormulaParseCache cache = evaluator.getFormulaParseCache();
+            CellRangeAddress region = CellRangeAddress.valueOf("B1:B10");
+            for (int r = 0; r < 10; r++) {
+                // the relative references are adjusted for each cell of the region
+                CellReference target = new CellReference("Sheet1", r, 1, false, false);
+                ValueEval eval = evaluator.evaluate("A1>5", target, region);
+                assertEquals(BoolEval.valueOf(r + 1 > 5), eval);
+                eval = evaluator.evaluate("A1*2", new CellReference("Sheet1", r, 2, false, false));
+                assertEquals(2.0, ((NumberEval) eval).getNumberValue());
+            }
+            assertEquals(2, cache.getMissCount());
+            assertEquals(18, cache.getHitCount());
+
+            evaluator.clearAllCachedResultValues();
+            assertEquals(0, cache.getSize());
+        }
+    }
+
+    @Test
+    void addedNamesClearTheCache() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            HSSFEvaluationWorkbook evalWorkbook = HSSFEvaluationWorkbook.create(wb);
+            FormulaParseCache cache = evalWorkbook.getFormulaParseCache();
+            cache.parse("A1+1", evalWorkbook, FormulaType.CELL, 0, 0);
+            assertSame(cache, evalWorkbook.getFormulaParseCache());
+            assertEquals(1, cache.getSize());
+
+            // the tokens refer to names by index
+            Name name = wb.createName();
+            name.setNameName("Total");
+            name.setRefersToFormula("Sheet1!$A$1:$A$10");
+            assertEquals(0, evalWorkbook.getFormulaParseCache().getSize());
+
+            cache.parse("SUM(Total)", evalWorkbook, FormulaType.CELL, 0, 0);
+            wb.createSheet("Sheet3");
+            assertEquals(0, evalWorkbook.getFormulaParseCache().getSize());
+        }
+    }
+
+    private static HSSFWorkbook createWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        HSSFSheet sheet = wb.createSheet("Sheet1");
+        wb.createSheet("Sheet2");
+        for (int r = 0; r < 10; r++) {
+            sheet.createRow(r).createCell(0).setCellValue(r + 1);
+        }
+        return wb;
+    }
+}
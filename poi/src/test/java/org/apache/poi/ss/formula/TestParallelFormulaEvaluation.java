@@ -0,0 +1,149 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.eval.NotImplementedException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the concurrent evaluation of all formula cells against the serial evaluation
+ */
+final class TestParallelFormulaEvaluation {
+    private static final int ROWS = 500;
+
+    @Test
+    void sameResultsAsSerial() throws IOException {
+        try (HSSFWorkbook serial = createWorkbook(); HSSFWorkbook parallel = createWorkbook()) {
+            BaseFormulaEvaluator.evaluateAllFormulaCells(serial);
+            BaseFormulaEvaluator.evaluateAllFormulaCells(parallel, 4);
+            assertSameResults(serial, parallel);
+        }
+    }
+
+    @Test
+    void errorsOfSerialEvaluation() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            Row row = wb.getSheetAt(1).createRow(ROWS + 1);
+            // an unsupported function, which is referenced by a formula evaluated earlier
+            row.createCell(1).setCellFormula("INFO(\"system\")");
+            wb.getSheetAt(0).getRow(0).createCell(9).setCellFormula("Sheet2!B" + (ROWS + 2) + "&\"!\"");
+
+            NotImplementedException ex1 = assertThrows(NotImplementedException.class,
+                () -> BaseFormulaEvaluator.evaluateAllFormulaCells(wb));
+            NotImplementedException ex2 = assertThrows(NotImplementedException.class,
+                () -> BaseFormulaEvaluator.evaluateAllFormulaCells(wb, 4));
+            assertEquals(ex1.getMessage(), ex2.getMessage());
+        }
+    }
+
+    @Test
+    void dependencyLevels() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            HSSFEvaluationWorkbook evalWorkbook = HSSFEvaluationWorkbook.create(wb);
+            List<EvaluationCell> cells = new ArrayList<>();
+            EvaluationSheet sheet = evalWorkbook.getSheet(0);
+            // B1 (=A1*2), C1 (=B1+1), C2 (=C1+B2), D2 (=SUM(B$1:B2)), E1 (=INDIRECT("A1")), F1 (=G1), G1 (=F1)
+            for (String ref : new String[]{"B1", "C1", "C2", "D2", "E1", "F1", "G1", "B2"}) {
+                cells.add(sheet.getCell(Integer.parseInt(ref.substring(1)) - 1, ref.charAt(0) - 'A'));
+            }
+            FormulaDependencyGraph graph = new FormulaDependencyGraph(evalWorkbook, cells);
+            for (int i = 0; i < graph.getSize(); i++) {
+                graph.collectReferences(i);
+            }
+            int serial = FormulaDependencyGraph.SERIAL;
+            assertArrayEquals(new int[]{0, 1, 2, 1, serial, serial, serial, 0}, graph.computeLevels());
+        }
+    }
+
+    private static HSSFWorkbook createWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        Sheet sheet1 = wb.createSheet("Sheet1");
+        Sheet sheet2 = wb.createSheet("Sheet2");
+        Name name = wb.createName();
+        name.setNameName("Total");
+        name.setRefersToFormula("SUM(Sheet1!$C$1:$C$" + ROWS + ")");
+        for (int r = 0; r < ROWS; r++) {
+            int rowNum = r + 1;
+            Row row = sheet1.createRow(r);
+            row.createCell(0).setCellValue(r % 17 + 0.5);
+            row.createCell(1).setCellFormula("A" + rowNum + "*2");
+            row.createCell(2).setCellFormula(r == 0 ? "B1+1" : "C" + r + "+B" + rowNum);
+            row.createCell(3).setCellFormula("SUM(B$1:B" + rowNum + ")");
+            row.createCell(4).setCellFormula("INDIRECT(\"A" + rowNum + "\")");
+            // circular references
+            row.createCell(5).setCellFormula("G" + rowNum);
+            row.createCell(6).setCellFormula("F" + rowNum);
+            row.createCell(7).setCellFormula("IF(A" + rowNum + ">10,TEXT(D" + rowNum + ",\"0.00\"),1/0)");
+
+            Row row2 = sheet2.createRow(r);
+            // referencing formulas of a later row in the other sheet
+            row2.createCell(0).setCellFormula("Sheet1!D" + Math.min(ROWS, rowNum + 10) + "+Total");
+            row2.createCell(1).setCellFormula("Sheet1!E" + rowNum + "*A" + rowNum);
+            row2.createCell(2).setCellFormula("SUM(Sheet1:Sheet1!C1:C" + rowNum + ")+FACTDOUBLE(" + (r % 20) + ")");
+        }
+        return wb;
+    }
+
+    private static void assertSameResults(Workbook expected, Workbook actual) {
+        for (int s = 0; s < expected.getNumberOfSheets(); s++) {
+            Sheet expectedSheet = expected.getSheetAt(s);
+            Sheet actualSheet = actual.getSheetAt(s);
+            for (Row expectedRow : expectedSheet) {
+                Row actualRow = actualSheet.getRow(expectedRow.getRowNum());
+                for (Cell expectedCell : expectedRow) {
+                    if (expectedCell.getCellType() != CellType.FORMULA) {
+                        continue;
+                    }
+                    Cell actualCell = actualRow.getCell(expectedCell.getColumnIndex());
+                    String ref = expectedSheet.getSheetName() + "!" + expectedCell.getAddress();
+                    CellType type = expectedCell.getCachedFormulaResultType();
+                    assertEquals(type, actualCell.getCachedFormulaResultType(), ref);
+                    switch (type) {
+                        case NUMERIC:
+                            assertEquals(expectedCell.getNumericCellValue(), actualCell.getNumericCellValue(), ref);
+                            break;
+                        case STRING:
+                            assertEquals(expectedCell.getStringCellValue(), actualCell.getStringCellValue(), ref);
+                            break;
+                        case ERROR:
+                            assertEquals(expectedCell.getErrorCellValue(), actualCell.getErrorCellValue(), ref);
+                            break;
+                        default:
+                            assertEquals(expectedCell.toString(), actualCell.toString(), ref);
+                    }
+                }
+            }
+        }
+    }
+}
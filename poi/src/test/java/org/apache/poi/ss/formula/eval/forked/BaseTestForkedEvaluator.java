@@ -22,10 +22,22 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.formula.IStabilityClassifier;
+import org.apache.poi.ss.formula.OperationEvaluationContext;
+import org.apache.poi.ss.formula.eval.EvaluationException;
 import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.OperandResolver;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.FreeRefFunction;
+import org.apache.poi.ss.formula.udf.DefaultUDFFinder;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -114,4 +126,96 @@ public class BaseTestForkedEvaluator {
             assertEquals("Underlying cell 'A2' is missing in master sheet.", ex.getMessage());
         }
     }
+
+    /**
+     * The forks of a snapshot only evaluate the formulas affected by their updated cells
+     */
+    @Test
+    void testSnapshot() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        try (Workbook wb = createSnapshotWorkbook(calls)) {
+            EvaluationSnapshot snapshot = EvaluationSnapshot.create(wb, null, null);
+            assertEquals(1, calls.get());
+
+            ForkedEvaluator fe1 = snapshot.fork();
+            fe1.updateCell("Inputs", 0, 0, new NumberEval(4.0));
+            // C1 doesn't depend on Inputs!A1, its result is taken from the snapshot
+            assertEquals(47.0, ((NumberEval) fe1.evaluate("Calculations", 0, 3)).getNumberValue(), 1e-9);
+            assertEquals(1, calls.get());
+
+            ForkedEvaluator fe2 = snapshot.fork();
+            fe2.updateCell("Inputs", 0, 1, new NumberEval(1.0));
+            assertEquals(19.0, ((NumberEval) fe2.evaluate("Calculations", 0, 3)).getNumberValue(), 1e-9);
+            assertEquals(2, calls.get());
+
+            // the further update affects C1 in this fork, too
+            fe1.updateCell("Inputs", 0, 1, new NumberEval(1.1));
+            assertEquals(29.9, ((NumberEval) fe1.evaluate("Calculations", 0, 3)).getNumberValue(), 1e-9);
+            assertEquals(3, calls.get());
+            fe1.updateCell("Inputs", 0, 0, new NumberEval(3.0));
+            assertEquals(24.9, ((NumberEval) fe1.evaluate("Calculations", 0, 3)).getNumberValue(), 1e-9);
+            assertEquals(3, calls.get());
+
+            // neither the snapshot nor the other forks are changed
+            ForkedEvaluator fe3 = snapshot.fork();
+            assertEquals(37.0, ((NumberEval) fe3.evaluate("Calculations", 0, 3)).getNumberValue(), 1e-9);
+            assertEquals(19.0, ((NumberEval) fe2.evaluate("Calculations", 0, 3)).getNumberValue(), 1e-9);
+            assertEquals(3, calls.get());
+
+            assertThrows(IllegalArgumentException.class, () ->
+                ForkedEvaluator.setupEnvironment(new String[]{"a", "b"}, new ForkedEvaluator[]{fe1, fe2}));
+        }
+    }
+
+    @Test
+    void testSnapshotConcurrently() throws Exception {
+        try (Workbook wb = createSnapshotWorkbook(new AtomicInteger())) {
+            EvaluationSnapshot snapshot = EvaluationSnapshot.create(wb, null, null);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    final int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < 200; i++) {
+                            ForkedEvaluator fe = snapshot.fork();
+                            double a1 = thread * 1000 + i;
+                            if (i % 2 == 0) {
+                                fe.updateCell("Inputs", 0, 0, new NumberEval(a1));
+                            } else {
+                                fe.updateCell("Inputs", 0, 1, new NumberEval(a1));
+                            }
+                            double expected = (i % 2 == 0) ? 5 * a1 - 3 + 30 : 10 - a1 + 10 * a1;
+                            assertEquals(expected, ((NumberEval) fe.evaluate("Calculations", 0, 3)).getNumberValue(), 1e-9);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Calculations!C1 calls a function counting its evaluations
+     */
+    private Workbook createSnapshotWorkbook(AtomicInteger calls) {
+        FreeRefFunction countCalls = (ValueEval[] args, OperationEvaluationContext ec) -> {
+            calls.incrementAndGet();
+            try {
+                return OperandResolver.getSingleValue(args[0], ec.getRowIndex(), ec.getColumnIndex());
+            } catch (EvaluationException e) {
+                return e.getErrorEval();
+            }
+        };
+        Workbook wb = createWorkbook();
+        wb.addToolPack(new DefaultUDFFinder(new String[]{"COUNTCALLS"}, new FreeRefFunction[]{countCalls}));
+        Row row = wb.getSheet("Calculations").getRow(0);
+        row.createCell(2).setCellFormula("COUNTCALLS(Inputs!B1)*10");
+        row.createCell(3).setCellFormula("A1+C1");
+        return wb;
+    }
 }
@@ -0,0 +1,175 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the aggregate functions on columns, which are high enough to be snapshot
+ */
+final class TestColumnSnapshot {
+    private static final int ROWS = 40;
+
+    @Test
+    void plainFunctionsSkipTextAndBooleans() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            assertRepeated(wb, evaluator, "SUM(Sheet1!B1:B40)", "210.0");
+            assertRepeated(wb, evaluator, "COUNT(Sheet1!B1:B40)", "10.0");
+            assertRepeated(wb, evaluator, "AVERAGE(Sheet1!B1:B40)", "21.0");
+            assertRepeated(wb, evaluator, "MIN(Sheet1!B1:B40)", "3.0");
+            assertRepeated(wb, evaluator, "MAX(Sheet1!B1:B40)", "39.0");
+            assertRepeated(wb, evaluator, "MIN(Sheet1!C1:C40)", "2.0");
+            assertRepeated(wb, evaluator, "AVERAGE(Sheet1!C1:C40)", "21.444444444444443");
+            // unlike the other functions, SUMPRODUCT takes the booleans as numbers
+            assertRepeated(wb, evaluator, "SUMPRODUCT(Sheet1!B1:B40)", "215.0");
+        }
+    }
+
+    @Test
+    void aFunctionsCountTextAndBooleans() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            // text counts as 0, booleans as 0 or 1 and blanks are skipped
+            assertRepeated(wb, evaluator, "AVERAGEA(Sheet1!B1:B40)", "7.166666666666667");
+            assertRepeated(wb, evaluator, "MINA(Sheet1!B1:B40)", "0.0");
+            assertRepeated(wb, evaluator, "MAXA(Sheet1!B1:B40)", "39.0");
+            assertRepeated(wb, evaluator, "AVERAGEA(Sheet1!C1:C40)", "19.4");
+            assertRepeated(wb, evaluator, "MINA(Sheet1!C1:C40)", "1.0");
+            // columns with numbers only are aggregated alike by both variants
+            assertRepeated(wb, evaluator, "AVERAGEA(Sheet1!A1:A40)", "19.5");
+            assertRepeated(wb, evaluator, "MAXA(Sheet1!A1:A40)", "39.0");
+        }
+    }
+
+    @Test
+    void errorWithinColumn() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            assertRepeated(wb, evaluator, "SUM(Sheet1!D1:D40)", "#DIV/0!");
+            assertRepeated(wb, evaluator, "MAXA(Sheet1!D1:D40)", "#DIV/0!");
+            assertRepeated(wb, evaluator, "SUM(Sheet1!A1:D40)", "#DIV/0!");
+            assertRepeated(wb, evaluator, "SUMPRODUCT(Sheet1!A1:A40,Sheet1!D1:D40)", "#DIV/0!");
+            // only the numbers are counted
+            assertRepeated(wb, evaluator, "COUNT(Sheet1!D1:D40)", "39.0");
+        }
+    }
+
+    @Test
+    void multiColumnAreas() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            // the first column is snapshot before the other columns of the area ...
+            assertRepeated(wb, evaluator, "SUM(Sheet1!A1:A40)", "780.0");
+            // ... which are read directly, until they are snapshot as well
+            assertRepeated(wb, evaluator, "SUM(Sheet1!A1:C40)", "1762.0");
+            assertRepeated(wb, evaluator, "SUMPRODUCT(Sheet1!A1:C40,Sheet1!A1:C40)", "47663.0");
+            // the columns of wide areas are too short to be snapshot
+            assertRepeated(wb, evaluator, "SUM(Sheet1!A1:D10)", "158.0");
+        }
+    }
+
+    @Test
+    void snapshotIsUpdated() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            Cell[] sums = assertRepeated(wb, evaluator, "SUM(Sheet1!D1:D40)", "#DIV/0!");
+            Cell[] averages = assertRepeated(wb, evaluator, "AVERAGEA(Sheet1!C1:C40)", "19.4");
+
+            // the error is removed and a boolean replaced by text
+            Cell error = wb.getSheet("Sheet1").getRow(20).getCell(3);
+            error.setBlank();
+            error.setCellValue(20);
+            evaluator.notifyUpdateCell(error);
+            Cell bool = wb.getSheet("Sheet1").getRow(5).getCell(2);
+            bool.setCellValue("text");
+            evaluator.notifyUpdateCell(bool);
+
+            for (Cell cell : sums) {
+                assertEquals("780.0", evaluator.evaluate(cell).formatAsString());
+            }
+            for (Cell cell : averages) {
+                assertEquals("19.375", evaluator.evaluate(cell).formatAsString());
+            }
+        }
+    }
+
+    /**
+     * Evaluates the formula in several cells, so that the first ones read the cells directly and
+     * the later ones use the snapshots of the columns
+     */
+    private static Cell[] assertRepeated(HSSFWorkbook wb, FormulaEvaluator evaluator, String formula, String expected) {
+        Sheet sheet = wb.getSheet("Results");
+        Row row = sheet.createRow(sheet.getPhysicalNumberOfRows());
+        Cell[] cells = new Cell[3];
+        for (int c = 0; c < cells.length; c++) {
+            cells[c] = row.createCell(c);
+            cells[c].setCellFormula(formula);
+            assertEquals(expected, evaluator.evaluate(cells[c]).formatAsString(), formula);
+        }
+        return cells;
+    }
+
+    /**
+     * Column A holds the row index. Column B repeats text, TRUE, a blank and the row index every
+     * 4 rows, with FALSE instead of TRUE on every other repetition. Column C holds the row index
+     * plus 2, except for TRUE on every 10th row, and column D the row index with an error on row 21.
+     */
+    private static HSSFWorkbook createWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        Sheet sheet = wb.createSheet("Sheet1");
+        for (int r = 0; r < ROWS; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r);
+            switch (r % 4) {
+                case 0:
+                    row.createCell(1).setCellValue("text");
+                    break;
+                case 1:
+                    row.createCell(1).setCellValue(r % 8 == 1);
+                    break;
+                case 2:
+                    // blank
+                    break;
+                default:
+                    row.createCell(1).setCellValue(r);
+            }
+            if (r % 10 == 5) {
+                row.createCell(2).setCellValue(true);
+            } else {
+                row.createCell(2).setCellValue(r + 2);
+            }
+            if (r == 20) {
+                row.createCell(3).setCellFormula("1/0");
+            } else {
+                row.createCell(3).setCellValue(r);
+            }
+        }
+        wb.createSheet("Results");
+        return wb;
+    }
+}
@@ -0,0 +1,197 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the criteria of the *IFS functions on ranges, which are large enough to be indexed
+ */
+final class TestCriteriaIndex {
+    private static final int ROWS = 40;
+
+    private static final String REGIONS = "Sheet1!$A$1:$A$40";
+    private static final String AMOUNTS = "Sheet1!$B$1:$B$40";
+    private static final String CODES = "Sheet1!$C$1:$C$40";
+
+    @Test
+    void equalityCriteria() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            // strings match case-insensitively, but not as prefix
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"EAST\")", "10.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"=east\")", "10.0");
+            // numeric strings match the number cells and vice versa
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",3)", "5.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"3\")", "5.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"=3\")", "5.0");
+            // booleans only match boolean cells
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",TRUE)", "5.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",1)", "0.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"missing\")", "0.0");
+        }
+    }
+
+    @Test
+    void wildcardCriteria() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"e*\")", "15.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"?ast\")", "10.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"*ern\")", "5.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"*\")", "25.0");
+            // the wildcard criteria is tested on the cells of the indexed code criteria
+            assertRepeated(wb, evaluator, "SUMIFS(" + AMOUNTS + "," + REGIONS + ",\"e?st\"," + CODES + ",\"x\")", "80.0");
+        }
+    }
+
+    @Test
+    void operatorCriteria() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            // string criteria only match strings and blanks
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"<>east\")", "20.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\">2\")", "5.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"<>3\")", "30.0");
+            // the operator criteria is tested on the cells of the indexed region criteria
+            assertRepeated(wb, evaluator, "SUMIFS(" + AMOUNTS + "," + REGIONS + ",\"east\"," + AMOUNTS + ",\">=20\")", "116.0");
+            assertRepeated(wb, evaluator, "SUMIFS(" + AMOUNTS + "," + REGIONS + ",\"east\"," + CODES + ",\"<>x\")", "90.0");
+        }
+    }
+
+    @Test
+    void blankCriteria() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            // an empty criteria matches blanks and empty strings
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"\")", "10.0");
+            // "=" only matches blanks, while "<>" matches all strings, but not blanks
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"=\")", "5.0");
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"<>\")", "25.0");
+            assertRepeated(wb, evaluator, "SUMIFS(" + AMOUNTS + "," + REGIONS + ",\"\"," + CODES + ",\"x\")", "100.0");
+            assertRepeated(wb, evaluator, "SUMIFS(" + AMOUNTS + "," + REGIONS + ",\"=\"," + CODES + ",\"x\")", "0.0");
+            assertRepeated(wb, evaluator, "SUMIFS(" + AMOUNTS + "," + REGIONS + ",\"=\"," + CODES + ",\"z\")", "95.0");
+        }
+    }
+
+    @Test
+    void onlySomeRangesIndexed() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            // the regions are indexed after they have been requested repeatedly ...
+            assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"west\")", "5.0");
+
+            // ... while the codes are requested for the first time and are scanned
+            Sheet sheet = wb.getSheet("Results");
+            Cell cell = sheet.createRow(sheet.getPhysicalNumberOfRows()).createCell(0);
+            cell.setCellFormula("SUMIFS(" + AMOUNTS + "," + CODES + ",\"x\"," + REGIONS + ",\"east\")");
+            assertEquals("80.0", evaluator.evaluate(cell).formatAsString());
+        }
+    }
+
+    @Test
+    void indexIsUpdated() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            Cell[] counts = assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"east\")", "10.0");
+            Cell[] blanks = assertRepeated(wb, evaluator, "COUNTIFS(" + REGIONS + ",\"=\")", "5.0");
+
+            // a blank cell becomes a region and a region a number
+            Cell blank = wb.getSheet("Sheet1").getRow(3).createCell(0);
+            blank.setCellValue("East");
+            evaluator.notifyUpdateCell(blank);
+            Cell region = wb.getSheet("Sheet1").getRow(2).getCell(0);
+            region.setCellValue(3);
+            evaluator.notifyUpdateCell(region);
+
+            for (Cell cell : counts) {
+                assertEquals("10.0", evaluator.evaluate(cell).formatAsString());
+            }
+            for (Cell cell : blanks) {
+                assertEquals("4.0", evaluator.evaluate(cell).formatAsString());
+            }
+        }
+    }
+
+    /**
+     * Evaluates the formula in several cells, so that the first ones scan the ranges and the
+     * later ones use the indexes of the ranges
+     */
+    private static Cell[] assertRepeated(HSSFWorkbook wb, FormulaEvaluator evaluator, String formula, String expected) {
+        Sheet sheet = wb.getSheet("Results");
+        Row row = sheet.createRow(sheet.getPhysicalNumberOfRows());
+        Cell[] cells = new Cell[3];
+        for (int c = 0; c < cells.length; c++) {
+            cells[c] = row.createCell(c);
+            cells[c].setCellFormula(formula);
+            assertEquals(expected, evaluator.evaluate(cells[c]).formatAsString(), formula);
+        }
+        return cells;
+    }
+
+    /**
+     * The regions in column A repeat every 8 rows: "East", "west", "east", a blank, an empty
+     * string, "Eastern", the number 3 and TRUE. Column B holds the row index as amount, while
+     * the codes in column C are "x" on every 4th row, "z" on the blank regions and "y" otherwise.
+     */
+    private static HSSFWorkbook createWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        Sheet sheet = wb.createSheet("Sheet1");
+        for (int r = 0; r < ROWS; r++) {
+            Row row = sheet.createRow(r);
+            switch (r % 8) {
+                case 0:
+                    row.createCell(0).setCellValue("East");
+                    break;
+                case 1:
+                    row.createCell(0).setCellValue("west");
+                    break;
+                case 2:
+                    row.createCell(0).setCellValue("east");
+                    break;
+                case 3:
+                    // blank
+                    break;
+                case 4:
+                    row.createCell(0).setCellValue("");
+                    break;
+                case 5:
+                    row.createCell(0).setCellValue("Eastern");
+                    break;
+                case 6:
+                    row.createCell(0).setCellValue(3);
+                    break;
+                default:
+                    row.createCell(0).setCellValue(true);
+            }
+            row.createCell(1).setCellValue(r);
+            row.createCell(2).setCellValue(r % 4 == 0 ? "x" : r % 8 == 3 ? "z" : "y");
+        }
+        wb.createSheet("Results");
+        return wb;
+    }
+}
@@ -0,0 +1,172 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the cached lookup indexes give the same results as the linear search
+ */
+final class TestLookupIndexes {
+    private static final int ROWS = 200;
+
+    private static final String[] LOOKUP_VALUES = {
+        "5", "17.5", "-3", "1000", "\"abc\"", "\"ABC\"", "\"item 42\"", "\"ITEM 7\"", "\"missing\"",
+        "\"zz\"", "TRUE", "FALSE", "Sheet1!$D$1", "\"a*\"", "\"item ?\""
+    };
+
+    @Test
+    void sameResultsAsLinearSearch() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            Sheet sheet = wb.createSheet("Lookups");
+            int r = 0;
+            for (String value : LOOKUP_VALUES) {
+                Row row = sheet.createRow(r++);
+                int c = 0;
+                for (String formula : new String[] {
+                    "VLOOKUP(%s,Sheet1!$A$1:$B$200,2,FALSE)",
+                    "HLOOKUP(%s,Sheet2!$A$1:$GR$2,2,FALSE)",
+                    "MATCH(%s,Sheet1!$A$1:$A$200,0)",
+                    "MATCH(%s,Sheet1!$A$1:$A$200,1)",
+                    "MATCH(%s,Sheet1!$A$1:$A$200,-1)",
+                    "MATCH(%s,Sheet1!$C$1:$C$200,1)",
+                    "MATCH(%s,Sheet1!$C$1:$C$200,-1)",
+                    "XLOOKUP(%s,Sheet1!$A$1:$A$200,Sheet1!$B$1:$B$200,\"none\",0)",
+                    "XLOOKUP(%s,Sheet1!$A$1:$A$200,Sheet1!$B$1:$B$200,\"none\",-1)",
+                    "XLOOKUP(%s,Sheet1!$A$1:$A$200,Sheet1!$B$1:$B$200,\"none\",1)",
+                    "XLOOKUP(%s,Sheet1!$A$1:$A$200,Sheet1!$B$1:$B$200,\"none\",2)",
+                    "XLOOKUP(%s,Sheet1!$C$1:$C$200,Sheet1!$B$1:$B$200,\"none\",-1)",
+                    "XLOOKUP(%s,Sheet1!$C$1:$C$200,Sheet1!$B$1:$B$200,\"none\",1)",
+                    "XMATCH(%s,Sheet1!$A$1:$A$200)",
+                }) {
+                    row.createCell(c++).setCellFormula(String.format(formula, value));
+                }
+            }
+
+            // the shared evaluator builds and reuses the indexes
+            FormulaEvaluator indexed = wb.getCreationHelper().createFormulaEvaluator();
+            // the other evaluator starts over for each cell, so the ranges are never indexed
+            FormulaEvaluator linear = wb.getCreationHelper().createFormulaEvaluator();
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    linear.clearAllCachedResultValues();
+                    CellValue expected = linear.evaluate(cell);
+                    assertEquals(String.valueOf(expected), String.valueOf(indexed.evaluate(cell)),
+                        cell.getCellFormula());
+                }
+            }
+        }
+    }
+
+    @Test
+    void indexIsUpdated() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            Row row = wb.getSheetAt(0).getRow(0);
+            Cell lookup1 = row.createCell(5);
+            lookup1.setCellFormula("MATCH(\"new\",$A$1:$A$200,0)");
+            Cell lookup2 = row.createCell(6);
+            lookup2.setCellFormula("VLOOKUP(\"NEW\",$A$1:$B$200,2,FALSE)");
+            Cell lookup3 = row.createCell(7);
+            lookup3.setCellFormula("MATCH(2E6,$C$1:$C$200,0)");
+            Cell lookup4 = row.createCell(8);
+            lookup4.setCellFormula("MATCH(10,$C$1:$C$200,0)");
+
+            FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+            assertEquals("#N/A", evaluator.evaluate(lookup1).formatAsString());
+            assertEquals("#N/A", evaluator.evaluate(lookup2).formatAsString());
+            assertEquals("#N/A", evaluator.evaluate(lookup3).formatAsString());
+            assertEquals("199.0", evaluator.evaluate(lookup4).formatAsString());
+
+            Cell changed = wb.getSheetAt(0).getRow(151).getCell(0);
+            changed.setCellValue("New");
+            evaluator.notifyUpdateCell(changed);
+            Cell blank = wb.getSheetAt(0).getRow(ROWS - 1).createCell(2);
+            blank.setCellValue(2E6);
+            evaluator.notifyUpdateCell(blank);
+
+            assertEquals("152.0", evaluator.evaluate(lookup1).formatAsString());
+            assertEquals("152.0", evaluator.evaluate(lookup2).formatAsString());
+            assertEquals("200.0", evaluator.evaluate(lookup3).formatAsString());
+            assertEquals("199.0", evaluator.evaluate(lookup4).formatAsString());
+        }
+    }
+
+    /**
+     * Column A holds mixed values, column B the row numbers and column C descending numbers,
+     * where the last row is blank. Sheet2 holds column A transposed.
+     */
+    private static HSSFWorkbook createWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        Sheet sheet1 = wb.createSheet("Sheet1");
+        Sheet sheet2 = wb.createSheet("Sheet2");
+        Row keys = sheet2.createRow(0);
+        Row values = sheet2.createRow(1);
+        for (int r = 0; r < ROWS; r++) {
+            Row row = sheet1.createRow(r);
+            Cell cell = row.createCell(0);
+            fillItem(cell, r);
+            fillItem(keys.createCell(r), r);
+            row.createCell(1).setCellValue(r + 1);
+            values.createCell(r).setCellValue(r + 1);
+            if (r < ROWS - 1) {
+                row.createCell(2).setCellValue(1000 - r * 5.0);
+            }
+        }
+        sheet1.getRow(0).createCell(3).setCellValue("Item 42");
+        return wb;
+    }
+
+    private static void fillItem(Cell cell, int r) {
+        switch (r % 8) {
+            case 0:
+                cell.setCellValue(r % 3 == 0 ? "ABC" : "abc");
+                break;
+            case 1:
+                cell.setCellValue(r * 0.5 - 10);
+                break;
+            case 2:
+                cell.setCellValue((r & 1) == 0 ? "Item " + (r % 50) : "item " + (r % 50));
+                break;
+            case 3:
+                cell.setCellValue(r % 5 == 0);
+                break;
+            case 4:
+                // blank
+                break;
+            case 5:
+                cell.setCellFormula("1/0");
+                break;
+            case 6:
+                cell.setCellFormula((r % 40) + "/2");
+                break;
+            default:
+                cell.setCellValue("item " + (r % 13));
+                break;
+        }
+    }
+}
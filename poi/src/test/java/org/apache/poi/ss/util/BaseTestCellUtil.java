@@ -628,4 +628,73 @@ public abstract class BaseTestCellUtil {
         assertEquals(num1, num2);
         wb1.close();
     }
+
+    @Test
+    void setCellStylePropertyAfterModifyingStyle() throws IOException {
+        try (Workbook wb = _testDataProvider.createWorkbook()) {
+            Row r = wb.createSheet().createRow(0);
+            Cell c0 = r.createCell(0);
+            Cell c1 = r.createCell(1);
+            Cell c2 = r.createCell(2);
+
+            int styCnt = wb.getNumCellStyles();
+            CellUtil.setCellStyleProperty(c0, CellPropertyType.BORDER_BOTTOM, BorderStyle.THIN);
+            assertEquals(styCnt + 1, wb.getNumCellStyles());
+
+            // the style doesn't match anymore, after it has been modified directly
+            CellStyle thick = c0.getCellStyle();
+            thick.setBorderBottom(BorderStyle.THICK);
+            CellUtil.setCellStyleProperty(c1, CellPropertyType.BORDER_BOTTOM, BorderStyle.THIN);
+            assertEquals(styCnt + 2, wb.getNumCellStyles());
+            assertNotEquals(thick.getIndex(), c1.getCellStyle().getIndex());
+
+            // ... but matches its new properties
+            CellUtil.setCellStyleProperty(c2, CellPropertyType.BORDER_BOTTOM, BorderStyle.THICK);
+            assertEquals(styCnt + 2, wb.getNumCellStyles());
+            assertEquals(thick.getIndex(), c2.getCellStyle().getIndex());
+
+            // styles created elsewhere are found as well
+            CellStyle dashed = wb.createCellStyle();
+            // new HSSF styles have other border colors than the default style of new cells
+            dashed.cloneStyleFrom(r.createCell(3).getCellStyle());
+            dashed.setBorderBottom(BorderStyle.DASHED);
+            for (int i = 3; i < 100; i++) {
+                CellUtil.setCellStyleProperty(r.createCell(i), CellPropertyType.BORDER_BOTTOM, BorderStyle.DASHED);
+                assertEquals(dashed.getIndex(), r.getCell(i).getCellStyle().getIndex());
+            }
+            assertEquals(styCnt + 3, wb.getNumCellStyles());
+        }
+    }
+
+    @Test
+    void setCellStylePropertyAfterModifyingIndexedStyle() throws IOException {
+        try (Workbook wb = _testDataProvider.createWorkbook()) {
+            Row r = wb.createSheet().createRow(0);
+            Cell c0 = r.createCell(0);
+            Cell c1 = r.createCell(1);
+
+            int styCnt = wb.getNumCellStyles();
+            CellUtil.setCellStyleProperty(c0, CellPropertyType.BORDER_TOP, BorderStyle.THIN);
+            // the new style is indexed on the next lookup
+            CellUtil.setCellStyleProperty(r.createCell(4), CellPropertyType.BORDER_TOP, BorderStyle.THIN);
+            assertEquals(c0.getCellStyle().getIndex(), r.getCell(4).getCellStyle().getIndex());
+            assertEquals(styCnt + 1, wb.getNumCellStyles());
+
+            // the indexed style is modified to the properties which are looked up next,
+            // the index isn't notified, so an equal style is created
+            CellStyle style = c0.getCellStyle();
+            style.setBorderTop(BorderStyle.DOTTED);
+            CellUtil.setCellStyleProperty(c1, CellPropertyType.BORDER_TOP, BorderStyle.DOTTED);
+            assertEquals(styCnt + 2, wb.getNumCellStyles());
+            assertNotEquals(style.getIndex(), c1.getCellStyle().getIndex());
+
+            // a lookup of its old properties moves it to its new properties,
+            // where it's the first matching style
+            CellUtil.setCellStyleProperty(r.createCell(2), CellPropertyType.BORDER_TOP, BorderStyle.THIN);
+            assertEquals(styCnt + 3, wb.getNumCellStyles());
+            CellUtil.setCellStyleProperty(r.createCell(3), CellPropertyType.BORDER_TOP, BorderStyle.DOTTED);
+            assertEquals(style.getIndex(), r.getCell(3).getCellStyle().getIndex());
+            assertEquals(styCnt + 3, wb.getNumCellStyles());
+        }
+    }
 }
@@ -0,0 +1,175 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+
+package org.apache.poi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class to test SortedIntMap
+ */
+final class TestSortedIntMap {
+    @Test
+    void testEmpty() {
+        SortedIntMap<String> map = new SortedIntMap<>();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+        assertNull(map.get(-1));
+        assertNull(map.remove(-1));
+        assertThrows(NoSuchElementException.class, map::firstKey);
+        assertThrows(NoSuchElementException.class, map::lastKey);
+        assertFalse(map.iterator().hasNext());
+        assertEquals(-1, map.ceilingKey(0));
+        assertEquals(-1, map.floorKey(100));
+        assertEquals(0, map.countBefore(100));
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, "a"));
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+
+    @Test
+    void testSameAsTreeMap() {
+        SortedIntMap<Integer> map = new SortedIntMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random rnd = new Random(4711);
+        for (int i = 0; i < 20_000; i++) {
+            // mix dense and sparse keys
+            int key = rnd.nextBoolean() ? rnd.nextInt(500) : rnd.nextInt(1_000_000);
+            if (rnd.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+            if (!expected.isEmpty()) {
+                assertEquals((int)expected.firstKey(), map.firstKey());
+                assertEquals((int)expected.lastKey(), map.lastKey());
+            }
+            if (i % 1000 == 0) {
+                assertEquals(expected.headMap(key).size(), map.countBefore(key));
+                assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+                assertEquals(expected.hashCode(), map.hashCode());
+            }
+        }
+        assertEquals(new ArrayList<>(expected.values()), toList(map.iterator()));
+        assertEquals(new ArrayList<>(expected.subMap(100, 300_000).values()), toList(map.iterator(100, 300_000)));
+    }
+
+    @Test
+    void testFarKeys() {
+        SortedIntMap<Integer> map = new SortedIntMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        // the page table starts at the first key and grows in both directions
+        int base = Integer.MAX_VALUE - 100_000;
+        for (int i = 0; i < 2_000; i++) {
+            int key = base + (i % 2 == 0 ? 50_000 - i * 17 : 50_000 + i * 13);
+            assertEquals(expected.put(key, i), map.put(key, i));
+        }
+        assertEquals(expected.put(Integer.MAX_VALUE, -1), map.put(Integer.MAX_VALUE, -1));
+        assertEquals(new ArrayList<>(expected.values()), toList(map.iterator()));
+        assertEquals((int)expected.firstKey(), map.firstKey());
+        assertEquals(Integer.MAX_VALUE, map.lastKey());
+        assertNull(map.get(0));
+        assertNull(map.remove(base - 1_000_000));
+        assertEquals(-1, map.floorKey(base));
+        assertEquals((int)expected.firstKey(), map.ceilingKey(0));
+        assertEquals(expected.headMap(base + 50_000).size(), map.countBefore(base + 50_000));
+
+        // an emptied map starts over at the next key
+        expected.keySet().forEach(map::remove);
+        assertTrue(map.isEmpty());
+        map.put(3, 3);
+        map.put(1, 1);
+        assertEquals(1, map.firstKey());
+        assertEquals(3, map.lastKey());
+        assertEquals(2, toList(map.iterator()).size());
+    }
+
+    @Test
+    void testNavigation() {
+        SortedIntMap<String> map = new SortedIntMap<>();
+        map.put(3, "d");
+        map.put(40, "e");
+        map.put(1000, "f");
+
+        assertEquals(3, map.ceilingKey(0));
+        assertEquals(40, map.ceilingKey(4));
+        assertEquals(1000, map.ceilingKey(41));
+        assertEquals(-1, map.ceilingKey(1001));
+        assertEquals(-1, map.floorKey(2));
+        assertEquals(3, map.floorKey(39));
+        assertEquals(40, map.floorKey(999));
+        assertEquals(1000, map.floorKey(Integer.MAX_VALUE));
+        assertEquals(0, map.countBefore(3));
+        assertEquals(1, map.countBefore(40));
+        assertEquals(2, map.countBefore(41));
+        assertEquals(3, map.countBefore(1001));
+
+        String value = map.get(40);
+        assertEquals(40, map.keyOf(value));
+        assertEquals(-1, map.keyOf(new String("e")));
+
+        map.remove(3);
+        assertEquals(40, map.firstKey());
+        map.remove(1000);
+        assertEquals(40, map.lastKey());
+    }
+
+    @Test
+    void testIteratorRemove() {
+        SortedIntMap<String> map = new SortedIntMap<>();
+        for (int i = 0; i < 100; i += 2) {
+            map.put(i, Integer.toString(i));
+        }
+        Iterator<String> iter = map.iterator();
+        assertThrows(IllegalStateException.class, iter::remove);
+        while (iter.hasNext()) {
+            if (Integer.parseInt(iter.next()) % 4 == 0) {
+                iter.remove();
+            }
+        }
+        assertEquals(25, map.size());
+        assertEquals(2, map.firstKey());
+        assertEquals(98, map.lastKey());
+
+        Iterator<String> iter2 = map.iterator();
+        iter2.next();
+        map.put(5, "5");
+        assertThrows(ConcurrentModificationException.class, iter2::next);
+    }
+
+    private static <T> List<T> toList(Iterator<T> iter) {
+        List<T> list = new ArrayList<>();
+        iter.forEachRemaining(list::add);
+        return list;
+    }
+}